@@ -2,6 +2,7 @@ package com.cwg.algorithm.tree.btree.domain;
 
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.Set;
 
 /**
  * 创建时间：2020-08-11 10:29
@@ -10,6 +11,24 @@ import java.util.Queue;
  **/
 public abstract class AbstractBTreeNode<K extends Comparable<K>> {
     protected final int degree;
+    /**
+     * Token of the tree version allowed to change this node in place; a node whose owner
+     * differs from the tree's is shared with a snapshot and has to be copied first.
+     */
+    Object owner;
+    /**
+     * Number of keys in the subtree rooted at this node. {@link #setKey} and
+     * {@link #setChild} keep it equal to the keys held plus the sizes of the children held,
+     * so the primitives built on them (insert/delete of keys and children, merge) maintain
+     * it; descents adjust the nodes above a changed child.
+     */
+    int size;
+    /**
+     * Number of keys in the subtree rooted at this node that are deleted lazily, kept like
+     * {@link #size} with the tombstones of the {@link Owner}; the tree adjusts the path to
+     * a key whose tombstone it adds or removes. {@code size - dead} keys are live.
+     */
+    int dead;
 
     AbstractBTreeNode(int degree){
         if(degree < 2){
@@ -21,11 +40,282 @@ public abstract class AbstractBTreeNode<K extends Comparable<K>> {
 
     abstract boolean isLeaf();
 
-    abstract K search(K key);
+    /**
+     * Token owning the nodes of a tree version, see {@link #owner}. It carries what the
+     * primitives changing a node need to know about the tree: the pool new nodes come
+     * from, and the tombstones {@link #dead} counts.
+     */
+    static final class Owner {
+        /**
+         * Pool of free nodes, null if the tree has none.
+         */
+        final BTreeNodePool pool;
+        /**
+         * Keys of the tree deleted lazily, compared by identity; replaced when the tree
+         * copies a set it shared with a snapshot.
+         */
+        Set<?> tombstones;
+
+        Owner(BTreeNodePool pool, Set<?> tombstones) {
+            this.pool = pool;
+            this.tombstones = tombstones;
+        }
+    }
+
+    /**
+     * 1 if given key, stored in the subtree rooted at current node, is deleted lazily
+     * according to the owner of current node, else 0. A null key counts 0.
+     */
+    int deadCount(K key) {
+        if (key == null || !(owner instanceof Owner)) {
+            return 0;
+        }
+        Set<?> tombstones = ((Owner) owner).tombstones;
+        return !tombstones.isEmpty() && tombstones.contains(key) ? 1 : 0;
+    }
+
+    /**
+     * Search given key in the subtree rooted at current node.
+     * <p>Descends level by level with one binary search per node, no recursion.</p>
+     *
+     * @param key key to search
+     * @return the key found or null if key does not exist.
+     */
+    K search(K key) {
+        AbstractBTreeNode<K> node = this;
+        while (true) {
+            int index = node.searchKey(key);
+            if (index >= 0) {
+                return node.getKey(index);
+            }
+            if (node.isLeaf()) {
+                return null;
+            }
+            node = node.getChild(-index - 1);
+        }
+    }
+
+    /**
+     * Number of live keys less than given key in the subtree rooted at current node, in
+     * O(degree * height): the live counts of the children left of the path are summed up.
+     *
+     * @param tombstones keys deleted lazily, which the subtree counts as {@link #dead}
+     */
+    int rank(K key, Set<?> tombstones) {
+        AbstractBTreeNode<K> node = this;
+        int rank = 0;
+        while (true) {
+            int index = node.searchKey(key);
+            int i = index >= 0 ? index : -index - 1;
+            rank += i - deadKeys(node, i, tombstones);
+            if (!node.isLeaf()) {
+                //subtrees left of key, including the one right before a key found here
+                int children = index >= 0 ? i + 1 : i;
+                for (int j = 0; j < children; j++) {
+                    rank += node.getChild(j).live();
+                }
+            }
+            if (index >= 0 || node.isLeaf()) {
+                return rank;
+            }
+            node = node.getChild(i);
+        }
+    }
+
+    /**
+     * Live key with given rank in the subtree rooted at current node, in
+     * O(degree * height).
+     *
+     * @param rank       index of key among the live keys in ascending order,
+     *                   {@code 0 <= rank < size - dead}
+     * @param tombstones keys deleted lazily, which the subtree counts as {@link #dead}
+     */
+    K select(int rank, Set<?> tombstones) {
+        AbstractBTreeNode<K> node = this;
+        while (!node.isLeaf()) {
+            int j = 0;
+            while (true) {
+                int childLive = node.getChild(j).live();
+                if (rank < childLive) {
+                    break;
+                }
+                rank -= childLive;
+                if (!isDead(node.getKey(j), tombstones)) {
+                    if (rank == 0) {
+                        return node.getKey(j);
+                    }
+                    rank--;
+                }
+                j++;
+            }
+            node = node.getChild(j);
+        }
+        for (int i = 0; ; i++) {
+            if (!isDead(node.getKey(i), tombstones) && rank-- == 0) {
+                return node.getKey(i);
+            }
+        }
+    }
+
+    /**
+     * Number of live keys in the subtree rooted at current node.
+     */
+    int live() {
+        return size - dead;
+    }
+
+    private static boolean isDead(Object key, Set<?> tombstones) {
+        return !tombstones.isEmpty() && tombstones.contains(key);
+    }
+
+    /**
+     * Number of keys deleted lazily among the first {@code n} keys of node.
+     */
+    private static int deadKeys(AbstractBTreeNode<?> node, int n, Set<?> tombstones) {
+        if (tombstones.isEmpty()) {
+            return 0;
+        }
+        int dead = 0;
+        for (int i = 0; i < n; i++) {
+            if (tombstones.contains(node.getKey(i))) {
+                dead++;
+            }
+        }
+        return dead;
+    }
+
+    /**
+     * Add delta to the sizes of the internal nodes on the path to key, down to the node
+     * holding key or the leaf where it would be. Used for changes made below a descent
+     * that counted differently, or without a descent at all.
+     */
+    void adjustPath(K key, int delta) {
+        AbstractBTreeNode<K> node = this;
+        while (!node.isLeaf()) {
+            node.size += delta;
+            int index = node.searchKey(key);
+            if (index >= 0) {
+                return;
+            }
+            node = node.getChild(-index - 1);
+        }
+    }
+
+    /**
+     * Add delta to the dead counts of the nodes on the path to a stored key, down to the
+     * node holding it, copying shared nodes on the way. Used when the key gets or loses
+     * its tombstone; current node must be writable.
+     */
+    void adjustDead(K key, int delta) {
+        AbstractBTreeNode<K> node = this;
+        while (true) {
+            node.dead += delta;
+            int index = node.searchKey(key);
+            if (index >= 0) {
+                return;
+            }
+            node = node.writableChild(-index - 1);
+        }
+    }
+
+    /**
+     * Search ascending keys {@code keys[from, to)}, all bounded by the separators above
+     * current node, in one traversal of the subtree rooted at current node.
+     * <p>The keys of a node are searched left to right, every binary search starting where
+     * the previous one ended; a run of keys bound for the same child is found by comparing
+     * with that child's upper separator only and descends once.</p>
+     *
+     * @param found receives at index i the key stored for {@code keys[i]}, if any.
+     */
+    void searchAll(K[] keys, int from, int to, Object[] found) {
+        int low = 0;
+        int i = from;
+        while (i < to) {
+            int index = searchKey(keys[i], low);
+            if (index >= 0) {
+                found[i++] = getKey(index);
+                low = index;
+                continue;
+            }
+            int child = -index - 1;
+            low = child;
+            int end = i + 1;
+            if (!isLeaf()) {
+                K upper = child < nkey() ? getKey(child) : null;
+                while (end < to && (upper == null || keys[end].compareTo(upper) < 0)) {
+                    end++;
+                }
+                getChild(child).searchAll(keys, i, end, found);
+            }
+            i = end;
+        }
+    }
 
-    abstract void insertNotFull(K key);
+    /**
+     * Insert key into the subtree rooted at current node, which must not be full.
+     *
+     * @param key key to insert
+     * @return false if key already exists.
+     */
+    boolean insertNotFull(K key) {
+        return insertNotFull(key, null);
+    }
 
-    abstract void deleteNotEmpty(K key);
+    /**
+     * Insert key into the subtree rooted at current node, which must not be full.
+     *
+     * @param key      key to insert
+     * @param position if not null, receives the leaf reached by the descent
+     * @return false if key already exists.
+     */
+    abstract boolean insertNotFull(K key, LeafPosition<K> position);
+
+    /**
+     * Delete key from the subtree rooted at current node.
+     *
+     * @param key key to delete
+     * @return false if key does not exist.
+     */
+    boolean deleteNotEmpty(K key) {
+        return deleteNotEmpty(key, null);
+    }
+
+    /**
+     * Delete key from the subtree rooted at current node.
+     *
+     * @param key      key to delete
+     * @param position if not null, receives the leaf reached by the descent
+     * @return false if key does not exist.
+     */
+    abstract boolean deleteNotEmpty(K key, LeafPosition<K> position);
+
+    /**
+     * Leaf a descent ended in, with the separator bounding it from above, so that following
+     * keys of an ascending batch which fall below that bound can go to the leaf directly.
+     * {@code leaf} is null if the descent stopped at an internal node.
+     */
+    static final class LeafPosition<K extends Comparable<K>> {
+        AbstractBTreeNode<K> leaf;
+        /**
+         * Exclusive upper bound of the keys that belong to {@code leaf}, null if unbounded.
+         */
+        K upper;
+        /**
+         * Borrows and merges the descent did, for the caller to collect.
+         */
+        int rebalances;
+        /**
+         * The stored key equal to the key an insert did not insert because it exists.
+         */
+        K existing;
+
+        /**
+         * Whether given key, greater than the key whose descent found the leaf, belongs to it.
+         */
+        boolean covers(K key) {
+            return leaf != null && (upper == null || key.compareTo(upper) < 0);
+        }
+    }
 
     void insertKey(K key){
         checkNotFull();
@@ -130,6 +420,35 @@ public abstract class AbstractBTreeNode<K extends Comparable<K>> {
      */
     abstract AbstractBTreeNode<K> getChild(int index);
 
+    /**
+     * Get child with given index for modification: a child shared with a snapshot is
+     * replaced by a private copy first. Current node must be writable itself.
+     *
+     * @param index index of child to get
+     * @return child owned by current node's tree version
+     */
+    AbstractBTreeNode<K> writableChild(int index) {
+        AbstractBTreeNode<K> child = getChild(index);
+        if (child.owner != owner) {
+            child = child.copy(owner);
+            setChild(child, index);
+        }
+        return child;
+    }
+
+    /**
+     * Copy current node, sharing its children.
+     *
+     * @param owner owner of the copy
+     * @return the copy
+     */
+    abstract AbstractBTreeNode<K> copy(Object owner);
+
+    /**
+     * Empty current node for reuse by a {@link BTreeNodePool}, dropping all references.
+     */
+    abstract void clear();
+
     /**
      * Delete given child in current node.
      *
@@ -174,7 +493,19 @@ public abstract class AbstractBTreeNode<K extends Comparable<K>> {
      * @param child child index to split
      * @throws java.lang.RuntimeException is child to spilt is not full
      */
-    protected abstract void splitChild(int child);
+    protected void splitChild(int child) {
+        splitChild(child, degree - 1);
+    }
+
+    /**
+     * Split a full child at given key: the child keeps the keys before it, the key moves
+     * up and a new sibling takes the rest.
+     *
+     * @param child child index to split
+     * @param at    index of the key moving up, {@code 0 < at < 2 * degree - 2}
+     * @throws java.lang.RuntimeException is child to spilt is not full
+     */
+    protected abstract void splitChild(int child, int at);
 
     /**
      * Split current node to two node.
@@ -183,7 +514,19 @@ public abstract class AbstractBTreeNode<K extends Comparable<K>> {
      * @return middle of current node before split
      * @throws java.lang.RuntimeException if current node is not full.
      */
-    protected abstract K splitSelf(AbstractBTreeNode<K> newNode);
+    protected K splitSelf(AbstractBTreeNode<K> newNode) {
+        return splitSelf(newNode, degree - 1);
+    }
+
+    /**
+     * Split current node at given key, moving the keys (and children) after it to newNode.
+     *
+     * @param newNode new node
+     * @param at      index of the key returned
+     * @return key at index {@code at} before split
+     * @throws java.lang.RuntimeException if current node is not full.
+     */
+    protected abstract K splitSelf(AbstractBTreeNode<K> newNode, int at);
 
     /**
      * Merge current node with another .
@@ -216,12 +559,43 @@ public abstract class AbstractBTreeNode<K extends Comparable<K>> {
      * @return index of key or -1 if key does not exist in current node.
      */
     protected int indexOfKey(K key) {
-        for (int i = 0; i < this.nkey(); i++) {
-            if (key.equals(this.getKey(i))) {
-                return i;
+        int index = searchKey(key);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Binary search given key in current node.
+     * <p>One search answers both "found" and "which child to descend into":
+     * if key is absent, {@code -(index) - 1} is the index of the child whose
+     * subtree may contain key.</p>
+     *
+     * @param key the key to search.
+     * @return index of key if it exists, else {@code -(insertion point) - 1}.
+     */
+    int searchKey(K key) {
+        return searchKey(key, 0);
+    }
+
+    /**
+     * Binary search given key among the keys from index {@code low} on, the keys before
+     * it being known to be less than key.
+     *
+     * @return as {@link #searchKey(Comparable)}.
+     */
+    int searchKey(K key, int low) {
+        int high = this.nkey() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = key.compareTo(this.getKey(mid));
+            if (cmp > 0) {
+                low = mid + 1;
+            } else if (cmp < 0) {
+                high = mid - 1;
+            } else {
+                return mid;
             }
         }
-        return -1;
+        return -(low + 1);
     }
 
 
@@ -0,0 +1,405 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * B+Tree: every key lives in a leaf, internal nodes only hold separators,
+ * and leaves are chained by {@code next}/{@code prev} pointers.
+ * <p>A range scan is one descent to the first leaf followed by a sequential walk
+ * along the leaf chain. Separators route a key to child {@code i} when
+ * {@code keys[i-1] <= key < keys[i]}.</p>
+ * <p>Keys are distinct: inserting an existing key does nothing.
+ * Iterators are fail-fast. Not thread safe.</p>
+ *
+ * 创建时间：2026-10-18 18:30
+ *
+ * @author 曹文岗
+ **/
+public class BPlusTree<K extends Comparable<K>> implements Iterable<K> {
+
+    private final int degree;
+    private Node<K> root;
+    private int size;
+    private int modCount;
+
+    public BPlusTree(int degree) {
+        if (degree < 2) {
+            throw new IllegalArgumentException("degree mustn't < 2");
+        }
+        this.degree = degree;
+        root = new Node<>(degree, true);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether B+Tree contains given key.
+     *
+     * @param key key to check.
+     * @return true if key exists.
+     */
+    public boolean contains(K key) {
+        Node<K> leaf = findLeaf(key);
+        return leaf.searchKey(key) >= 0;
+    }
+
+    /**
+     * Insert a key into B+Tree.
+     *
+     * @param key key to insert.
+     * @return false if key already exists.
+     */
+    public boolean insert(K key) {
+        if (root.isFull()) {
+            Node<K> newRoot = new Node<>(degree, false);
+            newRoot.children[0] = root;
+            newRoot.splitChild(0);
+            root = newRoot;
+        }
+        Node<K> node = root;
+        while (!node.isLeaf()) {
+            int i = node.childIndex(key);
+            if (node.children[i].isFull()) {
+                node.splitChild(i);
+                if (key.compareTo(node.key(i)) >= 0) {
+                    i++;
+                }
+            }
+            node = node.children[i];
+        }
+        int index = node.searchKey(key);
+        if (index >= 0) {
+            return false;
+        }
+        node.insertKey(-index - 1, key);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Delete a key from B+Tree.
+     * <p>Separators are left untouched when the key they copy is deleted,
+     * they keep routing correctly.</p>
+     *
+     * @param key key to delete.
+     * @return false if key does not exist.
+     */
+    public boolean delete(K key) {
+        Node<K> node = root;
+        while (!node.isLeaf()) {
+            int i = node.childIndex(key);
+            Node<K> target = node.children[i];
+            if (target.nkey < degree) {
+                if (i > 0 && node.children[i - 1].nkey >= degree) {
+                    node.borrowFromLeft(i);
+                } else if (i < node.nkey && node.children[i + 1].nkey >= degree) {
+                    node.borrowFromRight(i);
+                } else if (i > 0) {
+                    target = node.children[i - 1];
+                    node.mergeChildren(i - 1);
+                } else {
+                    node.mergeChildren(i);
+                }
+                modCount++;
+            }
+            node = target;
+        }
+        if (root.nkey == 0 && !root.isLeaf()) {
+            //shrink
+            root = root.children[0];
+        }
+        int index = node.searchKey(key);
+        if (index < 0) {
+            return false;
+        }
+        node.deleteKey(index);
+        size--;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Keys in {@code [from, to)} in ascending order.
+     * <p>The returned iterable is lazy: each iterator does one descent to the
+     * first leaf and then follows the leaf chain.</p>
+     *
+     * @param from lower bound, inclusive
+     * @param to   upper bound, exclusive
+     * @return keys in range
+     */
+    public Iterable<K> range(K from, K to) {
+        return () -> {
+            Node<K> leaf = findLeaf(from);
+            int index = leaf.searchKey(from);
+            return new LeafIterator(leaf, index >= 0 ? index : -index - 1, to);
+        };
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        Node<K> leaf = root;
+        while (!leaf.isLeaf()) {
+            leaf = leaf.children[0];
+        }
+        return new LeafIterator(leaf, 0, null);
+    }
+
+    private Node<K> findLeaf(K key) {
+        Node<K> node = root;
+        while (!node.isLeaf()) {
+            node = node.children[node.childIndex(key)];
+        }
+        return node;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        String newLine = System.getProperty("line.separator");
+        Queue<Node<K>> queue = new LinkedList<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Node<K> node = queue.poll();
+            sb.append(node).append(newLine);
+            if (!node.isLeaf()) {
+                for (int i = 0; i <= node.nkey; i++) {
+                    queue.offer(node.children[i]);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Walk the leaf chain from a position up to an exclusive upper bound.
+     */
+    private final class LeafIterator implements Iterator<K> {
+        private final K to;
+        private Node<K> leaf;
+        private int index;
+        private final int expectedModCount = modCount;
+
+        LeafIterator(Node<K> leaf, int index, K to) {
+            this.leaf = leaf;
+            this.index = index;
+            this.to = to;
+            skipExhaustedLeaves();
+        }
+
+        private void skipExhaustedLeaves() {
+            while (leaf != null && index >= leaf.nkey) {
+                leaf = leaf.next;
+                index = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return leaf != null && (to == null || leaf.key(index).compareTo(to) < 0);
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = leaf.key(index++);
+            skipExhaustedLeaves();
+            return key;
+        }
+    }
+
+    /**
+     * Node of {@link BPlusTree}. Leaves have no children array and are linked to their neighbours.
+     */
+    static final class Node<K extends Comparable<K>> {
+        final Object[] keys;
+        final Node<K>[] children;
+        int nkey;
+        Node<K> next;
+        Node<K> prev;
+
+        @SuppressWarnings("unchecked")
+        Node(int degree, boolean leaf) {
+            keys = new Object[2 * degree - 1];
+            children = leaf ? null : (Node<K>[]) new Node<?>[2 * degree];
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+
+        boolean isFull() {
+            return nkey == keys.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        K key(int index) {
+            return (K) keys[index];
+        }
+
+        /**
+         * Binary search given key in current node.
+         *
+         * @return index of key if it exists, else {@code -(insertion point) - 1}.
+         */
+        int searchKey(K key) {
+            int low = 0;
+            int high = nkey - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = key.compareTo(key(mid));
+                if (cmp > 0) {
+                    low = mid + 1;
+                } else if (cmp < 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        /**
+         * Index of the child whose key range holds given key.
+         */
+        int childIndex(K key) {
+            int index = searchKey(key);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        void insertKey(int index, K key) {
+            System.arraycopy(keys, index, keys, index + 1, nkey - index);
+            keys[index] = key;
+            nkey++;
+        }
+
+        void deleteKey(int index) {
+            System.arraycopy(keys, index + 1, keys, index, nkey - index - 1);
+            keys[--nkey] = null;
+        }
+
+        /**
+         * Split the full child at given index.
+         * <p>A leaf keeps its lower half and copies the first key of the new right leaf
+         * up as separator; an internal node moves its middle key up.</p>
+         */
+        void splitChild(int child) {
+            Node<K> old = children[child];
+            int degree = (old.keys.length + 1) / 2;
+            Node<K> neo = new Node<>(degree, old.isLeaf());
+            K separator;
+            if (old.isLeaf()) {
+                System.arraycopy(old.keys, degree - 1, neo.keys, 0, degree);
+                neo.nkey = degree;
+                separator = neo.key(0);
+                neo.next = old.next;
+                neo.prev = old;
+                if (old.next != null) {
+                    old.next.prev = neo;
+                }
+                old.next = neo;
+            } else {
+                System.arraycopy(old.keys, degree, neo.keys, 0, degree - 1);
+                System.arraycopy(old.children, degree, neo.children, 0, degree);
+                Arrays.fill(old.children, degree, old.children.length, null);
+                neo.nkey = degree - 1;
+                separator = old.key(degree - 1);
+            }
+            Arrays.fill(old.keys, degree - 1, old.keys.length, null);
+            old.nkey = degree - 1;
+
+            System.arraycopy(children, child + 1, children, child + 2, nkey - child);
+            children[child + 1] = neo;
+            insertKey(child, separator);
+        }
+
+        /**
+         * Merge child {@code index + 1} into child {@code index} and drop the separator between.
+         */
+        void mergeChildren(int index) {
+            Node<K> left = children[index];
+            Node<K> right = children[index + 1];
+            if (left.isLeaf()) {
+                System.arraycopy(right.keys, 0, left.keys, left.nkey, right.nkey);
+                left.nkey += right.nkey;
+                left.next = right.next;
+                if (right.next != null) {
+                    right.next.prev = left;
+                }
+            } else {
+                left.keys[left.nkey] = keys[index];
+                System.arraycopy(right.keys, 0, left.keys, left.nkey + 1, right.nkey);
+                System.arraycopy(right.children, 0, left.children, left.nkey + 1, right.nkey + 1);
+                left.nkey += right.nkey + 1;
+            }
+
+            System.arraycopy(children, index + 2, children, index + 1, nkey - index - 1);
+            children[nkey] = null;
+            deleteKey(index);
+        }
+
+        /**
+         * Move the last key of child {@code index - 1} into child {@code index}.
+         */
+        void borrowFromLeft(int index) {
+            Node<K> target = children[index];
+            Node<K> sibling = children[index - 1];
+            if (target.isLeaf()) {
+                target.insertKey(0, sibling.key(sibling.nkey - 1));
+                keys[index - 1] = target.keys[0];
+            } else {
+                target.insertKey(0, key(index - 1));
+                System.arraycopy(target.children, 0, target.children, 1, target.nkey);
+                target.children[0] = sibling.children[sibling.nkey];
+                sibling.children[sibling.nkey] = null;
+                keys[index - 1] = sibling.keys[sibling.nkey - 1];
+            }
+            sibling.deleteKey(sibling.nkey - 1);
+        }
+
+        /**
+         * Move the first key of child {@code index + 1} into child {@code index}.
+         */
+        void borrowFromRight(int index) {
+            Node<K> target = children[index];
+            Node<K> sibling = children[index + 1];
+            if (target.isLeaf()) {
+                target.keys[target.nkey++] = sibling.keys[0];
+                sibling.deleteKey(0);
+                keys[index] = sibling.keys[0];
+            } else {
+                target.keys[target.nkey] = keys[index];
+                target.children[target.nkey + 1] = sibling.children[0];
+                System.arraycopy(sibling.children, 1, sibling.children, 0, sibling.nkey);
+                sibling.children[sibling.nkey] = null;
+                target.nkey++;
+                keys[index] = sibling.keys[0];
+                sibling.deleteKey(0);
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(isLeaf() ? "leaf----" : " internal node ---- ")
+                    .append("size: ").append(nkey).append(" keys:").append("[");
+            for (int i = 0; i < nkey; i++) {
+                sb.append(keys[i]).append(",");
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+    }
+}
@@ -1,58 +1,973 @@
 package com.cwg.algorithm.tree.btree.domain;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * 创建时间：2020-08-12 09:46
  *
  * @author 曹文岗
  **/
-public class BTree<K extends Comparable<K>> {
+public class BTree<K extends Comparable<K>> implements Iterable<K> {
 
     private final int degree;
     private AbstractBTreeNode<K> root;
+    private int size;
+    /**
+     * Count of inserts and deletes, checked by cursors and iterators to fail fast.
+     */
+    private int modCount;
+    /**
+     * Token of the nodes this tree may change in place, renewed by {@link #snapshot()}.
+     */
+    private AbstractBTreeNode.Owner owner;
+    private final boolean readOnly;
+    /**
+     * Free nodes for splits to reuse, null unless the tree was created with a pool.
+     */
+    private final BTreeNodePool pool;
+    /**
+     * Nodes from root to rightmost leaf, cached by an insert of a new maximum so that the
+     * next ones append without descending, see {@link #append}. Valid while
+     * {@code spineModCount == modCount}.
+     */
+    private AbstractBTreeNode<K>[] spine;
+    private int spineModCount;
+    /**
+     * Whether append splits may have left nodes on the right spine with fewer than
+     * {@code degree - 1} keys, to be repaired by {@link #seal()} before a delete.
+     */
+    private boolean relaxed;
+    private final AbstractBTreeNode.LeafPosition<K> probe = new AbstractBTreeNode.LeafPosition<>();
+    /**
+     * Keys deleted while {@link #lazyDelete} is on but still stored in the nodes, by
+     * identity of the stored key: it stays the same object wherever splits, borrows and
+     * merges move it. {@link #graveyard} holds them in order of deletion, for
+     * {@link #compact(int)} to reclaim the oldest first; revived keys stay in it until
+     * their turn comes and are skipped then. A snapshot shares the set, see
+     * {@link #writableTombstones()}.
+     */
+    private Set<K> tombstones = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean tombstonesShared;
+    private final ArrayDeque<K> graveyard = new ArrayDeque<>();
+    private boolean lazyDelete;
+    /**
+     * Borrows and merges done by deletes so far.
+     */
+    private long rebalances;
+
+    /**
+     * Share of keys an append split leaves in the left node.
+     */
+    private static final double APPEND_FILL = 0.9;
+    /**
+     * Tombstones a lazy delete reclaims once they outnumber the live keys (and this many),
+     * revived ones included.
+     */
+    private static final int COMPACT_SLICE = 2;
+    private static final int COMPACT_THRESHOLD = 64;
 
     public BTree(int degree){
+        this(degree, 0);
+    }
+
+    /**
+     * Create a tree recycling nodes emptied by merges for later splits, see
+     * {@link BTreeNodePool}. Worth it for large degrees under churn, where every split
+     * otherwise allocates key and child arrays of {@code 2 * degree} slots.
+     *
+     * @param degree       minimum degree.
+     * @param poolCapacity most free nodes kept, 0 for no pool.
+     */
+    public BTree(int degree, int poolCapacity){
         if (degree < 2){
             throw new IllegalArgumentException("degree mustn't < 2");
         }
         this.degree = degree;
-        root = new BTreeLeaf<>(degree);
+        this.readOnly = false;
+        this.pool = poolCapacity > 0 ? new BTreeNodePool(degree, poolCapacity) : null;
+        this.owner = new AbstractBTreeNode.Owner(pool, tombstones);
+        root = BTreeNodePool.newNode(true, degree, owner);
+    }
+
+    private BTree(BTree<K> source){
+        this.degree = source.degree;
+        this.root = source.root;
+        this.size = source.size;
+        this.readOnly = true;
+        this.pool = null;
+        this.tombstones = source.tombstones;
     }
 
     public AbstractBTreeNode<K> getRoot(){
         return root;
     }
     /**
-     * Insert a key into B-Tree.
+     * Search a key in B-Tree.
+     *
+     * @param key key to search.
+     * @return the key stored in tree or null if key does not exist.
+     */
+    public K search(K key){
+        K found = root.search(key);
+        return found == null || isDead(found) ? null : found;
+    }
+
+    /**
+     * Whether a key as stored in the nodes is deleted lazily, in O(1).
+     */
+    boolean isDead(K stored){
+        return !tombstones.isEmpty() && tombstones.contains(stored);
+    }
+
+    /**
+     * Check whether B-Tree contains given key.
+     *
+     * @param key key to check.
+     * @return true if key exists.
+     */
+    public boolean contains(K key){
+        return search(key) != null;
+    }
+
+    /**
+     * Search many keys in one coordinated traversal instead of one descent per key.
+     * <p>Keys are visited in ascending order (sorted first unless they already are), so
+     * keys bound for the same subtree share the descent into it and the comparisons
+     * made on the way; see {@link AbstractBTreeNode#searchAll}.</p>
+     *
+     * @param keys keys to search, in any order, may repeat.
+     * @return for each key in input order the key stored in tree, or null if absent.
+     */
+    @SuppressWarnings("unchecked")
+    public List<K> searchAll(K[] keys){
+        int n = keys.length;
+        Integer[] order = new Integer[n];
+        boolean ascending = true;
+        for (int i = 0; i < n; i++){
+            order[i] = i;
+            if (i > 0 && ascending && keys[i - 1].compareTo(keys[i]) > 0){
+                ascending = false;
+            }
+        }
+        K[] sorted = keys;
+        if (!ascending){
+            Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+            sorted = (K[]) new Comparable<?>[n];
+            for (int i = 0; i < n; i++){
+                sorted[i] = keys[order[i]];
+            }
+        }
+        Object[] found = new Object[n];
+        root.searchAll(sorted, 0, n, found);
+        K[] result = (K[]) new Comparable<?>[n];
+        for (int i = 0; i < n; i++){
+            K key = (K) found[i];
+            result[order[i]] = key == null || isDead(key) ? null : key;
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Check many keys in one coordinated traversal, see {@link #searchAll}.
+     *
+     * @param keys keys to check, in any order.
+     * @return for each key in input order whether it exists.
+     */
+    public boolean[] containsAll(K[] keys){
+        List<K> found = searchAll(keys);
+        boolean[] result = new boolean[keys.length];
+        for (int i = 0; i < result.length; i++){
+            result[i] = found.get(i) != null;
+        }
+        return result;
+    }
+
+    /**
+     * Number of keys less than given key, in O(degree * height) using the live counts of
+     * the subtrees (their sizes less the keys deleted lazily in them).
+     *
+     * @param key key to rank, need not exist.
+     * @return rank of key, which is also the index of its ceiling in ascending order.
+     */
+    public int rank(K key){
+        return root.rank(key, tombstones);
+    }
+
+    /**
+     * Key at given index in ascending order, in O(degree * height).
+     *
+     * @param index index of key, {@code 0 <= index < size()}.
+     * @return the key.
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    public K select(int index){
+        if (index < 0 || index >= size){
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return root.select(index, tombstones);
+    }
+
+    /**
+     * Number of keys in {@code [fromKey, toKey)}, in O(degree * height).
+     */
+    public int countRange(K fromKey, K toKey){
+        if (fromKey.compareTo(toKey) >= 0){
+            return 0;
+        }
+        return root.rank(toKey, tombstones) - root.rank(fromKey, tombstones);
+    }
+
+    /**
+     * Amount of keys in B-Tree.
+     *
+     * @return key amount.
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Insert a key into B-Tree,keys are distinct so an existing key is not inserted again.
      *
      * @param key key to insert.
+     * @return false if key already exists.
      */
-    public void insert(K key){
-        AbstractBTreeNode<K> n = root;
+    public boolean insert(K key){
+        return insert(key, null);
+    }
+
+    private boolean insert(K key, AbstractBTreeNode.LeafPosition<K> position){
+        if (spine != null && spineModCount == modCount && appends(key)){
+            modCount++;
+            append(key);
+            size++;
+            if (position != null){
+                position.leaf = spine[spine.length - 1];
+                position.upper = null;
+            }
+            return true;
+        }
+        if (position == null){
+            position = probe;
+        }
+        AbstractBTreeNode<K> n = writableRoot();
         if (root.isFull()){
-            AbstractBTreeNode<K> newRoot = new BTreeInternalNode<>(degree);
+            AbstractBTreeNode<K> newRoot = BTreeNodePool.newNode(false, degree, owner);
             newRoot.insertChild(n,0);
             newRoot.splitChild(0);
             n = newRoot;
             root = newRoot;
         }
-        n.insertNotFull(key);
+        modCount++;
+        if (!n.insertNotFull(key, position)){
+            return revive(position.existing);
+        }
+        size++;
+        AbstractBTreeNode<K> leaf = position.leaf;
+        //a new maximum, more may follow
+        if (leaf != null && position.upper == null && key.compareTo(leaf.getKey(leaf.nkey() - 1)) == 0){
+            cacheSpine();
+        }
+        return true;
+    }
+
+    /**
+     * Whether key is greater than all keys, given a valid {@link #spine}.
+     */
+    private boolean appends(K key){
+        AbstractBTreeNode<K> leaf = spine[spine.length - 1];
+        return leaf.nkey() == 0 || key.compareTo(leaf.getKey(leaf.nkey() - 1)) > 0;
+    }
+
+    /**
+     * Append a new maximum to the rightmost leaf through the cached spine.
+     * <p>No key is compared on the way: only the subtree sizes along the spine are counted
+     * up. A full rightmost leaf is split by {@link #splitSpine()}.</p>
+     */
+    private void append(K key){
+        if (spine[spine.length - 1].isFull()){
+            splitSpine();
+        }
+        int height = spine.length - 1;
+        AbstractBTreeNode<K> leaf = spine[height];
+        leaf.setKey(key, leaf.nkey());
+        leaf.setNKey(leaf.nkey() + 1);
+        for (int i = 0; i < height; i++){
+            spine[i].size++;
+        }
+        spineModCount = modCount;
+    }
+
+    /**
+     * Split the full nodes at the bottom of the right spine for an append.
+     * <p>A symmetric split would leave every node behind an ascending key stream half
+     * empty forever, since no key ever lands left of it again. So the split is lopsided:
+     * the left node keeps {@link #APPEND_FILL} of the keys and the new rightmost node gets
+     * the few others. Nodes on the right spine may thus hold fewer than
+     * {@code degree - 1} keys until {@link #seal()}.</p>
+     */
+    @SuppressWarnings("unchecked")
+    private void splitSpine(){
+        int level = spine.length - 1;
+        while (level >= 0 && spine[level].isFull()){
+            level--;
+        }
+        if (level < 0){
+            AbstractBTreeNode<K> newRoot = BTreeNodePool.newNode(false, degree, owner);
+            newRoot.insertChild(root, 0);
+            root = newRoot;
+            AbstractBTreeNode<K>[] grown = (AbstractBTreeNode<K>[]) new AbstractBTreeNode<?>[spine.length + 1];
+            grown[0] = newRoot;
+            System.arraycopy(spine, 0, grown, 1, spine.length);
+            spine = grown;
+            level = 0;
+        }
+        //the right node keeps at least one key, so the spine has a left sibling everywhere
+        int at = Math.max(degree - 1, Math.min(2 * degree - 3, (int) ((2 * degree - 1) * APPEND_FILL)));
+        for (; level < spine.length - 1; level++){
+            AbstractBTreeNode<K> parent = spine[level];
+            parent.splitChild(parent.nchild() - 1, at);
+            spine[level + 1] = parent.getChild(parent.nchild() - 1);
+        }
+        relaxed |= at > degree - 1;
+    }
+
+    /**
+     * Cache the nodes from root to rightmost leaf, all owned after an insert went there.
+     */
+    @SuppressWarnings("unchecked")
+    private void cacheSpine(){
+        int height = 0;
+        for (AbstractBTreeNode<K> node = root; !node.isLeaf(); node = node.getChild(node.nchild() - 1)){
+            height++;
+        }
+        if (spine == null || spine.length != height + 1){
+            spine = (AbstractBTreeNode<K>[]) new AbstractBTreeNode<?>[height + 1];
+        }
+        AbstractBTreeNode<K> node = root;
+        for (int i = 0; i <= height; i++){
+            spine[i] = node;
+            node = node.getChild(node.nchild() - 1);
+        }
+        spineModCount = modCount;
+    }
+
+    /**
+     * Bring the nodes on the right spine that append splits left short back to
+     * {@code degree - 1} keys, which delete relies on.
+     * <p>Runs bottom-up, rebalancing each short node with its left sibling, so that a
+     * merge taking a key from the parent is repaired one level higher.</p>
+     */
+    private void seal(){
+        if (!relaxed){
+            return;
+        }
+        relaxed = false;
+        List<AbstractBTreeNode<K>> path = new ArrayList<>();
+        AbstractBTreeNode<K> node = writableRoot();
+        while (!node.isLeaf()){
+            path.add(node);
+            node = node.writableChild(node.nchild() - 1);
+        }
+        BTreeRangeDeleter<K> deleter = new BTreeRangeDeleter<>(degree, owner);
+        for (int i = path.size() - 1; i >= 0; i--){
+            node = path.get(i);
+            if (node.getChild(node.nchild() - 1).nkey() < degree - 1){
+                deleter.rebalance(node, node.nchild() - 2);
+            }
+        }
+        if (root.nkey() == 0 && !root.isLeaf()){
+            AbstractBTreeNode<K> empty = root;
+            root = root.getChild(0);
+            BTreeNodePool.recycle(empty, owner);
+        }
+        modCount++;
     }
 
     /**
      * Delete a key from B-Tree,if key doesn't exist in current tree,will effect nothing.
      *
      * @param key key to delete.
+     * @return false if key does not exist.
      */
-    public void delete(K key){
-        AbstractBTreeNode<K> node = root;
-        node.deleteNotEmpty(key);
-        if (node.nkey() == 0){
+    public boolean delete(K key){
+        if (lazyDelete){
+            return markDeleted(key);
+        }
+        return delete(key, null);
+    }
+
+    /**
+     * Delete a key by adding a tombstone, leaving the keys of the nodes as they are and
+     * counting it dead along its path.
+     * <p>Once tombstones outnumber the live keys every lazy delete reclaims a few, so
+     * they never take more than about half of the tree.</p>
+     */
+    private boolean markDeleted(K key){
+        checkWritable();
+        K found = root.search(key);
+        if (found == null || isDead(found)){
+            return false;
+        }
+        writableTombstones().add(found);
+        writableRoot().adjustDead(found, 1);
+        graveyard.addLast(found);
+        size--;
+        modCount++;
+        if (graveyard.size() > Math.max(COMPACT_THRESHOLD, size)){
+            compact(COMPACT_SLICE);
+        }
+        return true;
+    }
+
+    /**
+     * Take back the tombstone of a key found in the nodes by an insert.
+     *
+     * @param stored the key as stored in the nodes.
+     * @return whether the key was deleted lazily and lives again.
+     */
+    private boolean revive(K stored){
+        if (!isDead(stored)){
+            return false;
+        }
+        writableTombstones().remove(stored);
+        writableRoot().adjustDead(stored, -1);
+        size++;
+        return true;
+    }
+
+    /**
+     * Delete a key from the nodes right away, borrowing and merging on the way down.
+     */
+    private boolean delete(K key, AbstractBTreeNode.LeafPosition<K> position){
+        boolean deleted = erase(key, position);
+        if (deleted){
+            size--;
+        }
+        return deleted;
+    }
+
+    /**
+     * Remove a key from the nodes without counting it off {@link #size}.
+     */
+    private boolean erase(K key, AbstractBTreeNode.LeafPosition<K> position){
+        seal();
+        if (position == null){
+            position = probe;
+        }
+        AbstractBTreeNode<K> node = writableRoot();
+        boolean deleted = node.deleteNotEmpty(key, position);
+        rebalances += position.rebalances;
+        position.rebalances = 0;
+        if (node.nkey() == 0 && !node.isLeaf()){
             //shrink
             root = node.getChild(0);
-            if (root == null){
-                root = new BTreeLeaf<>(degree);
+            BTreeNodePool.recycle(node, owner);
+        }
+        modCount++;
+        return deleted;
+    }
+
+    /**
+     * Switch between eager deletes, which rebalance the nodes on the way down, and lazy
+     * deletes, which only add a tombstone.
+     * <p>A lazy delete costs one lookup and moves no key, it only counts the key dead in
+     * the nodes on its path; deleting and inserting a key again only removes its
+     * tombstone. Lookups and inserts check the key they found against the tombstones by
+     * identity, in O(1). Tombstones are reclaimed oldest first by eager deletes in bounded
+     * slices with {@link #compact(int)}, as the caller schedules it, and as a backstop by
+     * lazy deletes once tombstones outnumber the live keys. Reads never reclaim:
+     * iterators, cursors and spliterators skip dead keys with the same O(1) check, order
+     * statistics and spliterator sizes use the live counts of the nodes, and snapshots
+     * share the tombstones, which this tree copies on its next change to them. Switching
+     * lazy deletes off reclaims all.</p>
+     *
+     * @param enabled whether deletes are lazy.
+     */
+    public void setLazyDelete(boolean enabled){
+        checkWritable();
+        lazyDelete = enabled;
+        if (!enabled){
+            compact();
+        }
+    }
+
+    /**
+     * Reclaim up to given number of tombstones, oldest first, with eager deletes.
+     *
+     * @param maxTombstones most tombstones to reclaim (or revived keys to pass) in this slice.
+     * @return number of tombstones left.
+     */
+    public int compact(int maxTombstones){
+        checkWritable();
+        for (int i = 0; i < maxTombstones && !graveyard.isEmpty(); i++){
+            K key = graveyard.pollFirst();
+            if (isDead(key)){
+                writableTombstones().remove(key);
+                writableRoot().adjustDead(key, -1);
+                erase(key, null);
+            }
+        }
+        return tombstones.size();
+    }
+
+    /**
+     * Reclaim all tombstones.
+     */
+    public void compact(){
+        if (tombstones.isEmpty()){
+            graveyard.clear();
+            return;
+        }
+        compact(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Number of keys deleted lazily whose tombstones are not reclaimed yet.
+     */
+    public int tombstones(){
+        return tombstones.size();
+    }
+
+    /**
+     * Insert a batch of keys, sharing descents between keys bound for the same leaf.
+     * <p>The batch is sorted first. A key that falls below the upper separator of the leaf
+     * the previous key went to, while that leaf still has room, is put into it directly;
+     * any other key descends from the root, splitting full nodes on the way as
+     * {@link #insert} does. So a run of keys landing in one leaf costs one descent, and a
+     * full leaf is split once for the run instead of being found full by every key.</p>
+     *
+     * @param keys keys in any order, duplicates are inserted once.
+     * @return number of keys inserted.
+     */
+    public int insertAll(Collection<? extends K> keys){
+        checkWritable();
+        K[] sorted = sorted(keys);
+        AbstractBTreeNode.LeafPosition<K> position = new AbstractBTreeNode.LeafPosition<>();
+        int inserted = 0;
+        //keys put into the cached leaf whose ancestors have not been counted yet
+        int uncounted = 0;
+        K last = null;
+        for (int i = 0; i < sorted.length; i++){
+            K key = sorted[i];
+            if (i > 0 && key.compareTo(sorted[i - 1]) == 0){
+                continue;
+            }
+            if (position.covers(key) && !position.leaf.isFull()){
+                AbstractBTreeNode<K> leaf = position.leaf;
+                if (leaf.insertNotFull(key)){
+                    size++;
+                    inserted++;
+                    uncounted++;
+                    last = key;
+                } else if (!tombstones.isEmpty() && revive(leaf.getKey(leaf.searchKey(key)))){
+                    inserted++;
+                }
+                continue;
+            }
+            if (uncounted > 0){
+                root.adjustPath(last, uncounted);
+                uncounted = 0;
+            }
+            if (insert(key, position)){
+                inserted++;
+            }
+        }
+        if (uncounted > 0){
+            root.adjustPath(last, uncounted);
+        }
+        modCount++;
+        return inserted;
+    }
+
+    /**
+     * Delete a batch of keys, sharing descents between keys that live in the same leaf.
+     * <p>The batch is sorted first. A key that falls below the upper separator of the leaf
+     * the previous key was looked up in is deleted from it directly as long as the leaf
+     * keeps at least {@code degree - 1} keys; any other key descends from the root,
+     * borrowing and merging on the way as {@link #delete} does.</p>
+     *
+     * @param keys keys in any order.
+     * @return number of keys deleted.
+     */
+    public int deleteAll(Collection<? extends K> keys){
+        checkWritable();
+        if (lazyDelete){
+            int deleted = 0;
+            for (K key : keys){
+                if (markDeleted(key)){
+                    deleted++;
+                }
+            }
+            return deleted;
+        }
+        K[] sorted = sorted(keys);
+        AbstractBTreeNode.LeafPosition<K> position = new AbstractBTreeNode.LeafPosition<>();
+        int deleted = 0;
+        //keys removed from the cached leaf whose ancestors have not been counted yet
+        int uncounted = 0;
+        K last = null;
+        for (int i = 0; i < sorted.length; i++){
+            K key = sorted[i];
+            if (i > 0 && key.compareTo(sorted[i - 1]) == 0){
+                continue;
+            }
+            if (position.covers(key) && (position.leaf.nkey() >= degree || position.leaf == root)){
+                if (position.leaf.deleteNotEmpty(key)){
+                    size--;
+                    deleted++;
+                    uncounted++;
+                    last = key;
+                }
+                continue;
+            }
+            if (uncounted > 0){
+                root.adjustPath(last, -uncounted);
+                uncounted = 0;
+            }
+            if (delete(key, position)){
+                deleted++;
+            }
+        }
+        if (uncounted > 0){
+            root.adjustPath(last, -uncounted);
+        }
+        modCount++;
+        return deleted;
+    }
+
+    /**
+     * Delete all keys in {@code [fromKey, toKey)}.
+     * <p>The tree is split at both bounds and the outer pieces are joined again (see
+     * {@link BTreeRangeDeleter}), so subtrees inside the range are dropped whole and only
+     * the nodes along the two boundary paths are rebuilt and rebalanced; no key is deleted
+     * one by one.</p>
+     *
+     * @return number of keys deleted.
+     */
+    public int deleteRange(K fromKey, K toKey){
+        checkWritable();
+        seal();
+        if (fromKey.compareTo(toKey) >= 0){
+            return 0;
+        }
+        BTreeRangeDeleter<K> deleter = new BTreeRangeDeleter<>(degree, owner);
+        deleter.split(root, fromKey);
+        AbstractBTreeNode<K> lower = deleter.left;
+        int deleted = deleter.found != null ? 1 : 0;
+        deleter.split(deleter.right, toKey);
+        deleted += BTreeRangeDeleter.count(deleter.left);
+        AbstractBTreeNode<K> upper = deleter.right;
+        return setRoot(deleter.found != null
+                ? deleter.join(lower, deleter.found, upper)
+                : deleter.join(lower, upper), deleted - dropTombstones(fromKey, true, toKey));
+    }
+
+    /**
+     * Delete all keys less than given key, see {@link #deleteRange}.
+     *
+     * @return number of keys deleted.
+     */
+    public int truncateBefore(K key){
+        checkWritable();
+        seal();
+        BTreeRangeDeleter<K> deleter = new BTreeRangeDeleter<>(degree, owner);
+        deleter.split(root, key);
+        int deleted = BTreeRangeDeleter.count(deleter.left);
+        return setRoot(deleter.found != null ? deleter.join(null, deleter.found, deleter.right) : deleter.right,
+                deleted - dropTombstones(null, false, key));
+    }
+
+    /**
+     * Delete all keys greater than given key, see {@link #deleteRange}.
+     *
+     * @return number of keys deleted.
+     */
+    public int truncateAfter(K key){
+        checkWritable();
+        seal();
+        BTreeRangeDeleter<K> deleter = new BTreeRangeDeleter<>(degree, owner);
+        deleter.split(root, key);
+        int deleted = BTreeRangeDeleter.count(deleter.right);
+        return setRoot(deleter.found != null ? deleter.join(deleter.left, deleter.found, null) : deleter.left,
+                deleted - dropTombstones(key, false, null));
+    }
+
+    /**
+     * Drop the tombstones of a deleted range, in O(t) for t tombstones.
+     *
+     * @param low  lower bound, null for none.
+     * @param high upper bound (exclusive), null for none.
+     * @return number of tombstones dropped.
+     */
+    private int dropTombstones(K low, boolean lowInclusive, K high){
+        if (tombstones.isEmpty()){
+            return 0;
+        }
+        int dropped = 0;
+        for (Iterator<K> it = writableTombstones().iterator(); it.hasNext();){
+            K key = it.next();
+            int cmp = low == null ? 1 : key.compareTo(low);
+            if ((cmp > 0 || cmp == 0 && lowInclusive) && (high == null || key.compareTo(high) < 0)){
+                it.remove();
+                dropped++;
             }
         }
+        return dropped;
+    }
+
+    /**
+     * Install the root left by a range delete.
+     *
+     * @param deleted live keys removed from the nodes.
+     * @return number of live keys deleted.
+     */
+    private int setRoot(AbstractBTreeNode<K> newRoot, int deleted){
+        if (newRoot == null){
+            newRoot = BTreeNodePool.newNode(true, degree, owner);
+        }
+        root = newRoot;
+        size -= deleted;
+        modCount++;
+        return deleted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K extends Comparable<K>> K[] sorted(Collection<? extends K> keys){
+        K[] sorted = (K[]) keys.toArray(new Comparable<?>[0]);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Load keys from an ascending iterator bottom-up in O(n) without any split.
+     * <p>Leaves and internal nodes are packed to {@code fillFactor} of their capacity
+     * (but never below {@code degree - 1} keys); equal neighbours are loaded once.</p>
+     *
+     * @param sorted     keys in ascending order.
+     * @param fillFactor target fill of nodes in (0, 1].
+     * @throws IllegalStateException    if tree is not empty.
+     * @throws IllegalArgumentException if keys are not ascending.
+     */
+    public void bulkLoad(Iterator<K> sorted, double fillFactor){
+        checkWritable();
+        if (size != 0){
+            throw new IllegalStateException("bulk load needs an empty tree");
+        }
+        //the old nodes held nothing but tombstones, and a key loaded again is not dead
+        writableTombstones().clear();
+        graveyard.clear();
+        BTreeBulkLoader<K> loader = new BTreeBulkLoader<>(degree, fillFactor, owner);
+        loader.addAll(sorted);
+        root = loader.build();
+        size = loader.size();
+        modCount++;
+    }
+
+    /**
+     * Sort unsorted keys with fork-join ({@link Arrays#parallelSort}) and bulk load them.
+     *
+     * @param keys       keys in any order, duplicates are loaded once.
+     * @param fillFactor target fill of nodes in (0, 1].
+     * @throws IllegalStateException if tree is not empty.
+     */
+    @SuppressWarnings("unchecked")
+    public void parallelBulkLoad(Collection<? extends K> keys, double fillFactor){
+        K[] sorted = (K[]) keys.toArray(new Comparable<?>[0]);
+        Arrays.parallelSort(sorted);
+        bulkLoad(Arrays.asList(sorted).iterator(), fillFactor);
+    }
+
+    /**
+     * Write all keys to an immutable, page-aligned file that {@link MappedBTree#open(Path)}
+     * serves without loading it.
+     * <p>The file stores keys as fixed-width {@code long}s so that they can be searched in
+     * place, hence only integral keys ({@link Long}, {@link Integer}, {@link Short},
+     * {@link Byte}) are supported.</p>
+     *
+     * @param file file to create or replace.
+     * @throws UnsupportedOperationException if keys are not integral.
+     */
+    public void writeTo(Path file) throws IOException {
+        if (size > 0) {
+            K first = cursor().seekFirst();
+            if (!(first instanceof Long || first instanceof Integer || first instanceof Short || first instanceof Byte)) {
+                throw new UnsupportedOperationException("only integral keys can be written, got " + first.getClass());
+            }
+        }
+        Iterator<K> keys = iterator();
+        MappedBTree.write(new Iterator<Number>() {
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            public Number next() {
+                return (Number) keys.next();
+            }
+        }, size, file);
+    }
+
+    /**
+     * Take an immutable snapshot of current tree in O(1).
+     * <p>The snapshot shares all nodes with this tree. From now on this tree copies a
+     * shared node before changing it (path copying), so the snapshot never changes and
+     * can be read from other threads without any lock while this tree is updated, once
+     * it has been safely published to them. Nodes only the snapshot still uses become
+     * garbage when the snapshot is no longer referenced.</p>
+     *
+     * @return a read-only tree whose insert, delete and bulk load throw
+     * {@link UnsupportedOperationException}.
+     */
+    public BTree<K> snapshot(){
+        if (readOnly){
+            return this;
+        }
+        //every node existing now becomes shared
+        owner = new AbstractBTreeNode.Owner(pool, tombstones);
+        tombstonesShared = true;
+        spine = null;
+        return new BTree<>(this);
+    }
+
+    /**
+     * Tombstones for modification, copied first if they are shared with a snapshot, so
+     * that taking a snapshot stays O(1) and only the first change after it pays O(t).
+     */
+    private Set<K> writableTombstones(){
+        if (tombstonesShared){
+            Set<K> copy = Collections.newSetFromMap(new IdentityHashMap<>());
+            copy.addAll(tombstones);
+            tombstones = copy;
+            owner.tombstones = copy;
+            tombstonesShared = false;
+        }
+        return tombstones;
+    }
+
+    /**
+     * Root for modification, copied first if it is shared with a snapshot.
+     */
+    private AbstractBTreeNode<K> writableRoot(){
+        checkWritable();
+        if (root.owner != owner){
+            root = root.copy(owner);
+        }
+        return root;
+    }
+
+    private void checkWritable(){
+        if (readOnly){
+            throw new UnsupportedOperationException("snapshot is read-only");
+        }
+    }
+
+    int modCount() {
+        return modCount;
+    }
+
+    /**
+     * @return the node pool of current tree, null if it has none.
+     */
+    public BTreeNodePool nodePool() {
+        return pool;
+    }
+
+    long rebalances() {
+        return rebalances;
+    }
+
+    /**
+     * Create a cursor over the keys of current tree, not positioned yet.
+     *
+     * @return a new cursor.
+     */
+    public BTreeCursor<K> cursor() {
+        return new BTreeCursor<>(this);
+    }
+
+    /**
+     * Iterate all keys in ascending order without copying them.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new RangeIterator(null, true, null, true);
+    }
+
+    /**
+     * Spliterator splitting along the child arrays of the nodes, see {@link BTreeSpliterator}.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return new BTreeSpliterator<>(this);
+    }
+
+    /**
+     * Sequential stream of all keys in ascending order.
+     *
+     * @return stream of keys.
+     */
+    public Stream<K> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Parallel stream of all keys, subtrees are handed out to the common ForkJoinPool
+     * without copying keys into an intermediate list.
+     *
+     * @return parallel stream of keys.
+     */
+    public Stream<K> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Keys less than (or equal to, if {@code inclusive}) {@code toKey}, streamed in order.
+     *
+     * @param toKey     upper bound.
+     * @param inclusive whether upper bound is included.
+     * @return a lazy view, every iterator walks the live tree.
+     */
+    public Iterable<K> headSet(K toKey, boolean inclusive) {
+        return () -> new RangeIterator(null, true, toKey, inclusive);
+    }
+
+    /**
+     * Keys greater than (or equal to, if {@code inclusive}) {@code fromKey}, streamed in order.
+     *
+     * @param fromKey   lower bound.
+     * @param inclusive whether lower bound is included.
+     * @return a lazy view, every iterator walks the live tree.
+     */
+    public Iterable<K> tailSet(K fromKey, boolean inclusive) {
+        return () -> new RangeIterator(fromKey, inclusive, null, true);
+    }
+
+    /**
+     * Keys between {@code fromKey} and {@code toKey}, streamed in order.
+     *
+     * @return a lazy view, every iterator walks the live tree.
+     */
+    public Iterable<K> subSet(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if (fromKey.compareTo(toKey) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return () -> new RangeIterator(fromKey, fromInclusive, toKey, toInclusive);
     }
 
     @Override
@@ -60,4 +975,57 @@ public class BTree<K extends Comparable<K>> {
         return AbstractBTreeNode.BTreeToString(this.root);
     }
 
+    /**
+     * Ascending iterator over a key range, driven by a {@link BTreeCursor}.
+     * <p>Fail-fast like the cursor; its own {@link #remove()} deletes through the tree
+     * and re-seeks past the removed key.</p>
+     */
+    private final class RangeIterator implements Iterator<K> {
+        private final K toKey;
+        private final boolean toInclusive;
+        private final BTreeCursor<K> cursor = cursor();
+        private K next;
+        private K lastReturned;
+
+        RangeIterator(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            this.toKey = toKey;
+            this.toInclusive = toInclusive;
+            this.next = bounded(fromKey == null ? cursor.seekFirst() : cursor.seek(fromKey, fromInclusive, true));
+        }
+
+        private K bounded(K key) {
+            if (key == null || toKey == null) {
+                return key;
+            }
+            int cmp = key.compareTo(toKey);
+            return cmp < 0 || (cmp == 0 && toInclusive) ? key : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public K next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = bounded(cursor.next());
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            cursor.checkForComodification();
+            delete(lastReturned);
+            next = bounded(cursor.seek(lastReturned, false, true));
+            lastReturned = null;
+        }
+    }
+
 }
@@ -0,0 +1,221 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Build a B-Tree bottom-up from ascending keys in one pass, without any split.
+ * <p>Leaves are packed to the target fill; when a leaf is packed the next key becomes
+ * the separator handed to the level above, and internal levels are packed the same way.
+ * Every level holds back its last packed node ({@code pending}) so that at the end the
+ * final, possibly underfull node of each level can be merged with or balanced against
+ * its left neighbour before either is attached to the parent.</p>
+ *
+ * 创建时间：2026-10-18 20:50
+ *
+ * @author 曹文岗
+ **/
+class BTreeBulkLoader<K extends Comparable<K>> {
+
+    private final int degree;
+    private final Object owner;
+    private final int leafKeys;
+    private final int internalKeys;
+
+    /**
+     * Per level: node being filled, last packed node and the separator following it.
+     */
+    private final List<AbstractBTreeNode<K>> current = new ArrayList<>();
+    private final List<AbstractBTreeNode<K>> pending = new ArrayList<>();
+    private final List<K> pendingSeparator = new ArrayList<>();
+
+    private int size;
+    private K last;
+
+    BTreeBulkLoader(int degree, double fillFactor, Object owner) {
+        if (!(fillFactor > 0 && fillFactor <= 1)) {
+            throw new IllegalArgumentException("fillFactor must in (0, 1]");
+        }
+        this.degree = degree;
+        this.owner = owner;
+        int target = (int) Math.round(fillFactor * (2 * degree - 1));
+        this.leafKeys = Math.max(degree - 1, Math.min(2 * degree - 1, target));
+        this.internalKeys = leafKeys;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Append all keys of an ascending iterator, equal neighbours are loaded once.
+     *
+     * @throws IllegalArgumentException if keys are not ascending
+     */
+    void addAll(Iterator<K> sorted) {
+        while (sorted.hasNext()) {
+            add(sorted.next());
+        }
+    }
+
+    void add(K key) {
+        if (last != null) {
+            int cmp = key.compareTo(last);
+            if (cmp < 0) {
+                throw new IllegalArgumentException("keys are not sorted: " + key + " after " + last);
+            }
+            if (cmp == 0) {
+                return;
+            }
+        }
+        last = key;
+        size++;
+
+        AbstractBTreeNode<K> leaf = level(0);
+        if (leaf.nkey() < leafKeys) {
+            append(leaf, key);
+            return;
+        }
+        //leaf is packed, key becomes its separator
+        current.set(0, newNode(true));
+        packed(0, leaf, key);
+    }
+
+    /**
+     * Node at given level has been packed and is followed by separator.
+     */
+    private void packed(int level, AbstractBTreeNode<K> node, K separator) {
+        AbstractBTreeNode<K> previous = pending.get(level);
+        K previousSeparator = pendingSeparator.get(level);
+        pending.set(level, node);
+        pendingSeparator.set(level, separator);
+        if (previous != null) {
+            addChild(level + 1, previous, previousSeparator);
+        }
+    }
+
+    /**
+     * Append child followed by separator to the node being filled at given internal level.
+     */
+    private void addChild(int level, AbstractBTreeNode<K> child, K separator) {
+        AbstractBTreeNode<K> node = level(level);
+        appendChild(node, child);
+        if (node.nkey() < internalKeys) {
+            append(node, separator);
+            return;
+        }
+        current.set(level, newNode(false));
+        packed(level, node, separator);
+    }
+
+    private AbstractBTreeNode<K> level(int level) {
+        while (current.size() <= level) {
+            current.add(newNode(current.isEmpty()));
+            pending.add(null);
+            pendingSeparator.add(null);
+        }
+        return current.get(level);
+    }
+
+    /**
+     * Close every level from the leaves up and return the root.
+     */
+    AbstractBTreeNode<K> build() {
+        AbstractBTreeNode<K> child = null;
+        for (int level = 0; ; level++) {
+            AbstractBTreeNode<K> node = level(level);
+            if (level > 0) {
+                appendChild(node, child);
+            }
+            AbstractBTreeNode<K> left = pending.get(level);
+            if (left == null) {
+                //single node left at this level, it is the root
+                return level > 0 && node.nkey() == 0 ? child : node;
+            }
+            K separator = pendingSeparator.get(level);
+            if (node.nkey() >= degree - 1) {
+                addChild(level + 1, left, separator);
+                child = node;
+            } else if (left.nkey() + 1 + node.nkey() <= 2 * degree - 1) {
+                merge(left, separator, node);
+                child = left;
+            } else {
+                separator = rebalance(left, separator, node);
+                addChild(level + 1, left, separator);
+                child = node;
+            }
+            pending.set(level, null);
+        }
+    }
+
+    /**
+     * Move right node and the separator into left node.
+     */
+    private void merge(AbstractBTreeNode<K> left, K separator, AbstractBTreeNode<K> right) {
+        append(left, separator);
+        for (int i = 0; i < right.nkey(); i++) {
+            append(left, right.getKey(i));
+        }
+        if (!left.isLeaf()) {
+            for (int i = 0; i < right.nchild(); i++) {
+                appendChild(left, right.getChild(i));
+            }
+        }
+    }
+
+    /**
+     * Shift keys (and children) from the end of left into the front of right until both
+     * hold about half.
+     *
+     * @return the new separator between left and right.
+     */
+    private K rebalance(AbstractBTreeNode<K> left, K separator, AbstractBTreeNode<K> right) {
+        int total = left.nkey() + right.nkey();
+        int move = left.nkey() - total / 2;
+        int rightKeys = right.nkey();
+        int rightChildren = right.isLeaf() ? 0 : right.nchild();
+        //open room at the front of right
+        for (int i = rightKeys - 1; i >= 0; i--) {
+            right.setKey(right.getKey(i), i + move);
+        }
+        for (int i = rightChildren - 1; i >= 0; i--) {
+            right.setChild(right.getChild(i), i + move);
+        }
+        int leftKeys = left.nkey();
+        right.setKey(separator, move - 1);
+        for (int i = 0; i < move - 1; i++) {
+            right.setKey(left.getKey(leftKeys - move + 1 + i), i);
+        }
+        if (!right.isLeaf()) {
+            int leftChildren = left.nchild();
+            for (int i = 0; i < move; i++) {
+                right.setChild(left.getChild(leftChildren - move + i), i);
+                left.setChild(null, leftChildren - move + i);
+            }
+            right.setNChild(rightChildren + move);
+            left.setNChild(leftChildren - move);
+        }
+        K newSeparator = left.getKey(leftKeys - move);
+        for (int i = leftKeys - move; i < leftKeys; i++) {
+            left.setKey(null, i);
+        }
+        left.setNKey(leftKeys - move);
+        right.setNKey(rightKeys + move);
+        return newSeparator;
+    }
+
+    private AbstractBTreeNode<K> newNode(boolean leaf) {
+        return BTreeNodePool.newNode(leaf, degree, owner);
+    }
+
+    private void append(AbstractBTreeNode<K> node, K key) {
+        node.setKey(key, node.nkey());
+        node.setNKey(node.nkey() + 1);
+    }
+
+    private void appendChild(AbstractBTreeNode<K> node, AbstractBTreeNode<K> child) {
+        node.setChild(child, node.nchild());
+        node.setNChild(node.nchild() + 1);
+    }
+}
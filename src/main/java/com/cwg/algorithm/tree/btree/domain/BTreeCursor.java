@@ -0,0 +1,243 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.ConcurrentModificationException;
+
+/**
+ * Lazy position over the keys of a {@link BTree}.
+ * <p>The cursor sits on one key and keeps one (node, index) pair per tree level,
+ * so its state is O(height) and stepping allocates nothing. For the deepest pair
+ * the index is the current key; for the pairs above it the index is the child
+ * that was descended into.</p>
+ * <p>Cursors are fail-fast: any insert or delete on the tree after the cursor was
+ * positioned makes the next step throw {@link ConcurrentModificationException}.
+ * Re-positioning with one of the {@code seek} methods makes it usable again.</p>
+ * <p>Keys deleted lazily are still in the nodes; the cursor steps over them, see
+ * {@link BTree#setLazyDelete}.</p>
+ *
+ * 创建时间：2026-10-18 19:20
+ *
+ * @author 曹文岗
+ **/
+public class BTreeCursor<K extends Comparable<K>> {
+
+    private final BTree<K> tree;
+    private AbstractBTreeNode<K>[] nodes;
+    private int[] indexes;
+    private int depth = -1;
+    private int expectedModCount;
+
+    BTreeCursor(BTree<K> tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * Position at the smallest key.
+     *
+     * @return the key or null if tree is empty.
+     */
+    public K seekFirst() {
+        reset();
+        AbstractBTreeNode<K> root = tree.getRoot();
+        if (root.nkey() > 0) {
+            descendLeftmost(root);
+        }
+        return live(key(), true);
+    }
+
+    /**
+     * Position at the largest key.
+     *
+     * @return the key or null if tree is empty.
+     */
+    public K seekLast() {
+        reset();
+        AbstractBTreeNode<K> root = tree.getRoot();
+        if (root.nkey() > 0) {
+            descendRightmost(root);
+        }
+        return live(key(), false);
+    }
+
+    /**
+     * Position at the smallest key not less than given key.
+     *
+     * @param key key to seek
+     * @return the key positioned at or null if there is none.
+     */
+    public K seek(K key) {
+        return seek(key, true, true);
+    }
+
+    /**
+     * Position at the first key at/after ({@code forward}) or at/before given key.
+     *
+     * @param inclusive whether an equal key qualifies
+     * @return the key positioned at or null if there is none.
+     */
+    K seek(K key, boolean inclusive, boolean forward) {
+        return live(locate(key, inclusive, forward), forward);
+    }
+
+    private K locate(K key, boolean inclusive, boolean forward) {
+        reset();
+        AbstractBTreeNode<K> node = tree.getRoot();
+        if (node.nkey() == 0) {
+            return null;
+        }
+        while (true) {
+            int index = node.searchKey(key);
+            if (index >= 0) {
+                push(node, index);
+                if (inclusive) {
+                    return key();
+                }
+                return forward ? step() : stepBack();
+            }
+            int point = -index - 1;
+            if (node.isLeaf()) {
+                if (forward) {
+                    if (point < node.nkey()) {
+                        push(node, point);
+                        return key();
+                    }
+                    push(node, node.nkey() - 1);
+                    return step();
+                }
+                if (point > 0) {
+                    push(node, point - 1);
+                    return key();
+                }
+                push(node, 0);
+                return stepBack();
+            }
+            push(node, point);
+            node = node.getChild(point);
+        }
+    }
+
+    /**
+     * Current key.
+     *
+     * @return the key or null if cursor is not positioned on a key.
+     */
+    public K key() {
+        return depth >= 0 ? nodes[depth].getKey(indexes[depth]) : null;
+    }
+
+    /**
+     * Move to the next key.
+     *
+     * @return the next key, or null when the end was passed; the cursor then needs a new seek.
+     * @throws ConcurrentModificationException if tree was modified since positioning
+     */
+    public K next() {
+        checkForComodification();
+        return depth >= 0 ? live(step(), true) : null;
+    }
+
+    /**
+     * Move to the previous key.
+     *
+     * @return the previous key, or null when the start was passed; the cursor then needs a new seek.
+     * @throws ConcurrentModificationException if tree was modified since positioning
+     */
+    public K prev() {
+        checkForComodification();
+        return depth >= 0 ? live(stepBack(), false) : null;
+    }
+
+    void checkForComodification() {
+        if (tree.modCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Step over dead keys in given direction, starting at key.
+     */
+    private K live(K key, boolean forward) {
+        while (key != null && tree.isDead(key)) {
+            key = forward ? step() : stepBack();
+        }
+        return key;
+    }
+
+    private K step() {
+        AbstractBTreeNode<K> node = nodes[depth];
+        int index = indexes[depth];
+        if (!node.isLeaf()) {
+            indexes[depth] = index + 1;
+            descendLeftmost(node.getChild(index + 1));
+            return key();
+        }
+        if (index + 1 < node.nkey()) {
+            indexes[depth] = index + 1;
+            return key();
+        }
+        //climb until an ancestor still has a key right of the child we came from
+        while (--depth >= 0) {
+            if (indexes[depth] < nodes[depth].nkey()) {
+                return key();
+            }
+        }
+        return null;
+    }
+
+    private K stepBack() {
+        AbstractBTreeNode<K> node = nodes[depth];
+        int index = indexes[depth];
+        if (!node.isLeaf()) {
+            descendRightmost(node.getChild(index));
+            return key();
+        }
+        if (index > 0) {
+            indexes[depth] = index - 1;
+            return key();
+        }
+        //climb until an ancestor has a key left of the child we came from
+        while (--depth >= 0) {
+            if (indexes[depth] > 0) {
+                indexes[depth]--;
+                return key();
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reset() {
+        int height = 1;
+        AbstractBTreeNode<K> node = tree.getRoot();
+        while (!node.isLeaf()) {
+            node = node.getChild(0);
+            height++;
+        }
+        if (nodes == null || nodes.length < height) {
+            nodes = (AbstractBTreeNode<K>[]) new AbstractBTreeNode<?>[height];
+            indexes = new int[height];
+        }
+        depth = -1;
+        expectedModCount = tree.modCount();
+    }
+
+    private void push(AbstractBTreeNode<K> node, int index) {
+        nodes[++depth] = node;
+        indexes[depth] = index;
+    }
+
+    private void descendLeftmost(AbstractBTreeNode<K> node) {
+        while (!node.isLeaf()) {
+            push(node, 0);
+            node = node.getChild(0);
+        }
+        push(node, 0);
+    }
+
+    private void descendRightmost(AbstractBTreeNode<K> node) {
+        while (!node.isLeaf()) {
+            push(node, node.nkey());
+            node = node.getChild(node.nkey());
+        }
+        push(node, node.nkey() - 1);
+    }
+}
@@ -1,5 +1,7 @@
 package com.cwg.algorithm.tree.btree.domain;
 
+import java.util.Arrays;
+
 /**
  * 创建时间：2020-08-12 09:45
  *
@@ -18,6 +20,33 @@ class BTreeInternalNode<K extends Comparable<K>> extends AbstractBTreeNode<K> {
         children = new AbstractBTreeNode[2 * degree];
     }
 
+    private BTreeInternalNode(BTreeInternalNode<K> source, Object owner) {
+        super(source.degree);
+        this.keys = source.keys.clone();
+        this.children = source.children.clone();
+        this.nkey = source.nkey;
+        this.nchild = source.nchild;
+        this.size = source.size;
+        this.dead = source.dead;
+        this.owner = owner;
+    }
+
+    @Override
+    AbstractBTreeNode<K> copy(Object owner) {
+        return new BTreeInternalNode<>(this, owner);
+    }
+
+    @Override
+    void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(children, null);
+        nkey = 0;
+        nchild = 0;
+        size = 0;
+        dead = 0;
+        owner = null;
+    }
+
     @Override
     protected boolean isLeaf() {
         return false;
@@ -33,12 +62,17 @@ class BTreeInternalNode<K extends Comparable<K>> extends AbstractBTreeNode<K> {
     protected K setKey(K newKey, int oldKeyIndex) {
         K old = (K) keys[oldKeyIndex];
         keys[oldKeyIndex] = newKey;
+        size += (newKey != null ? 1 : 0) - (old != null ? 1 : 0);
+        dead += deadCount(newKey) - deadCount(old);
         return old;
     }
 
     @Override
     protected void setChild(AbstractBTreeNode<K> sub, int index) {
+        AbstractBTreeNode<K> old = children[index];
         children[index] = sub;
+        size += (sub != null ? sub.size : 0) - (old != null ? old.size : 0);
+        dead += (sub != null ? sub.dead : 0) - (old != null ? old.dead : 0);
     }
 
     @Override
@@ -74,135 +108,256 @@ class BTreeInternalNode<K extends Comparable<K>> extends AbstractBTreeNode<K> {
     }
 
 
+    /**
+     * Insert key into the subtree rooted at current node.
+     * <p>Subtree sizes are counted up on the way down, assuming the key is new, and
+     * counted down again along the same path if it turns out to exist.</p>
+     */
     @Override
-    K search(K key) {
-        int index = indexOfKey(key);
-        if (index >= 0) {
-            return (K) keys[index];
-        }
-        index = 0;
-        while (key.compareTo((K) keys[index++]) > 0) ;
-        return children[index].search(key);
-    }
-
-    @Override
-    void insertNotFull(K key) {
-        checkNotFull();
-        int i = 0;
-        while (i < nkey && key.compareTo((K) keys[i]) >= 0) {
-            i++;
+    boolean insertNotFull(K key, LeafPosition<K> position) {
+        AbstractBTreeNode<K> node = this;
+        K upper = null;
+        while (!node.isLeaf()) {
+            node.checkNotFull();
+            node.size++;
+            int i = node.searchKey(key);
+            if (i >= 0) {
+                return exists(key, node.getKey(i), position);
+            }
+            i = -i - 1;
+            if (node.getChild(i).isFull()) {
+                node.splitChild(i);
+                int cmp = key.compareTo(node.getKey(i));
+                if (cmp == 0) {
+                    return exists(key, node.getKey(i), position);
+                }
+                if (cmp > 0) {
+                    i++;
+                }
+            }
+            upper = upperBound(node, i, upper);
+            node = node.writableChild(i);
         }
-        if (this.children[i].isFull()) {
-            this.splitChild(i);
-            if (key.compareTo((K) this.keys[i]) > 0) {
-                i++;
+        reached(position, node, upper);
+        if (!node.insertNotFull(key, null)) {
+            adjustPath(key, -1);
+            if (position != null) {
+                position.existing = node.getKey(node.searchKey(key));
             }
+            return false;
         }
+        return true;
+    }
 
-        this.children[i].insertNotFull(key);
+    private boolean exists(K key, K existing, LeafPosition<K> position) {
+        adjustPath(key, -1);
+        notInLeaf(position);
+        if (position != null) {
+            position.existing = existing;
+        }
+        return false;
     }
 
+    /**
+     * Delete key from the subtree rooted at current node.
+     * <p>Walks down iteratively: before stepping into a child the child is made
+     * to hold at least {@code degree} keys (borrow or merge), so no node above
+     * the current one is ever revisited and no path has to be kept. Subtree sizes are
+     * counted down on the way, assuming the key exists, and counted up again along the
+     * same path if it does not; moving keys between the children leaves the size of the
+     * current node as it was. Dead counts go down along the path only if the key removed
+     * from the subtrees below is deleted lazily, which the replacement of a key found on
+     * the way may be; they are set back after the moves a level made below it.</p>
+     */
     @Override
-    void deleteNotEmpty(K key) {
-        //key in this node
-        if (this.existsKey(key)) {
-            int index = indexOfKey(key);
-            AbstractBTreeNode<K> node;
-            //predecessor child could delete
-            if ((node = children[index]).nkey() >= degree) {
-                K repKey = node.getKey(node.nkey() - 1);                  //maximum key in predecessor
-                node.deleteNotEmpty(repKey);
-                setKey(repKey, index);
+    boolean deleteNotEmpty(K key, LeafPosition<K> position) {
+        AbstractBTreeNode<K> node = this;
+        boolean found = false;
+        K upper = null;
+        int keyDead = deadCount(key);
+        AbstractBTreeNode<K> above = null;
+        int aboveDead = 0;
+        while (!node.isLeaf()) {
+            if (above != null) {
+                above.dead = aboveDead;
             }
-            //follow child could delete a key
-            else if ((node = children[index + 1]).nkey() >= degree) {
-                K repKey = node.getKey(0);                              //minimum key in follow
-                node.deleteNotEmpty(repKey);
-                setKey(repKey, index);
-            }
-
-            //merge predecessor with follow
-            else {
-                node = children[index];
-                node.merge(key, children[index + 1]);
-                this.deleteKey(index);
-                this.deleteChild(index + 1);
-                node.deleteNotEmpty(key);
+            int subtreeSize = --node.size;
+            node.dead -= keyDead;
+            above = node;
+            aboveDead = node.dead;
+            int index = node.searchKey(key);
+            //key in this node
+            if (index >= 0) {
+                found = true;
+                AbstractBTreeNode<K> child;
+                //predecessor child could delete
+                if ((child = node.getChild(index)).nkey() >= degree) {
+                    child = node.writableChild(index);
+                    K repKey = maxKey(child);                            //predecessor of key
+                    node.setKey(repKey, index);
+                    key = repKey;
+                    keyDead = deadCount(key);
+                }
+                //follow child could delete a key
+                else if ((child = node.getChild(index + 1)).nkey() >= degree) {
+                    child = node.writableChild(index + 1);
+                    K repKey = minKey(child);                            //successor of key
+                    node.setKey(repKey, index);
+                    key = repKey;
+                    keyDead = deadCount(key);
+                }
+                //merge predecessor with follow
+                else {
+                    rebalanced(position);
+                    child = node.writableChild(index);
+                    child.merge(key, node.getChild(index + 1));
+                    node.deleteKey(index);
+                    BTreeNodePool.recycle(node.deleteChild(index + 1), owner);
+                    node.size = subtreeSize;
+                }
+                node = child;
+                continue;
             }
-        }
 
-        //key may exist in child
-        else{
-            int i = 0;
-            //find proper child the key may exists in
-            while (i < nkey) {
-                if (key.compareTo((K) keys[i]) < 0)
-                    break;
-                i++;
-            }
-            AbstractBTreeNode<K> target = children[i];
+            //key may exist in child
+            int i = -index - 1;
+            AbstractBTreeNode<K> target = node.getChild(i);
             //child has enough key
             if (target.nkey() >= degree) {
-                target.deleteNotEmpty(key);
-            } else {
-                AbstractBTreeNode<K> sibling;
-                //try to find replacement from predecessor
-                if (i > 0 && (sibling = children[i - 1]).nkey() >= degree) {
-                    if (!target.isLeaf()) {
-                        AbstractBTreeNode<K> sub = sibling.deleteChild(nchild); //last child
-                        target.insertChild(sub, 0);
-                    }
-                    K repKey = sibling.deleteKey(sibling.nkey() - 1);    //maximum key
-                    repKey = setKey(repKey, i - 1);
-                    target.insertKey(repKey);
-                    target.deleteNotEmpty(key);
-                }
-                //try to find replacement from follower
-                else if (i < nkey && (sibling = children[i + 1]).nkey() >= degree) {
-                    if (!target.isLeaf()) {
-                        AbstractBTreeNode<K> sub = sibling.deleteChild(0);  //first child
-                        target.insertChild(sub, target.nchild());
-                    }
-                    K repKey = sibling.deleteKey(0);                    //minimum key
-                    repKey = setKey(repKey, i);
-                    target.insertKey(repKey);
-                    target.deleteNotEmpty(key);
+                upper = upperBound(node, i, upper);
+                node = node.writableChild(i);
+                continue;
+            }
+            AbstractBTreeNode<K> sibling;
+            rebalanced(position);
+            //try to find replacement from predecessor
+            if (i > 0 && node.getChild(i - 1).nkey() >= degree) {
+                sibling = node.writableChild(i - 1);
+                target = node.writableChild(i);
+                if (!target.isLeaf()) {
+                    AbstractBTreeNode<K> sub = sibling.deleteChild(sibling.nchild() - 1); //last child
+                    target.insertChild(sub, 0);
                 }
-                //merge child with one of it's sibling
-                else {
-                    //merge with predecessor sibling
-                    if (i > 0) {
-                        K repKey = this.deleteKey(i - 1);
-                        sibling = children[i - 1];
-                        sibling.merge(repKey, target);
-                        this.deleteChild(target);
-                        sibling.deleteNotEmpty(key);
-                    } else {
-                        K repKey = this.deleteKey(i);
-                        sibling = children[i + 1];
-                        target.merge(repKey, sibling);
-                        deleteChild(i + 1);
-                        target.deleteNotEmpty(key);
-                    }
+                K repKey = sibling.deleteKey(sibling.nkey() - 1);        //maximum key
+                repKey = node.setKey(repKey, i - 1);
+                target.insertKey(repKey);
+                upper = upperBound(node, i, upper);
+                node = target;
+            }
+            //try to find replacement from follower
+            else if (i < node.nkey() && node.getChild(i + 1).nkey() >= degree) {
+                sibling = node.writableChild(i + 1);
+                target = node.writableChild(i);
+                if (!target.isLeaf()) {
+                    AbstractBTreeNode<K> sub = sibling.deleteChild(0);  //first child
+                    target.insertChild(sub, target.nchild());
                 }
+                K repKey = sibling.deleteKey(0);                        //minimum key
+                repKey = node.setKey(repKey, i);
+                target.insertKey(repKey);
+                upper = upperBound(node, i, upper);
+                node = target;
             }
+            //merge child with one of it's sibling
+            else if (i > 0) {
+                //merge with predecessor sibling
+                K repKey = node.deleteKey(i - 1);
+                sibling = node.writableChild(i - 1);
+                sibling.merge(repKey, target);
+                BTreeNodePool.recycle(node.deleteChild(i), owner);
+                node.size = subtreeSize;
+                upper = upperBound(node, i - 1, upper);
+                node = sibling;
+            } else {
+                K repKey = node.deleteKey(i);
+                sibling = node.getChild(i + 1);
+                target = node.writableChild(i);
+                target.merge(repKey, sibling);
+                BTreeNodePool.recycle(node.deleteChild(i + 1), owner);
+                node.size = subtreeSize;
+                upper = upperBound(node, i, upper);
+                node = target;
+            }
+        }
+        if (above != null) {
+            above.dead = aboveDead;
+        }
+        //a key found above was replaced by a neighbour, whose leaf says nothing about the batch
+        if (found) {
+            notInLeaf(position);
+        } else {
+            reached(position, node, upper);
         }
+        if (node.deleteNotEmpty(key, null) || found) {
+            return true;
+        }
+        adjustPath(key, 1);
+        return false;
+    }
+
+    /**
+     * Exclusive upper bound of child {@code i} of node, given the bound of node itself.
+     */
+    private static <K extends Comparable<K>> K upperBound(AbstractBTreeNode<K> node, int i, K upper) {
+        return i < node.nkey() ? node.getKey(i) : upper;
+    }
 
+    private static <K extends Comparable<K>> void reached(LeafPosition<K> position,
+                                                          AbstractBTreeNode<K> leaf, K upper) {
+        if (position != null) {
+            position.leaf = leaf;
+            position.upper = upper;
+        }
+    }
+
+    private static <K extends Comparable<K>> void rebalanced(LeafPosition<K> position) {
+        if (position != null) {
+            position.rebalances++;
+        }
+    }
+
+    private static <K extends Comparable<K>> void notInLeaf(LeafPosition<K> position) {
+        if (position != null) {
+            position.leaf = null;
+        }
+    }
+
+    /**
+     * Maximum key of the subtree rooted at given node.
+     */
+    private static <K extends Comparable<K>> K maxKey(AbstractBTreeNode<K> node) {
+        while (!node.isLeaf()) {
+            node = node.getChild(node.nchild() - 1);
+        }
+        return node.getKey(node.nkey() - 1);
+    }
+
+    /**
+     * Minimum key of the subtree rooted at given node.
+     */
+    private static <K extends Comparable<K>> K minKey(AbstractBTreeNode<K> node) {
+        while (!node.isLeaf()) {
+            node = node.getChild(0);
+        }
+        return node.getKey(0);
     }
 
     @Override
-    protected void splitChild(int child) {
-        AbstractBTreeNode<K> old = children[child];
-        AbstractBTreeNode<K> neo = old.isLeaf()
-                ? new BTreeLeaf<>(degree)
-                : new BTreeInternalNode<>(degree);
-        K middle = old.splitSelf(neo);
+    protected void splitChild(int child, int at) {
+        //moves keys between children and current node, the subtree keeps its size
+        int subtreeSize = size;
+        int subtreeDead = dead;
+        AbstractBTreeNode<K> old = writableChild(child);
+        AbstractBTreeNode<K> neo = BTreeNodePool.newNode(old.isLeaf(), degree, owner);
+        K middle = old.splitSelf(neo, at);
         this.insertKey(middle);
         this.insertChild(neo, child + 1);
+        size = subtreeSize;
+        dead = subtreeDead;
     }
 
     @Override
-    protected K splitSelf(AbstractBTreeNode<K> newNode) {
+    protected K splitSelf(AbstractBTreeNode<K> newNode, int at) {
         if (!(newNode instanceof BTreeInternalNode)) {
             throw new RuntimeException("Instance not match.");
         }
@@ -210,30 +365,45 @@ class BTreeInternalNode<K extends Comparable<K>> extends AbstractBTreeNode<K> {
             throw new RuntimeException("Node is not full");
         }
 
-        K middle = (K) keys[degree - 1];
+        K middle = (K) keys[at];
         BTreeInternalNode<K> node = (BTreeInternalNode) newNode;
+        int moved = nkey - at - 1;
         int i = 0;
-        while (i < degree - 1) {
-            node.keys[i] = this.keys[i + degree];
-            this.keys[i + degree] = null;
+        while (i < moved) {
+            node.keys[i] = this.keys[i + at + 1];
+            this.keys[i + at + 1] = null;
             i++;
         }
-        this.keys[degree - 1] = null;
+        this.keys[at] = null;
 
         i = 0;
-        while (i < degree) {
-            node.children[i] = this.children[i + degree];
-            this.children[i + degree] = null;
+        while (i <= moved) {
+            node.children[i] = this.children[i + at + 1];
+            this.children[i + at + 1] = null;
             i++;
         }
 
-        this.nkey = degree - 1;
-        node.nkey = degree - 1;
-        this.nchild = degree;
-        node.nchild = degree;
+        this.nkey = at;
+        node.nkey = moved;
+        this.nchild = at + 1;
+        node.nchild = moved + 1;
+        this.recount();
+        node.recount();
         return middle;
     }
 
+    private void recount() {
+        size = nkey;
+        dead = 0;
+        for (int i = 0; i < nkey; i++) {
+            dead += deadCount(getKey(i));
+        }
+        for (int i = 0; i < nchild; i++) {
+            size += children[i].size;
+            dead += children[i].dead;
+        }
+    }
+
     @Override
     protected void merge(K middle, AbstractBTreeNode<K> sibling) {
         if (!(sibling instanceof BTreeInternalNode)) {
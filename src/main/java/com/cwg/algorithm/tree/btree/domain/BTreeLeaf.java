@@ -1,5 +1,7 @@
 package com.cwg.algorithm.tree.btree.domain;
 
+import java.util.Arrays;
+
 /**
  * 创建时间：2020-08-12 09:45
  *
@@ -16,17 +18,32 @@ public class BTreeLeaf<K extends Comparable<K>> extends AbstractBTreeNode<K> {
     }
 
 
+    private BTreeLeaf(BTreeLeaf<K> source, Object owner) {
+        super(source.degree);
+        this.keys = source.keys.clone();
+        this.nkey = source.nkey;
+        this.size = source.size;
+        this.dead = source.dead;
+        this.owner = owner;
+    }
+
     @Override
-    protected boolean isLeaf() {
-        return true;
+    AbstractBTreeNode<K> copy(Object owner) {
+        return new BTreeLeaf<>(this, owner);
     }
 
     @Override
-    K search(K key) {
-        int index = indexOfKey(key);
-        if (index >=0)
-            return (K) keys[index];
-        return null;
+    void clear() {
+        Arrays.fill(keys, null);
+        nkey = 0;
+        size = 0;
+        dead = 0;
+        owner = null;
+    }
+
+    @Override
+    protected boolean isLeaf() {
+        return true;
     }
 
     @Override
@@ -38,6 +55,8 @@ public class BTreeLeaf<K extends Comparable<K>> extends AbstractBTreeNode<K> {
     protected K setKey(K newKey, int oldKeyIndex) {
         K old = (K) keys[oldKeyIndex];
         keys[oldKeyIndex] = newKey;
+        size += (newKey != null ? 1 : 0) - (old != null ? 1 : 0);
+        dead += deadCount(newKey) - deadCount(old);
         return old;
     }
 
@@ -52,7 +71,7 @@ public class BTreeLeaf<K extends Comparable<K>> extends AbstractBTreeNode<K> {
     }
 
     @Override
-    protected void splitChild(int child) {
+    protected void splitChild(int child, int at) {
         throw new  RuntimeException("Could not split child of leaf node.");
     }
 
@@ -79,18 +98,34 @@ public class BTreeLeaf<K extends Comparable<K>> extends AbstractBTreeNode<K> {
     }
 
     @Override
-    void insertNotFull(K key) {
+    boolean insertNotFull(K key, LeafPosition<K> position) {
         checkNotFull();
+        if (position != null) {
+            position.leaf = this;
+            position.upper = null;
+        }
+        int index = searchKey(key);
+        if (index >= 0) {
+            if (position != null) {
+                position.existing = (K) keys[index];
+            }
+            return false;
+        }
         this.insertKey(key);
+        return true;
     }
 
     @Override
-    void deleteNotEmpty(K key) {
-        this.deleteKey(key);
+    boolean deleteNotEmpty(K key, LeafPosition<K> position) {
+        if (position != null) {
+            position.leaf = this;
+            position.upper = null;
+        }
+        return this.deleteKey(key) != null;
     }
 
     @Override
-    protected K splitSelf(AbstractBTreeNode<K> newNode) {
+    protected K splitSelf(AbstractBTreeNode<K> newNode, int at) {
         if (! (newNode instanceof BTreeLeaf)){
             throw new RuntimeException("Instance not match.");
         }
@@ -98,20 +133,31 @@ public class BTreeLeaf<K extends Comparable<K>> extends AbstractBTreeNode<K> {
             throw new RuntimeException("Node is not full");
         }
 
-        K middle = (K)keys[degree -1];
+        K middle = (K)keys[at];
         BTreeLeaf<K> node = (BTreeLeaf)newNode;
         int i = 0;
-        while (i < degree-1){
-            node.keys[i] = this.keys[i + degree];
-            this.keys[i + degree] = null;
+        while (i < nkey - at - 1){
+            node.keys[i] = this.keys[i + at + 1];
+            this.keys[i + at + 1] = null;
             i++;
         }
-        this.keys[degree -1] = null;
-        this.nkey = degree -1;
-        node.nkey = degree -1;
+        this.keys[at] = null;
+        node.nkey = nkey - at - 1;
+        this.nkey = at;
+        this.size = this.nkey;
+        node.size = node.nkey;
+        this.recountDead();
+        node.recountDead();
         return middle;
     }
 
+    private void recountDead() {
+        dead = 0;
+        for (int i = 0; i < nkey; i++) {
+            dead += deadCount(getKey(i));
+        }
+    }
+
     @Override
     protected void merge(K middle, AbstractBTreeNode<K> sibling) {
         if ( !(sibling instanceof BTreeLeaf)){
@@ -0,0 +1,1523 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.function.Function;
+
+/**
+ * Key-value B-Tree implementing {@link NavigableMap}.
+ * <p>Values are stored next to their keys in the node arrays, so {@link #get},
+ * {@link #put}, {@link #remove} and {@link #computeIfAbsent} cost one descent.
+ * Nodes split and merge exactly like {@link BTree}: preemptive split on insert,
+ * borrow or merge on the way down on delete.</p>
+ * <p>Keys use natural ordering and must not be null, values may be null.
+ * Views and iterators are backed by the map; iterators are fail-fast.
+ * Not thread safe.</p>
+ *
+ * 创建时间：2026-10-18 17:20
+ *
+ * @author 曹文岗
+ **/
+public class BTreeMap<K extends Comparable<K>, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+
+    private final int degree;
+    private Node<K, V> root;
+    private int size;
+    private int height = 1;
+    /**
+     * Structural modifications, including splits and merges which move entries between nodes.
+     */
+    private int modCount;
+
+    private transient EntrySet entrySet;
+    private transient KeySet<K> navigableKeySet;
+    private transient NavigableMap<K, V> descendingMap;
+
+    public BTreeMap(int degree) {
+        if (degree < 2) {
+            throw new IllegalArgumentException("degree mustn't < 2");
+        }
+        this.degree = degree;
+        this.root = new Node<>(degree, true);
+    }
+
+    public BTreeMap(int degree, Map<? extends K, ? extends V> m) {
+        this(degree);
+        putAll(m);
+    }
+
+    // ------------------------------------------------------------------ point operations
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getNode(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        @SuppressWarnings("unchecked")
+        K k = (K) Objects.requireNonNull(key);
+        Node<K, V> node = root;
+        while (true) {
+            int index = node.searchKey(k);
+            if (index >= 0) {
+                return node.value(index);
+            }
+            if (node.isLeaf()) {
+                return defaultValue;
+            }
+            node = node.children[-index - 1];
+        }
+    }
+
+    private Node<K, V> getNode(Object key) {
+        @SuppressWarnings("unchecked")
+        K k = (K) Objects.requireNonNull(key);
+        Node<K, V> node = root;
+        while (true) {
+            int index = node.searchKey(k);
+            if (index >= 0) {
+                return node;
+            }
+            if (node.isLeaf()) {
+                return null;
+            }
+            node = node.children[-index - 1];
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        Node<K, V> node = descendForInsert(key);
+        int index = node.searchKey(key);
+        if (index >= 0) {
+            return node.setValue(index, value);
+        }
+        insertAt(node, -index - 1, key, value);
+        return null;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(mappingFunction);
+        Node<K, V> node = descendForInsert(key);
+        int index = node.searchKey(key);
+        if (index >= 0 && node.value(index) != null) {
+            return node.value(index);
+        }
+        int mc = modCount;
+        V value = mappingFunction.apply(key);
+        if (mc != modCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (value != null) {
+            if (index >= 0) {
+                node.setValue(index, value);
+            } else {
+                insertAt(node, -index - 1, key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Walk down splitting every full node on the path.
+     *
+     * @return the node holding key, or the leaf key belongs to.
+     */
+    private Node<K, V> descendForInsert(K key) {
+        if (root.isFull()) {
+            Node<K, V> newRoot = new Node<>(degree, false);
+            newRoot.children[0] = root;
+            newRoot.splitChild(0);
+            root = newRoot;
+            height++;
+            modCount++;
+        }
+        Node<K, V> node = root;
+        while (!node.isLeaf()) {
+            int index = node.searchKey(key);
+            if (index >= 0) {
+                return node;
+            }
+            int i = -index - 1;
+            if (node.children[i].isFull()) {
+                node.splitChild(i);
+                modCount++;
+                int cmp = key.compareTo(node.key(i));
+                if (cmp == 0) {
+                    return node;
+                }
+                if (cmp > 0) {
+                    i++;
+                }
+            }
+            node = node.children[i];
+        }
+        return node;
+    }
+
+    private void insertAt(Node<K, V> leaf, int index, K key, V value) {
+        leaf.insertKey(index, key, value);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public V remove(Object key) {
+        @SuppressWarnings("unchecked")
+        K k = (K) Objects.requireNonNull(key);
+        return delete(k);
+    }
+
+    private V delete(K key) {
+        V old = null;
+        boolean removed = false;
+        Node<K, V> node = root;
+        while (!node.isLeaf()) {
+            int index = node.searchKey(key);
+            //key in this node
+            if (index >= 0) {
+                if (!removed) {
+                    old = node.value(index);
+                    removed = true;
+                }
+                Node<K, V> child;
+                if ((child = node.children[index]).nkey >= degree) {
+                    Node<K, V> leaf = child.rightmostLeaf();
+                    key = leaf.key(leaf.nkey - 1);
+                    node.setEntry(index, key, leaf.value(leaf.nkey - 1));
+                } else if ((child = node.children[index + 1]).nkey >= degree) {
+                    Node<K, V> leaf = child.leftmostLeaf();
+                    key = leaf.key(0);
+                    node.setEntry(index, key, leaf.value(0));
+                } else {
+                    child = node.children[index];
+                    node.mergeChildren(index);
+                    modCount++;
+                }
+                node = child;
+                continue;
+            }
+
+            //key may exist in child
+            int i = -index - 1;
+            Node<K, V> target = node.children[i];
+            if (target.nkey < degree) {
+                if (i > 0 && node.children[i - 1].nkey >= degree) {
+                    node.borrowFromLeft(i);
+                } else if (i < node.nkey && node.children[i + 1].nkey >= degree) {
+                    node.borrowFromRight(i);
+                } else if (i > 0) {
+                    target = node.children[i - 1];
+                    node.mergeChildren(i - 1);
+                } else {
+                    node.mergeChildren(i);
+                }
+                modCount++;
+            }
+            node = target;
+        }
+        int index = node.searchKey(key);
+        if (index >= 0) {
+            if (!removed) {
+                old = node.value(index);
+                removed = true;
+            }
+            node.deleteKey(index);
+        }
+        if (root.nkey == 0 && !root.isLeaf()) {
+            //shrink
+            root = root.children[0];
+            height--;
+        }
+        if (removed) {
+            size--;
+            modCount++;
+        }
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        root = new Node<>(degree, true);
+        height = 1;
+        size = 0;
+        modCount++;
+    }
+
+    // ------------------------------------------------------------------ navigation
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return null;
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        if (size == 0) {
+            return null;
+        }
+        Node<K, V> leaf = root.leftmostLeaf();
+        return leaf.entry(0);
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        if (size == 0) {
+            return null;
+        }
+        Node<K, V> leaf = root.rightmostLeaf();
+        return leaf.entry(leaf.nkey - 1);
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        Entry<K, V> entry = firstEntry();
+        if (entry != null) {
+            delete(entry.getKey());
+        }
+        return entry;
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        Entry<K, V> entry = lastEntry();
+        if (entry != null) {
+            delete(entry.getKey());
+        }
+        return entry;
+    }
+
+    @Override
+    public K firstKey() {
+        return key(firstEntry());
+    }
+
+    @Override
+    public K lastKey() {
+        return key(lastEntry());
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return navigate(key, false, false);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(lowerEntry(key));
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return navigate(key, false, true);
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(floorEntry(key));
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return navigate(key, true, true);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(ceilingEntry(key));
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return navigate(key, true, false);
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(higherEntry(key));
+    }
+
+    /**
+     * One descent remembering the closest candidate seen on the way down.
+     *
+     * @param above     look for keys above (ceiling/higher) or below (floor/lower) the given key
+     * @param inclusive whether an equal key qualifies
+     */
+    private Entry<K, V> navigate(K key, boolean above, boolean inclusive) {
+        Objects.requireNonNull(key);
+        Node<K, V> node = root;
+        Node<K, V> candidate = null;
+        int candidateIndex = -1;
+        while (true) {
+            int index = node.searchKey(key);
+            if (index >= 0) {
+                if (inclusive) {
+                    return node.entry(index);
+                }
+                if (!node.isLeaf()) {
+                    if (above) {
+                        return node.children[index + 1].leftmostLeaf().entry(0);
+                    }
+                    Node<K, V> leaf = node.children[index].rightmostLeaf();
+                    return leaf.entry(leaf.nkey - 1);
+                }
+                if (above && index + 1 < node.nkey) {
+                    return node.entry(index + 1);
+                }
+                if (!above && index > 0) {
+                    return node.entry(index - 1);
+                }
+                break;
+            }
+            int point = -index - 1;
+            if (above && point < node.nkey) {
+                candidate = node;
+                candidateIndex = point;
+            } else if (!above && point > 0) {
+                candidate = node;
+                candidateIndex = point - 1;
+            }
+            if (node.isLeaf()) {
+                break;
+            }
+            node = node.children[point];
+        }
+        return candidate == null ? null : candidate.entry(candidateIndex);
+    }
+
+    // ------------------------------------------------------------------ views
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        KeySet<K> ks = navigableKeySet;
+        return ks != null ? ks : (navigableKeySet = new KeySet<>(this));
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new Values<>(this);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        EntrySet es = entrySet;
+        return es != null ? es : (entrySet = new EntrySet());
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        NavigableMap<K, V> km = descendingMap;
+        return km != null ? km
+                : (descendingMap = new SubMap(true, null, true, true, null, true, true));
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        Objects.requireNonNull(fromKey);
+        Objects.requireNonNull(toKey);
+        return new SubMap(false, fromKey, fromInclusive, false, toKey, toInclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        Objects.requireNonNull(toKey);
+        return new SubMap(true, null, true, false, toKey, inclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        Objects.requireNonNull(fromKey);
+        return new SubMap(false, fromKey, inclusive, true, null, true, false);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    private static <K> K key(Entry<K, ?> entry) {
+        if (entry == null) {
+            throw new NoSuchElementException();
+        }
+        return entry.getKey();
+    }
+
+    private static <K> K keyOrNull(Entry<K, ?> entry) {
+        return entry == null ? null : entry.getKey();
+    }
+
+    /**
+     * Replace value of an existing key without restructuring any node.
+     */
+    private void replaceValue(K key, V value) {
+        Node<K, V> node = getNode(key);
+        if (node == null) {
+            throw new ConcurrentModificationException();
+        }
+        node.setValue(node.searchKey(key), value);
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator(null, true, null, true, false);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            Node<K, V> node = getNode(entry.getKey());
+            @SuppressWarnings("unchecked")
+            K key = (K) entry.getKey();
+            return node != null && Objects.equals(node.value(node.searchKey(key)), entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (contains(o)) {
+                BTreeMap.this.remove(((Entry<?, ?>) o).getKey());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            BTreeMap.this.clear();
+        }
+    }
+
+    /**
+     * Values of a backing map, in the map's iteration order.
+     */
+    static final class Values<V> extends AbstractCollection<V> {
+        private final Map<?, V> m;
+
+        Values(Map<?, V> m) {
+            this.m = m;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            Iterator<? extends Entry<?, V>> it = m.entrySet().iterator();
+            return new Iterator<V>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public V next() {
+                    return it.next().getValue();
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return m.size();
+        }
+
+        @Override
+        public void clear() {
+            m.clear();
+        }
+    }
+
+    /**
+     * In-order iterator over a key range, holding one (node, index) pair per level.
+     * <p>Fails fast on structural modification; its own {@link #remove()} deletes
+     * through the map and then re-seeks past the removed key.</p>
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+        private final K from;
+        private final boolean fromInclusive;
+        private final K to;
+        private final boolean toInclusive;
+        private final boolean descending;
+        private final Cursor cursor = new Cursor();
+        private K lastReturned;
+        private int expectedModCount;
+
+        /**
+         * @param from       lower bound or null for none
+         * @param to         upper bound or null for none
+         * @param descending iterate from the upper end down
+         */
+        EntryIterator(K from, boolean fromInclusive, K to, boolean toInclusive, boolean descending) {
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+            this.descending = descending;
+            if (descending) {
+                if (to == null) {
+                    cursor.seekLast();
+                } else {
+                    cursor.seek(to, toInclusive, false);
+                }
+            } else {
+                if (from == null) {
+                    cursor.seekFirst();
+                } else {
+                    cursor.seek(from, fromInclusive, true);
+                }
+            }
+            this.expectedModCount = modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!cursor.valid()) {
+                return false;
+            }
+            K key = cursor.key();
+            return descending ? !tooLow(key) : !tooHigh(key);
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = cursor.key();
+            V value = cursor.value();
+            lastReturned = key;
+            if (descending) {
+                cursor.prev();
+            } else {
+                cursor.next();
+            }
+            return new IteratorEntry(key, value);
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            delete(lastReturned);
+            cursor.seek(lastReturned, false, !descending);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        private boolean tooLow(K key) {
+            if (from == null) {
+                return false;
+            }
+            int c = key.compareTo(from);
+            return c < 0 || (c == 0 && !fromInclusive);
+        }
+
+        private boolean tooHigh(K key) {
+            if (to == null) {
+                return false;
+            }
+            int c = key.compareTo(to);
+            return c > 0 || (c == 0 && !toInclusive);
+        }
+    }
+
+    /**
+     * Entry handed out by iterators, {@link #setValue} writes through to the map.
+     */
+    private final class IteratorEntry extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        IteratorEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            replaceValue(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     * Position in the tree: a stack with one (node, index) pair per level.
+     * <p>For the top of the stack the index is the current key; for the nodes below it
+     * the index is the child that was descended into.</p>
+     */
+    private final class Cursor {
+        private Node<K, V>[] nodes;
+        private int[] indexes;
+        private int depth = -1;
+
+        @SuppressWarnings("unchecked")
+        private void reset() {
+            if (nodes == null || nodes.length < height) {
+                nodes = (Node<K, V>[]) new Node<?, ?>[height];
+                indexes = new int[height];
+            }
+            depth = -1;
+        }
+
+        boolean valid() {
+            return depth >= 0;
+        }
+
+        K key() {
+            return nodes[depth].key(indexes[depth]);
+        }
+
+        V value() {
+            return nodes[depth].value(indexes[depth]);
+        }
+
+        private void push(Node<K, V> node, int index) {
+            nodes[++depth] = node;
+            indexes[depth] = index;
+        }
+
+        void seekFirst() {
+            reset();
+            if (size > 0) {
+                descendLeftmost(root);
+            }
+        }
+
+        void seekLast() {
+            reset();
+            if (size > 0) {
+                descendRightmost(root);
+            }
+        }
+
+        /**
+         * Position at the first key at/after (forward) or at/before (backward) given key.
+         */
+        void seek(K key, boolean inclusive, boolean forward) {
+            reset();
+            if (size == 0) {
+                return;
+            }
+            Node<K, V> node = root;
+            while (true) {
+                int index = node.searchKey(key);
+                if (index >= 0) {
+                    push(node, index);
+                    if (!inclusive) {
+                        if (forward) {
+                            next();
+                        } else {
+                            prev();
+                        }
+                    }
+                    return;
+                }
+                int point = -index - 1;
+                if (node.isLeaf()) {
+                    if (forward) {
+                        if (point < node.nkey) {
+                            push(node, point);
+                        } else {
+                            push(node, node.nkey - 1);
+                            next();
+                        }
+                    } else {
+                        if (point > 0) {
+                            push(node, point - 1);
+                        } else {
+                            push(node, 0);
+                            prev();
+                        }
+                    }
+                    return;
+                }
+                push(node, point);
+                node = node.children[point];
+            }
+        }
+
+        void next() {
+            Node<K, V> node = nodes[depth];
+            int index = indexes[depth];
+            if (!node.isLeaf()) {
+                indexes[depth] = index + 1;
+                descendLeftmost(node.children[index + 1]);
+                return;
+            }
+            if (index + 1 < node.nkey) {
+                indexes[depth] = index + 1;
+                return;
+            }
+            //climb until an ancestor still has a key right of the child we came from
+            while (--depth >= 0) {
+                if (indexes[depth] < nodes[depth].nkey) {
+                    return;
+                }
+            }
+        }
+
+        void prev() {
+            Node<K, V> node = nodes[depth];
+            int index = indexes[depth];
+            if (!node.isLeaf()) {
+                descendRightmost(node.children[index]);
+                return;
+            }
+            if (index > 0) {
+                indexes[depth] = index - 1;
+                return;
+            }
+            //climb until an ancestor has a key left of the child we came from
+            while (--depth >= 0) {
+                if (indexes[depth] > 0) {
+                    indexes[depth]--;
+                    return;
+                }
+            }
+        }
+
+        private void descendLeftmost(Node<K, V> node) {
+            while (!node.isLeaf()) {
+                push(node, 0);
+                node = node.children[0];
+            }
+            push(node, 0);
+        }
+
+        private void descendRightmost(Node<K, V> node) {
+            while (!node.isLeaf()) {
+                push(node, node.nkey);
+                node = node.children[node.nkey];
+            }
+            push(node, node.nkey - 1);
+        }
+    }
+
+    /**
+     * Bounded and/or descending view of the map.
+     * <p>Bounds are always kept in ascending terms ({@code lo <= hi});
+     * {@code descending} only flips the direction the view is seen in.</p>
+     */
+    private final class SubMap extends AbstractMap<K, V> implements NavigableMap<K, V> {
+        private final boolean fromStart;
+        private final K lo;
+        private final boolean loInclusive;
+        private final boolean toEnd;
+        private final K hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+
+        SubMap(boolean fromStart, K lo, boolean loInclusive,
+               boolean toEnd, K hi, boolean hiInclusive, boolean descending) {
+            if (!fromStart && !toEnd && lo.compareTo(hi) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            this.fromStart = fromStart;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.toEnd = toEnd;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        private boolean tooLow(K key) {
+            if (fromStart) {
+                return false;
+            }
+            int c = key.compareTo(lo);
+            return c < 0 || (c == 0 && !loInclusive);
+        }
+
+        private boolean tooHigh(K key) {
+            if (toEnd) {
+                return false;
+            }
+            int c = key.compareTo(hi);
+            return c > 0 || (c == 0 && !hiInclusive);
+        }
+
+        private boolean inRange(K key) {
+            return !tooLow(key) && !tooHigh(key);
+        }
+
+        /**
+         * Whether key lies in range, counting an excluded bound itself as inside.
+         */
+        private boolean inClosedRange(K key) {
+            return (fromStart || key.compareTo(lo) >= 0) && (toEnd || key.compareTo(hi) <= 0);
+        }
+
+        private boolean inRange(K key, boolean inclusive) {
+            return inclusive ? inRange(key) : inClosedRange(key);
+        }
+
+        private Entry<K, V> checkHigh(Entry<K, V> entry) {
+            return entry == null || tooHigh(entry.getKey()) ? null : entry;
+        }
+
+        private Entry<K, V> checkLow(Entry<K, V> entry) {
+            return entry == null || tooLow(entry.getKey()) ? null : entry;
+        }
+
+        private Entry<K, V> absLowest() {
+            return checkHigh(fromStart ? firstEntry0() : navigate(lo, true, loInclusive));
+        }
+
+        private Entry<K, V> absHighest() {
+            return checkLow(toEnd ? lastEntry0() : navigate(hi, false, hiInclusive));
+        }
+
+        private Entry<K, V> absCeiling(K key) {
+            return tooLow(key) ? absLowest() : checkHigh(navigate(key, true, true));
+        }
+
+        private Entry<K, V> absHigher(K key) {
+            return tooLow(key) ? absLowest() : checkHigh(navigate(key, true, false));
+        }
+
+        private Entry<K, V> absFloor(K key) {
+            return tooHigh(key) ? absHighest() : checkLow(navigate(key, false, true));
+        }
+
+        private Entry<K, V> absLower(K key) {
+            return tooHigh(key) ? absHighest() : checkLow(navigate(key, false, false));
+        }
+
+        private Entry<K, V> firstEntry0() {
+            return BTreeMap.this.firstEntry();
+        }
+
+        private Entry<K, V> lastEntry0() {
+            return BTreeMap.this.lastEntry();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            @SuppressWarnings("unchecked")
+            K k = (K) Objects.requireNonNull(key);
+            return inRange(k) && BTreeMap.this.containsKey(k);
+        }
+
+        @Override
+        public V get(Object key) {
+            @SuppressWarnings("unchecked")
+            K k = (K) Objects.requireNonNull(key);
+            return inRange(k) ? BTreeMap.this.get(k) : null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            if (!inRange(Objects.requireNonNull(key))) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return BTreeMap.this.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            @SuppressWarnings("unchecked")
+            K k = (K) Objects.requireNonNull(key);
+            return inRange(k) ? BTreeMap.this.remove(k) : null;
+        }
+
+        @Override
+        public int size() {
+            if (fromStart && toEnd) {
+                return BTreeMap.this.size();
+            }
+            int n = 0;
+            Iterator<Entry<K, V>> it = entrySet().iterator();
+            while (it.hasNext()) {
+                it.next();
+                n++;
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return absLowest() == null;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator(lo, loInclusive, hi, hiInclusive, descending);
+                }
+
+                @Override
+                public int size() {
+                    return SubMap.this.size();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return SubMap.this.isEmpty();
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return descending ? Comparator.reverseOrder() : null;
+        }
+
+        @Override
+        public Entry<K, V> lowerEntry(K key) {
+            return descending ? absHigher(key) : absLower(key);
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return keyOrNull(lowerEntry(key));
+        }
+
+        @Override
+        public Entry<K, V> floorEntry(K key) {
+            return descending ? absCeiling(key) : absFloor(key);
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return keyOrNull(floorEntry(key));
+        }
+
+        @Override
+        public Entry<K, V> ceilingEntry(K key) {
+            return descending ? absFloor(key) : absCeiling(key);
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return keyOrNull(ceilingEntry(key));
+        }
+
+        @Override
+        public Entry<K, V> higherEntry(K key) {
+            return descending ? absLower(key) : absHigher(key);
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return keyOrNull(higherEntry(key));
+        }
+
+        @Override
+        public Entry<K, V> firstEntry() {
+            return descending ? absHighest() : absLowest();
+        }
+
+        @Override
+        public Entry<K, V> lastEntry() {
+            return descending ? absLowest() : absHighest();
+        }
+
+        @Override
+        public Entry<K, V> pollFirstEntry() {
+            Entry<K, V> entry = firstEntry();
+            if (entry != null) {
+                delete(entry.getKey());
+            }
+            return entry;
+        }
+
+        @Override
+        public Entry<K, V> pollLastEntry() {
+            Entry<K, V> entry = lastEntry();
+            if (entry != null) {
+                delete(entry.getKey());
+            }
+            return entry;
+        }
+
+        @Override
+        public K firstKey() {
+            return key(firstEntry());
+        }
+
+        @Override
+        public K lastKey() {
+            return key(lastEntry());
+        }
+
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new SubMap(fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            return new KeySet<>(this);
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public Collection<V> values() {
+            return new Values<>(this);
+        }
+
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            if (descending) {
+                return absSubMap(toKey, toInclusive, fromKey, fromInclusive);
+            }
+            return absSubMap(fromKey, fromInclusive, toKey, toInclusive);
+        }
+
+        @Override
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            return descending ? absTailMap(toKey, inclusive) : absHeadMap(toKey, inclusive);
+        }
+
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            return descending ? absHeadMap(fromKey, inclusive) : absTailMap(fromKey, inclusive);
+        }
+
+        private NavigableMap<K, V> absSubMap(K from, boolean fromInclusive, K to, boolean toInclusive) {
+            if (!inRange(from, fromInclusive)) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+            if (!inRange(to, toInclusive)) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+            return new SubMap(false, from, fromInclusive, false, to, toInclusive, descending);
+        }
+
+        private NavigableMap<K, V> absHeadMap(K to, boolean inclusive) {
+            if (!inRange(to, inclusive)) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+            return new SubMap(fromStart, lo, loInclusive, false, to, inclusive, descending);
+        }
+
+        private NavigableMap<K, V> absTailMap(K from, boolean inclusive) {
+            if (!inRange(from, inclusive)) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+            return new SubMap(false, from, inclusive, toEnd, hi, hiInclusive, descending);
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+    }
+
+    /**
+     * Navigable key set backed by a navigable map.
+     */
+    static final class KeySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+        private final NavigableMap<E, ?> m;
+
+        KeySet(NavigableMap<E, ?> m) {
+            this.m = m;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            Iterator<? extends Entry<E, ?>> it = m.entrySet().iterator();
+            return new Iterator<E>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    return it.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return m.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return m.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return m.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (m.containsKey(o)) {
+                m.remove(o);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void clear() {
+            m.clear();
+        }
+
+        @Override
+        public E lower(E e) {
+            return m.lowerKey(e);
+        }
+
+        @Override
+        public E floor(E e) {
+            return m.floorKey(e);
+        }
+
+        @Override
+        public E ceiling(E e) {
+            return m.ceilingKey(e);
+        }
+
+        @Override
+        public E higher(E e) {
+            return m.higherKey(e);
+        }
+
+        @Override
+        public E first() {
+            return m.firstKey();
+        }
+
+        @Override
+        public E last() {
+            return m.lastKey();
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return m.comparator();
+        }
+
+        @Override
+        public E pollFirst() {
+            Entry<E, ?> e = m.pollFirstEntry();
+            return e == null ? null : e.getKey();
+        }
+
+        @Override
+        public E pollLast() {
+            Entry<E, ?> e = m.pollLastEntry();
+            return e == null ? null : e.getKey();
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return new KeySet<>(m.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            return new KeySet<>(m.subMap(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return new KeySet<>(m.headMap(toElement, inclusive));
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return new KeySet<>(m.tailMap(fromElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+
+    /**
+     * Node of {@link BTreeMap}: keys and their values in parallel arrays,
+     * a leaf node has no children array.
+     */
+    static final class Node<K extends Comparable<K>, V> {
+        final Object[] keys;
+        final Object[] values;
+        final Node<K, V>[] children;
+        int nkey;
+
+        @SuppressWarnings("unchecked")
+        Node(int degree, boolean leaf) {
+            keys = new Object[2 * degree - 1];
+            values = new Object[2 * degree - 1];
+            children = leaf ? null : (Node<K, V>[]) new Node<?, ?>[2 * degree];
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+
+        boolean isFull() {
+            return nkey == keys.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        K key(int index) {
+            return (K) keys[index];
+        }
+
+        @SuppressWarnings("unchecked")
+        V value(int index) {
+            return (V) values[index];
+        }
+
+        V setValue(int index, V value) {
+            V old = value(index);
+            values[index] = value;
+            return old;
+        }
+
+        void setEntry(int index, K key, V value) {
+            keys[index] = key;
+            values[index] = value;
+        }
+
+        Entry<K, V> entry(int index) {
+            return new SimpleImmutableEntry<>(key(index), value(index));
+        }
+
+        /**
+         * Binary search given key in current node.
+         *
+         * @return index of key if it exists, else {@code -(insertion point) - 1}.
+         */
+        int searchKey(K key) {
+            int low = 0;
+            int high = nkey - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = key.compareTo(key(mid));
+                if (cmp > 0) {
+                    low = mid + 1;
+                } else if (cmp < 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertKey(int index, K key, V value) {
+            System.arraycopy(keys, index, keys, index + 1, nkey - index);
+            System.arraycopy(values, index, values, index + 1, nkey - index);
+            keys[index] = key;
+            values[index] = value;
+            nkey++;
+        }
+
+        void deleteKey(int index) {
+            System.arraycopy(keys, index + 1, keys, index, nkey - index - 1);
+            System.arraycopy(values, index + 1, values, index, nkey - index - 1);
+            nkey--;
+            keys[nkey] = null;
+            values[nkey] = null;
+        }
+
+        Node<K, V> leftmostLeaf() {
+            Node<K, V> node = this;
+            while (!node.isLeaf()) {
+                node = node.children[0];
+            }
+            return node;
+        }
+
+        Node<K, V> rightmostLeaf() {
+            Node<K, V> node = this;
+            while (!node.isLeaf()) {
+                node = node.children[node.nkey];
+            }
+            return node;
+        }
+
+        /**
+         * Split the full child at given index into two nodes around its middle entry.
+         */
+        void splitChild(int child) {
+            Node<K, V> old = children[child];
+            int degree = (old.keys.length + 1) / 2;
+            Node<K, V> neo = new Node<>(degree, old.isLeaf());
+            System.arraycopy(old.keys, degree, neo.keys, 0, degree - 1);
+            System.arraycopy(old.values, degree, neo.values, 0, degree - 1);
+            if (!old.isLeaf()) {
+                System.arraycopy(old.children, degree, neo.children, 0, degree);
+                Arrays.fill(old.children, degree, old.children.length, null);
+            }
+            K middleKey = old.key(degree - 1);
+            V middleValue = old.value(degree - 1);
+            Arrays.fill(old.keys, degree - 1, old.keys.length, null);
+            Arrays.fill(old.values, degree - 1, old.values.length, null);
+            old.nkey = degree - 1;
+            neo.nkey = degree - 1;
+
+            System.arraycopy(children, child + 1, children, child + 2, nkey - child);
+            children[child + 1] = neo;
+            insertKey(child, middleKey, middleValue);
+        }
+
+        /**
+         * Merge child {@code index + 1} and the entry between into child {@code index}.
+         */
+        void mergeChildren(int index) {
+            Node<K, V> left = children[index];
+            Node<K, V> right = children[index + 1];
+            left.keys[left.nkey] = keys[index];
+            left.values[left.nkey] = values[index];
+            System.arraycopy(right.keys, 0, left.keys, left.nkey + 1, right.nkey);
+            System.arraycopy(right.values, 0, left.values, left.nkey + 1, right.nkey);
+            if (!left.isLeaf()) {
+                System.arraycopy(right.children, 0, left.children, left.nkey + 1, right.nkey + 1);
+            }
+            left.nkey += right.nkey + 1;
+
+            System.arraycopy(children, index + 2, children, index + 1, nkey - index - 1);
+            children[nkey] = null;
+            deleteKey(index);
+        }
+
+        /**
+         * Rotate the last entry of child {@code index - 1} through this node into child {@code index}.
+         */
+        void borrowFromLeft(int index) {
+            Node<K, V> target = children[index];
+            Node<K, V> sibling = children[index - 1];
+            target.insertKey(0, key(index - 1), value(index - 1));
+            if (!target.isLeaf()) {
+                System.arraycopy(target.children, 0, target.children, 1, target.nkey);
+                target.children[0] = sibling.children[sibling.nkey];
+                sibling.children[sibling.nkey] = null;
+            }
+            setEntry(index - 1, sibling.key(sibling.nkey - 1), sibling.value(sibling.nkey - 1));
+            sibling.deleteKey(sibling.nkey - 1);
+        }
+
+        /**
+         * Rotate the first entry of child {@code index + 1} through this node into child {@code index}.
+         */
+        void borrowFromRight(int index) {
+            Node<K, V> target = children[index];
+            Node<K, V> sibling = children[index + 1];
+            target.keys[target.nkey] = keys[index];
+            target.values[target.nkey] = values[index];
+            if (!target.isLeaf()) {
+                target.children[target.nkey + 1] = sibling.children[0];
+                System.arraycopy(sibling.children, 1, sibling.children, 0, sibling.nkey);
+                sibling.children[sibling.nkey] = null;
+            }
+            target.nkey++;
+            setEntry(index, sibling.key(0), sibling.value(0));
+            sibling.deleteKey(0);
+        }
+    }
+}
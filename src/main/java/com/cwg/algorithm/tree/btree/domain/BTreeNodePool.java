@@ -0,0 +1,146 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+/**
+ * Bounded free list of B-Tree nodes, handing nodes dropped by merges and root shrinks
+ * back out to later splits instead of allocating new key and child arrays.
+ * <p>The token of the nodes a pooling tree may change in place (see
+ * {@link AbstractBTreeNode.Owner}) refers to the pool, so every place that creates or
+ * drops an owned node reaches the pool through the owner it already has. Only nodes of the
+ * current owner are taken back: a node shared with a snapshot is never owned and is left
+ * to the garbage collector. Nodes are cleared when taken back, so the pool holds no keys.</p>
+ * <p>Leaves and internal nodes share the capacity; a node given back to a full pool is
+ * dropped. Not thread safe.</p>
+ *
+ * 创建时间：2026-10-19 06:40
+ *
+ * @author 曹文岗
+ **/
+public class BTreeNodePool {
+
+    private final int degree;
+    private final AbstractBTreeNode<?>[] leaves;
+    private final AbstractBTreeNode<?>[] internals;
+    private int nleaf;
+    private int ninternal;
+
+    private long allocations;
+    private long reuses;
+    private long recycles;
+    private long drops;
+
+    /**
+     * @param degree   degree of the nodes pooled
+     * @param capacity most nodes kept
+     */
+    BTreeNodePool(int degree, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity mustn't < 0");
+        }
+        this.degree = degree;
+        this.leaves = new AbstractBTreeNode<?>[capacity];
+        this.internals = new AbstractBTreeNode<?>[capacity];
+    }
+
+    /**
+     * New empty node owned by owner, taken from the pool of owner if there is one.
+     */
+    @SuppressWarnings("unchecked")
+    static <K extends Comparable<K>> AbstractBTreeNode<K> newNode(boolean leaf, int degree, Object owner) {
+        BTreeNodePool pool = poolOf(owner);
+        AbstractBTreeNode<K> node = pool != null ? (AbstractBTreeNode<K>) pool.take(leaf) : null;
+        if (node == null) {
+            node = leaf ? new BTreeLeaf<>(degree) : new BTreeInternalNode<>(degree);
+        }
+        node.owner = owner;
+        return node;
+    }
+
+    /**
+     * Give a node no longer referenced by the tree back to the pool of owner, if it has one
+     * and the node is owned, that is, not shared with a snapshot.
+     */
+    static void recycle(AbstractBTreeNode<?> node, Object owner) {
+        BTreeNodePool pool = poolOf(owner);
+        if (node != null && node.owner == owner && pool != null) {
+            pool.give(node);
+        }
+    }
+
+    private static BTreeNodePool poolOf(Object owner) {
+        return owner instanceof AbstractBTreeNode.Owner ? ((AbstractBTreeNode.Owner) owner).pool : null;
+    }
+
+    private AbstractBTreeNode<?> take(boolean leaf) {
+        if (leaf ? nleaf == 0 : ninternal == 0) {
+            allocations++;
+            return null;
+        }
+        reuses++;
+        AbstractBTreeNode<?> node;
+        if (leaf) {
+            node = leaves[--nleaf];
+            leaves[nleaf] = null;
+        } else {
+            node = internals[--ninternal];
+            internals[ninternal] = null;
+        }
+        return node;
+    }
+
+    private void give(AbstractBTreeNode<?> node) {
+        if (node.degree != degree || nleaf + ninternal == leaves.length) {
+            drops++;
+            return;
+        }
+        node.clear();
+        recycles++;
+        if (node.isLeaf()) {
+            leaves[nleaf++] = node;
+        } else {
+            internals[ninternal++] = node;
+        }
+    }
+
+    public int capacity() {
+        return leaves.length;
+    }
+
+    /**
+     * @return number of nodes kept for reuse.
+     */
+    public int size() {
+        return nleaf + ninternal;
+    }
+
+    /**
+     * @return number of nodes allocated because the pool had none of the kind asked for.
+     */
+    public long allocations() {
+        return allocations;
+    }
+
+    /**
+     * @return number of nodes handed out again.
+     */
+    public long reuses() {
+        return reuses;
+    }
+
+    /**
+     * @return number of nodes taken back.
+     */
+    public long recycles() {
+        return recycles;
+    }
+
+    /**
+     * @return number of nodes given back to a full pool and left to the garbage collector.
+     */
+    public long drops() {
+        return drops;
+    }
+
+    public void resetStats() {
+        allocations = reuses = recycles = drops = 0;
+    }
+}
@@ -0,0 +1,272 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+/**
+ * Remove key ranges from a B-Tree by splitting it and joining the remaining pieces.
+ * <p>{@link #split} cuts a tree along the path of one key into the trees of the smaller
+ * and of the greater keys. The nodes on the path are not changed: each is replaced by a
+ * new node holding the part of its keys and children on one side, so subtrees entirely
+ * on one side are taken over by reference and never visited. The pieces of every level are
+ * joined with the piece coming from below. A deleted range is the middle of two splits;
+ * its subtrees are dropped as a whole and never visited.</p>
+ * <p>A piece is a valid B-Tree except that its root may hold fewer than
+ * {@code degree - 1} keys. {@link #join} hangs the lower tree into the spine of the taller
+ * one at the matching height and rebalances only that spot, splitting full spine nodes on
+ * the way down like an insert. Since the pieces of a split grow in height, all joins of
+ * a split together cost O(degree * height).</p>
+ * <p>Nodes not owned by {@code owner} are copied before they are changed, so a snapshot
+ * sharing the tree is left alone.</p>
+ *
+ * 创建时间：2026-10-19 03:30
+ *
+ * @author 曹文岗
+ **/
+class BTreeRangeDeleter<K extends Comparable<K>> {
+
+    private final int degree;
+    private final Object owner;
+
+    /**
+     * Results of {@link #split}: trees of the smaller and greater keys (null if empty) and
+     * the split key if the tree held it.
+     */
+    AbstractBTreeNode<K> left;
+    AbstractBTreeNode<K> right;
+    K found;
+
+    BTreeRangeDeleter(int degree, Object owner) {
+        this.degree = degree;
+        this.owner = owner;
+    }
+
+    /**
+     * Split the tree rooted at node into {@link #left} (keys less than key) and
+     * {@link #right} (keys greater than key), leaving node itself unchanged.
+     */
+    void split(AbstractBTreeNode<K> node, K key) {
+        if (node == null) {
+            left = null;
+            right = null;
+            found = null;
+            return;
+        }
+        int index = node.searchKey(key);
+        int at = index >= 0 ? index : -index - 1;
+        if (node.isLeaf()) {
+            left = leafPart(node, 0, at);
+            right = leafPart(node, index >= 0 ? at + 1 : at, node.nkey());
+            found = index >= 0 ? node.getKey(index) : null;
+            return;
+        }
+        if (index >= 0) {
+            left = part(node, 0, at);
+            right = part(node, at + 1, node.nkey());
+            found = node.getKey(at);
+            return;
+        }
+        split(node.getChild(at), key);
+        AbstractBTreeNode<K> lower = left;
+        AbstractBTreeNode<K> upper = right;
+        K key0 = found;
+        left = at > 0 ? join(part(node, 0, at - 1), node.getKey(at - 1), lower) : lower;
+        right = at < node.nkey() ? join(upper, node.getKey(at), part(node, at + 1, node.nkey())) : upper;
+        found = key0;
+    }
+
+    /**
+     * Join two trees, all keys of {@code lower} less than key and all keys of
+     * {@code upper} greater.
+     *
+     * @return root of the joined tree.
+     */
+    AbstractBTreeNode<K> join(AbstractBTreeNode<K> lower, K key, AbstractBTreeNode<K> upper) {
+        if (lower == null) {
+            return insert(upper, key);
+        }
+        if (upper == null) {
+            return insert(lower, key);
+        }
+        int lowerHeight = height(lower);
+        int upperHeight = height(upper);
+        if (lowerHeight == upperHeight) {
+            AbstractBTreeNode<K> root = newNode(false);
+            root.insertChild(lower, 0);
+            root.insertChild(upper, 1);
+            root.insertKey(key);
+            rebalance(root, 0);
+            if (root.nkey() > 0) {
+                return root;
+            }
+            AbstractBTreeNode<K> child = root.getChild(0);
+            BTreeNodePool.recycle(root, owner);
+            return child;
+        }
+        boolean intoLower = lowerHeight > upperHeight;
+        AbstractBTreeNode<K> root = splitRootIfFull(writable(intoLower ? lower : upper));
+        AbstractBTreeNode<K> node = root;
+        AbstractBTreeNode<K> hung = intoLower ? upper : lower;
+        int added = 1 + hung.size;
+        int addedDead = root.deadCount(key) + hung.dead;
+        //walk down the right spine of lower or the left spine of upper
+        for (int h = height(root); h > Math.min(lowerHeight, upperHeight) + 1; h--) {
+            node.size += added;
+            node.dead += addedDead;
+            int i = intoLower ? node.nchild() - 1 : 0;
+            if (node.getChild(i).isFull()) {
+                node.splitChild(i);
+                i = intoLower ? i + 1 : i;
+            }
+            node = node.writableChild(i);
+        }
+        node.insertKey(key);
+        if (intoLower) {
+            node.insertChild(upper, node.nchild());
+            rebalance(node, node.nkey() - 1);
+        } else {
+            node.insertChild(lower, 0);
+            rebalance(node, 0);
+        }
+        return root;
+    }
+
+    /**
+     * Join two trees, all keys of {@code lower} less than all keys of {@code upper}.
+     */
+    AbstractBTreeNode<K> join(AbstractBTreeNode<K> lower, AbstractBTreeNode<K> upper) {
+        if (lower == null) {
+            return upper;
+        }
+        if (upper == null) {
+            return lower;
+        }
+        //the maximum of lower becomes the separator
+        AbstractBTreeNode<K> max = lower;
+        while (!max.isLeaf()) {
+            max = max.getChild(max.nchild() - 1);
+        }
+        K key = max.getKey(max.nkey() - 1);
+        lower = writable(lower);
+        lower.deleteNotEmpty(key);
+        if (lower.nkey() == 0) {
+            AbstractBTreeNode<K> empty = lower;
+            lower = lower.isLeaf() ? null : lower.getChild(0);
+            BTreeNodePool.recycle(empty, owner);
+        }
+        return join(lower, key, upper);
+    }
+
+    /**
+     * Number of keys in the tree rooted at node, which may be null.
+     */
+    static <K extends Comparable<K>> int count(AbstractBTreeNode<K> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Make children i and i + 1 of node hold at least {@code degree - 1} keys each, by
+     * merging them if they fit into one node and by moving keys over the separator otherwise.
+     */
+    void rebalance(AbstractBTreeNode<K> node, int i) {
+        int subtreeSize = node.size;
+        int subtreeDead = node.dead;
+        AbstractBTreeNode<K> a = node.writableChild(i);
+        AbstractBTreeNode<K> b = node.writableChild(i + 1);
+        if (a.nkey() + b.nkey() < 2 * degree - 1) {
+            a.insertKey(node.deleteKey(i));
+            for (int j = 0; j < b.nkey(); j++) {
+                a.insertKey(b.getKey(j));
+            }
+            for (int j = 0; j < b.nchild(); j++) {
+                a.insertChild(b.getChild(j), a.nchild());
+            }
+            BTreeNodePool.recycle(node.deleteChild(i + 1), owner);
+            node.size = subtreeSize;
+            node.dead = subtreeDead;
+            return;
+        }
+        while (a.nkey() < degree - 1) {
+            a.insertKey(node.setKey(b.deleteKey(0), i));
+            if (!b.isLeaf()) {
+                a.insertChild(b.deleteChild(0), a.nchild());
+            }
+        }
+        while (b.nkey() < degree - 1) {
+            b.insertKey(node.setKey(a.deleteKey(a.nkey() - 1), i));
+            if (!a.isLeaf()) {
+                b.insertChild(a.deleteChild(a.nchild() - 1), 0);
+            }
+        }
+        node.dead = subtreeDead;
+    }
+
+    /**
+     * Insert a key into the tree rooted at node, which may be null.
+     */
+    private AbstractBTreeNode<K> insert(AbstractBTreeNode<K> node, K key) {
+        if (node == null) {
+            node = newNode(true);
+        }
+        AbstractBTreeNode<K> root = splitRootIfFull(writable(node));
+        root.insertNotFull(key);
+        return root;
+    }
+
+    private AbstractBTreeNode<K> splitRootIfFull(AbstractBTreeNode<K> root) {
+        if (!root.isFull()) {
+            return root;
+        }
+        AbstractBTreeNode<K> newRoot = newNode(false);
+        newRoot.insertChild(root, 0);
+        newRoot.splitChild(0);
+        return newRoot;
+    }
+
+    /**
+     * Tree made of keys {@code [from, to)} of an internal node and the children around them.
+     */
+    private AbstractBTreeNode<K> part(AbstractBTreeNode<K> node, int from, int to) {
+        if (from == to) {
+            return node.getChild(from);
+        }
+        AbstractBTreeNode<K> part = newNode(false);
+        for (int i = from; i < to; i++) {
+            part.setKey(node.getKey(i), i - from);
+            part.setChild(node.getChild(i), i - from);
+        }
+        part.setChild(node.getChild(to), to - from);
+        part.setNKey(to - from);
+        part.setNChild(to - from + 1);
+        return part;
+    }
+
+    /**
+     * Leaf holding keys {@code [from, to)} of a leaf, or null if there are none.
+     */
+    private AbstractBTreeNode<K> leafPart(AbstractBTreeNode<K> node, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        AbstractBTreeNode<K> part = newNode(true);
+        for (int i = from; i < to; i++) {
+            part.setKey(node.getKey(i), i - from);
+        }
+        part.setNKey(to - from);
+        return part;
+    }
+
+    private AbstractBTreeNode<K> writable(AbstractBTreeNode<K> node) {
+        return node.owner == owner ? node : node.copy(owner);
+    }
+
+    private AbstractBTreeNode<K> newNode(boolean leaf) {
+        return BTreeNodePool.newNode(leaf, degree, owner);
+    }
+
+    private static <K extends Comparable<K>> int height(AbstractBTreeNode<K> node) {
+        int height = 0;
+        while (!node.isLeaf()) {
+            node = node.getChild(0);
+            height++;
+        }
+        return height;
+    }
+}
@@ -0,0 +1,207 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over a {@link BTree} that splits along the child arrays of its nodes.
+ * <p>A node is seen as a sequence of slots: a leaf has one slot per key, an internal
+ * node with {@code n} keys has {@code 2n + 1} slots where even slot {@code 2i} is
+ * child {@code i} and odd slot {@code 2i + 1} is key {@code i}. A spliterator covers
+ * a slot range of one node; splitting halves the range, and a range that is a single
+ * child is first replaced by all slots of that child. No key is copied.</p>
+ * <p>SIZED and SUBSIZED: the size of a slot range is its live keys plus the live counts
+ * of its children (subtree sizes less the keys deleted lazily in them), so every split
+ * knows its exact size, tombstones or not. Keys deleted lazily are skipped. Fail-fast on
+ * modification of the tree.</p>
+ *
+ * 创建时间：2026-10-18 20:00
+ *
+ * @author 曹文岗
+ **/
+class BTreeSpliterator<K extends Comparable<K>> implements Spliterator<K> {
+
+    private static final int CHARACTERISTICS = ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+
+    private final BTree<K> tree;
+    private final int expectedModCount;
+    private AbstractBTreeNode<K> node;
+    private int from;
+    private int to;
+    /**
+     * Keys not yet returned.
+     */
+    private long remaining;
+
+    /**
+     * Traversal stack, created on the first advance: one frame (node, next slot, end slot) per level.
+     */
+    private AbstractBTreeNode<K>[] nodes;
+    private int[] slots;
+    private int[] ends;
+    private int depth = -1;
+
+    BTreeSpliterator(BTree<K> tree) {
+        this(tree, tree.getRoot(), 0, slotCount(tree.getRoot()));
+    }
+
+    private BTreeSpliterator(BTree<K> tree, AbstractBTreeNode<K> node, int from, int to) {
+        this.tree = tree;
+        this.expectedModCount = tree.modCount();
+        this.node = node;
+        this.from = from;
+        this.to = to;
+        this.remaining = sizeOf(tree, node, from, to);
+    }
+
+    private static int slotCount(AbstractBTreeNode<?> node) {
+        return node.isLeaf() ? node.nkey() : 2 * node.nkey() + 1;
+    }
+
+    /**
+     * Number of live keys in slots [from, to) of node, including the subtrees of child slots.
+     */
+    private static <K extends Comparable<K>> long sizeOf(BTree<K> tree, AbstractBTreeNode<K> node, int from, int to) {
+        long size = 0;
+        for (int slot = from; slot < to; slot++) {
+            if (node.isLeaf() || (slot & 1) == 1) {
+                size += tree.isDead(node.getKey(node.isLeaf() ? slot : slot >> 1)) ? 0 : 1;
+            } else {
+                size += node.getChild(slot >> 1).live();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Spliterator<K> trySplit() {
+        if (nodes != null) {
+            return null;
+        }
+        //a single child slot: open it up
+        while (to - from == 1 && !node.isLeaf() && (from & 1) == 0) {
+            node = node.getChild(from >> 1);
+            from = 0;
+            to = slotCount(node);
+        }
+        if (to - from < 2) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        BTreeSpliterator<K> prefix = new BTreeSpliterator<>(tree, node, from, mid);
+        from = mid;
+        remaining -= prefix.remaining;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super K> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        start();
+        while (depth >= 0) {
+            int slot = slots[depth];
+            if (slot == ends[depth]) {
+                depth--;
+                continue;
+            }
+            slots[depth] = slot + 1;
+            AbstractBTreeNode<K> current = nodes[depth];
+            if (current.isLeaf() || (slot & 1) == 1) {
+                K key = current.getKey(current.isLeaf() ? slot : slot >> 1);
+                if (tree.isDead(key)) {
+                    continue;
+                }
+                checkForComodification();
+                remaining--;
+                action.accept(key);
+                return true;
+            }
+            push(current.getChild(slot >> 1));
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super K> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        start();
+        while (depth >= 0) {
+            int slot = slots[depth];
+            if (slot == ends[depth]) {
+                depth--;
+                continue;
+            }
+            slots[depth] = slot + 1;
+            AbstractBTreeNode<K> current = nodes[depth];
+            if (current.isLeaf()) {
+                for (int i = slot, end = ends[depth]; i < end; i++) {
+                    K key = current.getKey(i);
+                    if (!tree.isDead(key)) {
+                        action.accept(key);
+                    }
+                }
+                depth--;
+            } else if ((slot & 1) == 1) {
+                K key = current.getKey(slot >> 1);
+                if (!tree.isDead(key)) {
+                    action.accept(key);
+                }
+            } else {
+                push(current.getChild(slot >> 1));
+            }
+        }
+        remaining = 0;
+        checkForComodification();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void start() {
+        if (nodes != null) {
+            return;
+        }
+        int height = 1;
+        for (AbstractBTreeNode<K> n = node; !n.isLeaf(); n = n.getChild(0)) {
+            height++;
+        }
+        nodes = (AbstractBTreeNode<K>[]) new AbstractBTreeNode<?>[height];
+        slots = new int[height];
+        ends = new int[height];
+        nodes[0] = node;
+        slots[0] = from;
+        ends[0] = to;
+        depth = 0;
+    }
+
+    private void push(AbstractBTreeNode<K> child) {
+        nodes[++depth] = child;
+        slots[depth] = 0;
+        ends[depth] = slotCount(child);
+    }
+
+    private void checkForComodification() {
+        if (tree.modCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return remaining;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    @Override
+    public Comparator<? super K> getComparator() {
+        return null;
+    }
+}
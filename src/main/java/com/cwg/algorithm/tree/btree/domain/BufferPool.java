@@ -0,0 +1,270 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of fixed-size file pages read and written through a {@link FileChannel}.
+ * <p>A page must be pinned while it is used and unpinned afterwards; pinned pages are
+ * never evicted. When a frame is needed the CLOCK hand sweeps the frames, giving every
+ * recently used page a second chance, and evicts the first unpinned page whose reference
+ * bit is clear. A dirty page is written back before its frame is reused.</p>
+ * <p>Buffers handed out are shared with the pool: use absolute get/put only. Not thread safe.</p>
+ *
+ * 创建时间：2026-10-18 21:40
+ *
+ * @author 曹文岗
+ **/
+public class BufferPool implements Closeable {
+
+    private static final long NO_PAGE = -1;
+
+    private final FileChannel channel;
+    private final int pageSize;
+    private final ByteBuffer[] frames;
+    private final long[] pageIds;
+    private final int[] pins;
+    private final boolean[] dirty;
+    private final boolean[] referenced;
+    private final Map<Long, Integer> table = new HashMap<>();
+    private int hand;
+    private long pageCount;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long writes;
+
+    /**
+     * @param channel  file to cache, owned by the pool from now on
+     * @param pageSize page size in bytes, a multiple of 8
+     * @param capacity number of frames
+     */
+    public BufferPool(FileChannel channel, int pageSize, int capacity) throws IOException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity mustn't < 1");
+        }
+        if (pageSize <= 0 || pageSize % 8 != 0) {
+            throw new IllegalArgumentException("pageSize must be a positive multiple of 8");
+        }
+        this.channel = channel;
+        this.pageSize = pageSize;
+        this.frames = new ByteBuffer[capacity];
+        this.pageIds = new long[capacity];
+        this.pins = new int[capacity];
+        this.dirty = new boolean[capacity];
+        this.referenced = new boolean[capacity];
+        Arrays.fill(pageIds, NO_PAGE);
+        for (int i = 0; i < capacity; i++) {
+            frames[i] = ByteBuffer.allocateDirect(pageSize);
+        }
+        this.pageCount = (channel.size() + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * Pin a page, reading it from file if it is not cached.
+     *
+     * @return buffer holding the page, valid until the matching {@link #unpin}.
+     * @throws IllegalStateException if every frame is pinned
+     */
+    public ByteBuffer pin(long pageId) {
+        if (pageId < 0 || pageId >= pageCount) {
+            throw new IllegalArgumentException("page " + pageId + " out of range");
+        }
+        Integer cached = table.get(pageId);
+        if (cached != null) {
+            hits++;
+            pins[cached]++;
+            referenced[cached] = true;
+            return frames[cached];
+        }
+        misses++;
+        int frame = victim();
+        read(pageId, frames[frame]);
+        install(frame, pageId);
+        pins[frame] = 1;
+        return frames[frame];
+    }
+
+    /**
+     * Release one pin of a page.
+     *
+     * @param modified whether the page was changed while pinned
+     */
+    public void unpin(long pageId, boolean modified) {
+        Integer frame = table.get(pageId);
+        if (frame == null || pins[frame] == 0) {
+            throw new IllegalStateException("page " + pageId + " is not pinned");
+        }
+        pins[frame]--;
+        dirty[frame] |= modified;
+    }
+
+    /**
+     * Append a new zero-filled page to the file. The page is cached, dirty and unpinned.
+     *
+     * @return id of the new page.
+     */
+    public long allocate() {
+        int frame = victim();
+        long pageId = pageCount++;
+        ByteBuffer buffer = frames[frame];
+        for (int i = 0; i < pageSize; i += 8) {
+            buffer.putLong(i, 0);
+        }
+        install(frame, pageId);
+        dirty[frame] = true;
+        return pageId;
+    }
+
+    /**
+     * Write every dirty page back and force the file to disk.
+     */
+    public void flush() {
+        for (int i = 0; i < frames.length; i++) {
+            if (dirty[i]) {
+                write(i);
+            }
+        }
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private int victim() {
+        //two full sweeps clear every reference bit, so a third finds a victim if any frame is unpinned
+        for (int step = 0; step < 3 * frames.length; step++) {
+            int frame = hand;
+            hand = (hand + 1) % frames.length;
+            if (pageIds[frame] == NO_PAGE) {
+                return frame;
+            }
+            if (pins[frame] > 0) {
+                continue;
+            }
+            if (referenced[frame]) {
+                referenced[frame] = false;
+                continue;
+            }
+            if (dirty[frame]) {
+                write(frame);
+            }
+            table.remove(pageIds[frame]);
+            pageIds[frame] = NO_PAGE;
+            evictions++;
+            return frame;
+        }
+        throw new IllegalStateException("all " + frames.length + " pages are pinned");
+    }
+
+    private void install(int frame, long pageId) {
+        pageIds[frame] = pageId;
+        dirty[frame] = false;
+        referenced[frame] = true;
+        pins[frame] = 0;
+        table.put(pageId, frame);
+    }
+
+    private void read(long pageId, ByteBuffer buffer) {
+        buffer.clear();
+        try {
+            long position = pageId * pageSize;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    //page allocated but never written
+                    while (buffer.hasRemaining()) {
+                        buffer.put((byte) 0);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(int frame) {
+        ByteBuffer buffer = frames[frame].duplicate();
+        buffer.clear();
+        try {
+            long position = pageIds[frame] * pageSize;
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        dirty[frame] = false;
+        writes++;
+    }
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    public int capacity() {
+        return frames.length;
+    }
+
+    public long pageCount() {
+        return pageCount;
+    }
+
+    /**
+     * @return number of frames currently pinned.
+     */
+    public int pinned() {
+        int pinned = 0;
+        for (int pin : pins) {
+            if (pin > 0) {
+                pinned++;
+            }
+        }
+        return pinned;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    public long evictions() {
+        return evictions;
+    }
+
+    /**
+     * @return number of pages written back to file.
+     */
+    public long writes() {
+        return writes;
+    }
+
+    public void resetStats() {
+        hits = misses = evictions = writes = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BufferPool{capacity=" + frames.length + ", hits=" + hits + ", misses=" + misses
+                + ", evictions=" + evictions + ", writes=" + writes + "}";
+    }
+}
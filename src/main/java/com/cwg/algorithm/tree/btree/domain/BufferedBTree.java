@@ -0,0 +1,690 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Write-optimized B-Tree (B<sup>ε</sup>-tree): every internal node carries a bounded buffer
+ * of pending inserts and deletes.
+ * <p>An update is a message put into the buffer of the root, no leaf is visited. When a
+ * buffer is full, the messages bound for the child that gets most of them move down in one
+ * batch, into the buffer of the child or, at the bottom, into the leaf. So a node is
+ * written once for a batch of updates instead of once per update. A lookup checks the
+ * buffers on its path; a message found there is newer than anything below it.</p>
+ * <p>Keys live in leaves as in {@link BPlusTree}, internal nodes hold separators: child
+ * {@code i} holds the keys with {@code keys[i-1] <= key < keys[i]}. Buffers are sorted, so
+ * the messages of one child are a run. Nodes are split and merged while messages move down;
+ * a node overfilled by a batch is cut into as many nodes as it takes.</p>
+ * <p>Updates are blind: {@link #insert} and {@link #delete} cannot tell whether the key
+ * existed. {@link #size()} and iteration flush all buffers first. Keys are distinct.
+ * Iterators are fail-fast. Not thread safe.</p>
+ *
+ * 创建时间：2026-10-19 05:10
+ *
+ * @author 曹文岗
+ **/
+public class BufferedBTree<K extends Comparable<K>> implements Iterable<K> {
+
+    private final int degree;
+    private final int bufferSize;
+    private Node<K> root;
+    /**
+     * Number of keys in the leaves, pending messages not counted.
+     */
+    private int size;
+    private int modCount;
+
+    /**
+     * @param degree     minimum degree of nodes, as in {@link BTree}.
+     * @param bufferSize messages an internal node buffers before it flushes.
+     */
+    public BufferedBTree(int degree, int bufferSize) {
+        if (degree < 2) {
+            throw new IllegalArgumentException("degree mustn't < 2");
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize mustn't < 1");
+        }
+        this.degree = degree;
+        this.bufferSize = bufferSize;
+        root = new Node<>(degree, true);
+    }
+
+    /**
+     * Insert a key, an existing key is left as it is.
+     *
+     * @param key key to insert.
+     */
+    public void insert(K key) {
+        put(key, true);
+    }
+
+    /**
+     * Delete a key, a missing key is ignored.
+     *
+     * @param key key to delete.
+     */
+    public void delete(K key) {
+        put(key, false);
+    }
+
+    /**
+     * Check whether the tree contains given key, pending messages included.
+     *
+     * @param key key to check.
+     * @return true if key exists.
+     */
+    public boolean contains(K key) {
+        Node<K> node = root;
+        while (!node.isLeaf()) {
+            int index = node.searchMessage(key);
+            if (index >= 0) {
+                return node.inserts[index];
+            }
+            node = node.children[node.childIndex(key)];
+        }
+        return node.searchKey(key) >= 0;
+    }
+
+    /**
+     * Amount of keys, after flushing all buffers.
+     *
+     * @return key amount.
+     */
+    public int size() {
+        flush();
+        return size;
+    }
+
+    /**
+     * Move every pending message down to the leaves.
+     */
+    public void flush() {
+        if (!root.isLeaf()) {
+            drain(root);
+            normalizeRoot();
+        }
+    }
+
+    private void put(K key, boolean insert) {
+        modCount++;
+        if (root.isLeaf()) {
+            size += root.apply(key, insert);
+        } else {
+            root.addMessage(key, insert);
+            if (root.nmessage >= bufferSize) {
+                flushBuffer(root);
+            }
+        }
+        normalizeRoot();
+    }
+
+    /**
+     * Grow the tree above an overfull root and cut it down, or drop a root left with one child.
+     */
+    private void normalizeRoot() {
+        while (true) {
+            if (root.count() > root.capacity(degree)) {
+                Node<K> newRoot = new Node<>(degree, false);
+                newRoot.children[0] = root;
+                newRoot.nchild = 1;
+                root = newRoot;
+                split(newRoot, 0);
+            } else if (!root.isLeaf() && root.nchild == 1) {
+                push(root, 0);
+                root = root.children[0];
+                if (!root.isLeaf()) {
+                    flushBuffer(root);
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Move batches out of the buffer of node, each time to the child receiving most
+     * messages, until the buffer is below its bound.
+     */
+    private void flushBuffer(Node<K> node) {
+        while (node.nmessage >= bufferSize) {
+            int child = node.busiestChild();
+            push(node, child);
+            fix(node, child);
+        }
+    }
+
+    /**
+     * Move all messages down to the leaves of the subtree, then bring every child back to
+     * its bounds; no buffer below is left to flush then.
+     */
+    private void drain(Node<K> node) {
+        for (int c = 0; c < node.nchild; c++) {
+            push(node, c);
+            if (!node.children[c].isLeaf()) {
+                drain(node.children[c]);
+            }
+        }
+        for (int c = 0; c < node.nchild; ) {
+            c = fix(node, c);
+        }
+    }
+
+    /**
+     * Move the messages for child c of node into the buffer of the child or apply them to
+     * it if it is a leaf. The child may be out of bounds afterwards, see {@link #fix}.
+     */
+    private void push(Node<K> node, int c) {
+        int from = c == 0 ? 0 : node.lowerMessage(node.key(c - 1));
+        int to = c == node.nchild - 1 ? node.nmessage : node.lowerMessage(node.key(c));
+        if (from == to) {
+            return;
+        }
+        Node<K> child = node.children[c];
+        if (child.isLeaf()) {
+            size += child.apply(node.messages, node.inserts, from, to);
+        } else {
+            child.receive(node.messages, node.inserts, from, to);
+        }
+        node.removeMessages(from, to);
+    }
+
+    /**
+     * Flush the buffer of child c if it is full, then split the child if it is overfull or
+     * merge it with a neighbour while it is underfull.
+     *
+     * @return index of the child after the ones fixed.
+     */
+    private int fix(Node<K> node, int c) {
+        while (true) {
+            Node<K> child = node.children[c];
+            if (!child.isLeaf() && child.nmessage >= bufferSize) {
+                flushBuffer(child);
+            }
+            int count = child.count();
+            if (count > child.capacity(degree)) {
+                return c + split(node, c);
+            }
+            if (count >= child.minimum(degree) || node.nchild == 1) {
+                return c + 1;
+            }
+            int left = c + 1 < node.nchild ? c : c - 1;
+            Node<K> a = node.children[left];
+            Node<K> b = node.children[left + 1];
+            //a sole child is exempt from the minimum, but not once it has siblings
+            boolean soleA = !a.isLeaf() && a.nchild == 1;
+            boolean soleB = !b.isLeaf() && b.nchild == 1;
+            int junction = a.isLeaf() ? 0 : a.nchild;
+            merge(node, left);
+            if (soleB) {
+                fix(a, junction);
+            }
+            if (soleA) {
+                fix(a, 0);
+            }
+            c = left;
+        }
+    }
+
+    /**
+     * Cut overfull child c of node into as many nodes as it takes, of even size.
+     *
+     * @return number of nodes child c became.
+     */
+    @SuppressWarnings("unchecked")
+    private int split(Node<K> node, int c) {
+        Node<K> child = node.children[c];
+        int count = child.count();
+        int pieces = (count + child.capacity(degree) - 1) / child.capacity(degree);
+        Node<K>[] added = (Node<K>[]) new Node<?>[pieces - 1];
+        Object[] separators = new Object[pieces - 1];
+        int end = count;
+        for (int j = pieces - 1; j > 0; j--) {
+            int start = (int) ((long) count * j / pieces);
+            Node<K> piece = new Node<>(degree, child.isLeaf());
+            if (child.isLeaf()) {
+                separators[j - 1] = child.keys[start];
+                piece.appendKeys(child.keys, start, end - start);
+            } else {
+                //separator between the pieces moves up
+                separators[j - 1] = child.keys[start - 1];
+                piece.appendKeys(child.keys, start, end - start - 1);
+                piece.appendChildren(child.children, start, end - start);
+                int from = child.lowerMessage(child.key(start - 1));
+                piece.receive(child.messages, child.inserts, from, child.nmessage);
+                child.truncateMessages(from);
+            }
+            added[j - 1] = piece;
+            end = start;
+        }
+        if (child.isLeaf()) {
+            child.truncateKeys(end);
+        } else {
+            child.truncateKeys(end - 1);
+            child.truncateChildren(end);
+        }
+        node.insertChildren(c, separators, added);
+        return pieces;
+    }
+
+    /**
+     * Merge child i + 1 of node into child i, dropping or pulling down the separator.
+     */
+    private void merge(Node<K> node, int i) {
+        Node<K> left = node.children[i];
+        Node<K> right = node.children[i + 1];
+        if (!left.isLeaf()) {
+            left.appendKeys(node.keys, i, 1);
+            left.appendChildren(right.children, 0, right.nchild);
+            //messages of right are all greater than those of left
+            left.receive(right.messages, right.inserts, 0, right.nmessage);
+        }
+        left.appendKeys(right.keys, 0, right.nkey);
+        node.removeChild(i);
+    }
+
+    /**
+     * Iterate all keys in ascending order after flushing all buffers.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        flush();
+        return new KeyIterator();
+    }
+
+    /**
+     * Walk the leaves left to right, keeping the path to the current one.
+     */
+    private final class KeyIterator implements Iterator<K> {
+        private final Node<K>[] path;
+        private final int[] next;
+        private final int expectedModCount = modCount;
+        private Node<K> leaf;
+        private int index;
+
+        @SuppressWarnings("unchecked")
+        KeyIterator() {
+            int height = 0;
+            for (Node<K> node = root; !node.isLeaf(); node = node.children[0]) {
+                height++;
+            }
+            path = (Node<K>[]) new Node<?>[height + 1];
+            next = new int[height + 1];
+            path[0] = root;
+            descend(0);
+            skipExhaustedLeaves();
+        }
+
+        private void descend(int level) {
+            while (!path[level].isLeaf()) {
+                next[level] = 1;
+                path[level + 1] = path[level].children[0];
+                level++;
+            }
+            leaf = path[level];
+            index = 0;
+        }
+
+        private void skipExhaustedLeaves() {
+            while (leaf != null && index >= leaf.nkey) {
+                int level = path.length - 2;
+                while (level >= 0 && next[level] >= path[level].nchild) {
+                    level--;
+                }
+                if (level < 0) {
+                    leaf = null;
+                    return;
+                }
+                path[level + 1] = path[level].children[next[level]++];
+                descend(level + 1);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return leaf != null;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = leaf.key(index++);
+            skipExhaustedLeaves();
+            return key;
+        }
+    }
+
+    Node<K> getRoot() {
+        return root;
+    }
+
+    /**
+     * Node of {@link BufferedBTree}. Leaves have neither children nor buffer. Arrays grow
+     * while a node is overfull between moving messages down and being split.
+     */
+    static final class Node<K extends Comparable<K>> {
+        Object[] keys;
+        int nkey;
+        Node<K>[] children;
+        int nchild;
+        /**
+         * Pending messages sorted by key, at most one per key: insert if {@code inserts[i]},
+         * else delete.
+         */
+        Object[] messages;
+        boolean[] inserts;
+        int nmessage;
+
+        @SuppressWarnings("unchecked")
+        Node(int degree, boolean leaf) {
+            keys = new Object[2 * degree - 1];
+            if (!leaf) {
+                children = (Node<K>[]) new Node<?>[2 * degree];
+                messages = new Object[0];
+                inserts = new boolean[0];
+            }
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+
+        /**
+         * Keys of a leaf, children of an internal node.
+         */
+        int count() {
+            return isLeaf() ? nkey : nchild;
+        }
+
+        int capacity(int degree) {
+            return isLeaf() ? 2 * degree - 1 : 2 * degree;
+        }
+
+        int minimum(int degree) {
+            return isLeaf() ? degree - 1 : degree;
+        }
+
+        @SuppressWarnings("unchecked")
+        K key(int index) {
+            return (K) keys[index];
+        }
+
+        int searchKey(K key) {
+            return search(keys, nkey, key);
+        }
+
+        int searchMessage(K key) {
+            return search(messages, nmessage, key);
+        }
+
+        /**
+         * Index of the first message not less than given key.
+         */
+        int lowerMessage(K key) {
+            int index = searchMessage(key);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        /**
+         * Index of the child whose key range holds given key.
+         */
+        int childIndex(K key) {
+            int index = searchKey(key);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        /**
+         * Index of the child with most messages in the buffer.
+         */
+        @SuppressWarnings("unchecked")
+        int busiestChild() {
+            int best = 0;
+            int bestCount = 0;
+            int child = 0;
+            int count = 0;
+            for (int i = 0; i < nmessage; i++) {
+                while (child < nkey && ((K) messages[i]).compareTo(key(child)) >= 0) {
+                    if (count > bestCount) {
+                        best = child;
+                        bestCount = count;
+                    }
+                    child++;
+                    count = 0;
+                }
+                count++;
+            }
+            return count > bestCount ? child : best;
+        }
+
+        /**
+         * Insert or delete a key in a leaf.
+         *
+         * @return change of the key count.
+         */
+        int apply(K key, boolean insert) {
+            int index = searchKey(key);
+            if (insert && index < 0) {
+                index = -index - 1;
+                ensureKeys(nkey + 1);
+                System.arraycopy(keys, index, keys, index + 1, nkey - index);
+                keys[index] = key;
+                nkey++;
+                return 1;
+            }
+            if (!insert && index >= 0) {
+                System.arraycopy(keys, index + 1, keys, index, nkey - index - 1);
+                keys[--nkey] = null;
+                return -1;
+            }
+            return 0;
+        }
+
+        /**
+         * Apply a sorted run of messages to a leaf in one merge.
+         *
+         * @return change of the key count.
+         */
+        @SuppressWarnings("unchecked")
+        int apply(Object[] keys, boolean[] inserts, int from, int to) {
+            Object[] merged = new Object[Math.max(this.keys.length, nkey + to - from)];
+            int i = 0;
+            int n = 0;
+            int delta = 0;
+            for (int m = from; m < to; m++) {
+                K key = (K) keys[m];
+                while (i < nkey && key(i).compareTo(key) < 0) {
+                    merged[n++] = this.keys[i++];
+                }
+                boolean exists = i < nkey && key(i).compareTo(key) == 0;
+                if (inserts[m]) {
+                    merged[n++] = exists ? this.keys[i] : key;
+                    delta += exists ? 0 : 1;
+                } else if (exists) {
+                    delta--;
+                }
+                if (exists) {
+                    i++;
+                }
+            }
+            while (i < nkey) {
+                merged[n++] = this.keys[i++];
+            }
+            this.keys = merged;
+            this.nkey = n;
+            return delta;
+        }
+
+        /**
+         * Put one message into the buffer, replacing an older one for the same key.
+         */
+        void addMessage(K key, boolean insert) {
+            int index = searchMessage(key);
+            if (index >= 0) {
+                inserts[index] = insert;
+                return;
+            }
+            index = -index - 1;
+            ensureMessages(nmessage + 1);
+            System.arraycopy(messages, index, messages, index + 1, nmessage - index);
+            System.arraycopy(inserts, index, inserts, index + 1, nmessage - index);
+            messages[index] = key;
+            inserts[index] = insert;
+            nmessage++;
+        }
+
+        /**
+         * Merge a sorted run of newer messages into the buffer.
+         */
+        @SuppressWarnings("unchecked")
+        void receive(Object[] keys, boolean[] inserts, int from, int to) {
+            int capacity = Math.max(messages.length, nmessage + to - from);
+            Object[] mergedKeys = new Object[capacity];
+            boolean[] mergedInserts = new boolean[capacity];
+            int i = 0;
+            int n = 0;
+            for (int m = from; m < to; m++) {
+                K key = (K) keys[m];
+                while (i < nmessage && ((K) messages[i]).compareTo(key) < 0) {
+                    mergedKeys[n] = messages[i];
+                    mergedInserts[n++] = this.inserts[i++];
+                }
+                if (i < nmessage && ((K) messages[i]).compareTo(key) == 0) {
+                    i++;
+                }
+                mergedKeys[n] = key;
+                mergedInserts[n++] = inserts[m];
+            }
+            while (i < nmessage) {
+                mergedKeys[n] = messages[i];
+                mergedInserts[n++] = this.inserts[i++];
+            }
+            messages = mergedKeys;
+            this.inserts = mergedInserts;
+            nmessage = n;
+        }
+
+        void removeMessages(int from, int to) {
+            System.arraycopy(messages, to, messages, from, nmessage - to);
+            System.arraycopy(inserts, to, inserts, from, nmessage - to);
+            Arrays.fill(messages, nmessage - (to - from), nmessage, null);
+            nmessage -= to - from;
+        }
+
+        void truncateMessages(int n) {
+            Arrays.fill(messages, n, nmessage, null);
+            nmessage = n;
+        }
+
+        void appendKeys(Object[] source, int from, int length) {
+            ensureKeys(nkey + length);
+            System.arraycopy(source, from, keys, nkey, length);
+            nkey += length;
+        }
+
+        void appendChildren(Node<K>[] source, int from, int length) {
+            ensureChildren(nchild + length);
+            System.arraycopy(source, from, children, nchild, length);
+            nchild += length;
+        }
+
+        void truncateKeys(int n) {
+            Arrays.fill(keys, n, nkey, null);
+            nkey = n;
+        }
+
+        void truncateChildren(int n) {
+            Arrays.fill(children, n, nchild, null);
+            nchild = n;
+        }
+
+        /**
+         * Insert nodes after child c, separated from it and each other by given separators.
+         */
+        void insertChildren(int c, Object[] separators, Node<K>[] added) {
+            int n = added.length;
+            ensureKeys(nkey + n);
+            ensureChildren(nchild + n);
+            System.arraycopy(keys, c, keys, c + n, nkey - c);
+            System.arraycopy(separators, 0, keys, c, n);
+            System.arraycopy(children, c + 1, children, c + 1 + n, nchild - c - 1);
+            System.arraycopy(added, 0, children, c + 1, n);
+            nkey += n;
+            nchild += n;
+        }
+
+        /**
+         * Remove child i + 1 and the separator before it.
+         */
+        void removeChild(int i) {
+            System.arraycopy(keys, i + 1, keys, i, nkey - i - 1);
+            keys[--nkey] = null;
+            System.arraycopy(children, i + 2, children, i + 1, nchild - i - 2);
+            children[--nchild] = null;
+        }
+
+        private void ensureKeys(int n) {
+            if (n > keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(n, 2 * keys.length));
+            }
+        }
+
+        private void ensureChildren(int n) {
+            if (n > children.length) {
+                children = Arrays.copyOf(children, Math.max(n, 2 * children.length));
+            }
+        }
+
+        private void ensureMessages(int n) {
+            if (n > messages.length) {
+                int capacity = Math.max(n, 2 * messages.length);
+                messages = Arrays.copyOf(messages, capacity);
+                inserts = Arrays.copyOf(inserts, capacity);
+            }
+        }
+
+        /**
+         * Binary search a key among the first n elements of a sorted array.
+         *
+         * @return index of key if it exists, else {@code -(insertion point) - 1}.
+         */
+        @SuppressWarnings("unchecked")
+        private static <K extends Comparable<K>> int search(Object[] array, int n, K key) {
+            int low = 0;
+            int high = n - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = key.compareTo((K) array[mid]);
+                if (cmp > 0) {
+                    low = mid + 1;
+                } else if (cmp < 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(isLeaf() ? "leaf----" : " internal node ---- ")
+                    .append("size: ").append(nkey).append(" keys:").append("[");
+            for (int i = 0; i < nkey; i++) {
+                sb.append(keys[i]).append(",");
+            }
+            sb.append("]");
+            if (!isLeaf()) {
+                sb.append(" messages: ").append(nmessage);
+            }
+            return sb.toString();
+        }
+    }
+}
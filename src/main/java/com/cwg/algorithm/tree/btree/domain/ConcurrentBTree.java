@@ -0,0 +1,457 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread safe B-Tree set where threads latch single nodes instead of the whole tree.
+ * <p>Keys are kept in the leaves and internal nodes hold separator copies (B+ layout),
+ * so a delete only ever changes one leaf. Every node has its own latch and traversal
+ * uses latch crabbing: the child is latched before the parent is released, so a thread
+ * holds at most two latches and no thread can overtake another on the same path.</p>
+ * <ul>
+ * <li>{@link #contains} crabs down with read latches.</li>
+ * <li>{@link #insert} and {@link #delete} first crab down optimistically with read latches
+ * and write-latch only the leaf. That succeeds unless an insert finds the leaf full, or a
+ * delete would take the last key of a leaf other than the root.</li>
+ * <li>Such an insert restarts pessimistically: it crabs down with write latches and splits
+ * every full node on the way, as {@link BTree} does. Because the child is never full after
+ * that, the parent is released as soon as the child is latched.</li>
+ * <li>Such a delete restarts pessimistically too: it crabs down with write latches, keeping
+ * the latches of the nodes that unlinking the emptied leaf would change (parents left with
+ * a single child, and the root while it has one separator or none) and releasing them as
+ * soon as a child is safe. The empty leaf is then unlinked from its parent together with a
+ * separator, parents left without children go the same way, and a root left with a single
+ * child gives way to it, so the tree shrinks in height.</li>
+ * </ul>
+ * <p>Deletes never merge or borrow, so under deletes leaves may become sparse, but only
+ * the root stays when empty; routing stays correct since separators only have to bound
+ * their subtrees. Keys are distinct and non-null.</p>
+ *
+ * 创建时间：2026-10-19 01:00
+ *
+ * @author 曹文岗
+ **/
+public class ConcurrentBTree<K extends Comparable<K>> {
+
+    private final int degree;
+    /**
+     * Latch of the root pointer, held while latching the root.
+     */
+    private final StampedLock rootLatch = new StampedLock();
+    private Node root;
+    private final LongAdder size = new LongAdder();
+
+    public ConcurrentBTree(int degree) {
+        if (degree < 2) {
+            throw new IllegalArgumentException("degree mustn't < 2");
+        }
+        this.degree = degree;
+        this.root = new Node(degree, true);
+    }
+
+    /**
+     * Check whether tree contains given key.
+     */
+    public boolean contains(K key) {
+        long rootStamp = rootLatch.readLock();
+        Node node = root;
+        long stamp = node.latch.readLock();
+        rootLatch.unlockRead(rootStamp);
+        while (!node.leaf) {
+            Node child = node.children[childIndex(node, key)];
+            long childStamp = child.latch.readLock();
+            node.latch.unlockRead(stamp);
+            node = child;
+            stamp = childStamp;
+        }
+        boolean found = searchKey(node, key) >= 0;
+        node.latch.unlockRead(stamp);
+        return found;
+    }
+
+    /**
+     * Insert a key.
+     *
+     * @return false if key already exists.
+     */
+    public boolean insert(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Boolean inserted = updateLeaf(key, true);
+        if (inserted == null) {
+            inserted = insertPessimistic(key);
+        }
+        if (inserted) {
+            size.increment();
+        }
+        return inserted;
+    }
+
+    /**
+     * Delete a key.
+     *
+     * @return false if key doesn't exist.
+     */
+    public boolean delete(K key) {
+        Boolean deleted = updateLeaf(key, false);
+        if (deleted == null) {
+            deleted = deletePessimistic(key);
+        }
+        if (deleted) {
+            size.decrement();
+        }
+        return deleted;
+    }
+
+    /**
+     * @return number of keys, exact only when no update is running.
+     */
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Crab down with read latches, write-latch only the leaf that may hold key and update it.
+     *
+     * @return whether the leaf changed, or null if an insert found the leaf full or a delete
+     * would empty a leaf that is not the root.
+     */
+    private Boolean updateLeaf(K key, boolean insert) {
+        long rootStamp = rootLatch.readLock();
+        Node node = root;
+        boolean atRoot = node.leaf;
+        long stamp = node.leaf ? node.latch.writeLock() : node.latch.readLock();
+        rootLatch.unlockRead(rootStamp);
+        while (!node.leaf) {
+            Node child = node.children[childIndex(node, key)];
+            long childStamp = child.leaf ? child.latch.writeLock() : child.latch.readLock();
+            node.latch.unlockRead(stamp);
+            node = child;
+            stamp = childStamp;
+        }
+        Boolean result;
+        int index = searchKey(node, key);
+        if (!insert) {
+            if (index < 0) {
+                result = Boolean.FALSE;
+            } else if (node.nkey > 1 || atRoot) {
+                deleteKey(node, index);
+                result = Boolean.TRUE;
+            } else {
+                result = null;
+            }
+        } else if (index >= 0) {
+            result = Boolean.FALSE;
+        } else if (node.nkey < 2 * degree - 1) {
+            insertKey(node, -index - 1, key);
+            result = Boolean.TRUE;
+        } else {
+            result = null;
+        }
+        node.latch.unlockWrite(stamp);
+        return result;
+    }
+
+    private boolean insertPessimistic(K key) {
+        long rootStamp = rootLatch.writeLock();
+        Node node = root;
+        long stamp = node.latch.writeLock();
+        if (node.nkey == 2 * degree - 1) {
+            //the new root is reachable only after root latch is released
+            Node newRoot = new Node(degree, false);
+            newRoot.children[0] = node;
+            splitChild(newRoot, 0, node);
+            node.latch.unlockWrite(stamp);
+            root = newRoot;
+            node = newRoot;
+            stamp = newRoot.latch.writeLock();
+        }
+        rootLatch.unlockWrite(rootStamp);
+        while (!node.leaf) {
+            int i = childIndex(node, key);
+            Node child = node.children[i];
+            long childStamp = child.latch.writeLock();
+            if (child.nkey == 2 * degree - 1) {
+                splitChild(node, i, child);
+                if (key.compareTo(node.key(i)) >= 0) {
+                    //the new sibling is only reachable through node, which is still latched
+                    Node right = node.children[i + 1];
+                    long rightStamp = right.latch.writeLock();
+                    child.latch.unlockWrite(childStamp);
+                    child = right;
+                    childStamp = rightStamp;
+                }
+            }
+            node.latch.unlockWrite(stamp);
+            node = child;
+            stamp = childStamp;
+        }
+        int index = searchKey(node, key);
+        if (index < 0) {
+            insertKey(node, -index - 1, key);
+        }
+        node.latch.unlockWrite(stamp);
+        return index < 0;
+    }
+
+    /**
+     * Delete a key whose leaf may become empty, unlinking the leaf if it does.
+     */
+    private boolean deletePessimistic(K key) {
+        long rootStamp = rootLatch.writeLock();
+        Node node = root;
+        long stamp = node.latch.writeLock();
+        if (safe(node, true)) {
+            rootLatch.unlockWrite(rootStamp);
+            rootStamp = 0;
+        }
+        boolean atRoot = true;
+        //latched ancestors of node that the unlinking may change, top first
+        List<Frame> held = new ArrayList<>();
+        while (!node.leaf) {
+            int i = childIndex(node, key);
+            Node child = node.children[i];
+            long childStamp = child.latch.writeLock();
+            if (rootStamp != 0 && node == root && node.nkey == 0) {
+                //a root left with one child by earlier deletes gives way to it
+                root = child;
+                node.latch.unlockWrite(stamp);
+                if (safe(child, true)) {
+                    rootLatch.unlockWrite(rootStamp);
+                    rootStamp = 0;
+                }
+            } else {
+                atRoot = false;
+                held.add(new Frame(node, stamp, i));
+                if (safe(child, false)) {
+                    rootStamp = release(held, rootStamp);
+                }
+            }
+            node = child;
+            stamp = childStamp;
+        }
+        int index = searchKey(node, key);
+        if (index >= 0) {
+            deleteKey(node, index);
+        }
+        boolean empty = node.nkey == 0 && !atRoot;
+        for (int level = held.size() - 1; empty && level >= 0; level--) {
+            Frame frame = held.get(level);
+            empty = deleteChild(frame.node, frame.child);
+        }
+        if (rootStamp != 0 && !root.leaf) {
+            //only the root is ever left without children: all held nodes below it emptied
+            if (root.children[0] == null) {
+                root = new Node(degree, true);
+            } else if (root.nkey == 0) {
+                root = root.children[0];
+            }
+        }
+        node.latch.unlockWrite(stamp);
+        release(held, rootStamp);
+        return index >= 0;
+    }
+
+    /**
+     * Whether node, latched on the way down of a pessimistic delete, keeps a key (a leaf)
+     * or a child whatever the delete does below it. The root leaf may become empty, an
+     * internal root has to keep a separator.
+     */
+    private static boolean safe(Node node, boolean root) {
+        if (node.leaf) {
+            return root || node.nkey > 1;
+        }
+        return node.nkey > (root ? 1 : 0);
+    }
+
+    /**
+     * Release the held nodes and the root latch, if held.
+     *
+     * @return 0, the stamp of a root latch not held.
+     */
+    private long release(List<Frame> held, long rootStamp) {
+        for (Frame frame : held) {
+            frame.node.latch.unlockWrite(frame.stamp);
+        }
+        held.clear();
+        if (rootStamp != 0) {
+            rootLatch.unlockWrite(rootStamp);
+        }
+        return 0;
+    }
+
+    /**
+     * Unlink child {@code index} of write-latched node together with the separator next
+     * to it.
+     *
+     * @return whether node is left without children.
+     */
+    private static boolean deleteChild(Node node, int index) {
+        if (node.nkey == 0) {
+            node.children[0] = null;
+            return true;
+        }
+        System.arraycopy(node.children, index + 1, node.children, index, node.nkey - index);
+        node.children[node.nkey] = null;
+        deleteKey(node, index > 0 ? index - 1 : 0);
+        return false;
+    }
+
+    /**
+     * Split full child {@code i} of write-latched parent. A leaf keeps its lower half and
+     * copies the first key of its upper half into parent; an internal node moves its median up.
+     */
+    private void splitChild(Node parent, int i, Node child) {
+        Node right = new Node(degree, child.leaf);
+        K separator;
+        if (child.leaf) {
+            //left keeps d - 1 keys, right gets d
+            System.arraycopy(child.keys, degree - 1, right.keys, 0, degree);
+            right.nkey = degree;
+            separator = right.key(0);
+        } else {
+            System.arraycopy(child.keys, degree, right.keys, 0, degree - 1);
+            System.arraycopy(child.children, degree, right.children, 0, degree);
+            Arrays.fill(child.children, degree, 2 * degree, null);
+            right.nkey = degree - 1;
+            separator = child.key(degree - 1);
+        }
+        Arrays.fill(child.keys, degree - 1, 2 * degree - 1, null);
+        child.nkey = degree - 1;
+
+        System.arraycopy(parent.keys, i, parent.keys, i + 1, parent.nkey - i);
+        System.arraycopy(parent.children, i + 1, parent.children, i + 2, parent.nkey - i);
+        parent.keys[i] = separator;
+        parent.children[i + 1] = right;
+        parent.nkey++;
+    }
+
+    /**
+     * Child to follow for key: keys equal to a separator live right of it.
+     */
+    private int childIndex(Node node, K key) {
+        int index = searchKey(node, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private int searchKey(Node node, K key) {
+        int low = 0;
+        int high = node.nkey - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = node.<K>key(mid).compareTo(key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static void insertKey(Node node, int index, Object key) {
+        System.arraycopy(node.keys, index, node.keys, index + 1, node.nkey - index);
+        node.keys[index] = key;
+        node.nkey++;
+    }
+
+    private static void deleteKey(Node node, int index) {
+        System.arraycopy(node.keys, index + 1, node.keys, index, node.nkey - index - 1);
+        node.keys[--node.nkey] = null;
+    }
+
+    /**
+     * Keys in ascending order; only meaningful while no update is running.
+     */
+    List<K> keys() {
+        List<K> keys = new ArrayList<>(size());
+        collect(root, keys);
+        return keys;
+    }
+
+    /**
+     * Number of nodes; only meaningful while no update is running.
+     */
+    int nodeCount() {
+        return count(root);
+    }
+
+    private int count(Node node) {
+        if (node.leaf) {
+            return 1;
+        }
+        int count = 1;
+        for (int i = 0; i <= node.nkey; i++) {
+            count += count(node.children[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Number of levels below the root; only meaningful while no update is running.
+     */
+    int height() {
+        int height = 0;
+        for (Node node = root; !node.leaf; node = node.children[0]) {
+            height++;
+        }
+        return height;
+    }
+
+    private void collect(Node node, List<K> keys) {
+        if (node.leaf) {
+            for (int i = 0; i < node.nkey; i++) {
+                keys.add(node.key(i));
+            }
+            return;
+        }
+        for (int i = 0; i <= node.nkey; i++) {
+            collect(node.children[i], keys);
+        }
+    }
+
+    /**
+     * Node with its latch. Fields are guarded by the latch.
+     */
+    private static final class Node {
+        final boolean leaf;
+        final Object[] keys;
+        final Node[] children;
+        final StampedLock latch = new StampedLock();
+        int nkey;
+
+        Node(int degree, boolean leaf) {
+            this.leaf = leaf;
+            this.keys = new Object[2 * degree - 1];
+            this.children = leaf ? null : new Node[2 * degree];
+        }
+
+        @SuppressWarnings("unchecked")
+        <K> K key(int index) {
+            return (K) keys[index];
+        }
+    }
+
+    /**
+     * Node write-latched by a pessimistic delete, with the stamp and the index of the child
+     * the delete went on to.
+     */
+    private static final class Frame {
+        final Node node;
+        final long stamp;
+        final int child;
+
+        Frame(Node node, long stamp, int child) {
+            this.node = node;
+            this.stamp = stamp;
+            this.child = child;
+        }
+    }
+}
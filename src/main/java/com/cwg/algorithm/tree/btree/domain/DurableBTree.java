@@ -0,0 +1,236 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link BTree} whose inserts and deletes survive a crash.
+ * <p>Every change is applied to the in-memory tree and recorded as a logical insert or
+ * delete in a {@link WriteAheadLog}, whose {@link WriteAheadLog.Durability} mode decides
+ * when the call returns. {@link #checkpoint()} writes all keys to a snapshot file and
+ * starts a new log generation. Opening a directory recovers the tree by bulk loading the
+ * last snapshot and replaying the log written after it; a torn tail of the log is dropped.
+ * A log whose generation skips one past the snapshot fails recovery instead of being
+ * replayed, since the records of the missing generation are lost.</p>
+ * <p>Methods are synchronized on the tree, while waiting for the log is not, so concurrent
+ * writers share one log force.</p>
+ *
+ * 创建时间：2026-10-18 23:20
+ *
+ * @author 曹文岗
+ **/
+public class DurableBTree<K extends Comparable<K>> implements Closeable {
+
+    private static final byte INSERT = 1;
+    private static final byte DELETE = 2;
+
+    private static final long SNAPSHOT_MAGIC = 0x534E_4150_4254_5245L;
+    private static final String SNAPSHOT = "btree.snapshot";
+    private static final String LOG = "btree.wal";
+
+    private final Path directory;
+    private final KeyCodec<K> codec;
+    private final WriteAheadLog.Durability durability;
+    private final long intervalMillis;
+    private final BTree<K> tree;
+    private WriteAheadLog log;
+
+    private DurableBTree(Path directory, int degree, KeyCodec<K> codec,
+                         WriteAheadLog.Durability durability, long intervalMillis) {
+        this.directory = directory;
+        this.codec = codec;
+        this.durability = durability;
+        this.intervalMillis = intervalMillis;
+        this.tree = new BTree<>(degree);
+    }
+
+    /**
+     * Open or create a tree in given directory.
+     *
+     * @param intervalMillis flush interval for {@link WriteAheadLog.Durability#BATCHED} and
+     *                       {@link WriteAheadLog.Durability#ASYNC}
+     */
+    public static <K extends Comparable<K>> DurableBTree<K> open(Path directory, int degree, KeyCodec<K> codec,
+                                                                WriteAheadLog.Durability durability,
+                                                                long intervalMillis) throws IOException {
+        Files.createDirectories(directory);
+        DurableBTree<K> durable = new DurableBTree<>(directory, degree, codec, durability, intervalMillis);
+        durable.recover();
+        return durable;
+    }
+
+    private void recover() throws IOException {
+        long snapshotGeneration = -1;
+        Path snapshot = directory.resolve(SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+                if (in.readLong() != SNAPSHOT_MAGIC) {
+                    throw new IOException("not a b-tree snapshot: " + snapshot);
+                }
+                snapshotGeneration = in.readLong();
+                long count = in.readLong();
+                tree.bulkLoad(new Iterator<K>() {
+                    private long read;
+
+                    @Override
+                    public boolean hasNext() {
+                        return read < count;
+                    }
+
+                    @Override
+                    public K next() {
+                        if (read == count) {
+                            throw new NoSuchElementException();
+                        }
+                        read++;
+                        try {
+                            return codec.read(in);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }, 1.0);
+            }
+        }
+        long lastGeneration = snapshotGeneration;
+        log = WriteAheadLog.recover(directory.resolve(LOG), new WriteAheadLog.Replay() {
+            @Override
+            public boolean accept(long generation) throws IOException {
+                //a log not newer than the snapshot is already contained in it
+                if (generation <= lastGeneration) {
+                    return false;
+                }
+                if (generation != lastGeneration + 1) {
+                    throw new IOException("log generation " + generation + " doesn't follow snapshot generation "
+                            + lastGeneration + ", the records in between are lost");
+                }
+                return true;
+            }
+
+            @Override
+            public void apply(byte op, byte[] payload) throws IOException {
+                K key = codec.read(new DataInputStream(new ByteArrayInputStream(payload)));
+                if (op == INSERT) {
+                    tree.insert(key);
+                } else if (op == DELETE) {
+                    tree.delete(key);
+                } else {
+                    throw new IOException("unknown log record " + op);
+                }
+            }
+        }, durability, intervalMillis);
+        if (log == null) {
+            log = WriteAheadLog.create(directory.resolve(LOG), snapshotGeneration + 1, durability, intervalMillis);
+        }
+    }
+
+    /**
+     * Insert a key durably.
+     *
+     * @return false if key already exists, nothing is logged then.
+     */
+    public boolean insert(K key) {
+        return update(INSERT, key);
+    }
+
+    /**
+     * Delete a key durably.
+     *
+     * @return false if key doesn't exist, nothing is logged then.
+     */
+    public boolean delete(K key) {
+        return update(DELETE, key);
+    }
+
+    private boolean update(byte op, K key) {
+        byte[] payload = encode(key);
+        WriteAheadLog current;
+        long lsn;
+        synchronized (this) {
+            if (!(op == INSERT ? tree.insert(key) : tree.delete(key))) {
+                return false;
+            }
+            current = log;
+            lsn = current.append(op, payload);
+        }
+        //outside the lock so that other writers can join the same force
+        current.commit(lsn);
+        return true;
+    }
+
+    public synchronized boolean contains(K key) {
+        return tree.contains(key);
+    }
+
+    public synchronized int size() {
+        return tree.size();
+    }
+
+    /**
+     * Write all keys to a new snapshot and start an empty log, so that recovery no longer
+     * needs the records logged so far.
+     */
+    public synchronized void checkpoint() throws IOException {
+        long generation = log.generation();
+        Path temp = directory.resolve(SNAPSHOT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel), 1 << 16));
+            out.writeLong(SNAPSHOT_MAGIC);
+            out.writeLong(generation);
+            out.writeLong(tree.size());
+            for (K key : tree) {
+                codec.write(key, out);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        //the rename must be durable before the old log is overwritten
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+        //the snapshot now covers this generation, a crash from here on skips the old log
+        log.close();
+        log = WriteAheadLog.create(directory.resolve(LOG), generation + 1, durability, intervalMillis);
+    }
+
+    /**
+     * @return the log currently appended to.
+     */
+    public synchronized WriteAheadLog log() {
+        return log;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    private byte[] encode(K key) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        try {
+            codec.write(key, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
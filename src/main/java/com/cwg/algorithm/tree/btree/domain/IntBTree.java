@@ -0,0 +1,330 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Queue;
+
+/**
+ * B-Tree specialized for primitive {@code int} keys.
+ * <p>Nodes hold keys in a {@code int[]}, so insert/delete/search never box a key
+ * and compare with plain {@code <}/{@code >} instead of a virtual {@code compareTo}.
+ * Behaves like {@link BTree}: keys are distinct, preemptive split on insert, borrow or
+ * merge on the way down on delete.</p>
+ *
+ * 创建时间：2026-10-18 16:40
+ *
+ * @author 曹文岗
+ **/
+public class IntBTree {
+
+    private final int degree;
+    private Node root;
+    private int size;
+
+    public IntBTree(int degree) {
+        if (degree < 2) {
+            throw new IllegalArgumentException("degree mustn't < 2");
+        }
+        this.degree = degree;
+        root = new Node(degree, true);
+    }
+
+    /**
+     * Check whether B-Tree contains given key.
+     *
+     * @param key key to check.
+     * @return true if key exists.
+     */
+    public boolean contains(int key) {
+        Node node = root;
+        while (true) {
+            int index = node.searchKey(key);
+            if (index >= 0) {
+                return true;
+            }
+            if (node.isLeaf()) {
+                return false;
+            }
+            node = node.children[-index - 1];
+        }
+    }
+
+    /**
+     * Amount of keys in B-Tree.
+     *
+     * @return key amount.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Insert a key into B-Tree,keys are distinct so an existing key is not inserted again.
+     *
+     * @param key key to insert.
+     * @return false if key already exists.
+     */
+    public boolean insert(int key) {
+        if (root.isFull()) {
+            Node newRoot = new Node(degree, false);
+            newRoot.children[0] = root;
+            newRoot.splitChild(0);
+            root = newRoot;
+        }
+        Node node = root;
+        while (!node.isLeaf()) {
+            int i = node.searchKey(key);
+            if (i >= 0) {
+                return false;
+            }
+            i = -i - 1;
+            if (node.children[i].isFull()) {
+                node.splitChild(i);
+                if (key == node.keys[i]) {
+                    return false;
+                }
+                if (key > node.keys[i]) {
+                    i++;
+                }
+            }
+            node = node.children[i];
+        }
+        int i = node.searchKey(key);
+        if (i >= 0) {
+            return false;
+        }
+        node.insertKey(-i - 1, key);
+        size++;
+        return true;
+    }
+
+    /**
+     * Delete a key from B-Tree,if key doesn't exist in current tree,will effect nothing.
+     *
+     * @param key key to delete.
+     * @return false if key does not exist.
+     */
+    public boolean delete(int key) {
+        Node node = root;
+        while (!node.isLeaf()) {
+            int index = node.searchKey(key);
+            //key in this node
+            if (index >= 0) {
+                Node child;
+                if ((child = node.children[index]).nkey >= degree) {
+                    int repKey = child.maxKey();
+                    node.keys[index] = repKey;
+                    key = repKey;
+                } else if ((child = node.children[index + 1]).nkey >= degree) {
+                    int repKey = child.minKey();
+                    node.keys[index] = repKey;
+                    key = repKey;
+                } else {
+                    child = node.children[index];
+                    node.mergeChildren(index);
+                }
+                node = child;
+                continue;
+            }
+
+            //key may exist in child
+            int i = -index - 1;
+            Node target = node.children[i];
+            if (target.nkey < degree) {
+                if (i > 0 && node.children[i - 1].nkey >= degree) {
+                    node.borrowFromLeft(i);
+                } else if (i < node.nkey && node.children[i + 1].nkey >= degree) {
+                    node.borrowFromRight(i);
+                } else if (i > 0) {
+                    target = node.children[i - 1];
+                    node.mergeChildren(i - 1);
+                } else {
+                    node.mergeChildren(i);
+                }
+            }
+            node = target;
+        }
+        int index = node.searchKey(key);
+        if (index >= 0) {
+            node.deleteKey(index);
+            size--;
+        }
+        if (root.nkey == 0 && !root.isLeaf()) {
+            //shrink
+            root = root.children[0];
+        }
+        return index >= 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        String newLine = System.getProperty("line.separator");
+        Queue<Node> queue = new LinkedList<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            sb.append(node).append(newLine);
+            if (!node.isLeaf()) {
+                for (int i = 0; i <= node.nkey; i++) {
+                    queue.offer(node.children[i]);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Node of {@link IntBTree},a leaf node has no children array.
+     */
+    static final class Node {
+        final int[] keys;
+        final Node[] children;
+        int nkey;
+
+        Node(int degree, boolean leaf) {
+            keys = new int[2 * degree - 1];
+            children = leaf ? null : new Node[2 * degree];
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+
+        boolean isFull() {
+            return nkey == keys.length;
+        }
+
+        /**
+         * Binary search given key in current node.
+         *
+         * @return index of key if it exists, else {@code -(insertion point) - 1}.
+         */
+        int searchKey(int key) {
+            int low = 0;
+            int high = nkey - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int k = keys[mid];
+                if (k < key) {
+                    low = mid + 1;
+                } else if (k > key) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertKey(int index, int key) {
+            System.arraycopy(keys, index, keys, index + 1, nkey - index);
+            keys[index] = key;
+            nkey++;
+        }
+
+        void deleteKey(int index) {
+            System.arraycopy(keys, index + 1, keys, index, nkey - index - 1);
+            nkey--;
+        }
+
+        int maxKey() {
+            Node node = this;
+            while (!node.isLeaf()) {
+                node = node.children[node.nkey];
+            }
+            return node.keys[node.nkey - 1];
+        }
+
+        int minKey() {
+            Node node = this;
+            while (!node.isLeaf()) {
+                node = node.children[0];
+            }
+            return node.keys[0];
+        }
+
+        /**
+         * Split the full child at given index into two nodes around its middle key.
+         */
+        void splitChild(int child) {
+            Node old = children[child];
+            int degree = (old.keys.length + 1) / 2;
+            Node neo = new Node(degree, old.isLeaf());
+            System.arraycopy(old.keys, degree, neo.keys, 0, degree - 1);
+            if (!old.isLeaf()) {
+                System.arraycopy(old.children, degree, neo.children, 0, degree);
+                Arrays.fill(old.children, degree, old.children.length, null);
+            }
+            old.nkey = degree - 1;
+            neo.nkey = degree - 1;
+
+            System.arraycopy(children, child + 1, children, child + 2, nkey - child);
+            children[child + 1] = neo;
+            insertKey(child, old.keys[degree - 1]);
+        }
+
+        /**
+         * Merge child {@code index + 1} and the key between into child {@code index}.
+         */
+        void mergeChildren(int index) {
+            Node left = children[index];
+            Node right = children[index + 1];
+            left.keys[left.nkey] = keys[index];
+            System.arraycopy(right.keys, 0, left.keys, left.nkey + 1, right.nkey);
+            if (!left.isLeaf()) {
+                System.arraycopy(right.children, 0, left.children, left.nkey + 1, right.nkey + 1);
+            }
+            left.nkey += right.nkey + 1;
+
+            System.arraycopy(children, index + 2, children, index + 1, nkey - index - 1);
+            children[nkey] = null;
+            deleteKey(index);
+        }
+
+        /**
+         * Rotate the maximum key of child {@code index - 1} through this node into child {@code index}.
+         */
+        void borrowFromLeft(int index) {
+            Node target = children[index];
+            Node sibling = children[index - 1];
+            target.insertKey(0, keys[index - 1]);
+            if (!target.isLeaf()) {
+                System.arraycopy(target.children, 0, target.children, 1, target.nkey);
+                target.children[0] = sibling.children[sibling.nkey];
+                sibling.children[sibling.nkey] = null;
+            }
+            keys[index - 1] = sibling.keys[sibling.nkey - 1];
+            sibling.nkey--;
+        }
+
+        /**
+         * Rotate the minimum key of child {@code index + 1} through this node into child {@code index}.
+         */
+        void borrowFromRight(int index) {
+            Node target = children[index];
+            Node sibling = children[index + 1];
+            target.keys[target.nkey] = keys[index];
+            if (!target.isLeaf()) {
+                target.children[target.nkey + 1] = sibling.children[0];
+                System.arraycopy(sibling.children, 1, sibling.children, 0, sibling.nkey);
+                sibling.children[sibling.nkey] = null;
+            }
+            target.nkey++;
+            keys[index] = sibling.keys[0];
+            sibling.deleteKey(0);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(isLeaf() ? "leaf----" : " internal node ---- ")
+                    .append("size: ").append(nkey).append(" keys:").append("[");
+            for (int i = 0; i < nkey; i++) {
+                sb.append(keys[i]).append(",");
+            }
+            sb.append("]");
+            return sb.toString();
+        }
+    }
+}
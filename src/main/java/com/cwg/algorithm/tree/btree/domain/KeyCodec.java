@@ -0,0 +1,55 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary form of a key, used where keys leave the heap.
+ *
+ * 创建时间：2026-10-18 22:50
+ *
+ * @author 曹文岗
+ **/
+public interface KeyCodec<K> {
+
+    void write(K key, DataOutput out) throws IOException;
+
+    K read(DataInput in) throws IOException;
+
+    KeyCodec<Long> LONG = new KeyCodec<Long>() {
+        @Override
+        public void write(Long key, DataOutput out) throws IOException {
+            out.writeLong(key);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    KeyCodec<Integer> INTEGER = new KeyCodec<Integer>() {
+        @Override
+        public void write(Integer key, DataOutput out) throws IOException {
+            out.writeInt(key);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    KeyCodec<String> STRING = new KeyCodec<String>() {
+        @Override
+        public void write(String key, DataOutput out) throws IOException {
+            out.writeUTF(key);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+}
@@ -0,0 +1,283 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Read-only B-Tree of {@code long} keys served straight from a memory-mapped file.
+ * <p>The file is written by {@link BTree#writeTo(Path)} and is made of 4KB pages:
+ * a header page, the internal levels from the root down and then the leaf level.
+ * Leaf pages hold the keys in ascending order, 512 per page, so the leaf level is one
+ * sorted array. An internal page holds the first key of up to 512 consecutive pages of
+ * the level below; children are found by position, so no page stores a pointer.</p>
+ * <p>Opening only maps the file: nothing is deserialized and no object is created per
+ * key, so startup time and heap usage do not depend on the number of keys. The OS pages
+ * the file in on demand. Files are limited to 2GB, the size of one mapping. Thread safe.</p>
+ *
+ * 创建时间：2026-10-19 00:10
+ *
+ * @author 曹文岗
+ **/
+public class MappedBTree {
+
+    static final int PAGE_SIZE = 4096;
+    static final int FANOUT = PAGE_SIZE / 8;
+    private static final long MAGIC = 0x4D41_5042_5452_4545L;
+
+    private final ByteBuffer buffer;
+    private final long size;
+    private final int levels;
+    /**
+     * First page and number of entries of every level, level 0 is the leaf level.
+     */
+    private final long[] levelStart;
+    private final long[] levelEntries;
+
+    private MappedBTree(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < PAGE_SIZE || buffer.getLong(0) != MAGIC) {
+            throw new IOException("not a mapped b-tree file");
+        }
+        this.size = buffer.getLong(8);
+        this.levels = buffer.getInt(16);
+        this.levelStart = new long[levels];
+        this.levelEntries = new long[levels];
+        for (int level = 0; level < levels; level++) {
+            levelStart[level] = buffer.getLong(24 + 8 * level);
+            levelEntries[level] = entries(size, level);
+        }
+    }
+
+    /**
+     * Map a file written by {@link BTree#writeTo(Path)}.
+     */
+    public static MappedBTree open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("file larger than 2GB: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedBTree(mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * Write ascending distinct keys in the mapped file format.
+     */
+    static void write(Iterator<? extends Number> sorted, long size, Path file) throws IOException {
+        int levels = 1;
+        for (long pages = pages(size); pages > 1; pages = pages(pages)) {
+            levels++;
+        }
+        if (levels > (PAGE_SIZE - 24) / 8) {
+            throw new IllegalArgumentException("too many keys: " + size);
+        }
+        //pages per level, the root level goes first
+        long[] levelStart = new long[levels];
+        long next = 1;
+        for (int level = levels - 1; level >= 0; level--) {
+            levelStart[level] = next;
+            next += pages(entries(size, level));
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            page.putLong(MAGIC).putLong(size).putInt(levels).putInt(0);
+            for (long start : levelStart) {
+                page.putLong(start);
+            }
+            writePage(channel, page, 0);
+
+            //leaves, remembering the first key of every page for the level above
+            long[] firsts = new long[(int) pages(size)];
+            long written = 0;
+            long previous = Long.MIN_VALUE;
+            while (written < size) {
+                if (!sorted.hasNext()) {
+                    throw new IllegalArgumentException("fewer keys than " + size);
+                }
+                long key = sorted.next().longValue();
+                if (written > 0 && key <= previous) {
+                    throw new IllegalArgumentException("keys are not ascending: " + key + " after " + previous);
+                }
+                previous = key;
+                if (written % FANOUT == 0) {
+                    firsts[(int) (written / FANOUT)] = key;
+                }
+                page.putLong(key);
+                written++;
+                if (!page.hasRemaining() || written == size) {
+                    writePage(channel, page, levelStart[0] + (written - 1) / FANOUT);
+                }
+            }
+
+            for (int level = 1; level < levels; level++) {
+                long[] upper = new long[(int) pages(firsts.length)];
+                for (int i = 0; i < firsts.length; i++) {
+                    if (i % FANOUT == 0) {
+                        upper[i / FANOUT] = firsts[i];
+                    }
+                    page.putLong(firsts[i]);
+                    if (!page.hasRemaining() || i == firsts.length - 1) {
+                        writePage(channel, page, levelStart[level] + i / FANOUT);
+                    }
+                }
+                firsts = upper;
+            }
+            channel.force(true);
+        }
+    }
+
+    private static long pages(long entries) {
+        return (entries + FANOUT - 1) / FANOUT;
+    }
+
+    /**
+     * Number of entries at given level: keys for the leaves, pages below for the others.
+     */
+    private static long entries(long size, int level) {
+        long count = size;
+        for (int i = 0; i < level; i++) {
+            count = pages(count);
+        }
+        return count;
+    }
+
+    private static void writePage(FileChannel channel, ByteBuffer page, long pageNumber) throws IOException {
+        page.clear();
+        long position = pageNumber * PAGE_SIZE;
+        while (page.hasRemaining()) {
+            position += channel.write(page, position);
+        }
+        page.clear();
+        while (page.hasRemaining()) {
+            page.put((byte) 0);
+        }
+        page.clear();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Check whether the index contains given key.
+     */
+    public boolean contains(long key) {
+        long index = rank(key);
+        return index < size && keyAt(index) == key;
+    }
+
+    /**
+     * Number of keys less than given key, which is also the index of its ceiling.
+     */
+    public long rank(long key) {
+        if (size == 0) {
+            return 0;
+        }
+        //page index within the current level
+        long page = 0;
+        for (int level = levels - 1; level > 0; level--) {
+            int n = (int) Math.min(FANOUT, levelEntries[level] - page * FANOUT);
+            //last child whose first key <= key
+            int child = upperBound(levelStart[level] + page, n, key) - 1;
+            page = page * FANOUT + Math.max(child, 0);
+        }
+        int n = (int) Math.min(FANOUT, size - page * FANOUT);
+        return page * FANOUT + lowerBound(levelStart[0] + page, n, key);
+    }
+
+    /**
+     * Key at given position in ascending order.
+     */
+    public long keyAt(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return buffer.getLong((int) (levelStart[0] * PAGE_SIZE + index * 8));
+    }
+
+    /**
+     * Number of keys in [from, to).
+     */
+    public long count(long from, long to) {
+        return from < to ? rank(to) - rank(from) : 0;
+    }
+
+    /**
+     * Visit keys in [from, to) in ascending order.
+     */
+    public void forEach(long from, long to, LongConsumer action) {
+        if (from >= to) {
+            return;
+        }
+        long end = rank(to);
+        for (long i = rank(from); i < end; i++) {
+            action.accept(keyAt(i));
+        }
+    }
+
+    /**
+     * Keys in [from, to) in ascending order.
+     */
+    public PrimitiveIterator.OfLong range(long from, long to) {
+        long start = from < to ? rank(from) : 0;
+        long end = from < to ? rank(to) : 0;
+        return new PrimitiveIterator.OfLong() {
+            private long next = start;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public long nextLong() {
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                return keyAt(next++);
+            }
+        };
+    }
+
+    private int lowerBound(long page, int n, long key) {
+        int base = (int) (page * PAGE_SIZE);
+        int low = 0;
+        int high = n;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(base + mid * 8) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int upperBound(long page, int n, long key) {
+        int base = (int) (page * PAGE_SIZE);
+        int low = 0;
+        int high = n;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(base + mid * 8) <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
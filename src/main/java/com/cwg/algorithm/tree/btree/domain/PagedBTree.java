@@ -0,0 +1,546 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * B-Tree of {@code long} keys whose nodes live in fixed-size pages of a file.
+ * <p>Only the pages held by the {@link BufferPool} are in memory, so the tree may be
+ * far larger than the heap. A node page is laid out like {@link BTreeLeaf} /
+ * {@link BTreeInternalNode}: a leaf flag and the key count, then {@code 2d-1} keys and,
+ * for internal nodes, {@code 2d} child page ids, where the degree {@code d} is derived
+ * from the page size. Page 0 is the header holding root, size and free list.</p>
+ * <p>Insert and delete work as in {@link BTree}: preemptive split, borrow or merge on
+ * the way down, so at most three pages are pinned at any time. Pages released by merges
+ * are kept in a free list and reused. Keys are distinct. Not thread safe.</p>
+ *
+ * 创建时间：2026-10-18 22:00
+ *
+ * @author 曹文岗
+ **/
+public class PagedBTree implements Closeable {
+
+    private static final long MAGIC = 0x4254524545504731L;
+    private static final long NIL = 0;
+
+    private static final int OFFSET_LEAF = 0;
+    private static final int OFFSET_NKEY = 4;
+    private static final int OFFSET_KEYS = 8;
+    private static final int OFFSET_NEXT_FREE = 8;
+
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_PAGE_SIZE = 8;
+    private static final int HEADER_ROOT = 16;
+    private static final int HEADER_SIZE = 24;
+    private static final int HEADER_FREE = 32;
+
+    private final BufferPool pool;
+    private final int degree;
+    private final int offsetChildren;
+    private long root;
+    private long size;
+    private long freeHead;
+
+    private PagedBTree(BufferPool pool) {
+        this.pool = pool;
+        this.degree = pool.pageSize() / 32;
+        this.offsetChildren = OFFSET_KEYS + 8 * (2 * degree - 1);
+    }
+
+    /**
+     * Open a tree file, creating it if it does not exist or is empty.
+     *
+     * @param file      tree file
+     * @param pageSize  page size in bytes, a multiple of 32 and at least 64
+     * @param poolPages number of pages cached in memory, at least 4
+     */
+    public static PagedBTree open(Path file, int pageSize, int poolPages) throws IOException {
+        if (pageSize < 64 || pageSize % 32 != 0) {
+            throw new IllegalArgumentException("pageSize must be a multiple of 32 and at least 64");
+        }
+        if (poolPages < 4) {
+            throw new IllegalArgumentException("poolPages mustn't < 4");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        BufferPool pool = new BufferPool(channel, pageSize, poolPages);
+        PagedBTree tree = new PagedBTree(pool);
+        try {
+            if (pool.pageCount() == 0) {
+                tree.create();
+            } else {
+                tree.readHeader();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return tree;
+    }
+
+    private void create() {
+        pool.allocate();
+        Node leaf = allocateNode(true);
+        root = leaf.id;
+        unpin(leaf);
+        writeHeader();
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = pool.pin(0);
+        try {
+            if (header.getLong(HEADER_MAGIC) != MAGIC) {
+                throw new IOException("not a paged b-tree file");
+            }
+            if (header.getInt(HEADER_PAGE_SIZE) != pool.pageSize()) {
+                throw new IllegalArgumentException("file was created with page size "
+                        + header.getInt(HEADER_PAGE_SIZE));
+            }
+            root = header.getLong(HEADER_ROOT);
+            size = header.getLong(HEADER_SIZE);
+            freeHead = header.getLong(HEADER_FREE);
+        } finally {
+            pool.unpin(0, false);
+        }
+    }
+
+    private void writeHeader() {
+        ByteBuffer header = pool.pin(0);
+        header.putLong(HEADER_MAGIC, MAGIC);
+        header.putInt(HEADER_PAGE_SIZE, pool.pageSize());
+        header.putLong(HEADER_ROOT, root);
+        header.putLong(HEADER_SIZE, size);
+        header.putLong(HEADER_FREE, freeHead);
+        pool.unpin(0, true);
+    }
+
+    /**
+     * Check whether tree contains given key.
+     */
+    public boolean contains(long key) {
+        Node node = pin(root);
+        while (true) {
+            int index = node.searchKey(key);
+            if (index >= 0 || node.isLeaf()) {
+                unpin(node);
+                return index >= 0;
+            }
+            Node child = pin(node.child(-index - 1));
+            unpin(node);
+            node = child;
+        }
+    }
+
+    /**
+     * Insert a key.
+     *
+     * @return false if key already exists.
+     */
+    public boolean insert(long key) {
+        Node node = pin(root);
+        if (node.isFull()) {
+            Node newRoot = allocateNode(false);
+            newRoot.setChild(0, node.id);
+            splitChild(newRoot, 0, node);
+            unpin(node);
+            root = newRoot.id;
+            node = newRoot;
+        }
+        while (!node.isLeaf()) {
+            int i = node.searchKey(key);
+            if (i >= 0) {
+                unpin(node);
+                return false;
+            }
+            i = -i - 1;
+            Node child = pin(node.child(i));
+            if (child.isFull()) {
+                splitChild(node, i, child);
+                long separator = node.key(i);
+                if (key == separator) {
+                    unpin(child);
+                    unpin(node);
+                    return false;
+                }
+                if (key > separator) {
+                    unpin(child);
+                    child = pin(node.child(i + 1));
+                }
+            }
+            unpin(node);
+            node = child;
+        }
+        int i = node.searchKey(key);
+        if (i < 0) {
+            node.insertKey(-i - 1, key);
+            size++;
+        }
+        unpin(node);
+        return i < 0;
+    }
+
+    /**
+     * Delete a key.
+     *
+     * @return false if key doesn't exist.
+     */
+    public boolean delete(long key) {
+        Node node = pin(root);
+        boolean found = false;
+        while (!node.isLeaf()) {
+            int index = node.searchKey(key);
+            //key in this node
+            if (index >= 0) {
+                found = true;
+                Node left = pin(node.child(index));
+                if (left.nkey() >= degree) {
+                    key = maxKey(left);                                 //predecessor of key
+                    node.setKey(index, key);
+                    unpin(node);
+                    node = left;
+                    continue;
+                }
+                Node right = pin(node.child(index + 1));
+                if (right.nkey() >= degree) {
+                    unpin(left);
+                    key = minKey(right);                                //successor of key
+                    node.setKey(index, key);
+                    unpin(node);
+                    node = right;
+                    continue;
+                }
+                mergeChildren(node, index, left, right);
+                unpin(node);
+                node = left;
+                continue;
+            }
+
+            //key may exist in child
+            int i = -index - 1;
+            Node target = pin(node.child(i));
+            if (target.nkey() < degree) {
+                //at most three pages pinned: node, target and one sibling
+                Node sibling = i > 0 ? pin(node.child(i - 1)) : null;
+                if (sibling != null && sibling.nkey() >= degree) {
+                    borrowFromLeft(node, i, sibling, target);
+                    unpin(sibling);
+                } else {
+                    if (sibling != null) {
+                        unpin(sibling);
+                    }
+                    sibling = i < node.nkey() ? pin(node.child(i + 1)) : null;
+                    if (sibling != null && sibling.nkey() >= degree) {
+                        borrowFromRight(node, i, target, sibling);
+                        unpin(sibling);
+                    } else if (i > 0) {
+                        if (sibling != null) {
+                            unpin(sibling);
+                        }
+                        sibling = pin(node.child(i - 1));
+                        mergeChildren(node, i - 1, sibling, target);
+                        target = sibling;
+                    } else {
+                        mergeChildren(node, i, target, sibling);
+                    }
+                }
+            }
+            unpin(node);
+            node = target;
+        }
+        int index = node.searchKey(key);
+        if (index >= 0) {
+            node.deleteKey(index);
+        }
+        unpin(node);
+
+        Node top = pin(root);
+        if (top.nkey() == 0 && !top.isLeaf()) {
+            //shrink
+            root = top.child(0);
+            free(top);
+        } else {
+            unpin(top);
+        }
+        boolean deleted = index >= 0 || found;
+        if (deleted) {
+            size--;
+        }
+        return deleted;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int degree() {
+        return degree;
+    }
+
+    public BufferPool bufferPool() {
+        return pool;
+    }
+
+    /**
+     * Write header and every dirty page to disk.
+     */
+    public void flush() {
+        writeHeader();
+        pool.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeHeader();
+        pool.close();
+    }
+
+    /**
+     * Move the upper half of full child {@code i} into a new right sibling and lift its
+     * median key into parent. Both parent and child stay pinned.
+     */
+    private void splitChild(Node parent, int i, Node child) {
+        Node right = allocateNode(child.isLeaf());
+        int nkey = parent.nkey();
+        for (int k = nkey; k > i; k--) {
+            parent.setKey(k, parent.key(k - 1));
+            parent.setChild(k + 1, parent.child(k));
+        }
+        parent.setKey(i, child.key(degree - 1));
+        parent.setChild(i + 1, right.id);
+        parent.setNKey(nkey + 1);
+
+        for (int k = 0; k < degree - 1; k++) {
+            right.setKey(k, child.key(degree + k));
+        }
+        if (!child.isLeaf()) {
+            for (int k = 0; k < degree; k++) {
+                right.setChild(k, child.child(degree + k));
+            }
+        }
+        right.setNKey(degree - 1);
+        child.setNKey(degree - 1);
+        unpin(right);
+    }
+
+    /**
+     * Merge child {@code i + 1} and separator {@code i} into child {@code i}. The right
+     * page is freed, the left one stays pinned.
+     */
+    private void mergeChildren(Node parent, int i, Node left, Node right) {
+        int nkey = left.nkey();
+        left.setKey(nkey, parent.key(i));
+        for (int k = 0; k < right.nkey(); k++) {
+            left.setKey(nkey + 1 + k, right.key(k));
+        }
+        if (!left.isLeaf()) {
+            for (int k = 0; k <= right.nkey(); k++) {
+                left.setChild(nkey + 1 + k, right.child(k));
+            }
+        }
+        left.setNKey(nkey + 1 + right.nkey());
+
+        int pkey = parent.nkey();
+        for (int k = i; k < pkey - 1; k++) {
+            parent.setKey(k, parent.key(k + 1));
+            parent.setChild(k + 1, parent.child(k + 2));
+        }
+        parent.setNKey(pkey - 1);
+        free(right);
+    }
+
+    private void borrowFromLeft(Node parent, int i, Node left, Node target) {
+        int nkey = target.nkey();
+        for (int k = nkey; k > 0; k--) {
+            target.setKey(k, target.key(k - 1));
+        }
+        if (!target.isLeaf()) {
+            for (int k = nkey + 1; k > 0; k--) {
+                target.setChild(k, target.child(k - 1));
+            }
+            target.setChild(0, left.child(left.nkey()));
+        }
+        target.setKey(0, parent.key(i - 1));
+        target.setNKey(nkey + 1);
+        parent.setKey(i - 1, left.key(left.nkey() - 1));
+        left.setNKey(left.nkey() - 1);
+    }
+
+    private void borrowFromRight(Node parent, int i, Node target, Node right) {
+        int nkey = target.nkey();
+        target.setKey(nkey, parent.key(i));
+        if (!target.isLeaf()) {
+            target.setChild(nkey + 1, right.child(0));
+        }
+        target.setNKey(nkey + 1);
+        parent.setKey(i, right.key(0));
+        int rkey = right.nkey();
+        for (int k = 0; k < rkey - 1; k++) {
+            right.setKey(k, right.key(k + 1));
+        }
+        if (!right.isLeaf()) {
+            for (int k = 0; k < rkey; k++) {
+                right.setChild(k, right.child(k + 1));
+            }
+        }
+        right.setNKey(rkey - 1);
+    }
+
+    private long maxKey(Node node) {
+        Node current = node;
+        while (!current.isLeaf()) {
+            Node child = pin(current.child(current.nkey()));
+            if (current != node) {
+                unpin(current);
+            }
+            current = child;
+        }
+        long key = current.key(current.nkey() - 1);
+        if (current != node) {
+            unpin(current);
+        }
+        return key;
+    }
+
+    private long minKey(Node node) {
+        Node current = node;
+        while (!current.isLeaf()) {
+            Node child = pin(current.child(0));
+            if (current != node) {
+                unpin(current);
+            }
+            current = child;
+        }
+        long key = current.key(0);
+        if (current != node) {
+            unpin(current);
+        }
+        return key;
+    }
+
+    private Node pin(long id) {
+        return new Node(id, pool.pin(id));
+    }
+
+    private void unpin(Node node) {
+        pool.unpin(node.id, node.dirty);
+    }
+
+    /**
+     * Take a page from the free list or the end of file and format it as an empty node.
+     * The returned node is pinned.
+     */
+    private Node allocateNode(boolean leaf) {
+        long id;
+        if (freeHead != NIL) {
+            id = freeHead;
+            freeHead = pool.pin(id).getLong(OFFSET_NEXT_FREE);
+            pool.unpin(id, false);
+        } else {
+            id = pool.allocate();
+        }
+        Node node = pin(id);
+        node.buffer.putInt(OFFSET_LEAF, leaf ? 1 : 0);
+        node.setNKey(0);
+        return node;
+    }
+
+    /**
+     * Unpin a node and put its page on the free list.
+     */
+    private void free(Node node) {
+        node.buffer.putInt(OFFSET_NKEY, 0);
+        node.buffer.putLong(OFFSET_NEXT_FREE, freeHead);
+        node.dirty = true;
+        freeHead = node.id;
+        unpin(node);
+    }
+
+    /**
+     * A pinned node page.
+     */
+    private final class Node {
+        final long id;
+        final ByteBuffer buffer;
+        boolean dirty;
+
+        Node(long id, ByteBuffer buffer) {
+            this.id = id;
+            this.buffer = buffer;
+        }
+
+        boolean isLeaf() {
+            return buffer.getInt(OFFSET_LEAF) != 0;
+        }
+
+        boolean isFull() {
+            return nkey() == 2 * degree - 1;
+        }
+
+        int nkey() {
+            return buffer.getInt(OFFSET_NKEY);
+        }
+
+        void setNKey(int nkey) {
+            buffer.putInt(OFFSET_NKEY, nkey);
+            dirty = true;
+        }
+
+        long key(int index) {
+            return buffer.getLong(OFFSET_KEYS + 8 * index);
+        }
+
+        void setKey(int index, long key) {
+            buffer.putLong(OFFSET_KEYS + 8 * index, key);
+            dirty = true;
+        }
+
+        long child(int index) {
+            return buffer.getLong(offsetChildren + 8 * index);
+        }
+
+        void setChild(int index, long id) {
+            buffer.putLong(offsetChildren + 8 * index, id);
+            dirty = true;
+        }
+
+        /**
+         * Binary search like {@link AbstractBTreeNode#searchKey}.
+         */
+        int searchKey(long key) {
+            int low = 0;
+            int high = nkey() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midKey = key(mid);
+                if (midKey < key) {
+                    low = mid + 1;
+                } else if (midKey > key) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertKey(int index, long key) {
+            for (int k = nkey(); k > index; k--) {
+                setKey(k, key(k - 1));
+            }
+            setKey(index, key);
+            setNKey(nkey() + 1);
+        }
+
+        void deleteKey(int index) {
+            int nkey = nkey();
+            for (int k = index; k < nkey - 1; k++) {
+                setKey(k, key(k + 1));
+            }
+            setNKey(nkey - 1);
+        }
+    }
+}
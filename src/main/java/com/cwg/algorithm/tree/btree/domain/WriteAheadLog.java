@@ -0,0 +1,363 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of logical operations.
+ * <p>The file starts with a magic number and a generation; each record is
+ * {@code length, op, payload, crc32(op, payload)}. Records are appended to an in-memory
+ * buffer and get a log sequence number (the file offset of their end); {@link #commit}
+ * makes a record as durable as the {@link Durability} mode asks for.</p>
+ * <p>Group commit: a committing thread that finds no write in progress becomes the leader,
+ * takes the whole buffer, writes it and calls {@link FileChannel#force} once; threads
+ * committing meanwhile wait and are covered by that force or the next one. Thread safe.</p>
+ *
+ * 创建时间：2026-10-18 23:00
+ *
+ * @author 曹文岗
+ **/
+public class WriteAheadLog implements Closeable {
+
+    public enum Durability {
+        /**
+         * {@link #commit} returns once the record is forced to disk.
+         */
+        PER_OP,
+        /**
+         * A background thread forces the log every interval; at most one interval is lost on crash.
+         */
+        BATCHED,
+        /**
+         * A background thread writes the log every interval without forcing; the OS decides when it
+         * reaches disk.
+         */
+        ASYNC
+    }
+
+    private static final long MAGIC = 0x5741_4C42_5452_4545L;
+    private static final int HEADER = 16;
+    private static final int MAX_PAYLOAD = 1 << 20;
+
+    private final FileChannel channel;
+    private final long generation;
+    private final Durability durability;
+    private final Thread flusher;
+
+    private final Object lock = new Object();
+    private byte[] buffer = new byte[4096];
+    private byte[] spare = new byte[4096];
+    private int count;
+    private long appendedLsn;
+    /**
+     * End of the records handed to the OS.
+     */
+    private long writtenLsn;
+    /**
+     * End of the records forced to disk, never ahead of {@link #writtenLsn}.
+     */
+    private long durableLsn;
+    private boolean flushing;
+    private boolean closed;
+    private IOException failure;
+    private long forces;
+
+    private WriteAheadLog(FileChannel channel, long generation, long end,
+                          Durability durability, long intervalMillis) {
+        this.channel = channel;
+        this.generation = generation;
+        this.durability = durability;
+        this.appendedLsn = end;
+        this.writtenLsn = end;
+        this.durableLsn = end;
+        if (durability == Durability.PER_OP) {
+            flusher = null;
+        } else {
+            flusher = new Thread(() -> flushLoop(intervalMillis), "wal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Create an empty log, replacing any existing file.
+     */
+    public static WriteAheadLog create(Path file, long generation, Durability durability,
+                                       long intervalMillis) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putLong(MAGIC).putLong(generation).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+        return new WriteAheadLog(channel, generation, HEADER, durability, intervalMillis);
+    }
+
+    /**
+     * Replay the valid records of an existing log, cut off a torn or corrupt tail and open
+     * the log for appending after the last valid record.
+     *
+     * @return the log or null if file is missing or has no valid header.
+     */
+    public static WriteAheadLog recover(Path file, Replay replay, Durability durability,
+                                        long intervalMillis) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        long generation;
+        long end = HEADER;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            try {
+                if (in.readLong() != MAGIC) {
+                    return null;
+                }
+                generation = in.readLong();
+            } catch (EOFException e) {
+                return null;
+            }
+            if (!replay.accept(generation)) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            byte[] payload = new byte[64];
+            while (true) {
+                try {
+                    int length = in.readInt();
+                    if (length < 0 || length > MAX_PAYLOAD) {
+                        break;
+                    }
+                    byte op = in.readByte();
+                    if (payload.length < length) {
+                        payload = new byte[length];
+                    }
+                    in.readFully(payload, 0, length);
+                    crc.reset();
+                    crc.update(op);
+                    crc.update(payload, 0, length);
+                    if (in.readInt() != (int) crc.getValue()) {
+                        break;
+                    }
+                    replay.apply(op, Arrays.copyOf(payload, length));
+                    end += 9 + length;
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        channel.truncate(end);
+        channel.force(true);
+        channel.position(end);
+        return new WriteAheadLog(channel, generation, end, durability, intervalMillis);
+    }
+
+    /**
+     * Receiver of the records found by {@link #recover}.
+     */
+    public interface Replay {
+
+        /**
+         * @return whether records of this generation should be replayed and the log kept.
+         * @throws IOException if a log of this generation must not be there at all.
+         */
+        boolean accept(long generation) throws IOException;
+
+        void apply(byte op, byte[] payload) throws IOException;
+    }
+
+    /**
+     * Buffer a record.
+     *
+     * @return its log sequence number, to pass to {@link #commit}.
+     */
+    public long append(byte op, byte[] payload) {
+        if (payload.length > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("payload too large: " + payload.length);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(op);
+        crc.update(payload, 0, payload.length);
+        int length = 9 + payload.length;
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("log is closed");
+            }
+            if (count + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+            }
+            ByteBuffer.wrap(buffer, count, length)
+                    .putInt(payload.length)
+                    .put(op)
+                    .put(payload)
+                    .putInt((int) crc.getValue());
+            count += length;
+            appendedLsn += length;
+            return appendedLsn;
+        }
+    }
+
+    /**
+     * Wait as long as the durability mode requires for the record with given lsn.
+     */
+    public void commit(long lsn) {
+        if (durability == Durability.PER_OP) {
+            sync(lsn, true);
+        }
+    }
+
+    /**
+     * Write and force everything appended so far.
+     */
+    public void sync() {
+        long lsn;
+        synchronized (lock) {
+            lsn = appendedLsn;
+        }
+        sync(lsn, true);
+    }
+
+    /**
+     * Write the records up to lsn and, if force is set, force them; a flush without force
+     * does not satisfy a later forcing sync of the same records.
+     */
+    private void sync(long lsn, boolean force) {
+        byte[] batch;
+        int length;
+        long target;
+        synchronized (lock) {
+            while (true) {
+                if (failure != null) {
+                    throw new UncheckedIOException(failure);
+                }
+                if ((force ? durableLsn : writtenLsn) >= lsn) {
+                    return;
+                }
+                if (!flushing) {
+                    break;
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while waiting for log", e);
+                }
+            }
+            //become the leader: take everything appended so far
+            flushing = true;
+            batch = buffer;
+            length = count;
+            target = appendedLsn;
+            buffer = spare;
+            count = 0;
+        }
+        IOException error = null;
+        try {
+            ByteBuffer out = ByteBuffer.wrap(batch, 0, length);
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            if (force) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+        synchronized (lock) {
+            flushing = false;
+            spare = batch;
+            if (error == null) {
+                writtenLsn = target;
+                if (force) {
+                    durableLsn = target;
+                    forces++;
+                }
+            } else {
+                failure = error;
+            }
+            lock.notifyAll();
+        }
+        if (error != null) {
+            throw new UncheckedIOException(error);
+        }
+    }
+
+    private void flushLoop(long intervalMillis) {
+        while (true) {
+            long lsn;
+            synchronized (lock) {
+                long deadline = System.currentTimeMillis() + intervalMillis;
+                long remaining = intervalMillis;
+                while (!closed && remaining > 0) {
+                    try {
+                        lock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    remaining = deadline - System.currentTimeMillis();
+                }
+                if (closed) {
+                    return;
+                }
+                lsn = appendedLsn;
+            }
+            try {
+                sync(lsn, durability == Durability.BATCHED);
+            } catch (UncheckedIOException e) {
+                //recorded in failure, reported to the next committer
+                return;
+            }
+        }
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * @return number of {@link FileChannel#force} calls so far.
+     */
+    public long forces() {
+        synchronized (lock) {
+            return forces;
+        }
+    }
+
+    /**
+     * Force everything appended and close the file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package com.cwg.algorithm.tree.rbtree.domain;
+
+import java.util.Arrays;
+
+/**
+ * 以数组存储节点、键为基本类型long的红黑树
+ * <p>
+ * 节点没有对象：第i个节点的键、左右孩子和父节点分别是keys[i]、left[i]、right[i]、parent[i]，
+ * 孩子和父节点用int下标代替引用，颜色按位存放在long[]中(置位为红色)。每个键只占
+ * 8(键) + 3 * 4(下标) + 1/8(颜色)字节，而{@link RBTree}每个节点是一个对象，加上装箱的键，
+ * 另有对象头、4个引用和外部类引用。同一个节点的字段不再分散在堆上各处，查找只访问几个数组。
+ * <p>
+ * 下标0是哨兵NIL(《算法导论》中的T.nil)，黑色，代替空孩子和根的父节点，删除修正时
+ * 可以临时设置它的父节点。删除的节点经right[]串成空闲链表，由后续插入重用；数组满时扩容为两倍。
+ * 允许重复的键，相等的键插在右子树，和{@link RBTree}早先的insert一样(RBTree现在的insert不再插入已存在的键)。
+ * 不维护子树大小，不是线程安全的。
+ *
+ * 创建时间：2026-10-19 07:40
+ *
+ * @author 曹文岗
+ **/
+public class LongRBTree {
+
+    private static final int NIL = 0;
+
+    private long[] keys;
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    /**
+     * 颜色位图，第i位置位表示节点i是红色
+     */
+    private long[] red;
+
+    private int root = NIL;
+    private int size;
+    /**
+     * 下一个从未使用过的下标
+     */
+    private int next = 1;
+    /**
+     * 空闲链表头，经right[]串联
+     */
+    private int free = NIL;
+
+    public LongRBTree() {
+        this(16);
+    }
+
+    /**
+     * @param initialCapacity 预分配的节点个数
+     */
+    public LongRBTree(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity mustn't < 0");
+        }
+        allocateArrays(initialCapacity + 1);
+    }
+
+    private void allocateArrays(int capacity) {
+        keys = new long[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        red = new long[(capacity + 63) >>> 6];
+    }
+
+    /**
+     * 节点总数，O(1)
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 是否存在键key
+     */
+    public boolean contains(long key) {
+        return search(key) != NIL;
+    }
+
+    private int search(long key) {
+        int x = root;
+        while (x != NIL) {
+            long k = keys[x];
+            if (key == k) {
+                return x;
+            }
+            x = key < k ? left[x] : right[x];
+        }
+        return NIL;
+    }
+
+    /**
+     * 插入键key，重复的键也会插入
+     */
+    public void insert(long key) {
+        // 1. 将红黑树当作一颗二叉查找树，找到新节点的父节点
+        int y = NIL;
+        int x = root;
+        while (x != NIL) {
+            y = x;
+            x = key < keys[x] ? left[x] : right[x];
+        }
+        int z = allocate();
+        keys[z] = key;
+        left[z] = NIL;
+        right[z] = NIL;
+        parent[z] = y;
+        if (y == NIL) {
+            root = z;
+        } else if (key < keys[y]) {
+            left[y] = z;
+        } else {
+            right[y] = z;
+        }
+        size++;
+        // 2. 新节点为红色，修正为一颗红黑树
+        setRed(z);
+        insertFixUp(z);
+    }
+
+    private void insertFixUp(int z) {
+        //若父节点是红色(根的父节点NIL是黑色)
+        while (isRed(parent[z])) {
+            int p = parent[z];
+            int g = parent[p];
+            if (p == left[g]) {
+                int uncle = right[g];
+                // Case 1：叔叔是红色
+                if (isRed(uncle)) {
+                    setBlack(p);
+                    setBlack(uncle);
+                    setRed(g);
+                    z = g;
+                    continue;
+                }
+                // Case 2：叔叔是黑色，且当前节点是右孩子
+                if (z == right[p]) {
+                    z = p;
+                    leftRotate(z);
+                    p = parent[z];
+                }
+                // Case 3：叔叔是黑色，且当前节点是左孩子
+                setBlack(p);
+                setRed(g);
+                rightRotate(g);
+            } else {
+                int uncle = left[g];
+                if (isRed(uncle)) {
+                    setBlack(p);
+                    setBlack(uncle);
+                    setRed(g);
+                    z = g;
+                    continue;
+                }
+                if (z == left[p]) {
+                    z = p;
+                    rightRotate(z);
+                    p = parent[z];
+                }
+                setBlack(p);
+                setRed(g);
+                leftRotate(g);
+            }
+        }
+        setBlack(root);
+    }
+
+    /**
+     * 删除一个键为key的节点
+     *
+     * @return 是否存在键key
+     */
+    public boolean remove(long key) {
+        int z = search(key);
+        if (z == NIL) {
+            return false;
+        }
+        remove(z);
+        release(z);
+        size--;
+        return true;
+    }
+
+    /**
+     * 删除节点z，《算法导论》RB-DELETE
+     */
+    private void remove(int z) {
+        int y = z;
+        boolean yRed = isRed(y);
+        int x;
+        if (left[z] == NIL) {
+            x = right[z];
+            transplant(z, x);
+        } else if (right[z] == NIL) {
+            x = left[z];
+            transplant(z, x);
+        } else {
+            // 后继节点取代z的位置
+            y = right[z];
+            while (left[y] != NIL) {
+                y = left[y];
+            }
+            yRed = isRed(y);
+            x = right[y];
+            if (parent[y] == z) {
+                // x可能是NIL，修正时需要它的父节点
+                parent[x] = y;
+            } else {
+                transplant(y, x);
+                right[y] = right[z];
+                parent[right[y]] = y;
+            }
+            transplant(z, y);
+            left[y] = left[z];
+            parent[left[y]] = y;
+            setColor(y, isRed(z));
+        }
+        if (!yRed) {
+            removeFixUp(x);
+        }
+        parent[NIL] = NIL;
+    }
+
+    /**
+     * 用以v为根的子树替换以u为根的子树
+     */
+    private void transplant(int u, int v) {
+        int p = parent[u];
+        if (p == NIL) {
+            root = v;
+        } else if (u == left[p]) {
+            left[p] = v;
+        } else {
+            right[p] = v;
+        }
+        parent[v] = p;
+    }
+
+    private void removeFixUp(int x) {
+        while (x != root && !isRed(x)) {
+            int p = parent[x];
+            if (x == left[p]) {
+                int w = right[p];
+                if (isRed(w)) {
+                    // Case 1: x的兄弟w是红色的
+                    setBlack(w);
+                    setRed(p);
+                    leftRotate(p);
+                    w = right[p];
+                }
+                if (!isRed(left[w]) && !isRed(right[w])) {
+                    // Case 2: x的兄弟w是黑色，且w的俩个孩子也都是黑色的
+                    setRed(w);
+                    x = p;
+                } else {
+                    if (!isRed(right[w])) {
+                        // Case 3: x的兄弟w是黑色的，并且w的左孩子是红色，右孩子为黑色
+                        setBlack(left[w]);
+                        setRed(w);
+                        rightRotate(w);
+                        w = right[p];
+                    }
+                    // Case 4: x的兄弟w是黑色的；并且w的右孩子是红色的
+                    setColor(w, isRed(p));
+                    setBlack(p);
+                    setBlack(right[w]);
+                    leftRotate(p);
+                    x = root;
+                }
+            } else {
+                int w = left[p];
+                if (isRed(w)) {
+                    setBlack(w);
+                    setRed(p);
+                    rightRotate(p);
+                    w = left[p];
+                }
+                if (!isRed(left[w]) && !isRed(right[w])) {
+                    setRed(w);
+                    x = p;
+                } else {
+                    if (!isRed(left[w])) {
+                        setBlack(right[w]);
+                        setRed(w);
+                        leftRotate(w);
+                        w = left[p];
+                    }
+                    setColor(w, isRed(p));
+                    setBlack(p);
+                    setBlack(left[w]);
+                    rightRotate(p);
+                    x = root;
+                }
+            }
+        }
+        setBlack(x);
+    }
+
+    /**
+     * 对节点x进行左旋转，x的右孩子y取代x，x成为y的左孩子
+     */
+    private void leftRotate(int x) {
+        int y = right[x];
+        right[x] = left[y];
+        if (left[y] != NIL) {
+            parent[left[y]] = x;
+        }
+        int p = parent[x];
+        parent[y] = p;
+        if (p == NIL) {
+            root = y;
+        } else if (x == left[p]) {
+            left[p] = y;
+        } else {
+            right[p] = y;
+        }
+        left[y] = x;
+        parent[x] = y;
+    }
+
+    /**
+     * 对节点y进行右旋转，y的左孩子x取代y，y成为x的右孩子
+     */
+    private void rightRotate(int y) {
+        int x = left[y];
+        left[y] = right[x];
+        if (right[x] != NIL) {
+            parent[right[x]] = y;
+        }
+        int p = parent[y];
+        parent[x] = p;
+        if (p == NIL) {
+            root = x;
+        } else if (y == right[p]) {
+            right[p] = x;
+        } else {
+            left[p] = x;
+        }
+        right[x] = y;
+        parent[y] = x;
+    }
+
+    /**
+     * 取一个空闲下标，空闲链表为空时用新的下标，数组满时扩容
+     */
+    private int allocate() {
+        if (free != NIL) {
+            int z = free;
+            free = right[z];
+            return z;
+        }
+        if (next == keys.length) {
+            grow();
+        }
+        return next++;
+    }
+
+    private void release(int z) {
+        setBlack(z);
+        left[z] = NIL;
+        parent[z] = NIL;
+        right[z] = free;
+        free = z;
+    }
+
+    private void grow() {
+        int capacity = keys.length;
+        if (capacity == Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("tree is full");
+        }
+        capacity = capacity < (1 << 29) ? Math.max(2, capacity << 1) : Integer.MAX_VALUE - 8;
+        keys = Arrays.copyOf(keys, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        red = Arrays.copyOf(red, (capacity + 63) >>> 6);
+    }
+
+    /**
+     * 所有键，升序
+     */
+    public long[] toArray() {
+        long[] result = new long[size];
+        int n = 0;
+        // 中序遍历，经父节点回溯，不需要栈
+        int x = root;
+        while (x != NIL && left[x] != NIL) {
+            x = left[x];
+        }
+        while (x != NIL) {
+            result[n++] = keys[x];
+            if (right[x] != NIL) {
+                x = right[x];
+                while (left[x] != NIL) {
+                    x = left[x];
+                }
+            } else {
+                int p = parent[x];
+                while (p != NIL && x == right[p]) {
+                    x = p;
+                    p = parent[p];
+                }
+                x = p;
+            }
+        }
+        return result;
+    }
+
+    boolean isRed(int x) {
+        return (red[x >>> 6] & (1L << x)) != 0;
+    }
+
+    private void setRed(int x) {
+        red[x >>> 6] |= 1L << x;
+    }
+
+    private void setBlack(int x) {
+        red[x >>> 6] &= ~(1L << x);
+    }
+
+    private void setColor(int x, boolean isRed) {
+        if (isRed) {
+            setRed(x);
+        } else {
+            setBlack(x);
+        }
+    }
+
+    int root() {
+        return root;
+    }
+
+    int left(int x) {
+        return left[x];
+    }
+
+    int right(int x) {
+        return right[x];
+    }
+
+    int parent(int x) {
+        return parent[x];
+    }
+
+    long key(int x) {
+        return keys[x];
+    }
+}
@@ -1,22 +1,508 @@
 package com.cwg.algorithm.tree.rbtree.domain;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
+ * 红黑树，按键的自然顺序实现{@link NavigableSet}
+ * <p>
+ * {@link #add}和{@link #insert}都不插入已存在的键，树中的键互不相同，满足{@link java.util.Set}的约定。
+ * 早先的insert不查找已有的键，相等的键各成一个节点，插在右子树，重复的键连成一串；
+ * 这种做法只留在包内的{@link #insertDuplicate}中，供基准测试对比，{@link LongRBTree}仍然如此。
+ * floor/ceiling/higher/lower等导航从根向下查找一次，O(log n)；
+ * 迭代器经父节点找后继/前驱，每步均摊O(1)，不递归也不分配对象，遇到视图边界外的第一个节点
+ * (在创建迭代器时找好)即停止。子集视图共享这棵树，size()由子树大小求排名得出，O(log n)。
+ * 迭代器是快速失败的。
+ * <p>
+ * 计数模式({@link #RBTree(boolean)})下每个不同的键只有一个节点，重复的键只增加节点上的计数，
+ * 内存和树高只取决于不同键的个数。{@link #insert}、{@link #add(Comparable)}各增加一次出现，
+ * {@link #remove(Object)}减少一次出现，{@link #add(Comparable, int)}、{@link #count}、
+ * {@link #removeOccurrences}按次数操作，{@link #totalSize()}是出现的总次数。size()、排名、遍历、
+ * 视图和pollFirst/pollLast、迭代器的remove都按不同的键(整个节点)计。
+ * <p>
+ * {@link #join}、{@link #split}按黑高拼接和拆分整棵树，O(log n)；{@link #union}、{@link #intersect}、
+ * {@link #difference}在这两者上分治，两棵树分别有m、n(m <= n)个键时代价为O(m log(n/m + 1))，
+ * 两半子问题在ForkJoinPool中并行。这些操作都不复制节点，而是直接移动参与运算的树的节点：
+ * split后本树只留下一半，join和集合运算后参与运算的树为空，需要保留原来的树时先自行复制。
+ * 这些操作不支持计数模式。
+ *
  * 创建时间：2020-08-09 10:35
  *
  * @author 曹文岗
  **/
 @Getter
-public class RBTree<T extends Comparable<T>> {
+public class RBTree<T extends Comparable<T>> extends AbstractSet<T> implements NavigableSet<T> {
     /**
      * 根节点
      */
     private RBTNode<T> mRoot;
 
+    /**
+     * 结构修改次数，迭代器据此快速失败
+     */
+    @Getter(AccessLevel.NONE)
+    private int modCount;
+
+    /**
+     * 是否为计数模式
+     */
+    private final boolean multiset;
+
+    /**
+     * 所有键出现的总次数
+     */
+    @Getter(AccessLevel.NONE)
+    private long total;
+
+    public RBTree() {
+        this(false);
+    }
+
+    /**
+     * @param multiset 是否为计数模式，相等的键共用一个节点
+     */
+    public RBTree(boolean multiset) {
+        this.multiset = multiset;
+    }
+
     private static final boolean RED = false;
     private static final boolean BLACK = true;
 
+    /**
+     * 由严格升序的键在O(n)时间内建树，不比较键也不旋转
+     * <p>
+     * 按中序依次取键，先递归建左子树，再建节点和右子树，每个子树取中间的键作根，得到完全平衡的树：
+     * 除最深一层外各层都是满的。最深一层不满时这一层的节点为红色，其余为黑色，
+     * 这样每条路径上的黑节点数相同。
+     * <p>
+     * 键必须严格升序(互不相等)，和add建出的树一样；建树时不检查，只在启用断言时建好后检查一遍。
+     *
+     * @param keys 严格升序的键
+     * @param size 键的个数，keys至少要有这么多个
+     * @throws java.util.NoSuchElementException keys不足size个
+     */
+    public static <T extends Comparable<T>> RBTree<T> fromSorted(Iterator<? extends T> keys, int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size mustn't < 0");
+        }
+        RBTree<T> tree = new RBTree<>();
+        tree.mRoot = tree.buildFromSorted(0, 0, size - 1, redLevel(size), keys);
+        tree.total = size;
+        assert tree.isStrictlyAscending() : "keys must be strictly ascending";
+        return tree;
+    }
+
+    /**
+     * 由严格升序的数组建树，见{@link #fromSorted(Iterator, int)}
+     */
+    public static <T extends Comparable<T>> RBTree<T> fromSorted(T[] keys) {
+        return fromSorted(Arrays.asList(keys).iterator(), keys.length);
+    }
+
+    /**
+     * 中序上相邻的键是否都严格递增，供断言检查建树的输入
+     */
+    private boolean isStrictlyAscending() {
+        T previous = null;
+        for (T key : this) {
+            if (previous != null && previous.compareTo(key) >= 0) {
+                return false;
+            }
+            previous = key;
+        }
+        return true;
+    }
+
+    /**
+     * 用keys中接下来的hi - lo + 1个键建深度为level的子树
+     *
+     * @return 子树的根，没有键时为null
+     */
+    private RBTNode<T> buildFromSorted(int level, int lo, int hi, int redLevel, Iterator<? extends T> keys) {
+        if (hi < lo) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        RBTNode<T> left = buildFromSorted(level + 1, lo, mid - 1, redLevel, keys);
+        RBTNode<T> node = new RBTNode<>(keys.next(), level == redLevel ? RED : BLACK, null, left, null);
+        if (left != null) {
+            left.parent = node;
+        }
+        RBTNode<T> right = buildFromSorted(level + 1, mid + 1, hi, redLevel, keys);
+        if (right != null) {
+            right.parent = node;
+            node.right = right;
+        }
+        node.size = hi - lo + 1;
+        return node;
+    }
+
+    /**
+     * 完全平衡的size个节点的树中，不满的最深一层的深度(根的深度为0)；各层都满时大于最大深度
+     */
+    private static int redLevel(int size) {
+        int level = 0;
+        for (int m = size - 1; m >= 0; m = m / 2 - 1) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * 子树并行运算的最小节点数，更小的子问题在当前线程中递归
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * 连接：由left的所有键、key和right的所有键组成一棵树，O(log n)
+     * <p>
+     * 和{@link #split}一样直接移动节点而不复制：left和right的节点移到返回的树中，两者被清空。
+     *
+     * @throws IllegalArgumentException left中有不小于key的键，或right中有不大于key的键
+     */
+    public static <T extends Comparable<T>> RBTree<T> join(RBTree<T> left, T key, RBTree<T> right) {
+        left.checkNotMultiset();
+        right.checkNotMultiset();
+        if (left == right) {
+            throw new IllegalArgumentException("can't join a tree with itself");
+        }
+        if (!left.isEmpty() && left.last().compareTo(key) >= 0 || !right.isEmpty() && right.first().compareTo(key) <= 0) {
+            throw new IllegalArgumentException("keys of left must < key < keys of right");
+        }
+        RBTree<T> tree = new RBTree<>();
+        tree.join(left.mRoot, tree.blackHeight(left.mRoot), tree.new RBTNode<>(key, RED, null, null, null),
+                right.mRoot, tree.blackHeight(right.mRoot));
+        tree.adopt(tree.mRoot);
+        left.clear();
+        right.clear();
+        return tree;
+    }
+
+    /**
+     * 分裂：本树只留下小于key的键，大于等于key的键移到返回的树中，O(log n)
+     */
+    public RBTree<T> split(T key) {
+        checkNotMultiset();
+        Split parts = new Split();
+        split(mRoot, blackHeight(mRoot), key, false, parts);
+        adopt(parts.left);
+        RBTree<T> right = new RBTree<>();
+        right.adopt(parts.right);
+        return right;
+    }
+
+    /**
+     * 并集，在公共池中运算，见{@link #union(RBTree, RBTree, ForkJoinPool)}
+     */
+    public static <T extends Comparable<T>> RBTree<T> union(RBTree<T> a, RBTree<T> b) {
+        return union(a, b, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 并集：a和b中的键，a和b的节点移到返回的树中，两者被清空，O(m log(n/m + 1))。a和b中都有的键只保留一个
+     *
+     * @param pool 运算所用的线程池
+     */
+    public static <T extends Comparable<T>> RBTree<T> union(RBTree<T> a, RBTree<T> b, ForkJoinPool pool) {
+        return operate(Operation.UNION, a, b, pool);
+    }
+
+    /**
+     * 交集，在公共池中运算，见{@link #intersect(RBTree, RBTree, ForkJoinPool)}
+     */
+    public static <T extends Comparable<T>> RBTree<T> intersect(RBTree<T> a, RBTree<T> b) {
+        return intersect(a, b, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 交集：a和b中都有的键，a和b被清空，不在结果中的节点被丢弃，O(m log(n/m + 1))
+     *
+     * @param pool 运算所用的线程池
+     */
+    public static <T extends Comparable<T>> RBTree<T> intersect(RBTree<T> a, RBTree<T> b, ForkJoinPool pool) {
+        return operate(Operation.INTERSECT, a, b, pool);
+    }
+
+    /**
+     * 差集，在公共池中运算，见{@link #difference(RBTree, RBTree, ForkJoinPool)}
+     */
+    public static <T extends Comparable<T>> RBTree<T> difference(RBTree<T> a, RBTree<T> b) {
+        return difference(a, b, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 差集：a中有而b中没有的键，a和b被清空，不在结果中的节点被丢弃，O(m log(n/m + 1))
+     *
+     * @param pool 运算所用的线程池
+     */
+    public static <T extends Comparable<T>> RBTree<T> difference(RBTree<T> a, RBTree<T> b, ForkJoinPool pool) {
+        return operate(Operation.DIFFERENCE, a, b, pool);
+    }
+
+    private static <T extends Comparable<T>> RBTree<T> operate(Operation operation, RBTree<T> a, RBTree<T> b,
+                                                             ForkJoinPool pool) {
+        a.checkNotMultiset();
+        b.checkNotMultiset();
+        if (a == b) {
+            throw new IllegalArgumentException("operands must be different trees");
+        }
+        RBTree<T> tree = new RBTree<>();
+        RBTree<T>.SetOperation task = tree.new SetOperation(operation, a.mRoot, tree.blackHeight(a.mRoot),
+                b.mRoot, tree.blackHeight(b.mRoot));
+        pool.invoke(task);
+        tree.adopt(task.root);
+        a.clear();
+        b.clear();
+        return tree;
+    }
+
+    private void checkNotMultiset() {
+        if (multiset) {
+            throw new UnsupportedOperationException("not supported in multiset mode");
+        }
+    }
+
+    /**
+     * 以独立的子树root作为本树的全部节点
+     */
+    private void adopt(RBTNode<T> root) {
+        if (root != null) {
+            setBlack(root);
+        }
+        mRoot = root;
+        total = sizeOf(root);
+        modCount++;
+    }
+
+    /**
+     * 子树的黑高：从node到空节点的路径上黑节点的个数(含node)，空树为0
+     */
+    private int blackHeight(RBTNode<T> node) {
+        int height = 0;
+        for (; node != null; node = node.left) {
+            if (isBlack(node)) {
+                height++;
+            }
+        }
+        return height;
+    }
+
+    /**
+     * 把node从父节点上摘下，作为独立的子树
+     */
+    private RBTNode<T> detach(RBTNode<T> node) {
+        if (node != null) {
+            node.parent = null;
+        }
+        return node;
+    }
+
+    /**
+     * 以node为根，left、right为左右子树
+     */
+    private void link(RBTNode<T> node, RBTNode<T> left, RBTNode<T> right) {
+        node.left = left;
+        node.right = right;
+        if (left != null) {
+            left.parent = node;
+        }
+        if (right != null) {
+            right.parent = node;
+        }
+        node.size = sizeOf(left) + sizeOf(right) + 1;
+    }
+
+    /**
+     * 以本树为工作区，用节点key连接独立的子树left和right(left的键 < key的键 < right的键)
+     * <p>
+     * 两棵子树的根先染黑。黑高相等时key为红色的根；否则沿较高一棵的右(左)脊下行到黑高与另一棵相等的
+     * 黑节点，key以红色接在那里，再由{@link #insertFixUp}修正。代价O(|黑高之差| + 1)。
+     *
+     * @return 结果的黑高，结果的根在mRoot
+     */
+    private int join(RBTNode<T> left, int leftHeight, RBTNode<T> key, RBTNode<T> right, int rightHeight) {
+        if (left != null && isRed(left)) {
+            setBlack(left);
+            leftHeight++;
+        }
+        if (right != null && isRed(right)) {
+            setBlack(right);
+            rightHeight++;
+        }
+        key.color = RED;
+        key.parent = null;
+        if (leftHeight == rightHeight) {
+            link(key, left, right);
+            mRoot = key;
+            return leftHeight;
+        }
+        int height;
+        if (leftHeight > rightHeight) {
+            //沿left的右脊下行，经过的节点都多出right和key
+            int added = sizeOf(right) + 1;
+            RBTNode<T> parent = null;
+            RBTNode<T> node = left;
+            height = leftHeight;
+            while (node != null && (isRed(node) || height != rightHeight)) {
+                if (isBlack(node)) {
+                    height--;
+                }
+                node.size += added;
+                parent = node;
+                node = node.right;
+            }
+            link(key, node, right);
+            key.parent = parent;
+            parent.right = key;
+            mRoot = left;
+            height = leftHeight;
+        } else {
+            int added = sizeOf(left) + 1;
+            RBTNode<T> parent = null;
+            RBTNode<T> node = right;
+            height = rightHeight;
+            while (node != null && (isRed(node) || height != leftHeight)) {
+                if (isBlack(node)) {
+                    height--;
+                }
+                node.size += added;
+                parent = node;
+                node = node.left;
+            }
+            link(key, left, node);
+            key.parent = parent;
+            parent.left = key;
+            mRoot = right;
+            height = rightHeight;
+        }
+        return insertFixUp(key) ? height + 1 : height;
+    }
+
+    /**
+     * 以本树为工作区，连接独立的子树left和right(left的键 <= right的键)，取left的最大节点作为连接的键
+     *
+     * @return 结果的黑高，结果的根在mRoot
+     */
+    private int join(RBTNode<T> left, int leftHeight, RBTNode<T> right, int rightHeight) {
+        if (left == null) {
+            mRoot = right;
+            return rightHeight;
+        }
+        if (right == null) {
+            mRoot = left;
+            return leftHeight;
+        }
+        setBlack(left);
+        mRoot = left;
+        RBTNode<T> last = left;
+        while (last.right != null) {
+            last = last.right;
+        }
+        remove(last);
+        return join(mRoot, blackHeight(mRoot), last, right, rightHeight);
+    }
+
+    /**
+     * 以本树为工作区，把黑高为height的独立子树node按key拆成两棵
+     * <p>
+     * 沿查找key的路径下行，回溯时把路径上的节点连同不在路径上的子树逐个{@link #join}到对应的一边，
+     * 相邻两次连接的黑高之差合计不超过树高，代价O(log n)。
+     *
+     * @param exact 为true时键等于key的节点单独取出，否则归入右边
+     * @param parts 拆分的结果
+     */
+    private void split(RBTNode<T> node, int height, T key, boolean exact, Split parts) {
+        if (node == null) {
+            parts.left = null;
+            parts.leftHeight = 0;
+            parts.right = null;
+            parts.rightHeight = 0;
+            parts.found = null;
+            return;
+        }
+        RBTNode<T> left = detach(node.left);
+        RBTNode<T> right = detach(node.right);
+        int childHeight = isBlack(node) ? height - 1 : height;
+        int cmp = key.compareTo(node.key);
+        if (cmp == 0 && exact) {
+            parts.left = left;
+            parts.leftHeight = childHeight;
+            parts.right = right;
+            parts.rightHeight = childHeight;
+            parts.found = node;
+        } else if (cmp <= 0) {
+            split(left, childHeight, key, exact, parts);
+            parts.rightHeight = join(parts.right, parts.rightHeight, node, right, childHeight);
+            parts.right = mRoot;
+        } else {
+            split(right, childHeight, key, exact, parts);
+            parts.leftHeight = join(left, childHeight, node, parts.left, parts.leftHeight);
+            parts.left = mRoot;
+        }
+    }
+
+    /**
+     * 以本树为工作区，对独立的子树a、b做集合运算：以b的根拆分a，两边分别递归运算后再连接。
+     * 子树足够大时左边的子问题交给线程池，右边的在当前线程中运算
+     *
+     * @return 结果的黑高，结果的根在mRoot
+     */
+    private int operate(Operation operation, RBTNode<T> a, int aHeight, RBTNode<T> b, int bHeight) {
+        if (operation == Operation.UNION && a == null) {
+            mRoot = b;
+            return bHeight;
+        }
+        if (a == null || b == null) {
+            if (operation == Operation.INTERSECT || a == null) {
+                mRoot = null;
+                return 0;
+            }
+            mRoot = a;
+            return aHeight;
+        }
+        boolean parallel = sizeOf(a) + sizeOf(b) >= PARALLEL_THRESHOLD;
+        RBTNode<T> bLeft = detach(b.left);
+        RBTNode<T> bRight = detach(b.right);
+        int childHeight = isBlack(b) ? bHeight - 1 : bHeight;
+        Split parts = new Split();
+        split(a, aHeight, b.key, true, parts);
+
+        SetOperation leftTask = null;
+        RBTNode<T> left = null;
+        int leftHeight = 0;
+        if (parallel) {
+            leftTask = new RBTree<T>().new SetOperation(operation, parts.left, parts.leftHeight, bLeft, childHeight);
+            leftTask.fork();
+        } else {
+            leftHeight = operate(operation, parts.left, parts.leftHeight, bLeft, childHeight);
+            left = mRoot;
+        }
+        int rightHeight = operate(operation, parts.right, parts.rightHeight, bRight, childHeight);
+        RBTNode<T> right = mRoot;
+        if (leftTask != null) {
+            leftTask.join();
+            left = leftTask.root;
+            leftHeight = leftTask.height;
+        }
+
+        if (operation == Operation.UNION || operation == Operation.INTERSECT && parts.found != null) {
+            return join(left, leftHeight, b, right, rightHeight);
+        }
+        return join(left, leftHeight, right, rightHeight);
+    }
+
     /**
      * 对红黑树的节点(x)进行左旋转
      * <p>
@@ -60,6 +546,10 @@ public class RBTree<T extends Comparable<T>> {
 
         //7、将x的父节点设置为y
         x.parent = y;
+
+        //8、y接管x的子树，x的子树大小重新计算
+        y.size = x.size;
+        x.size = sizeOf(x.left) + sizeOf(x.right) + 1;
     }
 
     /**
@@ -104,6 +594,10 @@ public class RBTree<T extends Comparable<T>> {
 
         //将y父节点设置为x
         y.parent = x;
+
+        //x接管y的子树，y的子树大小重新计算
+        x.size = y.size;
+        y.size = sizeOf(y.left) + sizeOf(y.right) + 1;
     }
 
     /**
@@ -120,6 +614,8 @@ public class RBTree<T extends Comparable<T>> {
         // 1. 将红黑树当作一颗二叉查找树，将节点添加到二叉查找树中。
         while (x != null) {
             y = x;
+            //新节点将位于x的子树中
+            x.size++;
             cmp = node.key.compareTo(x.key);
             if (cmp < 0) {
                 x = x.left;
@@ -143,25 +639,128 @@ public class RBTree<T extends Comparable<T>> {
 
         // 2. 设置节点的颜色为红色
         node.color = RED;
+        modCount++;
 
         // 3. 将它重新修正为一颗二叉查找树
         insertFixUp(node);
     }
 
     /**
-     * 新建结点(key)，并将其插入到红黑树中
+     * 新建结点(key)，并将其插入到红黑树中，同{@link #add(Comparable)}：键已存在时不再插入，
+     * 计数模式下增加一次出现
      * <p>
      * 参数说明：
      * key 插入结点的键值
      */
     public void insert(T key) {
-        RBTNode<T> node = new RBTNode<>(key, BLACK, null, null, null);
+        add(key);
+    }
+
+    /**
+     * 早先insert的做法：不查找已有的键，直接插入新节点，相等的键各成一个节点，插在右子树
+     * <p>
+     * 只供基准测试对比重复键链和计数模式，用过后树中可能有相等的键，不再满足Set的约定；
+     * 排名和{@link #countRange}仍按节点计，一个键的节点数是两次排名之差
+     *
+     * @throws UnsupportedOperationException 计数模式
+     */
+    void insertDuplicate(T key) {
+        checkNotMultiset();
+        insert(new RBTNode<>(key, BLACK, null, null, null));
+        total++;
+    }
+
+    /**
+     * 增加n次键key，非计数模式下键至多出现一次，n大于0时插入不存在的键
+     *
+     * @return 增加前key出现的次数
+     * @throws IllegalArgumentException n为负数，或计数超出int范围
+     */
+    public int add(T key, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n mustn't < 0");
+        }
+        if (!multiset) {
+            if (n == 0) {
+                return count(key);
+            }
+            return add(key) ? 0 : 1;
+        }
+        RBTNode<T> node = search(mRoot, key);
+        if (node == null) {
+            if (n > 0) {
+                node = new RBTNode<>(key, BLACK, null, null, null);
+                node.count = n;
+                insert(node);
+                total += n;
+            }
+            return 0;
+        }
+        int before = node.count;
+        if (before + n < 0) {
+            throw new IllegalArgumentException("count overflows");
+        }
+        node.count += n;
+        total += n;
+        return before;
+    }
+
+    /**
+     * 键key出现的次数，O(log n)
+     */
+    @SuppressWarnings("unchecked")
+    public int count(Object key) {
+        if (multiset) {
+            RBTNode<T> node = search(mRoot, (T) key);
+            return node == null ? 0 : node.count;
+        }
+        return contains(key) ? 1 : 0;
+    }
 
-        // 如果新建结点失败，则返回。
-        insert(node);
+    /**
+     * 减少至多n次键key，次数减到0时删除节点
+     *
+     * @return 减少前key出现的次数
+     */
+    @SuppressWarnings("unchecked")
+    public int removeOccurrences(Object key, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n mustn't < 0");
+        }
+        if (!multiset) {
+            int before = count(key);
+            for (int i = 0; i < n && i < before; i++) {
+                remove(key);
+            }
+            return before;
+        }
+        RBTNode<T> node = search(mRoot, (T) key);
+        if (node == null) {
+            return 0;
+        }
+        int before = node.count;
+        if (n >= before) {
+            remove(node);
+        } else {
+            node.count -= n;
+            total -= n;
+        }
+        return before;
     }
 
-    private void insertFixUp(RBTNode<T> node) {
+    /**
+     * 所有键出现的总次数，非计数模式下等于{@link #size()}，O(1)
+     */
+    public long totalSize() {
+        return total;
+    }
+
+    /**
+     * 插入红色节点node后修正红黑树
+     *
+     * @return 根节点是否由红变黑，即树的黑高是否加一
+     */
+    private boolean insertFixUp(RBTNode<T> node) {
         RBTNode<T> parent, gparent;
 
         //若父节点存在，且父节点的颜色是红色
@@ -221,7 +820,9 @@ public class RBTree<T extends Comparable<T>> {
         }
 
         // 将根节点设为黑色
+        boolean grown = isRed(this.mRoot);
         setBlack(this.mRoot);
+        return grown;
     }
 
     /**
@@ -233,6 +834,8 @@ public class RBTree<T extends Comparable<T>> {
     private void remove(RBTNode<T> node) {
         RBTNode<T> child, parent;
         boolean color;
+        modCount++;
+        total -= node.count;
 
         // 被删除节点的"左右孩子都不为空"的情况。
         if ((node.left != null) && (node.right != null)) {
@@ -245,6 +848,9 @@ public class RBTree<T extends Comparable<T>> {
             while (replace.left != null)
                 replace = replace.left;
 
+            // "取代节点"原位置以上的子树都少了一个节点(包括node)
+            decrementSizes(parentOf(replace));
+
             // "node节点"不是根节点(只有根节点不存在父节点)
             if (parentOf(node) != null) {
                 if (parentOf(node).left == node)
@@ -278,6 +884,7 @@ public class RBTree<T extends Comparable<T>> {
 
             replace.parent = node.parent;
             replace.color = node.color;
+            replace.size = node.size;
             replace.left = node.left;
             node.left.parent = replace;
 
@@ -297,6 +904,7 @@ public class RBTree<T extends Comparable<T>> {
         parent = node.parent;
         // 保存"取代节点"的颜色
         color = node.color;
+        decrementSizes(parent);
 
         if (child != null)
             child.parent = parent;
@@ -316,6 +924,673 @@ public class RBTree<T extends Comparable<T>> {
         node = null;
     }
 
+    /**
+     * 从node到根节点的子树大小各减一
+     */
+    private void decrementSizes(RBTNode<T> node) {
+        while (node != null) {
+            node.size--;
+            node = node.parent;
+        }
+    }
+
+    private int sizeOf(RBTNode<T> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * 节点总数，O(1)
+     */
+    @Override
+    public int size() {
+        return sizeOf(mRoot);
+    }
+
+    /**
+     * 小于key的节点个数(排名)，O(log n)
+     * <p>
+     * 参数说明：
+     * key 需排名的键值，可以不存在
+     */
+    public int rank(T key) {
+        int rank = 0;
+        RBTNode<T> x = mRoot;
+        while (x != null) {
+            if (key.compareTo(x.key) <= 0) {
+                x = x.left;
+            } else {
+                rank += sizeOf(x.left) + 1;
+                x = x.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 按升序排第index位(从0开始)的键值，O(log n)
+     *
+     * @throws IndexOutOfBoundsException index超出范围
+     */
+    public T select(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        RBTNode<T> x = mRoot;
+        while (true) {
+            int leftSize = sizeOf(x.left);
+            if (index < leftSize) {
+                x = x.left;
+            } else if (index == leftSize) {
+                return x.key;
+            } else {
+                index -= leftSize + 1;
+                x = x.right;
+            }
+        }
+    }
+
+    /**
+     * 位于[from, to)的节点个数，O(log n)
+     */
+    public int countRange(T from, T to) {
+        if (from.compareTo(to) >= 0) {
+            return 0;
+        }
+        return rank(to) - rank(from);
+    }
+
+    /**
+     * 小于等于key的节点个数，O(log n)
+     */
+    private int rankAtMost(T key) {
+        int rank = 0;
+        RBTNode<T> x = mRoot;
+        while (x != null) {
+            if (key.compareTo(x.key) < 0) {
+                x = x.left;
+            } else {
+                rank += sizeOf(x.left) + 1;
+                x = x.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 插入不存在的键key，计数模式下增加一次出现
+     *
+     * @return 键key是否原本不存在，计数模式下总是true
+     */
+    @Override
+    public boolean add(T key) {
+        RBTNode<T> node = search(mRoot, key);
+        if (node != null) {
+            if (!multiset) {
+                return false;
+            }
+            node.count++;
+            total++;
+            return true;
+        }
+        insert(new RBTNode<>(key, BLACK, null, null, null));
+        total++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        mRoot = null;
+        total = 0;
+        modCount++;
+    }
+
+    /**
+     * 按自然顺序，返回null
+     */
+    @Override
+    public Comparator<? super T> comparator() {
+        return null;
+    }
+
+    @Override
+    public T first() {
+        return keyOrThrow(firstNode());
+    }
+
+    @Override
+    public T last() {
+        return keyOrThrow(lastNode());
+    }
+
+    @Override
+    public T lower(T key) {
+        return keyOf(floorNode(key, false));
+    }
+
+    @Override
+    public T floor(T key) {
+        return keyOf(floorNode(key, true));
+    }
+
+    @Override
+    public T ceiling(T key) {
+        return keyOf(ceilingNode(key, true));
+    }
+
+    @Override
+    public T higher(T key) {
+        return keyOf(ceilingNode(key, false));
+    }
+
+    @Override
+    public T pollFirst() {
+        return poll(firstNode());
+    }
+
+    @Override
+    public T pollLast() {
+        return poll(lastNode());
+    }
+
+    /**
+     * 升序迭代器
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new NodeIterator(firstNode(), null, false);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new NodeIterator(lastNode(), null, true);
+    }
+
+    @Override
+    public NavigableSet<T> descendingSet() {
+        return new SubSet(null, false, null, false, true);
+    }
+
+    @Override
+    public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+        if (fromElement.compareTo(toElement) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        return new SubSet(fromElement, fromInclusive, toElement, toInclusive, false);
+    }
+
+    @Override
+    public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+        return new SubSet(null, false, toElement, inclusive, false);
+    }
+
+    @Override
+    public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+        return new SubSet(fromElement, inclusive, null, false, false);
+    }
+
+    @Override
+    public SortedSet<T> subSet(T fromElement, T toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<T> headSet(T toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<T> tailSet(T fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    private RBTNode<T> firstNode() {
+        RBTNode<T> x = mRoot;
+        if (x != null) {
+            while (x.left != null) {
+                x = x.left;
+            }
+        }
+        return x;
+    }
+
+    private RBTNode<T> lastNode() {
+        RBTNode<T> x = mRoot;
+        if (x != null) {
+            while (x.right != null) {
+                x = x.right;
+            }
+        }
+        return x;
+    }
+
+    /**
+     * 最左的键大于(inclusive时大于等于)key的节点，没有则返回null
+     */
+    private RBTNode<T> ceilingNode(T key, boolean inclusive) {
+        RBTNode<T> found = null;
+        RBTNode<T> x = mRoot;
+        while (x != null) {
+            int cmp = key.compareTo(x.key);
+            if (cmp < 0 || (cmp == 0 && inclusive)) {
+                found = x;
+                x = x.left;
+            } else {
+                x = x.right;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 最右的键小于(inclusive时小于等于)key的节点，没有则返回null
+     */
+    private RBTNode<T> floorNode(T key, boolean inclusive) {
+        RBTNode<T> found = null;
+        RBTNode<T> x = mRoot;
+        while (x != null) {
+            int cmp = key.compareTo(x.key);
+            if (cmp > 0 || (cmp == 0 && inclusive)) {
+                found = x;
+                x = x.right;
+            } else {
+                x = x.left;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 中序后继：右子树的最左节点，没有右子树时是第一个从左子树上来的祖先
+     */
+    private RBTNode<T> successor(RBTNode<T> x) {
+        if (x.right != null) {
+            x = x.right;
+            while (x.left != null) {
+                x = x.left;
+            }
+            return x;
+        }
+        RBTNode<T> p = x.parent;
+        while (p != null && x == p.right) {
+            x = p;
+            p = p.parent;
+        }
+        return p;
+    }
+
+    /**
+     * 中序前驱，与后继对称
+     */
+    private RBTNode<T> predecessor(RBTNode<T> x) {
+        if (x.left != null) {
+            x = x.left;
+            while (x.right != null) {
+                x = x.right;
+            }
+            return x;
+        }
+        RBTNode<T> p = x.parent;
+        while (p != null && x == p.left) {
+            x = p;
+            p = p.parent;
+        }
+        return p;
+    }
+
+    private T poll(RBTNode<T> node) {
+        if (node == null) {
+            return null;
+        }
+        remove(node);
+        return node.key;
+    }
+
+    private static <T extends Comparable<T>> T keyOf(RBTree<T>.RBTNode<T> node) {
+        return node == null ? null : node.key;
+    }
+
+    private static <T extends Comparable<T>> T keyOrThrow(RBTree<T>.RBTNode<T> node) {
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        return node.key;
+    }
+
+    /**
+     * 从first起沿后继(descending时沿前驱)遍历，遇到fence(视图外的第一个节点，null表示到头)停止
+     */
+    private final class NodeIterator implements Iterator<T> {
+        private RBTNode<T> next;
+        private final RBTNode<T> fence;
+        private final boolean descending;
+        private RBTNode<T> lastReturned;
+        private int expectedModCount = modCount;
+
+        NodeIterator(RBTNode<T> first, RBTNode<T> fence, boolean descending) {
+            this.next = first == fence ? null : first;
+            this.fence = fence;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            lastReturned = next;
+            next = descending ? predecessor(next) : successor(next);
+            if (next == fence) {
+                next = null;
+            }
+            return lastReturned.key;
+        }
+
+        /**
+         * 删除有两个孩子的节点时，后继节点被移到它的位置上，但节点对象不变，所以next仍然有效
+         */
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            RBTree.this.remove(lastReturned);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * 键在[lo, hi]内的子集视图(按loInclusive/hiInclusive决定是否含边界，null表示无界)，
+     * descending时顺序相反。所有操作都直接作用在树上。
+     */
+    private final class SubSet extends AbstractSet<T> implements NavigableSet<T> {
+        private final T lo;
+        private final boolean loInclusive;
+        private final T hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+
+        SubSet(T lo, boolean loInclusive, T hi, boolean hiInclusive, boolean descending) {
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        private boolean tooLow(T key) {
+            if (lo == null) {
+                return false;
+            }
+            int cmp = key.compareTo(lo);
+            return cmp < 0 || (cmp == 0 && !loInclusive);
+        }
+
+        private boolean tooHigh(T key) {
+            if (hi == null) {
+                return false;
+            }
+            int cmp = key.compareTo(hi);
+            return cmp > 0 || (cmp == 0 && !hiInclusive);
+        }
+
+        private boolean inRange(T key) {
+            return !tooLow(key) && !tooHigh(key);
+        }
+
+        private RBTNode<T> lowest() {
+            RBTNode<T> node = lo == null ? firstNode() : ceilingNode(lo, loInclusive);
+            return node == null || tooHigh(node.key) ? null : node;
+        }
+
+        private RBTNode<T> highest() {
+            RBTNode<T> node = hi == null ? lastNode() : floorNode(hi, hiInclusive);
+            return node == null || tooLow(node.key) ? null : node;
+        }
+
+        private RBTNode<T> ceilingIn(T key, boolean inclusive) {
+            if (tooLow(key)) {
+                return lowest();
+            }
+            RBTNode<T> node = ceilingNode(key, inclusive);
+            return node == null || tooHigh(node.key) ? null : node;
+        }
+
+        private RBTNode<T> floorIn(T key, boolean inclusive) {
+            if (tooHigh(key)) {
+                return highest();
+            }
+            RBTNode<T> node = floorNode(key, inclusive);
+            return node == null || tooLow(node.key) ? null : node;
+        }
+
+        @Override
+        public int size() {
+            int below = lo == null ? 0 : loInclusive ? rank(lo) : rankAtMost(lo);
+            int upTo = hi == null ? RBTree.this.size() : hiInclusive ? rankAtMost(hi) : rank(hi);
+            return Math.max(0, upTo - below);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return lowest() == null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object key) {
+            return inRange((T) key) && RBTree.this.contains(key);
+        }
+
+        @Override
+        public boolean add(T key) {
+            if (!inRange(key)) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return RBTree.this.add(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object key) {
+            return inRange((T) key) && RBTree.this.remove(key);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            if (descending) {
+                return new NodeIterator(highest(), lo == null ? null : floorNode(lo, !loInclusive), true);
+            }
+            return new NodeIterator(lowest(), hi == null ? null : ceilingNode(hi, !hiInclusive), false);
+        }
+
+        @Override
+        public Iterator<T> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public Comparator<? super T> comparator() {
+            return descending ? Collections.reverseOrder() : null;
+        }
+
+        @Override
+        public T first() {
+            return keyOrThrow(descending ? highest() : lowest());
+        }
+
+        @Override
+        public T last() {
+            return keyOrThrow(descending ? lowest() : highest());
+        }
+
+        @Override
+        public T lower(T key) {
+            return keyOf(descending ? ceilingIn(key, false) : floorIn(key, false));
+        }
+
+        @Override
+        public T floor(T key) {
+            return keyOf(descending ? ceilingIn(key, true) : floorIn(key, true));
+        }
+
+        @Override
+        public T ceiling(T key) {
+            return keyOf(descending ? floorIn(key, true) : ceilingIn(key, true));
+        }
+
+        @Override
+        public T higher(T key) {
+            return keyOf(descending ? floorIn(key, false) : ceilingIn(key, false));
+        }
+
+        @Override
+        public T pollFirst() {
+            return poll(descending ? highest() : lowest());
+        }
+
+        @Override
+        public T pollLast() {
+            return poll(descending ? lowest() : highest());
+        }
+
+        @Override
+        public NavigableSet<T> descendingSet() {
+            return new SubSet(lo, loInclusive, hi, hiInclusive, !descending);
+        }
+
+        @Override
+        public NavigableSet<T> subSet(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive) {
+            int cmp = fromElement.compareTo(toElement);
+            if (descending ? cmp < 0 : cmp > 0) {
+                throw new IllegalArgumentException("fromElement > toElement");
+            }
+            return descending
+                    ? narrow(toElement, toInclusive, fromElement, fromInclusive)
+                    : narrow(fromElement, fromInclusive, toElement, toInclusive);
+        }
+
+        @Override
+        public NavigableSet<T> headSet(T toElement, boolean inclusive) {
+            return descending ? narrow(toElement, inclusive, null, false) : narrow(null, false, toElement, inclusive);
+        }
+
+        @Override
+        public NavigableSet<T> tailSet(T fromElement, boolean inclusive) {
+            return descending ? narrow(null, false, fromElement, inclusive) : narrow(fromElement, inclusive, null, false);
+        }
+
+        @Override
+        public SortedSet<T> subSet(T fromElement, T toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<T> headSet(T toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<T> tailSet(T fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        /**
+         * 当前视图中的子视图，按自然顺序给出边界，null表示沿用当前边界
+         *
+         * @throws IllegalArgumentException 边界超出当前视图
+         */
+        private NavigableSet<T> narrow(T newLo, boolean newLoInclusive, T newHi, boolean newHiInclusive) {
+            if (newLo == null) {
+                newLo = lo;
+                newLoInclusive = loInclusive;
+            } else if (!inBounds(newLo, newLoInclusive)) {
+                throw new IllegalArgumentException("fromElement out of range");
+            }
+            if (newHi == null) {
+                newHi = hi;
+                newHiInclusive = hiInclusive;
+            } else if (!inBounds(newHi, newHiInclusive)) {
+                throw new IllegalArgumentException("toElement out of range");
+            }
+            return new SubSet(newLo, newLoInclusive, newHi, newHiInclusive, descending);
+        }
+
+        /**
+         * 边界key是否在当前视图内，不含边界的key可以等于当前的边界
+         */
+        private boolean inBounds(T key, boolean inclusive) {
+            if (lo != null) {
+                int cmp = key.compareTo(lo);
+                if (cmp < 0 || (cmp == 0 && !loInclusive && inclusive)) {
+                    return false;
+                }
+            }
+            if (hi != null) {
+                int cmp = key.compareTo(hi);
+                if (cmp > 0 || (cmp == 0 && !hiInclusive && inclusive)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private enum Operation {
+        UNION, INTERSECT, DIFFERENCE
+    }
+
+    /**
+     * 按键拆分子树的结果
+     */
+    private final class Split {
+        private RBTNode<T> left;
+        private int leftHeight;
+        private RBTNode<T> right;
+        private int rightHeight;
+        private RBTNode<T> found;
+    }
+
+    /**
+     * 集合运算的子问题，以外部的树为工作区
+     */
+    private final class SetOperation extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Operation operation;
+        private final RBTNode<T> a;
+        private final int aHeight;
+        private final RBTNode<T> b;
+        private final int bHeight;
+        private RBTNode<T> root;
+        private int height;
+
+        SetOperation(Operation operation, RBTNode<T> a, int aHeight, RBTNode<T> b, int bHeight) {
+            this.operation = operation;
+            this.a = a;
+            this.aHeight = aHeight;
+            this.b = b;
+            this.bHeight = bHeight;
+        }
+
+        @Override
+        protected void compute() {
+            height = operate(operation, a, aHeight, b, bHeight);
+            root = mRoot;
+        }
+    }
+
     private void setParent(RBTNode<T> node, RBTNode<T> parent) {
         node.parent = parent;
     }
@@ -412,17 +1687,35 @@ public class RBTree<T extends Comparable<T>> {
     }
 
     /**
-     * 删除结点(z)，并返回被删除的结点
+     * 删除一个键为key的结点，计数模式下减少一次出现
      *
      * 参数说明：
-     *     tree 红黑树的根结点
-     *     z 删除的结点
+     *     key 删除的键值
+     * @return 是否存在键key
      */
-    public void remove(T key) {
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object key) {
         RBTNode<T> node;
 
-        if ((node = search(mRoot, key)) != null)
-            remove(node);
+        if ((node = search(mRoot, (T) key)) == null)
+            return false;
+        if (node.count > 1) {
+            node.count--;
+            total--;
+            return true;
+        }
+        remove(node);
+        return true;
+    }
+
+    /**
+     * 是否存在键key，O(log n)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object key) {
+        return search(mRoot, (T) key) != null;
     }
 
     private RBTNode<T> search(RBTNode<T> mRoot, T key) {
@@ -482,9 +1775,19 @@ public class RBTree<T extends Comparable<T>> {
          * 父节点
          */
         RBTNode<T> parent;
+        /**
+         * 以该节点为根的子树的节点个数
+         */
+        int size;
+        /**
+         * 键出现的次数，只在计数模式下大于1
+         */
+        int count;
 
         public RBTNode(T key, boolean color, RBTNode<T> parent, RBTNode<T> left, RBTNode<T> right) {
             this.key = key;
+            this.size = 1;
+            this.count = 1;
             this.color = color;
             this.parent = parent;
             this.left = left;
@@ -0,0 +1,105 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Random;
+
+/**
+ * Compare scan throughput of {@link BPlusTree} (descend once, walk the leaf chain)
+ * with a recursive in-order traversal of {@link BTree}, for full scans and short ranges.
+ *
+ * 创建时间：2026-10-18 19:00
+ *
+ * @author 曹文岗
+ **/
+public class BPlusTreeScanBenchmark {
+
+    private static final int SIZE = 1_000_000;
+    private static final int DEGREE = 64;
+    private static final int RANGES = 20_000;
+    private static final int RANGE_WIDTH = 1_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(11);
+        BTree<Integer> bTree = new BTree<>(DEGREE);
+        BPlusTree<Integer> bPlusTree = new BPlusTree<>(DEGREE);
+        for (int i = 0; i < SIZE; i++) {
+            int key = random.nextInt();
+            if (bPlusTree.insert(key)) {
+                bTree.insert(key);
+            }
+        }
+        int[] starts = new int[RANGES];
+        for (int i = 0; i < RANGES; i++) {
+            starts[i] = random.nextInt();
+        }
+        //keys are spread over the whole int range, scale width to about RANGE_WIDTH keys per range
+        long width = (long) RANGE_WIDTH * (1L << 32) / bPlusTree.size();
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            for (Integer key : bPlusTree) {
+                sum += key;
+            }
+            long plusFull = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long[] acc = new long[2];
+            inOrder(bTree.getRoot(), null, null, acc);
+            long bFull = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long plusKeys = 0;
+            for (int from : starts) {
+                int to = (int) Math.min(Integer.MAX_VALUE, from + width);
+                for (Integer key : bPlusTree.range(from, to)) {
+                    sum += key;
+                    plusKeys++;
+                }
+            }
+            long plusRange = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long[] rangeAcc = new long[2];
+            for (int from : starts) {
+                int to = (int) Math.min(Integer.MAX_VALUE, from + width);
+                inOrder(bTree.getRoot(), from, to, rangeAcc);
+            }
+            long bRange = System.nanoTime() - start;
+
+            System.out.printf("round %d full scan Mkeys/s  B+Tree %7.1f  BTree %7.1f | range Mkeys/s  B+Tree %7.1f  BTree %7.1f  (%d/%d, %d)%n",
+                    round, mkeysPerSecond(bPlusTree.size(), plusFull), mkeysPerSecond(acc[0], bFull),
+                    mkeysPerSecond(plusKeys, plusRange), mkeysPerSecond(rangeAcc[0], bRange),
+                    plusKeys, rangeAcc[0], (sum + acc[1] + rangeAcc[1]) & 1);
+        }
+    }
+
+    private static double mkeysPerSecond(long keys, long nanos) {
+        return keys * 1000.0 / nanos;
+    }
+
+    /**
+     * Recursive in-order traversal of {@code [from, to)}, pruning subtrees out of range.
+     * acc[0] counts keys, acc[1] sums them.
+     */
+    private static void inOrder(AbstractBTreeNode<Integer> node, Integer from, Integer to, long[] acc) {
+        int n = node.nkey();
+        for (int i = 0; i <= n; i++) {
+            if (!node.isLeaf() && (from == null || i == n || node.getKey(i) >= from)) {
+                if (to != null && i > 0 && node.getKey(i - 1) >= to) {
+                    return;
+                }
+                inOrder(node.getChild(i), from, to, acc);
+            }
+            if (i < n) {
+                int key = node.getKey(i);
+                if (to != null && key >= to) {
+                    return;
+                }
+                if (from == null || key >= from) {
+                    acc[0]++;
+                    acc[1] += key;
+                }
+            }
+        }
+    }
+}
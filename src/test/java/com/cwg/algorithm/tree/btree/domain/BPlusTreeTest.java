@@ -0,0 +1,66 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-18 18:50
+ *
+ * @author 曹文岗
+ **/
+public class BPlusTreeTest {
+
+    @Test
+    public void testRandomInsertDelete() {
+        for (int degree : new int[]{2, 3, 5, 32}) {
+            Random random = new Random(degree);
+            BPlusTree<Integer> tree = new BPlusTree<>(degree);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 20000; i++) {
+                int key = random.nextInt(3000);
+                if (random.nextInt(3) > 0) {
+                    assertEquals(expected.add(key), tree.insert(key));
+                } else {
+                    assertEquals(expected.remove(key), tree.delete(key));
+                }
+                assertEquals(expected.size(), tree.size());
+            }
+            for (int key = -1; key <= 3000; key++) {
+                assertEquals(expected.contains(key), tree.contains(key));
+            }
+            assertEquals(new ArrayList<>(expected), toList(tree));
+            for (int i = 0; i < 100; i++) {
+                int from = random.nextInt(3100) - 50;
+                int to = from + random.nextInt(500);
+                assertEquals(new ArrayList<>(expected.subSet(from, to)), toList(tree.range(from, to)));
+            }
+        }
+    }
+
+    @Test
+    public void testDuplicateAndEmpty() {
+        BPlusTree<Integer> tree = new BPlusTree<>(2);
+        assertFalse(tree.iterator().hasNext());
+        assertTrue(tree.insert(1));
+        assertFalse(tree.insert(1));
+        assertTrue(tree.delete(1));
+        assertFalse(tree.delete(1));
+        assertFalse(tree.range(0, 10).iterator().hasNext());
+    }
+
+    private static List<Integer> toList(Iterable<Integer> keys) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : keys) {
+            list.add(key);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,72 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Random;
+
+/**
+ * Inserts per second and retained heap of {@link BTree} for 2M keys arriving in
+ * ascending, descending and random order, together with the average node fill.
+ *
+ * 创建时间：2026-10-19 04:50
+ *
+ * @author 曹文岗
+ **/
+public class BTreeAppendBenchmark {
+
+    private static final int SIZE = 2_000_000;
+    private static final int DEGREE = 32;
+
+    public static void main(String[] args) {
+        Integer[] ascending = new Integer[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            ascending[i] = i;
+        }
+        Integer[] descending = new Integer[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            descending[i] = SIZE - 1 - i;
+        }
+        Integer[] random = ascending.clone();
+        Random rnd = new Random(1);
+        for (int i = SIZE - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            Integer t = random[i];
+            random[i] = random[j];
+            random[j] = t;
+        }
+        for (int round = 0; round < 3; round++) {
+            run("ascending", ascending);
+            run("descending", descending);
+            run("random", random);
+        }
+    }
+
+    private static void run(String name, Integer[] keys) {
+        long before = usedHeap();
+        BTree<Integer> tree = new BTree<>(DEGREE);
+        long start = System.nanoTime();
+        for (Integer key : keys) {
+            tree.insert(key);
+        }
+        long elapsed = System.nanoTime() - start;
+        long retained = usedHeap() - before;
+        int[] nodes = new int[1];
+        count(tree.getRoot(), nodes);
+        System.out.printf("%-10s %6.2f M inserts/s  heap %6.1f MB  nodes %6d  fill %5.1f%%%n",
+                name, SIZE / (elapsed / 1e3), retained / 1e6, nodes[0],
+                100.0 * tree.size() / nodes[0] / (2 * DEGREE - 1));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void count(AbstractBTreeNode<Integer> node, int[] nodes) {
+        nodes[0]++;
+        for (int i = 0; i < node.nchild(); i++) {
+            count(node.getChild(i), nodes);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-19 04:40
+ *
+ * @author 曹文岗
+ **/
+public class BTreeAppendTest {
+
+    @Test
+    public void testAscendingKeysFillNodes() {
+        for (int degree : new int[]{2, 3, 8, 32}) {
+            BTree<Integer> tree = new BTree<>(degree);
+            for (int i = 0; i < 100000; i++) {
+                assertTrue(tree.insert(i));
+            }
+            assertFalse(tree.insert(99999));
+            assertEquals(100000, tree.size());
+            assertEquals(100000, BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+            BTreeTest.checkHeight(tree.getRoot());
+            assertEquals(50000, tree.rank(50000));
+            int[] nodes = new int[1];
+            count(tree.getRoot(), nodes);
+            double fill = 100000.0 / nodes[0] / (2 * degree - 1);
+            assertTrue("fill " + fill, degree < 8 || fill > 0.85);
+        }
+    }
+
+    @Test
+    public void testMixedWorkloadMatchesTreeSet() {
+        for (int degree : new int[]{2, 3, 5, 16}) {
+            BTree<Integer> tree = new BTree<>(degree);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(degree);
+            int next = 0;
+            for (int round = 0; round < 300; round++) {
+                //a run of appends, then a few random operations
+                int run = random.nextInt(200);
+                for (int i = 0; i < run; i++) {
+                    next += 1 + random.nextInt(3);
+                    assertEquals(expected.add(next), tree.insert(next));
+                }
+                for (int i = 0; i < 20; i++) {
+                    int key = random.nextInt(next + 10);
+                    if (random.nextBoolean()) {
+                        assertEquals(expected.add(key), tree.insert(key));
+                    } else {
+                        assertEquals(expected.remove(key), tree.delete(key));
+                        checkSealed(tree.getRoot(), true);
+                    }
+                }
+                assertEquals(expected.size(), tree.size());
+                assertEquals(expected.size(), BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+                BTreeTest.checkHeight(tree.getRoot());
+            }
+            assertEquals(new ArrayList<>(expected), toList(tree));
+        }
+    }
+
+    @Test
+    public void testAppendsAfterSnapshotAndBatches() {
+        BTree<Integer> tree = new BTree<>(4);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tree.insert(i);
+            keys.add(i);
+        }
+        BTree<Integer> snapshot = tree.snapshot();
+        List<Integer> batch = new ArrayList<>();
+        for (int i = 5000; i < 10000; i++) {
+            batch.add(i);
+        }
+        assertEquals(5000, tree.insertAll(batch));
+        for (int i = 10000; i < 12000; i++) {
+            tree.insert(i);
+        }
+        assertEquals(keys, toList(snapshot));
+        assertEquals(5000, BTreeTest.checkInvariants(snapshot.getRoot(), null, null, true));
+        assertEquals(12000, BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+
+        assertEquals(1000, tree.deleteRange(11000, 20000));
+        checkSealed(tree.getRoot(), true);
+        assertEquals(11000, BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+        assertEquals(keys, toList(snapshot));
+        tree.insert(11000);
+        assertEquals(11001, tree.size());
+        assertEquals(Integer.valueOf(11000), tree.select(11000));
+    }
+
+    /**
+     * After a delete every node but the root holds at least {@code degree - 1} keys again.
+     */
+    private static void checkSealed(AbstractBTreeNode<Integer> node, boolean root) {
+        assertTrue(root || node.nkey() >= node.degree - 1);
+        for (int i = 0; i < node.nchild(); i++) {
+            checkSealed(node.getChild(i), false);
+        }
+    }
+
+    private static void count(AbstractBTreeNode<Integer> node, int[] nodes) {
+        nodes[0]++;
+        for (int i = 0; i < node.nchild(); i++) {
+            count(node.getChild(i), nodes);
+        }
+    }
+
+    private static List<Integer> toList(BTree<Integer> tree) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : tree) {
+            list.add(key);
+        }
+        return list;
+    }
+}
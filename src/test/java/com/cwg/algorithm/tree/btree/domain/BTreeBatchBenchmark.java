@@ -0,0 +1,72 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@link BTree#insertAll} against one {@link BTree#insert} per key, for batch sizes from
+ * 1 to 100k, into a tree of 1M even keys. Clustered batches are runs of consecutive odd
+ * keys (shuffled), uniform batches are odd keys drawn from the whole key space. Every
+ * configuration inserts 200k keys in total; sorting the batch is part of the batched time.
+ *
+ * 创建时间：2026-10-19 02:50
+ *
+ * @author 曹文岗
+ **/
+public class BTreeBatchBenchmark {
+
+    private static final int SIZE = 1_000_000;
+    private static final int TOTAL = 200_000;
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 3; round++) {
+            for (boolean clustered : new boolean[]{true, false}) {
+                for (int batchSize = 1; batchSize <= 100_000; batchSize *= 10) {
+                    List<List<Integer>> batches = batches(new Random(batchSize), clustered, batchSize);
+                    long single = run(batches, false);
+                    long batched = run(batches, true);
+                    System.out.printf("%-9s batch %6d  single %6.1f ns/key  batched %6.1f ns/key  speedup %4.2fx%n",
+                            clustered ? "clustered" : "uniform", batchSize, (double) single / TOTAL,
+                            (double) batched / TOTAL, (double) single / batched);
+                }
+            }
+        }
+    }
+
+    private static long run(List<List<Integer>> batches, boolean batched) {
+        BTree<Integer> tree = new BTree<>(32);
+        List<Integer> even = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            even.add(2 * i);
+        }
+        tree.bulkLoad(even.iterator(), 0.7);
+        long start = System.nanoTime();
+        for (List<Integer> batch : batches) {
+            if (batched) {
+                tree.insertAll(batch);
+            } else {
+                for (Integer key : batch) {
+                    tree.insert(key);
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static List<List<Integer>> batches(Random random, boolean clustered, int batchSize) {
+        List<List<Integer>> batches = new ArrayList<>();
+        for (int n = 0; n < TOTAL; n += batchSize) {
+            List<Integer> batch = new ArrayList<>(batchSize);
+            int start = random.nextInt(SIZE);
+            for (int i = 0; i < batchSize; i++) {
+                int index = clustered ? start + i : random.nextInt(2 * SIZE);
+                batch.add(2 * index + 1);
+            }
+            Collections.shuffle(batch, random);
+            batches.add(batch);
+        }
+        return batches;
+    }
+}
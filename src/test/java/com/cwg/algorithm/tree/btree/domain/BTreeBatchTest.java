@@ -0,0 +1,130 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-19 02:40
+ *
+ * @author 曹文岗
+ **/
+public class BTreeBatchTest {
+
+    @Test
+    public void testInsertAllAndDeleteAllMatchTreeSet() {
+        for (int degree : new int[]{2, 3, 16}) {
+            BTree<Integer> tree = new BTree<>(degree);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(degree);
+            for (int round = 0; round < 200; round++) {
+                List<Integer> batch = batch(random, 1 + random.nextInt(300));
+                if (random.nextInt(3) > 0) {
+                    int added = 0;
+                    for (Integer key : batch) {
+                        if (expected.add(key)) {
+                            added++;
+                        }
+                    }
+                    assertEquals(added, tree.insertAll(batch));
+                } else {
+                    int removed = 0;
+                    for (Integer key : batch) {
+                        if (expected.remove(key)) {
+                            removed++;
+                        }
+                    }
+                    assertEquals(removed, tree.deleteAll(batch));
+                }
+                assertEquals(expected.size(), tree.size());
+                assertEquals(expected.size(), BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+            }
+            assertEquals(new ArrayList<>(expected), toList(tree));
+            tree.deleteAll(new ArrayList<>(expected));
+            assertEquals(0, tree.size());
+            assertEquals(0, BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+        }
+    }
+
+    @Test
+    public void testBatchLeavesSnapshotUntouched() {
+        BTree<Integer> tree = new BTree<>(3);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i += 2) {
+            keys.add(i);
+        }
+        tree.insertAll(keys);
+        BTree<Integer> snapshot = tree.snapshot();
+        List<Integer> odd = new ArrayList<>();
+        for (int i = 1; i < 1000; i += 2) {
+            odd.add(i);
+        }
+        assertEquals(500, tree.insertAll(odd));
+        assertEquals(250, tree.deleteAll(keys.subList(0, 250)));
+        assertEquals(keys, toList(snapshot));
+        assertEquals(750, BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+        assertTrue(tree.contains(999));
+    }
+
+    @Test
+    public void testSearchAllAnswersInInputOrder() {
+        for (int degree : new int[]{2, 3, 16}) {
+            BTree<Integer> tree = new BTree<>(degree);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(degree);
+            for (int i = 0; i < 5000; i++) {
+                int key = random.nextInt(10000);
+                tree.insert(key);
+                expected.add(key);
+            }
+            for (int size : new int[]{0, 1, 7, 500, 5000}) {
+                Integer[] probes = batch(random, size).toArray(new Integer[0]);
+                List<Integer> found = tree.searchAll(probes);
+                boolean[] contained = tree.containsAll(probes);
+                assertEquals(size, found.size());
+                for (int i = 0; i < size; i++) {
+                    assertEquals(expected.contains(probes[i]), contained[i]);
+                    assertEquals(expected.contains(probes[i]) ? probes[i] : null, found.get(i));
+                }
+            }
+            //already ascending probes skip the sort
+            Integer[] ascending = new Integer[2000];
+            for (int i = 0; i < ascending.length; i++) {
+                ascending[i] = i * 3;
+            }
+            boolean[] contained = tree.containsAll(ascending);
+            for (int i = 0; i < ascending.length; i++) {
+                assertEquals(expected.contains(ascending[i]), contained[i]);
+            }
+        }
+    }
+
+    /**
+     * Mix of clustered runs and scattered keys, with duplicates.
+     */
+    private static List<Integer> batch(Random random, int size) {
+        List<Integer> batch = new ArrayList<>(size);
+        while (batch.size() < size) {
+            int start = random.nextInt(5000);
+            int run = random.nextBoolean() ? 1 : random.nextInt(50);
+            for (int i = 0; i < run && batch.size() < size; i++) {
+                batch.add(start + i);
+            }
+        }
+        return batch;
+    }
+
+    private static List<Integer> toList(BTree<Integer> tree) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : tree) {
+            list.add(key);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,66 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compare building a {@link BTree} by repeated insert of shuffled keys with
+ * {@link BTree#bulkLoad} of the same keys sorted and {@link BTree#parallelBulkLoad}
+ * of the shuffled keys, reporting build time and node count.
+ *
+ * 创建时间：2026-10-18 21:20
+ *
+ * @author 曹文岗
+ **/
+public class BTreeBulkLoadBenchmark {
+
+    private static final int SIZE = 2_000_000;
+    private static final int DEGREE = 64;
+
+    public static void main(String[] args) {
+        List<Integer> sorted = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            sorted.add(i * 3);
+        }
+        List<Integer> shuffled = new ArrayList<>(sorted);
+        Collections.shuffle(shuffled, new Random(7));
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            BTree<Integer> inserted = new BTree<>(DEGREE);
+            for (Integer key : shuffled) {
+                inserted.insert(key);
+            }
+            report("insert", System.nanoTime() - start, inserted);
+
+            for (double fill : new double[]{0.7, 1.0}) {
+                start = System.nanoTime();
+                BTree<Integer> loaded = new BTree<>(DEGREE);
+                loaded.bulkLoad(sorted.iterator(), fill);
+                report("bulkLoad " + fill, System.nanoTime() - start, loaded);
+            }
+
+            start = System.nanoTime();
+            BTree<Integer> parallel = new BTree<>(DEGREE);
+            parallel.parallelBulkLoad(shuffled, 1.0);
+            report("parallelBulkLoad", System.nanoTime() - start, parallel);
+        }
+    }
+
+    private static void report(String name, long nanos, BTree<Integer> tree) {
+        System.out.printf("%-18s %8.1f ms  %7d nodes  %5.1f keys/node%n",
+                name, nanos / 1e6, nodes(tree.getRoot()), (double) tree.size() / nodes(tree.getRoot()));
+    }
+
+    private static int nodes(AbstractBTreeNode<Integer> node) {
+        int count = 1;
+        if (!node.isLeaf()) {
+            for (int i = 0; i < node.nchild(); i++) {
+                count += nodes(node.getChild(i));
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,111 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 创建时间：2026-10-18 21:10
+ *
+ * @author 曹文岗
+ **/
+public class BTreeBulkLoaderTest {
+
+    @Test
+    public void testBulkLoadShapes() {
+        for (int degree : new int[]{2, 3, 4, 7}) {
+            for (double fill : new double[]{0.1, 0.5, 0.7, 1.0}) {
+                for (int n = 0; n < 400; n += n < 40 ? 1 : 37) {
+                    List<Integer> keys = IntStream.range(0, n).boxed().collect(Collectors.toList());
+                    BTree<Integer> tree = new BTree<>(degree);
+                    tree.bulkLoad(keys.iterator(), fill);
+                    assertEquals(n, tree.size());
+                    assertEquals(n, BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+                    assertEquals(keys, toList(tree));
+                    assertUniformDepth(tree.getRoot());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLoadedTreeStaysUsable() {
+        BTree<Integer> tree = new BTree<>(3);
+        List<Integer> keys = IntStream.range(0, 5000).map(i -> i * 2).boxed().collect(Collectors.toList());
+        tree.bulkLoad(keys.iterator(), 1.0);
+        TreeSet<Integer> expected = new TreeSet<>(keys);
+        Random random = new Random(1);
+        for (int i = 0; i < 3000; i++) {
+            int key = random.nextInt(10000);
+            if (key % 2 == 1) {
+                assertEquals(expected.add(key), tree.insert(key));
+            } else {
+                assertEquals(expected.remove(key), tree.delete(key));
+            }
+        }
+        assertEquals(expected.size(), BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+        assertEquals(new ArrayList<>(expected), toList(tree));
+    }
+
+    @Test
+    public void testParallelBulkLoad() {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            keys.add(i % 15000);
+        }
+        Collections.shuffle(keys, new Random(2));
+        BTree<Integer> tree = new BTree<>(8);
+        tree.parallelBulkLoad(keys, 0.9);
+        assertEquals(15000, tree.size());
+        BTreeTest.checkInvariants(tree.getRoot(), null, null, true);
+        assertEquals(IntStream.range(0, 15000).boxed().collect(Collectors.toList()), toList(tree));
+    }
+
+    @Test
+    public void testRejectsUnsortedOrNonEmpty() {
+        BTree<Integer> tree = new BTree<>(2);
+        try {
+            tree.bulkLoad(Arrays.asList(1, 3, 2).iterator(), 1.0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            //not sorted
+        }
+        tree = new BTree<>(2);
+        tree.insert(1);
+        try {
+            tree.bulkLoad(Arrays.asList(2, 3).iterator(), 1.0);
+            fail();
+        } catch (IllegalStateException expected) {
+            //not empty
+        }
+    }
+
+    private static int assertUniformDepth(AbstractBTreeNode<Integer> node) {
+        if (node.isLeaf()) {
+            return 1;
+        }
+        int depth = assertUniformDepth(node.getChild(0));
+        for (int i = 1; i < node.nchild(); i++) {
+            assertEquals(depth, assertUniformDepth(node.getChild(i)));
+        }
+        return depth + 1;
+    }
+
+    private static List<Integer> toList(Iterable<Integer> keys) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : keys) {
+            list.add(key);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,126 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * 创建时间：2026-10-18 19:40
+ *
+ * @author 曹文岗
+ **/
+public class BTreeCursorTest {
+
+    @Test
+    public void testSeekNextPrev() {
+        for (int degree : new int[]{2, 3, 16}) {
+            BTree<Integer> tree = new BTree<>(degree);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(degree);
+            for (int i = 0; i < 2000; i++) {
+                int key = random.nextInt(10000) * 2;
+                if (expected.add(key)) {
+                    tree.insert(key);
+                }
+            }
+            BTreeCursor<Integer> cursor = tree.cursor();
+            assertEquals(expected.first(), cursor.seekFirst());
+            assertNull(cursor.prev());
+            assertEquals(expected.last(), cursor.seekLast());
+            assertNull(cursor.next());
+
+            for (int i = 0; i < 200; i++) {
+                int probe = random.nextInt(20100) - 50;
+                Integer key = cursor.seek(probe);
+                assertEquals(expected.ceiling(probe), key);
+                if (key == null) {
+                    continue;
+                }
+                Integer forward = key;
+                Integer backward = key;
+                for (int step = 0; step < 50; step++) {
+                    forward = expected.higher(forward);
+                    assertEquals(forward, cursor.next());
+                    if (forward == null) {
+                        break;
+                    }
+                }
+                cursor.seek(probe);
+                for (int step = 0; step < 50; step++) {
+                    backward = expected.lower(backward);
+                    assertEquals(backward, cursor.prev());
+                    if (backward == null) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testViews() {
+        BTree<Integer> tree = new BTree<>(3);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 1000; i += 3) {
+            tree.insert(i);
+            expected.add(i);
+        }
+        assertEquals(new ArrayList<>(expected), toList(tree));
+        assertEquals(new ArrayList<>(expected.headSet(300, true)), toList(tree.headSet(300, true)));
+        assertEquals(new ArrayList<>(expected.headSet(300, false)), toList(tree.headSet(300, false)));
+        assertEquals(new ArrayList<>(expected.tailSet(601, true)), toList(tree.tailSet(601, true)));
+        assertEquals(new ArrayList<>(expected.tailSet(600, false)), toList(tree.tailSet(600, false)));
+        assertEquals(new ArrayList<>(expected.subSet(99, false, 501, true)),
+                toList(tree.subSet(99, false, 501, true)));
+        assertFalse(tree.subSet(1, true, 2, true).iterator().hasNext());
+        assertFalse(new BTree<Integer>(2).iterator().hasNext());
+    }
+
+    @Test
+    public void testIteratorRemoveAndFailFast() {
+        BTree<Integer> tree = new BTree<>(2);
+        for (int i = 0; i < 500; i++) {
+            tree.insert(i);
+        }
+        Iterator<Integer> it = tree.iterator();
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        List<Integer> keys = toList(tree);
+        assertEquals(250, keys.size());
+        for (int key : keys) {
+            assertEquals(1, key % 2);
+        }
+
+        BTreeCursor<Integer> cursor = tree.cursor();
+        cursor.seekFirst();
+        tree.insert(1000);
+        try {
+            cursor.next();
+            fail();
+        } catch (ConcurrentModificationException expected) {
+            //fail fast
+        }
+        assertEquals(Integer.valueOf(1), cursor.seekFirst());
+    }
+
+    private static List<Integer> toList(Iterable<Integer> keys) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : keys) {
+            list.add(key);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,65 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Delete latency percentiles and borrows/merges of eager against lazy deletes under churn:
+ * a tree of 1M keys sees random deletes, half of the deleted keys coming back within the
+ * next thousand operations, and random inserts keeping its size. Lazy runs once with the
+ * backstop only and once with a compaction slice of 200 tombstones every 1000 operations,
+ * timed apart as the caller would run it in the background.
+ *
+ * 创建时间：2026-10-19 06:00
+ *
+ * @author 曹文岗
+ **/
+public class BTreeLazyDeleteBenchmark {
+
+    private static final int SIZE = 1_000_000;
+    private static final int OPS = 2_000_000;
+    private static final int DEGREE = 16;
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 3; round++) {
+            run("eager", false, 0);
+            run("lazy", true, 0);
+            run("lazy+slices", true, 200);
+        }
+    }
+
+    private static void run(String name, boolean lazy, int slice) {
+        Random random = new Random(1);
+        BTree<Integer> tree = new BTree<>(DEGREE);
+        for (int i = 0; i < SIZE; i++) {
+            tree.insert(random.nextInt(2 * SIZE));
+        }
+        tree.setLazyDelete(lazy);
+        long rebalances = tree.rebalances();
+        long[] latencies = new long[OPS];
+        int[] recent = new int[1000];
+        long compaction = 0;
+        for (int i = 0; i < OPS; i++) {
+            Integer key = random.nextInt(2 * SIZE);
+            long start = System.nanoTime();
+            tree.delete(key);
+            latencies[i] = System.nanoTime() - start;
+            recent[i % recent.length] = key;
+            if (random.nextBoolean()) {
+                tree.insert(recent[random.nextInt(recent.length)]);
+            } else {
+                tree.insert(random.nextInt(2 * SIZE));
+            }
+            if (slice > 0 && i % 1000 == 999) {
+                start = System.nanoTime();
+                tree.compact(slice);
+                compaction += System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-12s delete p50 %5d ns  p99 %6d ns  p99.9 %7d ns  max %9d ns  rebalances %8d"
+                        + "  tombstones %6d  compaction %6.1f ms%n",
+                name, latencies[OPS / 2], latencies[(int) (OPS * 0.99)], latencies[(int) (OPS * 0.999)],
+                latencies[OPS - 1], tree.rebalances() - rebalances, tree.tombstones(), compaction / 1e6);
+    }
+}
@@ -0,0 +1,211 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-19 05:50
+ *
+ * @author 曹文岗
+ **/
+public class BTreeLazyDeleteTest {
+
+    @Test
+    public void testChurnMatchesTreeSet() {
+        for (int degree : new int[]{2, 3, 16}) {
+            BTree<Integer> tree = new BTree<>(degree);
+            tree.setLazyDelete(true);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(degree);
+            for (int i = 0; i < 40000; i++) {
+                int key = random.nextInt(3000);
+                switch (random.nextInt(4)) {
+                    case 0:
+                    case 1:
+                        assertEquals(expected.add(key), tree.insert(key));
+                        break;
+                    case 2:
+                        assertEquals(expected.remove(key), tree.delete(key));
+                        break;
+                    default:
+                        assertEquals(expected.contains(key), tree.contains(key));
+                        break;
+                }
+                assertEquals(expected.size(), tree.size());
+                if (i % 1000 == 0) {
+                    assertEquals(expected.size() + tree.tombstones(),
+                            BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+                    assertEquals(tree.tombstones(), checkDead(tree, tree.getRoot()));
+                    Integer[] probes = new Integer[100];
+                    for (int j = 0; j < probes.length; j++) {
+                        probes[j] = random.nextInt(3000);
+                    }
+                    boolean[] contained = tree.containsAll(probes);
+                    for (int j = 0; j < probes.length; j++) {
+                        assertEquals(expected.contains(probes[j]), contained[j]);
+                    }
+                    tree.compact(random.nextInt(20));
+                }
+                if (i % 7000 == 0) {
+                    //scans and order statistics see live keys only, and reclaim nothing
+                    int tombstones = tree.tombstones();
+                    assertEquals(new ArrayList<>(expected), toList(tree));
+                    assertEquals(new ArrayList<>(expected), tree.stream().collect(Collectors.toList()));
+                    assertEquals(expected.size(), tree.stream().count());
+                    assertEquals(new ArrayList<>(expected), tree.parallelStream().collect(Collectors.toList()));
+                    assertEquals(expected.size(), tree.parallelStream().count());
+                    checkSplits(tree.spliterator(), expected.size());
+                    for (int j = 0; j < 20; j++) {
+                        int from = random.nextInt(3000);
+                        int to = random.nextInt(3000);
+                        assertEquals(expected.headSet(from).size(), tree.rank(from));
+                        assertEquals(from < to ? expected.subSet(from, to).size() : 0, tree.countRange(from, to));
+                        if (!expected.isEmpty()) {
+                            int index = random.nextInt(expected.size());
+                            assertEquals(new ArrayList<>(expected).get(index), tree.select(index));
+                        }
+                        BTreeCursor<Integer> cursor = tree.cursor();
+                        assertEquals(expected.ceiling(from), cursor.seek(from));
+                        assertEquals(expected.higher(expected.ceiling(from) == null ? from : expected.ceiling(from)),
+                                cursor.next());
+                        assertEquals(expected.floor(to), cursor.seek(to, true, false));
+                        assertEquals(expected.lower(to), cursor.seek(to, false, false));
+                        if (!expected.isEmpty()) {
+                            assertEquals(expected.last(), cursor.seekLast());
+                            assertEquals(expected.lower(expected.last()), cursor.prev());
+                            assertEquals(expected.first(), cursor.seekFirst());
+                        }
+                    }
+                    assertEquals(tombstones, tree.tombstones());
+                }
+            }
+            //tombstones never outgrow the live keys by much
+            assertTrue(tree.tombstones() <= Math.max(64, tree.size()) + 2);
+            tree.setLazyDelete(false);
+            assertEquals(0, tree.tombstones());
+            assertEquals(expected.size(), BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+            assertEquals(new ArrayList<>(expected), toList(tree));
+        }
+    }
+
+    @Test
+    public void testBatchesAndRangeDeletesSkipTombstones() {
+        BTree<Integer> tree = new BTree<>(3);
+        tree.setLazyDelete(true);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(i);
+        }
+        assertEquals(1000, tree.insertAll(keys));
+        assertEquals(500, tree.deleteAll(keys.subList(0, 500)));
+        assertEquals(500, tree.tombstones());
+        assertEquals(500, tree.size());
+        //revive half of them
+        assertEquals(250, tree.insertAll(keys.subList(250, 750)));
+        assertEquals(750, tree.size());
+        assertEquals(250, tree.tombstones());
+        //[100, 300) holds 150 tombstones and 50 live keys
+        assertEquals(50, tree.deleteRange(100, 300));
+        assertEquals(100, tree.tombstones());
+        assertEquals(700, tree.size());
+        assertEquals(100, checkDead(tree, tree.getRoot()));
+        assertEquals(Integer.valueOf(300), tree.select(0));
+        assertEquals(0, tree.rank(300));
+        assertEquals(50, tree.rank(350));
+        assertEquals(250, tree.truncateAfter(749));
+        //drops the remaining tombstones below 100 with them
+        assertEquals(0, tree.truncateBefore(250));
+        assertEquals(0, tree.tombstones());
+        assertEquals(450, tree.size());
+        assertEquals(450, BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+        assertEquals(Integer.valueOf(350), tree.select(50));
+    }
+
+    @Test
+    public void testSnapshotSeesLiveKeysOnly() {
+        BTree<Integer> tree = new BTree<>(4);
+        tree.setLazyDelete(true);
+        for (int i = 0; i < 2000; i++) {
+            tree.insert(i);
+        }
+        for (int i = 0; i < 2000; i += 2) {
+            tree.delete(i);
+        }
+        BTree<Integer> snapshot = tree.snapshot();
+        //reviving a key the snapshot shares as dead leaves it dead there
+        assertTrue(tree.insert(0));
+        assertTrue(!snapshot.contains(0));
+        assertEquals(1000, snapshot.tombstones());
+        assertTrue(tree.delete(0));
+        for (int i = 1; i < 2000; i += 2) {
+            tree.delete(i);
+        }
+        assertEquals(0, tree.size());
+        assertEquals(1000, snapshot.size());
+        assertEquals(1000, toList(snapshot).size());
+        assertEquals(1000, snapshot.stream().count());
+        assertEquals(Integer.valueOf(201), snapshot.select(100));
+        assertEquals(100, snapshot.rank(201));
+        assertTrue(snapshot.contains(1));
+        assertTrue(!snapshot.contains(0));
+        assertTrue(!tree.contains(1));
+        assertEquals(tree.tombstones(), checkDead(tree, tree.getRoot()));
+        assertEquals(1000, checkDead(snapshot, snapshot.getRoot()));
+        checkSplits(snapshot.spliterator(), 1000);
+    }
+
+    /**
+     * Check the dead count of every node against the tombstones of tree.
+     *
+     * @return number of keys deleted lazily in the subtree rooted at node.
+     */
+    private static int checkDead(BTree<Integer> tree, AbstractBTreeNode<Integer> node) {
+        int dead = 0;
+        for (int i = 0; i < node.nkey(); i++) {
+            if (tree.isDead(node.getKey(i))) {
+                dead++;
+            }
+        }
+        for (int i = 0; i < node.nchild(); i++) {
+            dead += checkDead(tree, node.getChild(i));
+        }
+        assertEquals(dead, node.dead);
+        return dead;
+    }
+
+    /**
+     * Split spliterator down to single keys, every part knowing exactly how many live keys
+     * it yields while tombstones exist.
+     */
+    private static void checkSplits(Spliterator<Integer> spliterator, long size) {
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(size, spliterator.estimateSize());
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            long[] count = new long[1];
+            spliterator.forEachRemaining(key -> count[0]++);
+            assertEquals(size, count[0]);
+            return;
+        }
+        long prefixSize = prefix.estimateSize();
+        checkSplits(prefix, prefixSize);
+        checkSplits(spliterator, size - prefixSize);
+    }
+
+    private static List<Integer> toList(BTree<Integer> tree) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : tree) {
+            list.add(key);
+        }
+        return list;
+    }
+}
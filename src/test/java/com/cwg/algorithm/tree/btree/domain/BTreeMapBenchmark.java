@@ -0,0 +1,72 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Compare {@link BTreeMap} with {@link TreeMap} and {@link ConcurrentSkipListMap}:
+ * ns/op for put, get, in-order iteration and remove on random {@code Long} keys.
+ *
+ * 创建时间：2026-10-18 18:05
+ *
+ * @author 曹文岗
+ **/
+public class BTreeMapBenchmark {
+
+    private static final int SIZE = 1_000_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(3);
+        Long[] keys = new Long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = random.nextLong();
+        }
+        Long[] probes = new Long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            probes[i] = keys[random.nextInt(SIZE)];
+        }
+
+        System.out.printf("%-22s %10s %10s %10s %10s%n", "map", "put", "get", "iterate", "remove");
+        for (int round = 0; round < 3; round++) {
+            run("BTreeMap(32)", () -> new BTreeMap<>(32), keys, probes);
+            run("BTreeMap(128)", () -> new BTreeMap<>(128), keys, probes);
+            run("TreeMap", TreeMap::new, keys, probes);
+            run("ConcurrentSkipListMap", ConcurrentSkipListMap::new, keys, probes);
+        }
+    }
+
+    private static void run(String name, Supplier<NavigableMap<Long, Long>> factory, Long[] keys, Long[] probes) {
+        NavigableMap<Long, Long> map = factory.get();
+
+        long start = System.nanoTime();
+        for (Long key : keys) {
+            map.put(key, key);
+        }
+        double put = (double) (System.nanoTime() - start) / keys.length;
+
+        start = System.nanoTime();
+        long sum = 0;
+        for (Long probe : probes) {
+            sum += map.get(probe);
+        }
+        double get = (double) (System.nanoTime() - start) / probes.length;
+
+        start = System.nanoTime();
+        for (Map.Entry<Long, Long> entry : map.entrySet()) {
+            sum += entry.getValue();
+        }
+        double iterate = (double) (System.nanoTime() - start) / map.size();
+
+        start = System.nanoTime();
+        for (Long key : keys) {
+            map.remove(key);
+        }
+        double remove = (double) (System.nanoTime() - start) / keys.length;
+
+        System.out.printf("%-22s %10.1f %10.1f %10.1f %10.1f   (%d)%n", name, put, get, iterate, remove, sum & 1);
+    }
+}
@@ -0,0 +1,160 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 创建时间：2026-10-18 17:50
+ *
+ * @author 曹文岗
+ **/
+public class BTreeMapTest {
+
+    @Test
+    public void testRandomOperations() {
+        for (int degree : new int[]{2, 3, 8, 32}) {
+            Random random = new Random(degree);
+            BTreeMap<Integer, String> map = new BTreeMap<>(degree);
+            TreeMap<Integer, String> expected = new TreeMap<>();
+            for (int i = 0; i < 20000; i++) {
+                int key = random.nextInt(3000);
+                switch (random.nextInt(4)) {
+                    case 0:
+                        assertEquals(expected.remove(key), map.remove(key));
+                        break;
+                    case 1:
+                        assertEquals(expected.computeIfAbsent(key, k -> "c" + k),
+                                map.computeIfAbsent(key, k -> "c" + k));
+                        break;
+                    default:
+                        assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+                }
+                assertEquals(expected.size(), map.size());
+            }
+            for (int key = -1; key <= 3000; key++) {
+                assertEquals(expected.get(key), map.get(key));
+                assertEquals(expected.lowerKey(key), map.lowerKey(key));
+                assertEquals(expected.floorKey(key), map.floorKey(key));
+                assertEquals(expected.ceilingKey(key), map.ceilingKey(key));
+                assertEquals(expected.higherKey(key), map.higherKey(key));
+            }
+            assertEquals(expected, map);
+            assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+        }
+    }
+
+    @Test
+    public void testViews() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>(3);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 500; i += 2) {
+            map.put(i, -i);
+            expected.put(i, -i);
+        }
+        assertViewEquals(expected.descendingMap(), map.descendingMap());
+        assertViewEquals(expected.subMap(11, true, 301, false), map.subMap(11, true, 301, false));
+        assertViewEquals(expected.subMap(10, false, 300, true), map.subMap(10, false, 300, true));
+        assertViewEquals(expected.headMap(100, true), map.headMap(100, true));
+        assertViewEquals(expected.tailMap(401, false), map.tailMap(401, false));
+        assertViewEquals(expected.descendingMap().subMap(300, true, 100, false),
+                map.descendingMap().subMap(300, true, 100, false));
+        assertViewEquals(expected.descendingMap().headMap(251, false),
+                map.descendingMap().headMap(251, false));
+        assertViewEquals(expected.subMap(100, true, 200, false).descendingMap().tailMap(150, true),
+                map.subMap(100, true, 200, false).descendingMap().tailMap(150, true));
+        assertEquals(new ArrayList<>(expected.descendingKeySet()), new ArrayList<>(map.descendingKeySet()));
+
+        try {
+            map.subMap(100, 200).put(200, 0);
+            fail();
+        } catch (IllegalArgumentException expectedException) {
+            //out of range
+        }
+    }
+
+    private void assertViewEquals(NavigableMap<Integer, Integer> expected, NavigableMap<Integer, Integer> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+        assertEquals(expected.firstEntry(), actual.firstEntry());
+        assertEquals(expected.lastEntry(), actual.lastEntry());
+        for (int key = -2; key <= 502; key++) {
+            assertEquals(expected.lowerKey(key), actual.lowerKey(key));
+            assertEquals(expected.floorKey(key), actual.floorKey(key));
+            assertEquals(expected.ceilingKey(key), actual.ceilingKey(key));
+            assertEquals(expected.higherKey(key), actual.higherKey(key));
+            assertEquals(expected.containsKey(key), actual.containsKey(key));
+        }
+    }
+
+    @Test
+    public void testIteratorRemoveAndSetValue() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>(2);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        Iterator<Map.Entry<Integer, Integer>> it = map.entrySet().iterator();
+        List<Integer> kept = new ArrayList<>();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Integer> entry = it.next();
+            if (entry.getKey() % 3 == 0) {
+                it.remove();
+            } else {
+                entry.setValue(entry.getKey() * 10);
+                kept.add(entry.getKey());
+            }
+        }
+        assertEquals(kept, new ArrayList<>(map.keySet()));
+        for (int key : kept) {
+            assertEquals(Integer.valueOf(key * 10), map.get(key));
+        }
+
+        Iterator<Integer> descending = map.descendingKeySet().iterator();
+        while (descending.hasNext()) {
+            if (descending.next() % 2 == 0) {
+                descending.remove();
+            }
+        }
+        for (int key : map.keySet()) {
+            assertTrue(key % 2 == 1 && key % 3 != 0);
+        }
+
+        Iterator<Integer> failFast = map.keySet().iterator();
+        failFast.next();
+        map.put(-1, -1);
+        try {
+            failFast.next();
+            fail();
+        } catch (ConcurrentModificationException expected) {
+            //fail fast
+        }
+    }
+
+    @Test
+    public void testPoll() {
+        BTreeMap<Integer, Integer> map = new BTreeMap<>(2);
+        assertNull(map.pollFirstEntry());
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        for (int i = 0; i < 50; i++) {
+            assertEquals(Integer.valueOf(i), map.pollFirstEntry().getKey());
+            assertEquals(Integer.valueOf(99 - i), map.pollLastEntry().getKey());
+        }
+        assertTrue(map.isEmpty());
+        assertFalse(map.keySet().iterator().hasNext());
+    }
+}
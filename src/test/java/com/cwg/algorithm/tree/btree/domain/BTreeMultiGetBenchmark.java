@@ -0,0 +1,99 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * {@link BTree#searchAll} against one {@link BTree#search} per key on a tree of 1M keys,
+ * for probe sets of 10 to 100k random keys (half of them present). Reports key comparisons
+ * and time per probe; comparisons made by the sort are included, the last columns show
+ * the traversal alone on probe sets that are already sorted.
+ *
+ * 创建时间：2026-10-19 03:10
+ *
+ * @author 曹文岗
+ **/
+public class BTreeMultiGetBenchmark {
+
+    private static final int SIZE = 1_000_000;
+    private static final int PROBES = 1_000_000;
+
+    public static void main(String[] args) {
+        BTree<Key> tree = new BTree<>(32);
+        for (int i = 0; i < SIZE; i++) {
+            tree.insert(new Key(2 * i));
+        }
+        Random random = new Random(1);
+        for (int round = 0; round < 3; round++) {
+            for (int batchSize = 10; batchSize <= 100_000; batchSize *= 10) {
+                Key[][] batches = new Key[PROBES / batchSize][batchSize];
+                for (Key[] batch : batches) {
+                    for (int i = 0; i < batchSize; i++) {
+                        batch[i] = new Key(random.nextInt(2 * SIZE));
+                    }
+                }
+                long hits = 0;
+                Key.comparisons = 0;
+                long start = System.nanoTime();
+                for (Key[] batch : batches) {
+                    for (Key key : batch) {
+                        if (tree.search(key) != null) {
+                            hits++;
+                        }
+                    }
+                }
+                long single = System.nanoTime() - start;
+                long singleComparisons = Key.comparisons;
+
+                Key.comparisons = 0;
+                start = System.nanoTime();
+                for (Key[] batch : batches) {
+                    for (Key key : tree.searchAll(batch)) {
+                        if (key != null) {
+                            hits--;
+                        }
+                    }
+                }
+                long batched = System.nanoTime() - start;
+                if (hits != 0) {
+                    throw new AssertionError("results differ");
+                }
+                long batchedComparisons = Key.comparisons;
+
+                //probe sets that arrive sorted skip the sort: traversal alone
+                for (Key[] batch : batches) {
+                    Arrays.sort(batch);
+                }
+                Key.comparisons = 0;
+                start = System.nanoTime();
+                for (Key[] batch : batches) {
+                    tree.searchAll(batch);
+                }
+                long presorted = System.nanoTime() - start;
+                System.out.printf("batch %6d  search %5.1f cmp %6.1f ns/key  searchAll %5.1f cmp %6.1f ns/key"
+                                + "  sorted input %5.1f cmp %6.1f ns/key%n",
+                        batchSize, (double) singleComparisons / PROBES, (double) single / PROBES,
+                        (double) batchedComparisons / PROBES, (double) batched / PROBES,
+                        (double) Key.comparisons / PROBES, (double) presorted / PROBES);
+            }
+        }
+    }
+
+    /**
+     * Integer key counting its comparisons.
+     */
+    private static final class Key implements Comparable<Key> {
+        static long comparisons;
+        final int value;
+
+        Key(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(Key o) {
+            comparisons++;
+            return Integer.compare(value, o.value);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Bytes allocated per operation and garbage collections of a degree 128 tree under churn,
+ * with and without a node pool. "window" slides a window of 1M keys, inserting at the
+ * tail and deleting at the head; "waves" grows a tree of random keys from 0.5M to 1.5M
+ * and shrinks it back. (Random inserts and deletes at a steady size hardly split or merge
+ * at this degree.) Keys are boxed up front, so what is left to allocate is nodes.
+ * Allocation is read from the HotSpot thread counter.
+ *
+ * 创建时间：2026-10-19 07:05
+ *
+ * @author 曹文岗
+ **/
+public class BTreeNodePoolBenchmark {
+
+    private static final int WINDOW = 1_000_000;
+    private static final int OPS = 8_000_000;
+    private static final int DEGREE = 128;
+
+    public static void main(String[] args) {
+        Integer[] keys = new Integer[WINDOW + OPS / 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int poolCapacity : new int[]{0, 1024}) {
+                window(keys, poolCapacity);
+            }
+            for (int poolCapacity : new int[]{0, 1024}) {
+                waves(keys, poolCapacity);
+            }
+        }
+    }
+
+    private static void window(Integer[] keys, int poolCapacity) {
+        BTree<Integer> tree = new BTree<>(DEGREE, poolCapacity);
+        for (int i = 0; i < WINDOW; i++) {
+            tree.insert(keys[i]);
+        }
+        Meter meter = new Meter(tree);
+        for (int i = 0; i < OPS / 2; i++) {
+            tree.insert(keys[WINDOW + i]);
+            tree.delete(keys[i]);
+        }
+        meter.print("window", OPS);
+    }
+
+    private static void waves(Integer[] keys, int poolCapacity) {
+        Random random = new Random(1);
+        BTree<Integer> tree = new BTree<>(DEGREE, poolCapacity);
+        while (tree.size() < WINDOW / 2) {
+            tree.insert(keys[random.nextInt(keys.length)]);
+        }
+        Meter meter = new Meter(tree);
+        int ops = 0;
+        while (ops < OPS) {
+            while (tree.size() < WINDOW * 3 / 2) {
+                tree.insert(keys[random.nextInt(keys.length)]);
+                ops++;
+            }
+            while (tree.size() > WINDOW / 2) {
+                tree.delete(keys[random.nextInt(keys.length)]);
+                ops++;
+            }
+        }
+        meter.print("waves", ops);
+    }
+
+    /**
+     * Allocation, collections and time since creation.
+     */
+    private static final class Meter {
+        private final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private final long thread = Thread.currentThread().getId();
+        private final BTree<Integer> tree;
+        private final long gcs = gcCount();
+        private final long gcTime = gcTime();
+        private final long bytes;
+        private final long start;
+
+        Meter(BTree<Integer> tree) {
+            this.tree = tree;
+            if (tree.nodePool() != null) {
+                tree.nodePool().resetStats();
+            }
+            bytes = threads.getThreadAllocatedBytes(thread);
+            start = System.nanoTime();
+        }
+
+        void print(String workload, int ops) {
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(thread) - bytes;
+            BTreeNodePool pool = tree.nodePool();
+            System.out.printf("%-6s %-9s %6.1f bytes/op  gc %3d  gc time %5d ms  %5.0f ns/op", workload,
+                    pool == null ? "no pool" : "pool " + pool.capacity(), (double) allocated / ops,
+                    gcCount() - gcs, gcTime() - gcTime, (double) elapsed / ops);
+            if (pool != null) {
+                System.out.printf("  allocations %6d  reuses %6d  drops %d", pool.allocations(), pool.reuses(), pool.drops());
+            }
+            System.out.println();
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += gc.getCollectionCount();
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += gc.getCollectionTime();
+        }
+        return time;
+    }
+}
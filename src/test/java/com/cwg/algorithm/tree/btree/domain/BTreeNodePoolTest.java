@@ -0,0 +1,82 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-19 06:55
+ *
+ * @author 曹文岗
+ **/
+public class BTreeNodePoolTest {
+
+    @Test
+    public void testChurnReusesNodes() {
+        for (int degree : new int[]{2, 3, 16}) {
+            BTree<Integer> tree = new BTree<>(degree, 64);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(degree);
+            //grow and shrink in waves, so merges free nodes that later splits take again
+            for (int wave = 0; wave < 10; wave++) {
+                for (int i = 0; i < 3000; i++) {
+                    int key = random.nextInt(20000);
+                    assertEquals(expected.add(key), tree.insert(key));
+                }
+                for (int i = 0; i < 6000; i++) {
+                    int key = random.nextInt(20000);
+                    assertEquals(expected.remove(key), tree.delete(key));
+                }
+                assertEquals(expected.size(), tree.size());
+                assertEquals(expected.size(), BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+            }
+            List<Integer> keys = new ArrayList<>(expected);
+            assertEquals(keys.size(), tree.deleteAll(keys));
+            assertEquals(0, BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+            BTreeNodePool pool = tree.nodePool();
+            assertTrue(pool.reuses() > 0);
+            assertTrue(pool.size() <= pool.capacity());
+            assertEquals(pool.recycles(), pool.reuses() + pool.size());
+        }
+    }
+
+    @Test
+    public void testSnapshotNodesAreNotRecycled() {
+        BTree<Integer> tree = new BTree<>(3, 1000);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tree.insert(i);
+            keys.add(i);
+        }
+        BTree<Integer> snapshot = tree.snapshot();
+        Random random = new Random(7);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < 5000; i++) {
+                tree.delete(random.nextInt(5000));
+            }
+            for (int i = 0; i < 5000; i++) {
+                tree.insert(random.nextInt(5000));
+            }
+        }
+        assertTrue(tree.nodePool().reuses() > 0);
+        assertEquals(keys, toList(snapshot));
+        assertEquals(5000, BTreeTest.checkInvariants(snapshot.getRoot(), null, null, true));
+        assertNull(snapshot.nodePool());
+        assertNull(new BTree<Integer>(3).nodePool());
+    }
+
+    private static List<Integer> toList(BTree<Integer> tree) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : tree) {
+            list.add(key);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,88 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 创建时间：2026-10-19 04:10
+ *
+ * @author 曹文岗
+ **/
+public class BTreeOrderStatisticTest {
+
+    @Test
+    public void testRankSelectAndCountRange() {
+        for (int degree : new int[]{2, 3, 16}) {
+            BTree<Integer> tree = new BTree<>(degree);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(degree);
+            for (int i = 0; i < 20000; i++) {
+                int key = random.nextInt(3000);
+                if (random.nextInt(3) > 0) {
+                    assertEquals(expected.add(key), tree.insert(key));
+                } else {
+                    assertEquals(expected.remove(key), tree.delete(key));
+                }
+                if (i % 1000 == 0) {
+                    check(tree, expected, random);
+                }
+            }
+            check(tree, expected, random);
+        }
+    }
+
+    @Test
+    public void testSizesSurviveBulkOperations() {
+        BTree<Integer> tree = new BTree<>(4);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            keys.add(2 * i);
+        }
+        tree.bulkLoad(keys.iterator(), 0.8);
+        TreeSet<Integer> expected = new TreeSet<>(keys);
+        Random random = new Random(1);
+        check(tree, expected, random);
+
+        List<Integer> batch = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            batch.add(random.nextInt(12000));
+        }
+        tree.insertAll(batch);
+        expected.addAll(batch);
+        check(tree, expected, random);
+
+        Collections.shuffle(batch, random);
+        tree.deleteAll(batch.subList(0, 1500));
+        expected.removeAll(batch.subList(0, 1500));
+        check(tree, expected, random);
+
+        tree.deleteRange(2000, 7000);
+        expected.subSet(2000, 7000).clear();
+        tree.truncateBefore(100);
+        expected.headSet(100).clear();
+        tree.truncateAfter(11000);
+        expected.tailSet(11000, false).clear();
+        check(tree, expected, random);
+    }
+
+    private static void check(BTree<Integer> tree, TreeSet<Integer> expected, Random random) {
+        assertEquals(expected.size(), BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+        List<Integer> sorted = new ArrayList<>(expected);
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), tree.select(i));
+        }
+        for (int i = 0; i < 200; i++) {
+            int a = random.nextInt(13000) - 500;
+            int b = random.nextInt(13000) - 500;
+            assertEquals(expected.headSet(a).size(), tree.rank(a));
+            assertEquals(a < b ? expected.subSet(a, b).size() : 0, tree.countRange(a, b));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Iterator;
+import java.util.stream.IntStream;
+
+/**
+ * {@link BTree#deleteRange} and {@link BTree#truncateBefore} against one
+ * {@link BTree#delete} per key on a bulk loaded tree of 10M keys, for ranges covering
+ * 0.01% to 50% of the keys.
+ *
+ * 创建时间：2026-10-19 03:50
+ *
+ * @author 曹文岗
+ **/
+public class BTreeRangeDeleteBenchmark {
+
+    private static final int SIZE = 10_000_000;
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 2; round++) {
+            for (double fraction : new double[]{0.0001, 0.01, 0.1, 0.5}) {
+                int count = (int) (SIZE * fraction);
+                //retention cut at the low end and a range from the middle
+                for (int from : new int[]{0, SIZE / 4}) {
+                    int to = from + count;
+                    BTree<Integer> tree = load();
+                    long start = System.nanoTime();
+                    int deleted = from == 0 ? tree.truncateBefore(to) : tree.deleteRange(from, to);
+                    long range = System.nanoTime() - start;
+                    check(tree, deleted, count);
+
+                    tree = load();
+                    start = System.nanoTime();
+                    for (int key = from; key < to; key++) {
+                        tree.delete(key);
+                    }
+                    long single = System.nanoTime() - start;
+                    System.out.printf("%-14s %8d keys  range %9.3f ms  per key %9.1f ms  speedup %8.0fx%n",
+                            from == 0 ? "truncateBefore" : "deleteRange", count, range / 1e6, single / 1e6,
+                            (double) single / range);
+                }
+            }
+        }
+    }
+
+    private static BTree<Integer> load() {
+        BTree<Integer> tree = new BTree<>(32);
+        Iterator<Integer> keys = IntStream.range(0, SIZE).iterator();
+        tree.bulkLoad(keys, 0.7);
+        return tree;
+    }
+
+    private static void check(BTree<Integer> tree, int deleted, int count) {
+        if (deleted != count || tree.size() != SIZE - count) {
+            throw new AssertionError("deleted " + deleted + " instead of " + count);
+        }
+    }
+}
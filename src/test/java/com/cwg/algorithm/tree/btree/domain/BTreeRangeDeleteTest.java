@@ -0,0 +1,96 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 创建时间：2026-10-19 03:40
+ *
+ * @author 曹文岗
+ **/
+public class BTreeRangeDeleteTest {
+
+    @Test
+    public void testDeleteRangeMatchesTreeSet() {
+        for (int degree : new int[]{2, 3, 4, 16}) {
+            Random random = new Random(degree);
+            for (int round = 0; round < 300; round++) {
+                BTree<Integer> tree = new BTree<>(degree);
+                TreeSet<Integer> expected = new TreeSet<>();
+                int n = random.nextInt(round < 100 ? 50 : 3000);
+                for (int i = 0; i < n; i++) {
+                    int key = random.nextInt(4 * n + 1);
+                    tree.insert(key);
+                    expected.add(key);
+                }
+                for (int op = 0; op < 5; op++) {
+                    int from = random.nextInt(4 * n + 2) - 1;
+                    int to = from + random.nextInt(4 * n + 2);
+                    int removed;
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            removed = expected.subSet(from, to).size();
+                            expected.subSet(from, to).clear();
+                            assertEquals(removed, tree.deleteRange(from, to));
+                            break;
+                        case 1:
+                            removed = expected.headSet(from).size();
+                            expected.headSet(from).clear();
+                            assertEquals(removed, tree.truncateBefore(from));
+                            break;
+                        default:
+                            removed = expected.tailSet(to, false).size();
+                            expected.tailSet(to, false).clear();
+                            assertEquals(removed, tree.truncateAfter(to));
+                            break;
+                    }
+                    assertEquals(expected.size(), tree.size());
+                    assertEquals(expected.size(), BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+                    BTreeTest.checkHeight(tree.getRoot());
+                    assertEquals(new ArrayList<>(expected), toList(tree));
+                }
+                //tree keeps working after range deletes
+                for (int i = 0; i < 200; i++) {
+                    int key = random.nextInt(4 * n + 1);
+                    assertEquals(expected.add(key), tree.insert(key));
+                    key = random.nextInt(4 * n + 1);
+                    assertEquals(expected.remove(key), tree.delete(key));
+                }
+                assertEquals(expected.size(), BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+            }
+        }
+    }
+
+    @Test
+    public void testDeleteRangeLeavesSnapshotUntouched() {
+        BTree<Integer> tree = new BTree<>(3);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            tree.insert(i);
+            keys.add(i);
+        }
+        BTree<Integer> snapshot = tree.snapshot();
+        assertEquals(8000, tree.deleteRange(1000, 9000));
+        assertEquals(1000, tree.truncateBefore(1000));
+        assertEquals(999, tree.truncateAfter(9000));
+        assertEquals(1, tree.size());
+        assertEquals(1, BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+        BTreeTest.checkHeight(snapshot.getRoot());
+        assertEquals(keys, toList(snapshot));
+        assertEquals(10000, BTreeTest.checkInvariants(snapshot.getRoot(), null, null, true));
+    }
+
+    private static List<Integer> toList(BTree<Integer> tree) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : tree) {
+            list.add(key);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,133 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Random;
+
+/**
+ * Compare binary-search lookup against the former linear-scan lookup
+ * (an {@code equals} scan followed by a {@code compareTo} scan per node).
+ * <p>Prints comparisons per lookup and ns/op for degrees 2..512.
+ * Run with {@code main}, it is not a unit test.</p>
+ *
+ * 创建时间：2026-10-18 16:05
+ *
+ * @author 曹文岗
+ **/
+public class BTreeSearchBenchmark {
+
+    private static final int SIZE = 1 << 20;
+    private static final int LOOKUPS = 1 << 20;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        CountingKey[] data = new CountingKey[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            data[i] = new CountingKey(random.nextLong());
+        }
+        CountingKey[] probes = new CountingKey[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            probes[i] = random.nextBoolean()
+                    ? data[random.nextInt(SIZE)]
+                    : new CountingKey(random.nextLong());
+        }
+
+        System.out.printf("%-8s %16s %16s %12s %12s%n",
+                "degree", "linear cmp/op", "binary cmp/op", "linear ns", "binary ns");
+        for (int degree = 2; degree <= 512; degree <<= 1) {
+            BTree<CountingKey> tree = new BTree<>(degree);
+            for (CountingKey key : data) {
+                tree.insert(key);
+            }
+            //warm up both paths
+            for (int i = 0; i < 3; i++) {
+                runLinear(tree, probes);
+                runBinary(tree, probes);
+            }
+
+            CountingKey.comparisons = 0;
+            long start = System.nanoTime();
+            runLinear(tree, probes);
+            long linearNs = System.nanoTime() - start;
+            double linearCmp = (double) CountingKey.comparisons / LOOKUPS;
+
+            CountingKey.comparisons = 0;
+            start = System.nanoTime();
+            runBinary(tree, probes);
+            long binaryNs = System.nanoTime() - start;
+            double binaryCmp = (double) CountingKey.comparisons / LOOKUPS;
+
+            System.out.printf("%-8d %16.1f %16.1f %12.1f %12.1f%n", degree,
+                    linearCmp, binaryCmp, (double) linearNs / LOOKUPS, (double) binaryNs / LOOKUPS);
+        }
+    }
+
+    private static int runBinary(BTree<CountingKey> tree, CountingKey[] probes) {
+        int found = 0;
+        for (CountingKey probe : probes) {
+            if (tree.search(probe) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static int runLinear(BTree<CountingKey> tree, CountingKey[] probes) {
+        int found = 0;
+        for (CountingKey probe : probes) {
+            if (linearSearch(tree.getRoot(), probe) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The lookup as it was before binary search: find key with equals, then find child with compareTo.
+     */
+    private static <K extends Comparable<K>> K linearSearch(AbstractBTreeNode<K> node, K key) {
+        while (true) {
+            int n = node.nkey();
+            for (int i = 0; i < n; i++) {
+                if (key.equals(node.getKey(i))) {
+                    return node.getKey(i);
+                }
+            }
+            if (node.isLeaf()) {
+                return null;
+            }
+            int index = 0;
+            while (index < n && key.compareTo(node.getKey(index)) > 0) {
+                index++;
+            }
+            node = node.getChild(index);
+        }
+    }
+
+    /**
+     * Key counting every equals/compareTo call.
+     */
+    static final class CountingKey implements Comparable<CountingKey> {
+        static long comparisons;
+        final long value;
+
+        CountingKey(long value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(CountingKey o) {
+            comparisons++;
+            return Long.compare(value, o.value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            comparisons++;
+            return o instanceof CountingKey && ((CountingKey) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(value);
+        }
+    }
+}
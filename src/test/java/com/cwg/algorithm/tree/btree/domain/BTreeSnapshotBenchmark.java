@@ -0,0 +1,55 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * Cost of {@link BTree#snapshot()} and of random inserts/deletes while 0, 1 or 10
+ * snapshots are alive; a new snapshot is taken every 1000 writes and the oldest is
+ * released, so writers keep paying for path copying.
+ *
+ * 创建时间：2026-10-19 02:20
+ *
+ * @author 曹文岗
+ **/
+public class BTreeSnapshotBenchmark {
+
+    private static final int SIZE = 1_000_000;
+    private static final int WRITES = 2_000_000;
+    private static final int INTERVAL = 1000;
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 3; round++) {
+            for (int live : new int[]{0, 1, 10}) {
+                BTree<Integer> tree = new BTree<>(32);
+                Random random = new Random(1);
+                for (int i = 0; i < SIZE; i++) {
+                    tree.insert(random.nextInt(SIZE * 2));
+                }
+                Deque<BTree<Integer>> snapshots = new ArrayDeque<>();
+                long snapshotNanos = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < WRITES; i++) {
+                    int key = random.nextInt(SIZE * 2);
+                    if ((i & 1) == 0) {
+                        tree.insert(key);
+                    } else {
+                        tree.delete(key);
+                    }
+                    if (live > 0 && i % INTERVAL == 0) {
+                        long snapshotStart = System.nanoTime();
+                        snapshots.addLast(tree.snapshot());
+                        snapshotNanos += System.nanoTime() - snapshotStart;
+                        if (snapshots.size() > live) {
+                            snapshots.removeFirst();
+                        }
+                    }
+                }
+                long nanos = System.nanoTime() - start - snapshotNanos;
+                System.out.printf("%2d live snapshots  write %7.1f ns/op  snapshot %6.1f ns%n",
+                        live, (double) nanos / WRITES, live > 0 ? (double) snapshotNanos / (WRITES / INTERVAL) : 0.0);
+            }
+        }
+    }
+}
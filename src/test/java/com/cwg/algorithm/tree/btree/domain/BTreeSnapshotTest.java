@@ -0,0 +1,146 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 创建时间：2026-10-19 02:00
+ *
+ * @author 曹文岗
+ **/
+public class BTreeSnapshotTest {
+
+    @Test
+    public void testSnapshotsAreIsolated() {
+        for (int degree : new int[]{2, 3, 8}) {
+            BTree<Integer> tree = new BTree<>(degree);
+            TreeSet<Integer> expected = new TreeSet<>();
+            List<BTree<Integer>> snapshots = new ArrayList<>();
+            List<List<Integer>> contents = new ArrayList<>();
+            Random random = new Random(degree);
+            for (int i = 0; i < 20000; i++) {
+                int key = random.nextInt(2000);
+                if (random.nextInt(3) > 0) {
+                    assertEquals(expected.add(key), tree.insert(key));
+                } else {
+                    assertEquals(expected.remove(key), tree.delete(key));
+                }
+                if (i % 2000 == 0) {
+                    snapshots.add(tree.snapshot());
+                    contents.add(new ArrayList<>(expected));
+                }
+            }
+            assertEquals(expected.size(), BTreeTest.checkInvariants(tree.getRoot(), null, null, true));
+            assertEquals(new ArrayList<>(expected), toList(tree));
+            for (int i = 0; i < snapshots.size(); i++) {
+                BTree<Integer> snapshot = snapshots.get(i);
+                assertEquals(contents.get(i).size(), snapshot.size());
+                assertEquals(contents.get(i), toList(snapshot));
+                BTreeTest.checkInvariants(snapshot.getRoot(), null, null, true);
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshotIsReadOnly() {
+        BTree<Integer> tree = new BTree<>(2);
+        tree.insert(1);
+        BTree<Integer> snapshot = tree.snapshot();
+        try {
+            snapshot.insert(2);
+            fail();
+        } catch (UnsupportedOperationException expected) {
+            //read-only
+        }
+        try {
+            snapshot.iterator().next();
+            snapshot.delete(1);
+            fail();
+        } catch (UnsupportedOperationException expected) {
+            //read-only
+        }
+        assertTrue(snapshot.contains(1));
+    }
+
+    @Test
+    public void testReaderNeverSeesTornState() throws Exception {
+        BTree<Integer> tree = new BTree<>(3);
+        for (int i = 0; i < 5000; i++) {
+            tree.insert(i);
+        }
+        AtomicReference<BTree<Integer>> published = new AtomicReference<>(tree.snapshot());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                for (int round = 0; round < 300; round++) {
+                    BTree<Integer> snapshot = published.get();
+                    int count = 0;
+                    Integer previous = null;
+                    for (Integer key : snapshot) {
+                        assertTrue(previous == null || previous < key);
+                        previous = key;
+                        count++;
+                    }
+                    assertEquals(snapshot.size(), count);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+        Random random = new Random(6);
+        while (reader.isAlive()) {
+            for (int i = 0; i < 100; i++) {
+                int key = random.nextInt(10000);
+                if (!tree.insert(key)) {
+                    tree.delete(key);
+                }
+            }
+            published.set(tree.snapshot());
+        }
+        assertNull(failure.get());
+    }
+
+    @Test
+    public void testReleasedSnapshotIsCollected() throws Exception {
+        BTree<Integer> tree = new BTree<>(4);
+        for (int i = 0; i < 10000; i++) {
+            tree.insert(i);
+        }
+        BTree<Integer> snapshot = tree.snapshot();
+        WeakReference<BTree<Integer>> snapshotReference = new WeakReference<>(snapshot);
+        WeakReference<AbstractBTreeNode<Integer>> rootReference = new WeakReference<>(snapshot.getRoot());
+        //touch every leaf so that the tree no longer shares any node with the snapshot
+        for (int i = 0; i < 10000; i++) {
+            tree.delete(i);
+            tree.insert(i);
+        }
+        snapshot = null;
+        for (int i = 0; i < 50 && (snapshotReference.get() != null || rootReference.get() != null); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(snapshotReference.get());
+        assertNull(rootReference.get());
+        assertEquals(10000, tree.size());
+    }
+
+    private static List<Integer> toList(Iterable<Integer> keys) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : keys) {
+            list.add(key);
+        }
+        return list;
+    }
+}
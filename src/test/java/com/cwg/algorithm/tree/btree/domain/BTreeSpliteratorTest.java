@@ -0,0 +1,81 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-18 20:20
+ *
+ * @author 曹文岗
+ **/
+public class BTreeSpliteratorTest {
+
+    @Test
+    public void testSplitCoversAllKeysInOrder() {
+        for (int degree : new int[]{2, 3, 8}) {
+            BTree<Integer> tree = new BTree<>(degree);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                tree.insert(i);
+                expected.add(i);
+            }
+            Spliterator<Integer> spliterator = tree.spliterator();
+            assertEquals(3000, spliterator.getExactSizeIfKnown());
+            assertTrue(spliterator.hasCharacteristics(Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.ORDERED
+                    | Spliterator.SIZED | Spliterator.SUBSIZED));
+
+            List<Integer> actual = new ArrayList<>();
+            drain(spliterator, actual, 0);
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Split recursively, consuming prefixes before suffixes, alternating tryAdvance and forEachRemaining.
+     * Every part, split or not, must know exactly how many keys it yields.
+     */
+    private static void drain(Spliterator<Integer> spliterator, List<Integer> out, int level) {
+        long size = spliterator.getExactSizeIfKnown();
+        int before = out.size();
+        Spliterator<Integer> prefix = level < 12 ? spliterator.trySplit() : null;
+        if (prefix != null) {
+            assertTrue(prefix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+            assertEquals(size, prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+            drain(prefix, out, level + 1);
+            drain(spliterator, out, level + 1);
+            assertEquals(size, out.size() - before);
+            return;
+        }
+        if (level % 2 == 0) {
+            while (spliterator.tryAdvance(out::add)) {
+                //consume one by one
+            }
+        } else {
+            spliterator.forEachRemaining(out::add);
+        }
+        assertEquals(size, out.size() - before);
+        assertEquals(0, spliterator.estimateSize());
+    }
+
+    @Test
+    public void testStreams() {
+        BTree<Integer> tree = new BTree<>(4);
+        long sum = 0;
+        for (int i = 0; i < 100000; i += 3) {
+            tree.insert(i);
+            sum += i;
+        }
+        assertEquals(sum, tree.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(tree.size(), tree.parallelStream().count());
+        assertEquals(tree.stream().filter(k -> k % 2 == 0).collect(Collectors.toList()),
+                tree.parallelStream().filter(k -> k % 2 == 0).collect(Collectors.toList()));
+        assertEquals(0, new BTree<Integer>(2).parallelStream().count());
+    }
+}
@@ -0,0 +1,64 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compare sum/filter/count over {@link BTree#parallelStream()} in ForkJoinPools of
+ * 1, 4 and 16 threads with a sequential iterator loop.
+ *
+ * 创建时间：2026-10-18 20:30
+ *
+ * @author 曹文岗
+ **/
+public class BTreeStreamBenchmark {
+
+    private static final int SIZE = 5_000_000;
+
+    public static void main(String[] args) throws Exception {
+        BTree<Integer> tree = new BTree<>(64);
+        Random random = new Random(5);
+        while (tree.size() < SIZE) {
+            tree.insert(random.nextInt());
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            long even = 0;
+            for (Integer key : tree) {
+                sum += key;
+                if ((key & 1) == 0) {
+                    even++;
+                }
+            }
+            report("iterator", System.nanoTime() - start, sum + even);
+
+            for (int threads : new int[]{1, 4, 16}) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                long result = time("parallel sum   " + threads, pool,
+                        t -> t.parallelStream().mapToLong(Integer::longValue).sum(), tree);
+                result += time("parallel filter" + threads, pool,
+                        t -> t.parallelStream().filter(k -> (k & 1) == 0).count(), tree);
+                result += time("parallel count " + threads, pool,
+                        t -> t.parallelStream().count(), tree);
+                pool.shutdown();
+                System.out.println("  checksum " + (result & 0xff));
+            }
+        }
+    }
+
+    private static long time(String name, ForkJoinPool pool, ToLongFunction<BTree<Integer>> op,
+                             BTree<Integer> tree) throws Exception {
+        long start = System.nanoTime();
+        long result = pool.submit(() -> op.applyAsLong(tree)).get();
+        report(name, System.nanoTime() - start, result);
+        return result;
+    }
+
+    private static void report(String name, long nanos, long result) {
+        System.out.printf("%-20s %8.1f ms  %6.1f ns/key  (%d)%n",
+                name, nanos / 1e6, (double) nanos / SIZE, result & 1);
+    }
+}
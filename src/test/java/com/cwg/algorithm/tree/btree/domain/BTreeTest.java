@@ -2,7 +2,7 @@ package com.cwg.algorithm.tree.btree.domain;
 
 import org.junit.After;
 import org.junit.Before;
-import org.junit.jupiter.api.Test;
+import org.junit.Test;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -11,15 +11,20 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.Random;
+import java.util.TreeSet;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * 创建时间：2020-08-12 09:48
  *
  * @author 曹文岗
  **/
-class BTreeTest {
+public class BTreeTest {
 
     private final List<Integer> keys = new ArrayList<>(12);
     private final List<List<Integer[]>> insertResults = new ArrayList<>(12);
@@ -153,4 +158,115 @@ class BTreeTest {
         }
     }
 
+    /**
+     * Method: search(K key)
+     */
+    @Test
+    public void testSearch() throws Exception {
+        BTree<Integer> tree = new BTree<>(2);
+        for (int key : keys) {
+            tree.insert(key);
+        }
+        for (int key : keys) {
+            assertEquals(Integer.valueOf(key), tree.search(key));
+        }
+        assertNull(tree.search(0));
+        assertNull(tree.search(15));
+        assertNull(tree.search(100));
+    }
+
+    /**
+     * Method: size() with duplicate insert and missing delete
+     */
+    @Test
+    public void testDistinctKeysAndSize() throws Exception {
+        BTree<Integer> tree = new BTree<>(2);
+        for (int key : keys) {
+            assertTrue(tree.insert(key));
+        }
+        for (int key : keys) {
+            assertFalse(tree.insert(key));
+        }
+        assertEquals(keys.size(), tree.size());
+        assertFalse(tree.delete(100));
+        for (int i = 0; i < keys.size(); i++) {
+            assertTrue(tree.delete(keys.get(i)));
+            assertEquals(keys.size() - i - 1, tree.size());
+        }
+    }
+
+    /**
+     * Random inserts and deletes against a {@link TreeSet} for several degrees.
+     */
+    @Test
+    public void testRandomInsertDelete() throws Exception {
+        for (int degree : new int[]{2, 3, 5, 16}) {
+            Random random = new Random(degree);
+            BTree<Integer> tree = new BTree<>(degree);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 5000; i++) {
+                int key = random.nextInt(2000);
+                if (random.nextInt(3) > 0) {
+                    if (expected.add(key)) {
+                        tree.insert(key);
+                    }
+                } else if (expected.remove(key)) {
+                    tree.delete(key);
+                }
+            }
+            for (int key = -1; key <= 2000; key++) {
+                assertEquals(expected.contains(key), tree.contains(key));
+            }
+            assertEquals(expected.size(), checkInvariants(tree.getRoot(), null, null, true));
+        }
+    }
+
+    /**
+     * Check key order, occupancy and subtree size of every node in subtree.
+     * <p>The root and the nodes on its right spine, which append splits may leave short,
+     * are exempt from the minimum occupancy, internal ones need a key.</p>
+     *
+     * @return amount of keys in subtree.
+     */
+    static <K extends Comparable<K>> int checkInvariants(AbstractBTreeNode<K> node, K low, K high, boolean rightSpine) {
+        int n = node.nkey();
+        assertTrue(n <= 2 * node.degree - 1);
+        assertTrue(rightSpine || n >= node.degree - 1);
+        assertTrue(node.isLeaf() || n > 0);
+        for (int i = 0; i < n; i++) {
+            K key = node.getKey(i);
+            assertTrue(i == 0 || node.getKey(i - 1).compareTo(key) < 0);
+            assertTrue(low == null || low.compareTo(key) < 0);
+            assertTrue(high == null || high.compareTo(key) > 0);
+        }
+        if (node.isLeaf()) {
+            assertEquals(n, node.size);
+            return n;
+        }
+        assertEquals(n + 1, node.nchild());
+        int count = n;
+        for (int i = 0; i <= n; i++) {
+            count += checkInvariants(node.getChild(i), i == 0 ? low : node.getKey(i - 1),
+                    i == n ? high : node.getKey(i), rightSpine && i == n);
+        }
+        assertEquals(count, node.size);
+        return count;
+    }
+
+    /**
+     * Check that all leaves of subtree are at the same depth.
+     *
+     * @return height of subtree.
+     */
+    static <K extends Comparable<K>> int checkHeight(AbstractBTreeNode<K> node) {
+        if (node.isLeaf()) {
+            return 0;
+        }
+        int height = checkHeight(node.getChild(0));
+        for (int i = 1; i < node.nchild(); i++) {
+            assertEquals(height, checkHeight(node.getChild(i)));
+        }
+        return height + 1;
+    }
+
 }
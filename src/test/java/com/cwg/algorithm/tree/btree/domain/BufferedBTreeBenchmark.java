@@ -0,0 +1,77 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Random;
+
+/**
+ * Random inserts per second and lookup latency of {@link BufferedBTree} at several buffer
+ * sizes against the plain {@link BTree}, both of degree 32, for 2M distinct keys.
+ * Lookups run with the buffers still holding their messages.
+ *
+ * 创建时间：2026-10-19 05:30
+ *
+ * @author 曹文岗
+ **/
+public class BufferedBTreeBenchmark {
+
+    private static final int SIZE = 2_000_000;
+    private static final int LOOKUPS = 1_000_000;
+    private static final int DEGREE = 32;
+
+    public static void main(String[] args) {
+        Integer[] keys = new Integer[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = i;
+        }
+        Random random = new Random(1);
+        for (int i = SIZE - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer t = keys[i];
+            keys[i] = keys[j];
+            keys[j] = t;
+        }
+        Integer[] probes = new Integer[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            probes[i] = random.nextInt(2 * SIZE);
+        }
+        for (int round = 0; round < 3; round++) {
+            BTree<Integer> plain = new BTree<>(DEGREE);
+            long start = System.nanoTime();
+            for (Integer key : keys) {
+                plain.insert(key);
+            }
+            long insert = System.nanoTime() - start;
+            int hits = 0;
+            start = System.nanoTime();
+            for (Integer probe : probes) {
+                if (plain.contains(probe)) {
+                    hits++;
+                }
+            }
+            long lookup = System.nanoTime() - start;
+            report("BTree", insert, lookup, hits);
+
+            for (int bufferSize : new int[]{16, 64, 256, 1024}) {
+                BufferedBTree<Integer> tree = new BufferedBTree<>(DEGREE, bufferSize);
+                start = System.nanoTime();
+                for (Integer key : keys) {
+                    tree.insert(key);
+                }
+                insert = System.nanoTime() - start;
+                hits = 0;
+                start = System.nanoTime();
+                for (Integer probe : probes) {
+                    if (tree.contains(probe)) {
+                        hits++;
+                    }
+                }
+                lookup = System.nanoTime() - start;
+                report("buffer " + bufferSize, insert, lookup, hits);
+            }
+        }
+    }
+
+    private static void report(String name, long insert, long lookup, int hits) {
+        System.out.printf("%-12s %6.2f M inserts/s  lookup %6.1f ns  (%d hits)%n",
+                name, SIZE / (insert / 1e3), (double) lookup / LOOKUPS, hits);
+    }
+}
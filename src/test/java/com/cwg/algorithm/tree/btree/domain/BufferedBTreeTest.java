@@ -0,0 +1,117 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-19 05:20
+ *
+ * @author 曹文岗
+ **/
+public class BufferedBTreeTest {
+
+    @Test
+    public void testMatchesTreeSet() {
+        for (int degree : new int[]{2, 3, 8}) {
+            for (int bufferSize : new int[]{1, 4, 64, 1000}) {
+                BufferedBTree<Integer> tree = new BufferedBTree<>(degree, bufferSize);
+                TreeSet<Integer> expected = new TreeSet<>();
+                Random random = new Random(degree * 31 + bufferSize);
+                for (int i = 0; i < 30000; i++) {
+                    int key = random.nextInt(5000);
+                    //phases of mostly inserts and mostly deletes
+                    if (random.nextInt(10) < ((i / 5000) % 2 == 0 ? 8 : 3)) {
+                        tree.insert(key);
+                        expected.add(key);
+                    } else {
+                        tree.delete(key);
+                        expected.remove(key);
+                    }
+                    if (i % 500 == 0) {
+                        check(tree.getRoot(), null, null, bufferSize, degree, true, false);
+                        for (int j = 0; j < 100; j++) {
+                            int probe = random.nextInt(5000);
+                            assertEquals(expected.contains(probe), tree.contains(probe));
+                        }
+                    }
+                    if (i % 7000 == 0) {
+                        assertEquals(expected.size(), tree.size());
+                        check(tree.getRoot(), null, null, bufferSize, degree, true, true);
+                    }
+                }
+                assertEquals(new ArrayList<>(expected), toList(tree));
+                assertEquals(expected.size(), tree.size());
+                check(tree.getRoot(), null, null, bufferSize, degree, true, true);
+            }
+        }
+    }
+
+    @Test
+    public void testDeleteEverything() {
+        BufferedBTree<Integer> tree = new BufferedBTree<>(3, 16);
+        for (int i = 0; i < 10000; i++) {
+            tree.insert(i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            tree.delete(i);
+        }
+        assertEquals(0, tree.size());
+        assertTrue(tree.getRoot().isLeaf());
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i);
+        }
+        assertEquals(100, tree.size());
+    }
+
+    /**
+     * Check separators, occupancy, buffer bounds and depth of subtree.
+     *
+     * @param flushed whether all buffers were flushed, then non-root nodes are at least half full.
+     * @return height of subtree.
+     */
+    private static int check(BufferedBTree.Node<Integer> node, Integer low, Integer high, int bufferSize,
+                             int degree, boolean root, boolean flushed) {
+        assertTrue(node.count() <= node.capacity(degree));
+        assertTrue(root || !flushed || node.count() >= node.minimum(degree));
+        for (int i = 0; i < node.nkey; i++) {
+            assertTrue(i == 0 || node.key(i - 1) < node.key(i));
+            assertTrue(low == null || low <= node.key(i));
+            assertTrue(high == null || high > node.key(i));
+        }
+        if (node.isLeaf()) {
+            return 0;
+        }
+        assertTrue(node.nmessage < bufferSize);
+        assertTrue(!flushed || node.nmessage == 0);
+        for (int i = 0; i < node.nmessage; i++) {
+            Integer key = (Integer) node.messages[i];
+            assertTrue(i == 0 || (Integer) node.messages[i - 1] < key);
+            assertTrue(low == null || low <= key);
+            assertTrue(high == null || high > key);
+        }
+        assertEquals(node.nkey + 1, node.nchild);
+        int height = -1;
+        for (int i = 0; i < node.nchild; i++) {
+            int h = check(node.children[i], i == 0 ? low : node.key(i - 1),
+                    i == node.nkey ? high : node.key(i), bufferSize, degree, false, flushed);
+            assertTrue(height < 0 || height == h);
+            height = h;
+        }
+        return height + 1;
+    }
+
+    private static List<Integer> toList(BufferedBTree<Integer> tree) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : tree) {
+            list.add(key);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,111 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput of {@link ConcurrentBTree}, a {@link BTree} behind one lock and
+ * {@link ConcurrentSkipListSet} with 1 to 32 threads and 100%, 90% and 50% lookups;
+ * the rest are inserts and deletes in equal parts on a prefilled key range.
+ *
+ * 创建时间：2026-10-19 01:40
+ *
+ * @author 曹文岗
+ **/
+public class ConcurrentBTreeBenchmark {
+
+    private static final int RANGE = 1_000_000;
+    private static final int MILLIS = 1000;
+
+    private interface IntSet {
+        boolean contains(int key);
+
+        boolean insert(int key);
+
+        boolean delete(int key);
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int readPercent : new int[]{100, 90, 50}) {
+            for (int threads : new int[]{1, 2, 4, 8, 16, 32}) {
+                ConcurrentBTree<Integer> concurrent = new ConcurrentBTree<>(32);
+                run("ConcurrentBTree", readPercent, threads, new IntSet() {
+                    public boolean contains(int key) {
+                        return concurrent.contains(key);
+                    }
+
+                    public boolean insert(int key) {
+                        return concurrent.insert(key);
+                    }
+
+                    public boolean delete(int key) {
+                        return concurrent.delete(key);
+                    }
+                });
+                BTree<Integer> locked = new BTree<>(32);
+                run("synchronized BTree", readPercent, threads, new IntSet() {
+                    public synchronized boolean contains(int key) {
+                        return locked.contains(key);
+                    }
+
+                    public synchronized boolean insert(int key) {
+                        return locked.insert(key);
+                    }
+
+                    public synchronized boolean delete(int key) {
+                        return locked.delete(key);
+                    }
+                });
+                ConcurrentSkipListSet<Integer> skipList = new ConcurrentSkipListSet<>();
+                run("ConcurrentSkipListSet", readPercent, threads, new IntSet() {
+                    public boolean contains(int key) {
+                        return skipList.contains(key);
+                    }
+
+                    public boolean insert(int key) {
+                        return skipList.add(key);
+                    }
+
+                    public boolean delete(int key) {
+                        return skipList.remove(key);
+                    }
+                });
+            }
+        }
+    }
+
+    private static void run(String name, int readPercent, int threads, IntSet set) throws Exception {
+        for (int key = 0; key < RANGE; key += 2) {
+            set.insert(key);
+        }
+        LongAdder ops = new LongAdder();
+        long deadline = System.currentTimeMillis() + MILLIS;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                while ((done & 0xff) != 0 || System.currentTimeMillis() < deadline) {
+                    int key = random.nextInt(RANGE);
+                    int dice = random.nextInt(100);
+                    if (dice < readPercent) {
+                        set.contains(key);
+                    } else if ((dice & 1) == 0) {
+                        set.insert(key);
+                    } else {
+                        set.delete(key);
+                    }
+                    done++;
+                }
+                ops.add(done);
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        System.out.printf("%-22s read %3d%%  %2d threads %12.0f ops/s%n",
+                name, readPercent, threads, ops.sum() * 1000.0 / MILLIS);
+    }
+}
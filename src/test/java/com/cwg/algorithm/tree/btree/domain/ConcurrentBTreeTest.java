@@ -0,0 +1,247 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-19 01:20
+ *
+ * @author 曹文岗
+ **/
+public class ConcurrentBTreeTest {
+
+    private static final int INSERT = 0;
+    private static final int DELETE = 1;
+    private static final int CONTAINS = 2;
+
+    @Test
+    public void testSequentialAgainstTreeSet() {
+        ConcurrentBTree<Integer> tree = new ConcurrentBTree<>(2);
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(4);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(3000);
+            switch (random.nextInt(3)) {
+                case INSERT:
+                    assertEquals(expected.add(key), tree.insert(key));
+                    break;
+                case DELETE:
+                    assertEquals(expected.remove(key), tree.delete(key));
+                    break;
+                default:
+                    assertEquals(expected.contains(key), tree.contains(key));
+            }
+        }
+        assertEquals(expected.size(), tree.size());
+        assertEquals(new ArrayList<>(expected), tree.keys());
+    }
+
+    @Test
+    public void testConcurrentDisjointWriters() throws Exception {
+        ConcurrentBTree<Integer> tree = new ConcurrentBTree<>(3);
+        int threads = 8;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    assertTrue(tree.insert(i * threads + offset));
+                }
+                for (int i = 0; i < 5000; i += 2) {
+                    assertTrue(tree.delete(i * threads + offset));
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        List<Integer> keys = tree.keys();
+        assertEquals(threads * 2500, keys.size());
+        assertEquals(keys.size(), tree.size());
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(keys.get(i - 1) < keys.get(i));
+            assertEquals(1, (keys.get(i) / threads) % 2);
+        }
+    }
+
+    @Test
+    public void testDeletesReclaimEmptyLeaves() throws Exception {
+        ConcurrentBTree<Integer> tree = new ConcurrentBTree<>(3);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            keys.add(i);
+        }
+        Collections.shuffle(keys, new Random(11));
+        for (Integer key : keys) {
+            assertTrue(tree.insert(key));
+        }
+        int nodes = tree.nodeCount();
+        int height = tree.height();
+        //the upper half, sequentially
+        for (Integer key : keys) {
+            if (key >= 10000) {
+                assertTrue(tree.delete(key));
+            }
+        }
+        assertEquals(10000, tree.size());
+        assertTrue(tree.nodeCount() < nodes * 3 / 4);
+        //the rest, by threads deleting interleaved keys
+        int threads = 4;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            workers[t] = new Thread(() -> {
+                for (int i = offset; i < 10000; i += threads) {
+                    assertTrue(tree.delete(i));
+                    assertTrue(!tree.contains(i));
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(0, tree.size());
+        assertTrue(tree.keys().isEmpty());
+        assertTrue(height > 0);
+        assertEquals(0, tree.height());
+        assertEquals(1, tree.nodeCount());
+        //and the tree grows again
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(tree.insert(i));
+        }
+        assertEquals(1000, tree.keys().size());
+    }
+
+    /**
+     * Threads run timed operations on a few contended keys while other threads split the
+     * tree around them; every key's history must have a sequential order consistent with
+     * real time and set semantics. Per-key checks suffice because linearizability is local.
+     */
+    @Test
+    public void testLinearizability() throws Exception {
+        Random seeds = new Random(8);
+        for (int round = 0; round < 40; round++) {
+            ConcurrentBTree<Integer> tree = new ConcurrentBTree<>(2);
+            int threads = 4;
+            int keys = 8;
+            List<List<long[]>> histories = new ArrayList<>();
+            CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+            Thread[] workers = new Thread[threads + 1];
+            for (int t = 0; t < threads; t++) {
+                List<long[]> history = new ArrayList<>();
+                histories.add(history);
+                long seed = seeds.nextLong();
+                workers[t] = new Thread(() -> {
+                    Random random = new Random(seed);
+                    await(barrier);
+                    for (int i = 0; i < 60; i++) {
+                        int key = random.nextInt(keys) * 1000;
+                        int op = random.nextInt(3);
+                        long start = System.nanoTime();
+                        boolean result = op == INSERT ? tree.insert(key)
+                                : op == DELETE ? tree.delete(key) : tree.contains(key);
+                        long end = System.nanoTime();
+                        history.add(new long[]{key, op, result ? 1 : 0, start, end});
+                    }
+                });
+            }
+            //noise: splits all over the key range while the checked keys are used
+            workers[threads] = new Thread(() -> {
+                await(barrier);
+                for (int i = 0; i < 8000; i++) {
+                    tree.insert(i % keys * 1000 + 1 + i / keys % 999);
+                }
+            });
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            for (int key = 0; key < keys; key++) {
+                List<long[]> ops = new ArrayList<>();
+                for (List<long[]> history : histories) {
+                    for (long[] op : history) {
+                        if (op[0] == key * 1000) {
+                            ops.add(op);
+                        }
+                    }
+                }
+                assertTrue(ops.size() < 64);
+                assertTrue("history of key " + key * 1000 + " is not linearizable",
+                        linearizable(ops, 0, false, new HashSet<>()));
+            }
+        }
+    }
+
+    /**
+     * Wing and Gong search: pick any pending operation that no other pending operation
+     * finished before, check its result against the current state and recurse.
+     */
+    private static boolean linearizable(List<long[]> ops, long done, boolean present, Set<List<Long>> seen) {
+        if (Long.bitCount(done) == ops.size()) {
+            return true;
+        }
+        List<Long> state = new ArrayList<>();
+        state.add(done);
+        state.add(present ? 1L : 0L);
+        if (!seen.add(state)) {
+            return false;
+        }
+        long minEnd = Long.MAX_VALUE;
+        for (int i = 0; i < ops.size(); i++) {
+            if ((done & 1L << i) == 0) {
+                minEnd = Math.min(minEnd, ops.get(i)[4]);
+            }
+        }
+        for (int i = 0; i < ops.size(); i++) {
+            long[] op = ops.get(i);
+            if ((done & 1L << i) != 0 || op[3] > minEnd) {
+                continue;
+            }
+            boolean result = op[2] == 1;
+            boolean after;
+            if (op[1] == INSERT) {
+                if (result == present) {
+                    continue;
+                }
+                after = true;
+            } else if (op[1] == DELETE) {
+                if (result != present) {
+                    continue;
+                }
+                after = false;
+            } else {
+                if (result != present) {
+                    continue;
+                }
+                after = present;
+            }
+            if (linearizable(ops, done | 1L << i, after, seen)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Inserts per second into a {@link DurableBTree} with 1, 4 and 16 writer threads for
+ * every {@link WriteAheadLog.Durability} mode, with the number of log forces.
+ *
+ * 创建时间：2026-10-18 23:50
+ *
+ * @author 曹文岗
+ **/
+public class DurableBTreeBenchmark {
+
+    private static final int MILLIS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        for (WriteAheadLog.Durability durability : WriteAheadLog.Durability.values()) {
+            for (int threads : new int[]{1, 4, 16}) {
+                Path directory = Files.createTempDirectory("durable-btree");
+                try (DurableBTree<Integer> tree = DurableBTree.open(directory, 32, KeyCodec.INTEGER, durability, 5)) {
+                    AtomicInteger next = new AtomicInteger();
+                    long deadline = System.currentTimeMillis() + MILLIS;
+                    Thread[] writers = new Thread[threads];
+                    for (int t = 0; t < threads; t++) {
+                        writers[t] = new Thread(() -> {
+                            while (System.currentTimeMillis() < deadline) {
+                                tree.insert(next.getAndIncrement());
+                            }
+                        });
+                        writers[t].start();
+                    }
+                    for (Thread writer : writers) {
+                        writer.join();
+                    }
+                    System.out.printf("%-8s %2d threads %10.0f ops/s  %7d forces%n", durability, threads,
+                            tree.size() * 1000.0 / MILLIS, tree.log().forces());
+                } finally {
+                    try (Stream<Path> files = Files.walk(directory)) {
+                        files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+                    }
+                }
+            }
+        }
+    }
+}
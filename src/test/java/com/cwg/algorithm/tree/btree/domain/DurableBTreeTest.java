@@ -0,0 +1,178 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 创建时间：2026-10-18 23:40
+ *
+ * @author 曹文岗
+ **/
+public class DurableBTreeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecoveryFromTruncatedLog() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        Random random = new Random(9);
+        TreeSet<Long> checkpointed = new TreeSet<>();
+        List<Long> ops = new ArrayList<>();
+        List<Long> ends = new ArrayList<>();
+        try (DurableBTree<Long> tree = DurableBTree.open(directory, 3, KeyCodec.LONG,
+                WriteAheadLog.Durability.PER_OP, 0)) {
+            for (int i = 0; i < 1000; i++) {
+                long key = random.nextInt(500);
+                if (random.nextBoolean()) {
+                    assertEquals(checkpointed.add(key), tree.insert(key));
+                } else {
+                    assertEquals(checkpointed.remove(key), tree.delete(key));
+                }
+            }
+            tree.checkpoint();
+            //positive key: insert, negative: delete of -key-1; only changes are logged
+            for (int i = 0; i < 1000; i++) {
+                long key = random.nextInt(500);
+                if (random.nextBoolean()) {
+                    if (tree.insert(key)) {
+                        ops.add(key);
+                        ends.add(Files.size(directory.resolve("btree.wal")));
+                    }
+                } else if (tree.delete(key)) {
+                    ops.add(-key - 1);
+                    ends.add(Files.size(directory.resolve("btree.wal")));
+                }
+            }
+            //crash: copy the files while the log is still open
+            long length = Files.size(directory.resolve("btree.wal"));
+            for (int round = 0; round < 60; round++) {
+                long cut = round == 0 ? length : round == 1 ? 7 : (long) (random.nextDouble() * length);
+                Path copy = folder.newFolder().toPath();
+                Files.copy(directory.resolve("btree.snapshot"), copy.resolve("btree.snapshot"));
+                Files.copy(directory.resolve("btree.wal"), copy.resolve("btree.wal"));
+                try (FileChannel channel = FileChannel.open(copy.resolve("btree.wal"), StandardOpenOption.WRITE)) {
+                    channel.truncate(cut);
+                }
+                TreeSet<Long> expected = new TreeSet<>(checkpointed);
+                for (int i = 0; i < ops.size() && ends.get(i) <= cut; i++) {
+                    long op = ops.get(i);
+                    if (op >= 0) {
+                        expected.add(op);
+                    } else {
+                        expected.remove(-op - 1);
+                    }
+                }
+                try (DurableBTree<Long> recovered = DurableBTree.open(copy, 2, KeyCodec.LONG,
+                        WriteAheadLog.Durability.PER_OP, 0)) {
+                    assertEquals(expected.size(), recovered.size());
+                    for (long key = 0; key < 500; key++) {
+                        assertEquals(expected.contains(key), recovered.contains(key));
+                    }
+                    //the recovered log accepts new records
+                    recovered.insert(1000L);
+                }
+                try (DurableBTree<Long> reopened = DurableBTree.open(copy, 2, KeyCodec.LONG,
+                        WriteAheadLog.Durability.PER_OP, 0)) {
+                    assertEquals(expected.size() + 1, reopened.size());
+                    assertTrue(reopened.contains(1000L));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRecoveryRejectsGenerationGap() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        Path stale = folder.newFolder().toPath().resolve("btree.snapshot");
+        try (DurableBTree<Long> tree = DurableBTree.open(directory, 3, KeyCodec.LONG,
+                WriteAheadLog.Durability.PER_OP, 0)) {
+            tree.insert(1L);
+            tree.checkpoint();
+            Files.copy(directory.resolve("btree.snapshot"), stale);
+            tree.insert(2L);
+            tree.checkpoint();
+            tree.insert(3L);
+        }
+        //the second snapshot's rename lost in a crash, while the log after it survived
+        Files.copy(stale, directory.resolve("btree.snapshot"), StandardCopyOption.REPLACE_EXISTING);
+        try {
+            DurableBTree.open(directory, 3, KeyCodec.LONG, WriteAheadLog.Durability.PER_OP, 0).close();
+            fail();
+        } catch (IOException e) {
+            //key 2 is in neither the snapshot nor the log
+        }
+    }
+
+    @Test
+    public void testConcurrentWritersInEveryMode() throws Exception {
+        for (WriteAheadLog.Durability durability : WriteAheadLog.Durability.values()) {
+            Path directory = folder.newFolder().toPath();
+            try (DurableBTree<Integer> tree = DurableBTree.open(directory, 4, KeyCodec.INTEGER, durability, 2)) {
+                Thread[] writers = new Thread[4];
+                for (int t = 0; t < writers.length; t++) {
+                    int offset = t;
+                    writers[t] = new Thread(() -> {
+                        for (int i = 0; i < 500; i++) {
+                            tree.insert(i * writers.length + offset);
+                        }
+                    });
+                    writers[t].start();
+                }
+                for (Thread writer : writers) {
+                    writer.join();
+                }
+                for (int i = 0; i < 2000; i += 3) {
+                    tree.delete(i);
+                }
+                if (durability == WriteAheadLog.Durability.PER_OP) {
+                    assertTrue(tree.log().forces() <= 2000 + 667);
+                }
+            }
+            try (DurableBTree<Integer> tree = DurableBTree.open(directory, 4, KeyCodec.INTEGER, durability, 2)) {
+                for (int i = 0; i < 2000; i++) {
+                    assertEquals(durability + " " + i, i % 3 != 0, tree.contains(i));
+                }
+                tree.checkpoint();
+                tree.insert(3);
+            }
+            try (DurableBTree<Integer> tree = DurableBTree.open(directory, 4, KeyCodec.INTEGER, durability, 2)) {
+                assertEquals(1334, tree.size());
+                assertTrue(tree.contains(3));
+            }
+        }
+    }
+
+    @Test
+    public void testSyncAndCloseForceInAsyncMode() throws Exception {
+        Path file = folder.newFolder().toPath().resolve("async.wal");
+        WriteAheadLog log = WriteAheadLog.create(file, 1, WriteAheadLog.Durability.ASYNC, 5);
+        log.commit(log.append((byte) 1, new byte[]{1, 2, 3}));
+        //the flusher writes the record without forcing it
+        Thread.sleep(100);
+        assertEquals(0, log.forces());
+        log.sync();
+        assertEquals(1, log.forces());
+
+        log.append((byte) 1, new byte[]{4});
+        Thread.sleep(100);
+        log.close();
+        assertEquals(2, log.forces());
+    }
+}
@@ -0,0 +1,76 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-18 16:55
+ *
+ * @author 曹文岗
+ **/
+public class IntBTreeTest {
+
+    @Test
+    public void testInsertDelete() {
+        IntBTree tree = new IntBTree(2);
+        int[] ks = new int[]{6, 18, 16, 22, 3, 12, 8, 10, 20, 21, 13, 17};
+        for (int key : ks) {
+            tree.insert(key);
+        }
+        for (int key : ks) {
+            assertTrue(tree.contains(key));
+        }
+        assertFalse(tree.contains(Integer.MIN_VALUE));
+        assertFalse(tree.contains(15));
+        for (int key : ks) {
+            tree.delete(key);
+            assertFalse(tree.contains(key));
+        }
+    }
+
+    @Test
+    public void testRandomInsertDelete() {
+        for (int degree : new int[]{2, 3, 7, 64}) {
+            Random random = new Random(degree);
+            IntBTree tree = new IntBTree(degree);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < 20000; i++) {
+                int key = random.nextInt(5000) * 3;
+                if (random.nextInt(3) > 0) {
+                    assertEquals(expected.add(key), tree.insert(key));
+                } else {
+                    assertEquals(expected.remove(key), tree.delete(key));
+                }
+                assertEquals(expected.size(), tree.size());
+            }
+            for (int i = 0; i < 5000; i++) {
+                int key = i * 3;
+                assertEquals(expected.contains(key), tree.contains(key));
+                assertFalse(tree.contains(key + 1));
+            }
+        }
+    }
+
+    @Test
+    public void testDuplicateKeys() {
+        IntBTree tree = new IntBTree(2);
+        for (int round = 0; round < 3; round++) {
+            for (int key = 0; key < 100; key++) {
+                assertEquals(round == 0, tree.insert(key));
+            }
+            assertEquals(100, tree.size());
+        }
+        for (int key = 0; key < 100; key++) {
+            assertTrue(tree.delete(key));
+            assertFalse(tree.contains(key));
+            assertFalse(tree.delete(key));
+        }
+        assertEquals(0, tree.size());
+    }
+}
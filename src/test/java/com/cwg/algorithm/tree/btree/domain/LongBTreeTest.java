@@ -0,0 +1,76 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-18 16:50
+ *
+ * @author 曹文岗
+ **/
+public class LongBTreeTest {
+
+    @Test
+    public void testInsertDelete() {
+        LongBTree tree = new LongBTree(2);
+        long[] ks = new long[]{6, 18, 16, 22, 3, 12, 8, 10, 20, 21, 13, 17};
+        for (long key : ks) {
+            tree.insert(key);
+        }
+        for (long key : ks) {
+            assertTrue(tree.contains(key));
+        }
+        assertFalse(tree.contains(Long.MIN_VALUE));
+        assertFalse(tree.contains(15));
+        for (long key : ks) {
+            tree.delete(key);
+            assertFalse(tree.contains(key));
+        }
+    }
+
+    @Test
+    public void testRandomInsertDelete() {
+        for (int degree : new int[]{2, 3, 7, 64}) {
+            Random random = new Random(degree);
+            LongBTree tree = new LongBTree(degree);
+            TreeSet<Long> expected = new TreeSet<>();
+            for (int i = 0; i < 20000; i++) {
+                long key = random.nextInt(5000) * 1_000_000_007L;
+                if (random.nextInt(3) > 0) {
+                    assertEquals(expected.add(key), tree.insert(key));
+                } else {
+                    assertEquals(expected.remove(key), tree.delete(key));
+                }
+                assertEquals(expected.size(), tree.size());
+            }
+            for (int i = 0; i < 5000; i++) {
+                long key = i * 1_000_000_007L;
+                assertEquals(expected.contains(key), tree.contains(key));
+                assertFalse(tree.contains(key + 1));
+            }
+        }
+    }
+
+    @Test
+    public void testDuplicateKeys() {
+        LongBTree tree = new LongBTree(2);
+        for (int round = 0; round < 3; round++) {
+            for (long key = 0; key < 100; key++) {
+                assertEquals(round == 0, tree.insert(key));
+            }
+            assertEquals(100, tree.size());
+        }
+        for (long key = 0; key < 100; key++) {
+            assertTrue(tree.delete(key));
+            assertFalse(tree.contains(key));
+            assertFalse(tree.delete(key));
+        }
+        assertEquals(0, tree.size());
+    }
+}
@@ -0,0 +1,108 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Startup time and heap of serving an index by rebuilding a {@link BTree} from its keys
+ * (insert and bulk load) against mapping the file written by {@link BTree#writeTo}, plus
+ * random lookup time of each.
+ *
+ * 创建时间：2026-10-19 00:40
+ *
+ * @author 曹文岗
+ **/
+public class MappedBTreeBenchmark {
+
+    private static final int SIZE = 5_000_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        long[] keys = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = i * 7L;
+        }
+        Path file = Files.createTempFile("mapped-btree", ".idx");
+        try {
+            BTree<Long> source = new BTree<>(64);
+            for (long key : keys) {
+                source.insert(key);
+            }
+            source.writeTo(file);
+            source = null;
+            System.out.printf("file %.1f MB%n", Files.size(file) / 1e6);
+
+            for (int round = 0; round < 3; round++) {
+                long heap = usedHeap();
+                long start = System.nanoTime();
+                BTree<Long> inserted = new BTree<>(64);
+                for (long key : keys) {
+                    inserted.insert(key);
+                }
+                report("rebuild insert", start, heap);
+                lookups("  lookup", key -> inserted.contains(key));
+
+                heap = usedHeap();
+                start = System.nanoTime();
+                BTree<Long> loaded = new BTree<>(64);
+                loaded.bulkLoad(new Iterator<Long>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Long next() {
+                        return keys[next++];
+                    }
+                }, 1.0);
+                report("rebuild bulkLoad", start, heap);
+
+                heap = usedHeap();
+                start = System.nanoTime();
+                MappedBTree mapped = MappedBTree.open(file);
+                mapped.contains(0);
+                report("mmap open", start, heap);
+                lookups("  lookup", mapped::contains);
+                if (inserted.size() + loaded.size() != 2 * mapped.size()) {
+                    throw new IllegalStateException();
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private interface Lookup {
+        boolean contains(long key);
+    }
+
+    private static void lookups(String name, Lookup lookup) {
+        Random random = new Random(3);
+        long start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (lookup.contains(random.nextInt(SIZE * 7))) {
+                found++;
+            }
+        }
+        System.out.printf("%-18s %8.1f ns/op  (%d)%n", name, (double) (System.nanoTime() - start) / LOOKUPS, found & 1);
+    }
+
+    private static void report(String name, long start, long heapBefore) {
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-18s %8.1f ms  heap +%.1f MB%n", name, nanos / 1e6, (usedHeap() - heapBefore) / 1e6);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
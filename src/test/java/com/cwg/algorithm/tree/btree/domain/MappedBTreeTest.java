@@ -0,0 +1,86 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * 创建时间：2026-10-19 00:30
+ *
+ * @author 曹文岗
+ **/
+public class MappedBTreeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSearchAndRanges() throws IOException {
+        Random random = new Random(17);
+        //empty, one page, page boundaries, two and three levels
+        for (int n : new int[]{0, 1, 511, 512, 513, 1024, 5000, 512 * 512 + 7}) {
+            TreeSet<Long> expected = new TreeSet<>();
+            BTree<Long> tree = new BTree<>(8);
+            while (expected.size() < n) {
+                long key = random.nextInt(n * 4) - n;
+                expected.add(key);
+                tree.insert(key);
+            }
+            Path file = folder.newFile().toPath();
+            tree.writeTo(file);
+            assertEquals(0, Files.size(file) % MappedBTree.PAGE_SIZE);
+
+            MappedBTree mapped = MappedBTree.open(file);
+            assertEquals(n, mapped.size());
+            long index = 0;
+            for (long key : expected) {
+                assertEquals(key, mapped.keyAt(index++));
+            }
+            for (int i = 0; i < 2000; i++) {
+                long probe = random.nextInt(n * 4 + 10) - n - 5;
+                assertEquals(expected.contains(probe), mapped.contains(probe));
+                assertEquals(expected.headSet(probe).size(), mapped.rank(probe));
+            }
+            for (int i = 0; i < 50; i++) {
+                long from = random.nextInt(n * 4 + 10) - n - 5;
+                long to = from + random.nextInt(2000);
+                assertEquals(expected.subSet(from, to).size(), mapped.count(from, to));
+                PrimitiveIterator.OfLong it = mapped.range(from, to);
+                for (long key : expected.subSet(from, to)) {
+                    assertEquals(key, it.nextLong());
+                }
+                assertFalse(it.hasNext());
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsNonIntegralKeys() throws IOException {
+        BTree<String> tree = new BTree<>(2);
+        tree.insert("a");
+        try {
+            tree.writeTo(folder.newFile().toPath());
+            fail();
+        } catch (UnsupportedOperationException expected) {
+            //keys must be fixed width
+        }
+        BTree<Integer> ints = new BTree<>(2);
+        for (int i = 0; i < 100; i++) {
+            ints.insert(i - 50);
+        }
+        Path file = folder.newFile().toPath();
+        ints.writeTo(file);
+        assertEquals(-50, MappedBTree.open(file).keyAt(0));
+    }
+}
@@ -0,0 +1,108 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import com.cwg.algorithm.tree.rbtree.domain.RBTree;
+
+import java.util.Random;
+
+/**
+ * Cost of keeping subtree sizes on writes and what it buys: random inserts and deletes
+ * per key on {@link BTree} and {@link RBTree}, then {@link BTree#rank} and
+ * {@link BTree#countRange} (and their RBTree twins) against counting the same keys with
+ * an in-order walk.
+ *
+ * 创建时间：2026-10-19 04:20
+ *
+ * @author 曹文岗
+ **/
+public class OrderStatisticBenchmark {
+
+    private static final int SIZE = 1_000_000;
+    private static final int QUERIES = 100_000;
+    private static final int LINEAR_QUERIES = 50;
+
+    public static void main(String[] args) {
+        int[] keys = new int[SIZE];
+        Random random = new Random(1);
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = random.nextInt(4 * SIZE);
+        }
+        for (int round = 0; round < 3; round++) {
+            BTree<Integer> bTree = new BTree<>(32);
+            long start = System.nanoTime();
+            for (int key : keys) {
+                bTree.insert(key);
+            }
+            long bInsert = System.nanoTime() - start;
+            RBTree<Integer> rbTree = new RBTree<>();
+            start = System.nanoTime();
+            for (int key : keys) {
+                rbTree.insert(key);
+            }
+            long rbInsert = System.nanoTime() - start;
+            System.out.printf("insert  btree %6.1f ns/op  rbtree %6.1f ns/op%n",
+                    (double) bInsert / SIZE, (double) rbInsert / SIZE);
+
+            long sink = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                int from = random.nextInt(4 * SIZE);
+                sink += bTree.countRange(from, from + random.nextInt(SIZE));
+            }
+            long bCount = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                int from = random.nextInt(4 * SIZE);
+                sink += rbTree.countRange(from, from + random.nextInt(SIZE));
+            }
+            long rbCount = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < LINEAR_QUERIES; i++) {
+                int from = random.nextInt(4 * SIZE);
+                sink += linearCount(bTree, from, from + random.nextInt(SIZE));
+            }
+            long linear = System.nanoTime() - start;
+            System.out.printf("count   btree %6.1f ns/op  rbtree %6.1f ns/op  linear %10.0f ns/op  speedup %6.0fx%n",
+                    (double) bCount / QUERIES, (double) rbCount / QUERIES, (double) linear / LINEAR_QUERIES,
+                    ((double) linear / LINEAR_QUERIES) / ((double) bCount / QUERIES));
+
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                sink += bTree.select(random.nextInt(bTree.size()));
+            }
+            long bSelect = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                sink += rbTree.select(random.nextInt(rbTree.size()));
+            }
+            long rbSelect = System.nanoTime() - start;
+            System.out.printf("select  btree %6.1f ns/op  rbtree %6.1f ns/op%n",
+                    (double) bSelect / QUERIES, (double) rbSelect / QUERIES);
+
+            start = System.nanoTime();
+            for (int key : keys) {
+                bTree.delete(key);
+            }
+            long bDelete = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int key : keys) {
+                rbTree.remove(key);
+            }
+            long rbDelete = System.nanoTime() - start;
+            System.out.printf("delete  btree %6.1f ns/op  rbtree %6.1f ns/op  (%d)%n",
+                    (double) bDelete / SIZE, (double) rbDelete / SIZE, sink);
+        }
+    }
+
+    private static int linearCount(BTree<Integer> tree, int from, int to) {
+        int count = 0;
+        for (Integer key : tree) {
+            if (key >= to) {
+                break;
+            }
+            if (key >= from) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,67 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Random and sequential lookups on a {@link PagedBTree} of 4KB pages with buffer pools
+ * holding from a few percent to all of the file, reporting time and pool counters.
+ *
+ * 创建时间：2026-10-18 22:30
+ *
+ * @author 曹文岗
+ **/
+public class PagedBTreeBenchmark {
+
+    private static final int SIZE = 2_000_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        Path file = Files.createTempFile("paged-btree", ".db");
+        try {
+            long pages;
+            try (PagedBTree tree = PagedBTree.open(file, 4096, 256)) {
+                Random random = new Random(11);
+                for (int i = 0; i < SIZE; i++) {
+                    tree.insert(random.nextInt(SIZE * 4));
+                }
+                pages = tree.bufferPool().pageCount();
+                System.out.printf("%d keys, %d pages, degree %d%n", tree.size(), pages, tree.degree());
+            }
+            for (double share : new double[]{0.02, 0.1, 0.5, 1.1}) {
+                int poolPages = (int) Math.max(4, pages * share);
+                try (PagedBTree tree = PagedBTree.open(file, 4096, poolPages)) {
+                    Random random = new Random(13);
+                    lookup("random     pool " + poolPages, tree, i -> random.nextInt(SIZE * 4));
+                    lookup("sequential pool " + poolPages, tree, i -> i * 4L);
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private interface KeySource {
+        long key(int i);
+    }
+
+    private static void lookup(String name, PagedBTree tree, KeySource keys) {
+        BufferPool pool = tree.bufferPool();
+        for (int i = 0; i < LOOKUPS / 10; i++) {
+            tree.contains(keys.key(i));
+        }
+        pool.resetStats();
+        long start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (tree.contains(keys.key(i))) {
+                found++;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        double hitRate = (double) pool.hits() / (pool.hits() + pool.misses());
+        System.out.printf("%-24s %8.1f ns/op  hit %5.1f%%  misses %8d  evictions %8d  (%d)%n",
+                name, (double) nanos / LOOKUPS, hitRate * 100, pool.misses(), pool.evictions(), found & 1);
+    }
+}
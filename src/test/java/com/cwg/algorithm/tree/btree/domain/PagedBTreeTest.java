@@ -0,0 +1,96 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-18 22:20
+ *
+ * @author 曹文岗
+ **/
+public class PagedBTreeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRandomOperationsWithSmallPool() throws IOException {
+        Path file = folder.newFile().toPath();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(3);
+        //degree 2 pages, 8 frames: the tree ends up hundreds of times larger than the pool
+        try (PagedBTree tree = PagedBTree.open(file, 64, 8)) {
+            for (int i = 0; i < 30000; i++) {
+                long key = random.nextInt(5000);
+                if (random.nextInt(3) > 0) {
+                    assertEquals(expected.add(key), tree.insert(key));
+                } else {
+                    assertEquals(expected.remove(key), tree.delete(key));
+                }
+                assertEquals(0, tree.bufferPool().pinned());
+            }
+            assertEquals(expected.size(), tree.size());
+            assertTrue(tree.bufferPool().pageCount() > 10 * tree.bufferPool().capacity());
+            for (long key = -1; key <= 5000; key++) {
+                assertEquals(expected.contains(key), tree.contains(key));
+            }
+            assertTrue(tree.bufferPool().evictions() > 0);
+            assertTrue(tree.bufferPool().writes() > 0);
+        }
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        Path file = folder.newFile().toPath();
+        try (PagedBTree tree = PagedBTree.open(file, 128, 4)) {
+            for (long key = 0; key < 2000; key++) {
+                tree.insert(key * 7);
+            }
+            for (long key = 0; key < 2000; key += 2) {
+                tree.delete(key * 7);
+            }
+        }
+        long pages;
+        try (PagedBTree tree = PagedBTree.open(file, 128, 16)) {
+            assertEquals(1000, tree.size());
+            for (long key = 0; key < 2000; key++) {
+                assertEquals(key % 2 == 1, tree.contains(key * 7));
+            }
+            pages = tree.bufferPool().pageCount();
+            //freed pages are reused
+            for (long key = 0; key < 2000; key += 2) {
+                tree.insert(key * 7);
+            }
+            assertEquals(2000, tree.size());
+            assertTrue(tree.bufferPool().pageCount() <= pages + 1);
+        }
+    }
+
+    @Test
+    public void testPoolCounters() throws IOException {
+        Path file = folder.newFile().toPath();
+        try (PagedBTree tree = PagedBTree.open(file, 4096, 64)) {
+            for (long key = 0; key < 1000; key++) {
+                tree.insert(key);
+            }
+            BufferPool pool = tree.bufferPool();
+            pool.resetStats();
+            for (long key = 0; key < 1000; key++) {
+                assertTrue(tree.contains(key));
+            }
+            //everything fits in the pool
+            assertEquals(0, pool.misses());
+            assertEquals(0, pool.evictions());
+            assertTrue(pool.hits() >= 1000);
+        }
+    }
+}
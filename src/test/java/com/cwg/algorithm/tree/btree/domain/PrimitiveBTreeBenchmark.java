@@ -0,0 +1,78 @@
+package com.cwg.algorithm.tree.btree.domain;
+
+import java.util.Random;
+
+/**
+ * Compare {@link LongBTree} with {@code BTree<Long>}: heap bytes per key and lookup ns/op.
+ * <p>Heap is measured as used heap after {@code System.gc()} before and after building,
+ * so run it alone with a fixed heap, e.g. {@code -Xms2g -Xmx2g}.</p>
+ *
+ * 创建时间：2026-10-18 17:00
+ *
+ * @author 曹文岗
+ **/
+public class PrimitiveBTreeBenchmark {
+
+    private static final int SIZE = 2_000_000;
+    private static final int LOOKUPS = 2_000_000;
+    private static final int DEGREE = 64;
+
+    public static void main(String[] args) {
+        Random random = new Random(7);
+        long[] data = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            data[i] = random.nextLong();
+        }
+        long[] probes = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            probes[i] = random.nextBoolean() ? data[random.nextInt(SIZE)] : random.nextLong();
+        }
+
+        long before = usedHeap();
+        BTree<Long> boxed = new BTree<>(DEGREE);
+        for (long key : data) {
+            boxed.insert(key);
+        }
+        double boxedBytes = (double) (usedHeap() - before) / SIZE;
+
+        before = usedHeap();
+        LongBTree primitive = new LongBTree(DEGREE);
+        for (long key : data) {
+            primitive.insert(key);
+        }
+        double primitiveBytes = (double) (usedHeap() - before) / SIZE;
+
+        System.out.printf("heap bytes/key    BTree<Long> %6.1f   LongBTree %6.1f   ratio %.2fx%n",
+                boxedBytes, primitiveBytes, boxedBytes / primitiveBytes);
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (long probe : probes) {
+                if (boxed.contains(probe)) {
+                    found++;
+                }
+            }
+            double boxedNs = (double) (System.nanoTime() - start) / LOOKUPS;
+
+            start = System.nanoTime();
+            int found2 = 0;
+            for (long probe : probes) {
+                if (primitive.contains(probe)) {
+                    found2++;
+                }
+            }
+            double primitiveNs = (double) (System.nanoTime() - start) / LOOKUPS;
+            System.out.printf("round %d lookup ns BTree<Long> %6.1f   LongBTree %6.1f   (found %d/%d)%n",
+                    round, boxedNs, primitiveNs, found, found2);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,101 @@
+package com.cwg.algorithm.tree.rbtree.domain;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Compare {@link LongRBTree} with {@code RBTree<Long>} and {@code TreeMap<Long, Boolean>}:
+ * heap bytes per key, insert ns/op while building and lookup ns/op (half hits).
+ * <p>Heap is measured as used heap after {@code System.gc()} before and after building,
+ * so run it alone with a fixed heap, e.g. {@code -Xms3g -Xmx3g}.</p>
+ *
+ * 创建时间：2026-10-19 08:05
+ *
+ * @author 曹文岗
+ **/
+public class LongRBTreeBenchmark {
+
+    private static final int SIZE = 4_000_000;
+    private static final int LOOKUPS = 4_000_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(7);
+        long[] data = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            data[i] = random.nextLong();
+        }
+        long[] probes = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            probes[i] = random.nextBoolean() ? data[random.nextInt(SIZE)] : random.nextLong();
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long before = usedHeap();
+            long start = System.nanoTime();
+            RBTree<Long> boxed = new RBTree<>();
+            for (long key : data) {
+                boxed.insert(key);
+            }
+            double insertNs = (double) (System.nanoTime() - start) / SIZE;
+            double bytes = (double) (usedHeap() - before) / SIZE;
+            start = System.nanoTime();
+            int found = 0;
+            for (long probe : probes) {
+                if (boxed.contains(probe)) {
+                    found++;
+                }
+            }
+            print("RBTree<Long>", bytes, insertNs, (double) (System.nanoTime() - start) / LOOKUPS, found);
+            boxed = null;
+
+            before = usedHeap();
+            start = System.nanoTime();
+            TreeMap<Long, Boolean> map = new TreeMap<>();
+            for (long key : data) {
+                map.put(key, Boolean.TRUE);
+            }
+            insertNs = (double) (System.nanoTime() - start) / SIZE;
+            bytes = (double) (usedHeap() - before) / SIZE;
+            start = System.nanoTime();
+            found = 0;
+            for (long probe : probes) {
+                if (map.containsKey(probe)) {
+                    found++;
+                }
+            }
+            print("TreeMap", bytes, insertNs, (double) (System.nanoTime() - start) / LOOKUPS, found);
+            map = null;
+
+            before = usedHeap();
+            start = System.nanoTime();
+            LongRBTree primitive = new LongRBTree();
+            for (long key : data) {
+                primitive.insert(key);
+            }
+            insertNs = (double) (System.nanoTime() - start) / SIZE;
+            bytes = (double) (usedHeap() - before) / SIZE;
+            start = System.nanoTime();
+            found = 0;
+            for (long probe : probes) {
+                if (primitive.contains(probe)) {
+                    found++;
+                }
+            }
+            print("LongRBTree", bytes, insertNs, (double) (System.nanoTime() - start) / LOOKUPS, found);
+            primitive = null;
+        }
+    }
+
+    private static void print(String name, double bytes, double insertNs, double lookupNs, int found) {
+        System.out.printf("%-13s heap %6.1f bytes/key   insert %6.1f ns   lookup %6.1f ns   (found %d)%n",
+                name, bytes, insertNs, lookupNs, found);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
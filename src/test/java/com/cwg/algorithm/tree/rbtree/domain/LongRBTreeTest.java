@@ -0,0 +1,99 @@
+package com.cwg.algorithm.tree.rbtree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-19 07:55
+ *
+ * @author 曹文岗
+ **/
+public class LongRBTreeTest {
+
+    @Test
+    public void matchesSortedList() {
+        LongRBTree tree = new LongRBTree(0);
+        List<Long> expected = new ArrayList<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 30000; i++) {
+            long key = random.nextInt(2000) - 1000;
+            if (random.nextInt(3) > 0) {
+                tree.insert(key);
+                int at = Collections.binarySearch(expected, key);
+                expected.add(at >= 0 ? at : -at - 1, key);
+            } else {
+                assertEquals(expected.remove(key), tree.remove(key));
+            }
+            if (i % 1000 == 0) {
+                check(tree, expected);
+                for (int j = 0; j < 100; j++) {
+                    long probe = random.nextInt(2200) - 1100;
+                    assertEquals(expected.contains(probe), tree.contains(probe));
+                }
+            }
+        }
+        check(tree, expected);
+        //empty the tree, then refill it from the free list
+        for (Long key : new ArrayList<>(expected)) {
+            assertTrue(tree.remove(key));
+        }
+        assertTrue(tree.isEmpty());
+        assertFalse(tree.contains(0));
+        for (long key = 0; key < 1000; key++) {
+            tree.insert(Long.MAX_VALUE - key);
+            tree.insert(Long.MIN_VALUE + key);
+        }
+        assertEquals(2000, tree.size());
+        assertEquals(Long.MIN_VALUE, tree.toArray()[0]);
+        assertEquals(Long.MAX_VALUE, tree.toArray()[1999]);
+        checkNode(tree, tree.root());
+    }
+
+    private static void check(LongRBTree tree, List<Long> expected) {
+        assertEquals(expected.size(), tree.size());
+        long[] keys = new long[expected.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = expected.get(i);
+        }
+        assertArrayEquals(keys, tree.toArray());
+        assertFalse(tree.isRed(tree.root()));
+        checkNode(tree, tree.root());
+    }
+
+    /**
+     * Check parent links, key order, red children and black heights.
+     *
+     * @return black height of subtree.
+     */
+    private static int checkNode(LongRBTree tree, int node) {
+        if (node == 0) {
+            return 1;
+        }
+        int left = tree.left(node);
+        int right = tree.right(node);
+        if (left != 0) {
+            assertEquals(node, tree.parent(left));
+            assertTrue(tree.key(left) <= tree.key(node));
+        }
+        if (right != 0) {
+            assertEquals(node, tree.parent(right));
+            assertTrue(tree.key(right) >= tree.key(node));
+        }
+        if (tree.isRed(node)) {
+            assertFalse(tree.isRed(left));
+            assertFalse(tree.isRed(right));
+        }
+        int height = checkNode(tree, left);
+        assertEquals(height, checkNode(tree, right));
+        return height + (tree.isRed(node) ? 0 : 1);
+    }
+}
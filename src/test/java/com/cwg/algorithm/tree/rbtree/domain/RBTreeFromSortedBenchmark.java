@@ -0,0 +1,71 @@
+package com.cwg.algorithm.tree.rbtree.domain;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * Building a tree from 4M sorted keys: {@link RBTree#fromSorted} against inserting the keys
+ * one by one into {@code RBTree}, and against {@code new TreeMap<>(SortedMap)}, which builds
+ * from sorted input the same way. Keys are boxed up front and shared by all builds; the
+ * source map of the TreeMap copy is built outside the timing, and garbage of the previous
+ * build is collected before each one.
+ *
+ * 创建时间：2026-10-19 10:05
+ *
+ * @author 曹文岗
+ **/
+public class RBTreeFromSortedBenchmark {
+
+    private static final int SIZE = 4_000_000;
+
+    public static void main(String[] args) {
+        Integer[] keys = new Integer[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = 3 * i;
+        }
+        TreeMap<Integer, Boolean> source = new TreeMap<>();
+        for (Integer key : keys) {
+            source.put(key, Boolean.TRUE);
+        }
+        for (int round = 0; round < 5; round++) {
+            gc();
+            long start = System.nanoTime();
+            RBTree<Integer> built = RBTree.fromSorted(Arrays.asList(keys).iterator(), SIZE);
+            long fromSorted = System.nanoTime() - start;
+            int builtHeight = height(built.getMRoot());
+            built = null;
+
+            gc();
+            start = System.nanoTime();
+            RBTree<Integer> inserted = new RBTree<>();
+            for (Integer key : keys) {
+                inserted.insert(key);
+            }
+            long insert = System.nanoTime() - start;
+            int insertedHeight = height(inserted.getMRoot());
+            inserted = null;
+
+            gc();
+            start = System.nanoTime();
+            TreeMap<Integer, Boolean> copy = new TreeMap<>(source);
+            long treeMap = System.nanoTime() - start;
+            int copied = copy.size();
+            copy = null;
+
+            System.out.printf("round %d  ns/key  fromSorted %5.1f (height %d)   insert %6.1f (height %d)"
+                            + "   TreeMap(SortedMap) %5.1f  (%d)%n", round,
+                    (double) fromSorted / SIZE, builtHeight, (double) insert / SIZE, insertedHeight,
+                    (double) treeMap / SIZE, copied);
+        }
+    }
+
+    private static void gc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+    }
+
+    private static int height(RBTree<Integer>.RBTNode<Integer> node) {
+        return node == null ? 0 : 1 + Math.max(height(node.getLeft()), height(node.getRight()));
+    }
+}
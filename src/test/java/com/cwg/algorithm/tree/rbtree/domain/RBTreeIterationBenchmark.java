@@ -0,0 +1,86 @@
+package com.cwg.algorithm.tree.rbtree.domain;
+
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Iteration of {@link RBTree} against {@link TreeSet} holding the same 1M random keys:
+ * full ascending and descending scans, and short scans of subSet views of about 100 keys
+ * starting at random keys, where finding the start and the fence dominates.
+ *
+ * 创建时间：2026-10-19 09:00
+ *
+ * @author 曹文岗
+ **/
+public class RBTreeIterationBenchmark {
+
+    private static final int SIZE = 1_000_000;
+    private static final int RANGES = 200_000;
+    private static final int RANGE = 200;
+
+    public static void main(String[] args) {
+        Random random = new Random(5);
+        RBTree<Integer> tree = new RBTree<>();
+        TreeSet<Integer> treeSet = new TreeSet<>();
+        for (int i = 0; i < SIZE; i++) {
+            int key = random.nextInt(2 * SIZE);
+            tree.add(key);
+            treeSet.add(key);
+        }
+        int[] starts = new int[RANGES];
+        for (int i = 0; i < RANGES; i++) {
+            starts[i] = random.nextInt(2 * SIZE);
+        }
+        for (int round = 0; round < 5; round++) {
+            System.out.printf("round %d  full scan ms  RBTree %6.1f  TreeSet %6.1f   descending  RBTree %6.1f  TreeSet %6.1f"
+                            + "   subSet scans ns/key  RBTree %5.1f  TreeSet %5.1f%n", round,
+                    fullScan(tree) / 1e6, fullScan(treeSet) / 1e6,
+                    descendingScan(tree) / 1e6, descendingScan(treeSet) / 1e6,
+                    rangeScans(tree, starts), rangeScans(treeSet, starts));
+        }
+    }
+
+    private static long fullScan(NavigableSet<Integer> set) {
+        long start = System.nanoTime();
+        long sum = 0;
+        for (Integer key : set) {
+            sum += key;
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(sum);
+        return elapsed;
+    }
+
+    private static long descendingScan(NavigableSet<Integer> set) {
+        long start = System.nanoTime();
+        long sum = 0;
+        for (Integer key : set.descendingSet()) {
+            sum += key;
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(sum);
+        return elapsed;
+    }
+
+    private static double rangeScans(NavigableSet<Integer> set, int[] starts) {
+        long start = System.nanoTime();
+        long sum = 0;
+        long keys = 0;
+        for (int from : starts) {
+            for (Integer key : set.subSet(from, true, from + RANGE, false)) {
+                sum += key;
+                keys++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(sum);
+        return (double) elapsed / keys;
+    }
+
+    private static void consume(long sum) {
+        if (sum == 42) {
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.cwg.algorithm.tree.rbtree.domain;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Counting a Zipfian stream of keys (exponent 1, 1M distinct keys, 5M events) three ways:
+ * {@code RBTree} keeping every event as its own node in chains of duplicate keys, as insert
+ * did before it took set semantics ({@link RBTree#insertDuplicate}, counts are a difference of
+ * two ranks), a {@code TreeMap<Integer, Integer>} of counts, and {@code RBTree} in counted
+ * multiset mode. Reported: heap after counting, insert ns/event, and ns per count lookup of a
+ * key drawn from the same stream. Keys are boxed up front and shared by all three.
+ * <p>Heap is measured as the used heap (after {@code System.gc()}) freed by dropping the
+ * counts, so run it alone with a fixed heap, e.g. {@code -Xms3g -Xmx3g}. The first of the
+ * three rounds warms up the JIT and its numbers are not reliable.</p>
+ *
+ * 创建时间：2026-10-19 09:35
+ *
+ * @author 曹文岗
+ **/
+public class RBTreeMultisetBenchmark {
+
+    private static final int KEYS = 1_000_000;
+    private static final int EVENTS = 5_000_000;
+    private static final int COUNTS = 1_000_000;
+
+    /**
+     * The counts being measured; only this field holds them, so dropping it frees them.
+     */
+    private static Object retained;
+
+    public static void main(String[] args) {
+        Integer[] keys = new Integer[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = i;
+        }
+        Random random = new Random(11);
+        Integer[] events = zipf(keys, EVENTS, random);
+        Integer[] probes = zipf(keys, COUNTS, random);
+        for (int round = 0; round < 3; round++) {
+            run(false, events, probes);
+            runTreeMap(events, probes);
+            run(true, events, probes);
+        }
+    }
+
+    private static void runTreeMap(Integer[] events, Integer[] probes) {
+        long start = System.nanoTime();
+        retained = countWithTreeMap(events);
+        double insertNs = (double) (System.nanoTime() - start) / events.length;
+        long withCounts = usedHeap();
+        start = System.nanoTime();
+        long counted = probeTreeMap(treeMap(), probes);
+        double countNs = (double) (System.nanoTime() - start) / probes.length;
+        int nodes = treeMap().size();
+        retained = null;
+        double megabytes = (withCounts - usedHeap()) / 1e6;
+        System.out.printf("%-10s nodes %8d  heap %6.1f MB  insert %6.1f ns/event  count %6.1f ns  (%d)%n",
+                "TreeMap", nodes, megabytes, insertNs, countNs, counted);
+    }
+
+    private static void run(boolean multiset, Integer[] events, Integer[] probes) {
+        long start = System.nanoTime();
+        retained = multiset ? countWithMultiset(events) : countWithDuplicates(events);
+        double insertNs = (double) (System.nanoTime() - start) / events.length;
+        long withCounts = usedHeap();
+        start = System.nanoTime();
+        long counted = multiset ? probeMultiset(multiset(), probes) : probeDuplicates(multiset(), probes);
+        double countNs = (double) (System.nanoTime() - start) / probes.length;
+        int nodes = multiset().size();
+        long total = multiset().totalSize();
+        int height = height(multiset().getMRoot());
+        retained = null;
+        double megabytes = (withCounts - usedHeap()) / 1e6;
+        System.out.printf("%-10s nodes %8d  heap %6.1f MB  insert %6.1f ns/event  count %6.1f ns  (%d)"
+                        + "  total %d  height %d%n",
+                multiset ? "multiset" : "duplicates", nodes, megabytes, insertNs, countNs, counted, total, height);
+    }
+
+    private static TreeMap<Integer, Integer> countWithTreeMap(Integer[] events) {
+        TreeMap<Integer, Integer> counts = new TreeMap<>();
+        for (Integer key : events) {
+            counts.merge(key, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static long probeTreeMap(TreeMap<Integer, Integer> counts, Integer[] probes) {
+        long counted = 0;
+        for (Integer key : probes) {
+            counted += counts.getOrDefault(key, 0);
+        }
+        return counted;
+    }
+
+    private static RBTree<Integer> countWithMultiset(Integer[] events) {
+        RBTree<Integer> tree = new RBTree<>(true);
+        for (Integer key : events) {
+            tree.insert(key);
+        }
+        return tree;
+    }
+
+    private static RBTree<Integer> countWithDuplicates(Integer[] events) {
+        RBTree<Integer> tree = new RBTree<>();
+        for (Integer key : events) {
+            tree.insertDuplicate(key);
+        }
+        return tree;
+    }
+
+    private static long probeDuplicates(RBTree<Integer> tree, Integer[] probes) {
+        long counted = 0;
+        for (Integer key : probes) {
+            counted += tree.countRange(key, key + 1);
+        }
+        return counted;
+    }
+
+    private static long probeMultiset(RBTree<Integer> tree, Integer[] probes) {
+        long counted = 0;
+        for (Integer key : probes) {
+            counted += tree.count(key);
+        }
+        return counted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TreeMap<Integer, Integer> treeMap() {
+        return (TreeMap<Integer, Integer>) retained;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RBTree<Integer> multiset() {
+        return (RBTree<Integer>) retained;
+    }
+
+    /**
+     * Keys drawn with probability proportional to 1 / rank.
+     */
+    private static Integer[] zipf(Integer[] keys, int n, Random random) {
+        double[] cdf = new double[keys.length];
+        double sum = 0;
+        for (int i = 0; i < keys.length; i++) {
+            sum += 1.0 / (i + 1);
+            cdf[i] = sum;
+        }
+        Integer[] stream = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            int at = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            stream[i] = keys[Math.min(keys.length - 1, at >= 0 ? at : -at - 1)];
+        }
+        return stream;
+    }
+
+    private static int height(RBTree<Integer>.RBTNode<Integer> node) {
+        return node == null ? 0 : 1 + Math.max(height(node.getLeft()), height(node.getRight()));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
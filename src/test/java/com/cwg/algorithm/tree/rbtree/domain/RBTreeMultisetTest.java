@@ -0,0 +1,141 @@
+package com.cwg.algorithm.tree.rbtree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 创建时间：2026-10-19 09:20
+ *
+ * @author 曹文岗
+ **/
+public class RBTreeMultisetTest {
+
+    @Test
+    public void matchesCountingMap() {
+        RBTree<Integer> tree = new RBTree<>(true);
+        assertTrue(tree.isMultiset());
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        long total = 0;
+        Random random = new Random(9);
+        for (int i = 0; i < 30000; i++) {
+            int key = random.nextInt(300);
+            int before = expected.getOrDefault(key, 0);
+            int n = random.nextInt(5);
+            switch (random.nextInt(4)) {
+                case 0:
+                    tree.insert(key);
+                    expected.put(key, before + 1);
+                    total++;
+                    break;
+                case 1:
+                    assertEquals(before, tree.add(key, n));
+                    if (before + n > 0) {
+                        expected.put(key, before + n);
+                    }
+                    total += n;
+                    break;
+                case 2:
+                    assertEquals(before > 0, tree.remove(key));
+                    if (before > 0) {
+                        decrement(expected, key, 1);
+                        total--;
+                    }
+                    break;
+                default:
+                    assertEquals(before, tree.removeOccurrences(key, n));
+                    decrement(expected, key, n);
+                    total -= Math.min(n, before);
+                    break;
+            }
+            assertEquals(expected.size(), tree.size());
+            assertEquals(total, tree.totalSize());
+            if (i % 1000 == 0) {
+                RBTreeTest.checkNode(tree.getMRoot());
+                assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(tree));
+                for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+                    assertEquals(entry.getValue().intValue(), tree.count(entry.getKey()));
+                }
+                assertEquals(0, tree.count(-1));
+            }
+        }
+        //polling drops a key with all its occurrences
+        Map.Entry<Integer, Integer> first = expected.pollFirstEntry();
+        assertEquals(first.getKey(), tree.pollFirst());
+        assertEquals(total - first.getValue(), tree.totalSize());
+        tree.clear();
+        assertEquals(0, tree.totalSize());
+    }
+
+    private static void decrement(TreeMap<Integer, Integer> counts, int key, int n) {
+        Integer count = counts.get(key);
+        if (count == null) {
+            return;
+        }
+        if (count > n) {
+            counts.put(key, count - n);
+        } else {
+            counts.remove(key);
+        }
+    }
+
+    @Test
+    public void hotKeyKeepsOneNode() {
+        RBTree<Integer> tree = new RBTree<>(true);
+        for (int i = 0; i < 100000; i++) {
+            tree.insert(7);
+        }
+        tree.add(3, 5);
+        assertEquals(2, tree.size());
+        assertEquals(100005, tree.totalSize());
+        assertEquals(100000, tree.count(7));
+        assertEquals(100000, tree.removeOccurrences(7, 99999));
+        assertEquals(1, tree.count(7));
+        assertTrue(tree.remove(7));
+        assertFalse(tree.contains(7));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void keepsKeysDistinctWithoutMultiset() {
+        RBTree<Integer> tree = new RBTree<>();
+        assertFalse(tree.isMultiset());
+        assertEquals(0, tree.add(5, 3));
+        assertEquals(1, tree.add(5, 2));
+        tree.insert(4);
+        tree.insert(6);
+        tree.insert(6);
+        assertEquals(1, tree.count(5));
+        assertEquals(3, tree.size());
+        assertEquals(3, tree.totalSize());
+        assertEquals(1, tree.removeOccurrences(5, 2));
+        assertEquals(0, tree.count(5));
+        assertEquals(2, tree.totalSize());
+        RBTreeTest.checkNode(tree.getMRoot());
+    }
+
+    @Test
+    public void insertDuplicateKeepsChains() {
+        RBTree<Integer> tree = new RBTree<>();
+        Random random = new Random(5);
+        int[] counts = new int[50];
+        for (int i = 0; i < 3000; i++) {
+            int key = random.nextInt(counts.length);
+            tree.insertDuplicate(key);
+            counts[key]++;
+        }
+        assertEquals(3000, tree.size());
+        assertEquals(3000, tree.totalSize());
+        for (int key = 0; key < counts.length; key++) {
+            assertEquals(counts[key], tree.countRange(key, key + 1));
+        }
+        RBTreeTest.checkNode(tree.getMRoot());
+    }
+}
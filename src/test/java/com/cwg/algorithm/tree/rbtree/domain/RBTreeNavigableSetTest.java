@@ -0,0 +1,197 @@
+package com.cwg.algorithm.tree.rbtree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 创建时间：2026-10-19 08:40
+ *
+ * @author 曹文岗
+ **/
+public class RBTreeNavigableSetTest {
+
+    @Test
+    public void matchesTreeSet() {
+        RBTree<Integer> tree = new RBTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000);
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    assertEquals(expected.add(key), tree.add(key));
+                    break;
+                case 2:
+                    assertEquals(expected.remove(key), tree.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.pollFirst(), tree.pollFirst());
+                    break;
+            }
+            if (i % 500 == 0) {
+                compare(expected, tree, random);
+                NavigableSet<Integer> expectedView = expected;
+                NavigableSet<Integer> view = tree;
+                //random nested views, ascending and descending
+                for (int depth = 0; depth < 4; depth++) {
+                    int kind = random.nextInt(4);
+                    int a = random.nextInt(1100) - 50;
+                    int b = random.nextInt(1100) - 50;
+                    boolean ai = random.nextBoolean();
+                    boolean bi = random.nextBoolean();
+                    NavigableSet<Integer> nextExpected;
+                    try {
+                        nextExpected = view(expectedView, kind, a, b, ai, bi);
+                    } catch (IllegalArgumentException e) {
+                        try {
+                            view(view, kind, a, b, ai, bi);
+                            fail();
+                        } catch (IllegalArgumentException outOfRange) {
+                            //both reject it
+                        }
+                        break;
+                    }
+                    expectedView = nextExpected;
+                    view = view(view, kind, a, b, ai, bi);
+                    compare(expectedView, view, random);
+                }
+            }
+        }
+    }
+
+    private static NavigableSet<Integer> view(NavigableSet<Integer> set, int kind, int a, int b, boolean ai, boolean bi) {
+        switch (kind) {
+            case 0:
+                //bounds in the order of the set, which may be descending
+                boolean ascending = set.comparator() == null;
+                return set.subSet(ascending ? Math.min(a, b) : Math.max(a, b), ai,
+                        ascending ? Math.max(a, b) : Math.min(a, b), bi);
+            case 1:
+                return set.headSet(a, ai);
+            case 2:
+                return set.tailSet(a, ai);
+            default:
+                return set.descendingSet();
+        }
+    }
+
+    private static void compare(NavigableSet<Integer> expected, NavigableSet<Integer> actual, Random random) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        List<Integer> descending = new ArrayList<>();
+        for (Iterator<Integer> it = actual.descendingIterator(); it.hasNext(); ) {
+            descending.add(it.next());
+        }
+        assertEquals(new ArrayList<>(expected.descendingSet()), descending);
+        if (!expected.isEmpty()) {
+            assertEquals(expected.first(), actual.first());
+            assertEquals(expected.last(), actual.last());
+        }
+        for (int i = 0; i < 50; i++) {
+            int key = random.nextInt(1100) - 50;
+            assertEquals(expected.floor(key), actual.floor(key));
+            assertEquals(expected.ceiling(key), actual.ceiling(key));
+            assertEquals(expected.higher(key), actual.higher(key));
+            assertEquals(expected.lower(key), actual.lower(key));
+            assertEquals(expected.contains(key), actual.contains(key));
+        }
+    }
+
+    @Test
+    public void viewsWriteThrough() {
+        RBTree<Integer> tree = new RBTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 1000; i += 2) {
+            tree.add(i);
+            expected.add(i);
+        }
+        NavigableSet<Integer> view = tree.subSet(100, true, 200, false);
+        assertEquals(50, view.size());
+        assertTrue(view.add(101));
+        expected.add(101);
+        assertFalse(view.remove(300));
+        assertEquals(Integer.valueOf(100), view.pollFirst());
+        expected.remove(100);
+        assertEquals(Integer.valueOf(198), view.descendingSet().pollFirst());
+        expected.remove(198);
+        try {
+            view.add(200);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //out of range
+        }
+        try {
+            view.headSet(250);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //out of range
+        }
+        //iterator remove drops every other key of the view
+        boolean drop = true;
+        for (Iterator<Integer> it = view.iterator(); it.hasNext(); ) {
+            Integer key = it.next();
+            if (drop) {
+                it.remove();
+                expected.remove(key);
+            }
+            drop = !drop;
+        }
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(tree));
+        assertEquals(expected.subSet(100, 200).size(), view.size());
+        view.clear();
+        assertTrue(view.isEmpty());
+        expected.subSet(100, 200).clear();
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(tree));
+        assertEquals(expected.size(), tree.size());
+    }
+
+    @Test
+    public void iteratorFailsFast() {
+        RBTree<Integer> tree = new RBTree<>();
+        for (int i = 0; i < 10; i++) {
+            tree.add(i);
+        }
+        Iterator<Integer> it = tree.iterator();
+        it.next();
+        tree.add(100);
+        try {
+            it.next();
+            fail();
+        } catch (ConcurrentModificationException e) {
+            //expected
+        }
+        //insert() keeps keys distinct like add()
+        tree.insert(5);
+        tree.insert(5);
+        assertEquals(11, tree.size());
+        assertEquals(1, tree.subSet(5, true, 5, true).size());
+        assertEquals(1, tree.add(5, 3));
+        assertEquals(11, tree.size());
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(i);
+        }
+        expected.add(100);
+        assertEquals(expected, tree);
+        assertEquals(tree, expected);
+        assertEquals(expected.hashCode(), tree.hashCode());
+        assertTrue(tree.remove(5));
+        assertFalse(tree.remove(5));
+    }
+}
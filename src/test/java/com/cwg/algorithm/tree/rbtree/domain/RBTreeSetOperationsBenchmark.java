@@ -0,0 +1,114 @@
+package com.cwg.algorithm.tree.rbtree.domain;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@link RBTree#union}, {@link RBTree#intersect} and {@link RBTree#difference} in pools of 1 to 16 threads against iterate-and-insert:
+ * adding every key of b to a, and building the intersection or difference by walking a and
+ * inserting the keys that pass {@code b.contains} into a new tree. Two shapes: a and b of 1M
+ * random keys each, and 1M keys against 10k. Both operands are rebuilt with
+ * {@link RBTree#fromSorted} outside the timing before each run, since these operations
+ * consume them.
+ *
+ * 创建时间：2026-10-19 11:10
+ *
+ * @author 曹文岗
+ **/
+public class RBTreeSetOperationsBenchmark {
+
+    private static final int LARGE = 1_000_000;
+    private static final int SMALL = 10_000;
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+
+    public static void main(String[] args) {
+        Random random = new Random(12);
+        Integer[] a = sortedKeys(random, LARGE);
+        Integer[] b = sortedKeys(random, LARGE);
+        Integer[] small = sortedKeys(random, SMALL);
+        System.out.printf("available processors %d%n", Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 2; round++) {
+            run("1M vs 1M", a, b);
+            run("1M vs 10k", a, small);
+        }
+    }
+
+    private static void run(String shape, Integer[] a, Integer[] b) {
+        for (String operation : new String[]{"union", "intersect", "difference"}) {
+            StringBuilder line = new StringBuilder(String.format("%-10s %-10s ms  insert %7.1f", shape, operation,
+                    iterateAndInsert(operation, a, b) / 1e6));
+            for (int threads : THREADS) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                line.append(String.format("  %2d threads %6.1f", threads, setOperation(operation, a, b, pool) / 1e6));
+                pool.shutdown();
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static long iterateAndInsert(String operation, Integer[] a, Integer[] b) {
+        RBTree<Integer> first = RBTree.fromSorted(a);
+        RBTree<Integer> second = RBTree.fromSorted(b);
+        gc();
+        long start = System.nanoTime();
+        RBTree<Integer> result;
+        if ("union".equals(operation)) {
+            for (Integer key : second) {
+                first.add(key);
+            }
+            result = first;
+        } else {
+            boolean keep = "intersect".equals(operation);
+            result = new RBTree<>();
+            for (Integer key : first) {
+                if (second.contains(key) == keep) {
+                    result.insert(key);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(result.size());
+        return elapsed;
+    }
+
+    private static long setOperation(String operation, Integer[] a, Integer[] b, ForkJoinPool pool) {
+        RBTree<Integer> first = RBTree.fromSorted(a);
+        RBTree<Integer> second = RBTree.fromSorted(b);
+        gc();
+        long start = System.nanoTime();
+        RBTree<Integer> result;
+        if ("union".equals(operation)) {
+            result = RBTree.union(first, second, pool);
+        } else if ("intersect".equals(operation)) {
+            result = RBTree.intersect(first, second, pool);
+        } else {
+            result = RBTree.difference(first, second, pool);
+        }
+        long elapsed = System.nanoTime() - start;
+        consume(result.size());
+        return elapsed;
+    }
+
+    private static Integer[] sortedKeys(Random random, int size) {
+        int[] keys = random.ints(0, 4 * LARGE).distinct().limit(size).toArray();
+        Arrays.sort(keys);
+        Integer[] boxed = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxed[i] = keys[i];
+        }
+        return boxed;
+    }
+
+    private static void gc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+    }
+
+    private static void consume(int size) {
+        if (size == 42) {
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.cwg.algorithm.tree.rbtree.domain;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 创建时间：2026-10-19 10:40
+ *
+ * @author 曹文岗
+ **/
+public class RBTreeSetOperationsTest {
+
+    @Test
+    public void splitAndJoin() {
+        Random random = new Random(8);
+        for (int round = 0; round < 300; round++) {
+            TreeSet<Integer> expected = randomSet(random, random.nextInt(500), 1000);
+            RBTree<Integer> tree = build(expected, random);
+            int key = random.nextInt(1100) - 50;
+            RBTree<Integer> right = tree.split(key);
+            check(expected.headSet(key, false), tree);
+            check(expected.tailSet(key, true), right);
+
+            //join them back around a key between the two halves
+            Integer middle = right.isEmpty() ? Integer.valueOf(2000) : right.pollFirst();
+            RBTree<Integer> joined = RBTree.join(tree, middle, right);
+            expected.add(middle);
+            check(expected, joined);
+            assertTrue(tree.isEmpty());
+            assertTrue(right.isEmpty());
+            //and the result is an ordinary tree again
+            for (int i = 0; i < 100; i++) {
+                int k = random.nextInt(2100);
+                assertEquals(expected.add(k), joined.add(k));
+                k = random.nextInt(2100);
+                assertEquals(expected.remove(k), joined.remove(k));
+            }
+            check(expected, joined);
+        }
+    }
+
+    @Test
+    public void joinTreesOfDifferentHeights() {
+        Random random = new Random(9);
+        for (int round = 0; round < 300; round++) {
+            //a small tree on one side, a large one on the other
+            int smallSize = random.nextInt(20);
+            int largeSize = random.nextInt(3000);
+            boolean smallLeft = random.nextBoolean();
+            TreeSet<Integer> left = new TreeSet<>();
+            TreeSet<Integer> right = new TreeSet<>();
+            for (int i = 0; i < (smallLeft ? smallSize : largeSize); i++) {
+                left.add(i);
+            }
+            for (int i = 0; i < (smallLeft ? largeSize : smallSize); i++) {
+                right.add(5000 + i);
+            }
+            RBTree<Integer> leftTree = build(left, random);
+            RBTree<Integer> rightTree = build(right, random);
+            TreeSet<Integer> expected = new TreeSet<>(left);
+            expected.add(4000);
+            expected.addAll(right);
+            check(expected, RBTree.join(leftTree, 4000, rightTree));
+            assertTrue(leftTree.isEmpty());
+            assertTrue(rightTree.isEmpty());
+        }
+    }
+
+    @Test
+    public void rejectsUnorderedJoin() {
+        RBTree<Integer> left = new RBTree<>();
+        left.add(5);
+        RBTree<Integer> right = new RBTree<>();
+        right.add(10);
+        try {
+            RBTree.join(left, 11, right);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //10 < 11
+        }
+        try {
+            RBTree.join(left, 5, right);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //5 is already in left
+        }
+        try {
+            RBTree.join(left, 10, right);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //10 is already in right
+        }
+        try {
+            new RBTree<Integer>(true).split(1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            //multiset mode
+        }
+        assertEquals(1, left.size());
+        assertEquals(1, right.size());
+    }
+
+    @Test
+    public void setOperations() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Random random = new Random(10);
+        for (int round = 0; round < 300; round++) {
+            //sizes from empty to far apart, ranges overlapping or not
+            int aSize = round % 10 == 0 ? 0 : random.nextInt(round < 200 ? 300 : 3000);
+            int bSize = round % 7 == 0 ? 0 : random.nextInt(round % 2 == 0 ? 30 : 3000);
+            TreeSet<Integer> a = randomSet(random, aSize, 4000);
+            TreeSet<Integer> b = randomSet(random, bSize, random.nextBoolean() ? 4000 : 8000);
+
+            TreeSet<Integer> expected = new TreeSet<>(a);
+            expected.addAll(b);
+            check(expected, RBTree.union(build(a, random), build(b, random), pool));
+
+            expected = new TreeSet<>(a);
+            expected.retainAll(b);
+            check(expected, RBTree.intersect(build(a, random), build(b, random), pool));
+
+            expected = new TreeSet<>(a);
+            expected.removeAll(b);
+            check(expected, RBTree.difference(build(a, random), build(b, random), pool));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void setOperationsConsumeOperands() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Random random = new Random(12);
+        for (int round = 0; round < 100; round++) {
+            TreeSet<Integer> a = randomSet(random, random.nextInt(2000), 4000);
+            TreeSet<Integer> b = randomSet(random, random.nextInt(round % 2 == 0 ? 30 : 2000), 4000);
+            RBTree<Integer> first = build(a, random);
+            RBTree<Integer> second = build(b, random);
+            TreeSet<Integer> expected = new TreeSet<>(a);
+            expected.removeAll(b);
+            check(expected, RBTree.difference(first, second, pool));
+            //both operands are emptied and stay usable
+            check(new TreeSet<>(), first);
+            check(new TreeSet<>(), second);
+            first.add(1);
+            assertEquals(1, first.size());
+            try {
+                RBTree.union(first, first, pool);
+                fail();
+            } catch (IllegalArgumentException e) {
+                //the same tree twice
+            }
+            assertEquals(1, first.size());
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void largeSetOperationsInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Random random = new Random(11);
+        TreeSet<Integer> a = randomSet(random, 100000, 400000);
+        TreeSet<Integer> b = randomSet(random, 60000, 400000);
+        RBTree<Integer> first = build(a, random);
+        RBTree<Integer> second = build(b, random);
+
+        TreeSet<Integer> expected = new TreeSet<>(a);
+        expected.addAll(b);
+        RBTree<Integer> union = RBTree.union(first, second, pool);
+        check(expected, union);
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+
+        expected = new TreeSet<>(a);
+        expected.retainAll(b);
+        check(expected, RBTree.intersect(build(a, random), build(b, random), pool));
+
+        expected = new TreeSet<>(a);
+        expected.removeAll(b);
+        check(expected, RBTree.difference(build(a, random), build(b, random), pool));
+        pool.shutdown();
+    }
+
+    private static TreeSet<Integer> randomSet(Random random, int size, int bound) {
+        TreeSet<Integer> set = new TreeSet<>();
+        while (set.size() < Math.min(size, bound)) {
+            set.add(random.nextInt(bound));
+        }
+        return set;
+    }
+
+    /**
+     * Built both ways so that trees with and without red nodes take part.
+     */
+    private static RBTree<Integer> build(TreeSet<Integer> keys, Random random) {
+        if (random.nextBoolean()) {
+            return RBTree.fromSorted(keys.iterator(), keys.size());
+        }
+        RBTree<Integer> tree = new RBTree<>();
+        for (Integer key : keys) {
+            tree.add(key);
+        }
+        return tree;
+    }
+
+    private static void check(NavigableSet<Integer> expected, RBTree<Integer> tree) {
+        assertEquals(expected.size(), tree.size());
+        assertEquals(expected.size(), tree.totalSize());
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(tree));
+        if (tree.getMRoot() != null) {
+            assertTrue(tree.getMRoot().isColor());
+            assertNull(tree.getMRoot().getParent());
+        }
+        RBTreeTest.checkNode(tree.getMRoot());
+    }
+}
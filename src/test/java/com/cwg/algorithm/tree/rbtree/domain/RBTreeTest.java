@@ -2,6 +2,14 @@ package com.cwg.algorithm.tree.rbtree.domain;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
 import static org.junit.Assert.*;
 
 /**
@@ -31,4 +39,154 @@ public class RBTreeTest {
         assertEquals(5, rbTree.getMRoot().getKey().intValue());
     }
 
+    @Test
+    public void orderStatistics(){
+        RBTree<Integer> rbTree = new RBTree<>();
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(3) > 0) {
+                rbTree.insert(key);
+                int at = Collections.binarySearch(expected, key);
+                if (at < 0) {
+                    expected.add(-at - 1, key);
+                }
+            } else {
+                rbTree.remove(key);
+                expected.remove(Integer.valueOf(key));
+            }
+            if (i % 1000 == 0) {
+                check(rbTree, expected, random);
+            }
+        }
+        check(rbTree, expected, random);
+    }
+
+    @Test
+    public void fromSorted(){
+        Random random = new Random(2);
+        for (int size = 0; size <= 600; size++) {
+            Integer[] keys = new Integer[size];
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                keys[i] = 2 * i;
+                expected.add(2 * i);
+            }
+            //both overloads, the iterator one with more keys than it takes
+            RBTree<Integer> rbTree = size % 2 == 0 ? RBTree.fromSorted(keys)
+                    : RBTree.fromSorted(Arrays.asList(keys).iterator(), size);
+            checkRoot(rbTree);
+            check(rbTree, expected, random);
+            if (Integer.bitCount(size + 1) == 1) {
+                //every level full
+                assertEquals(0, countRed(rbTree.getMRoot()));
+            }
+
+            //and it is an ordinary tree afterwards
+            TreeSet<Integer> set = new TreeSet<>(expected);
+            for (int i = 0; i < 50; i++) {
+                int key = random.nextInt(2 * size + 10);
+                assertEquals(set.add(key), rbTree.add(key));
+                key = random.nextInt(2 * size + 10);
+                assertEquals(set.remove(key), rbTree.remove(key));
+            }
+            checkRoot(rbTree);
+            check(rbTree, new ArrayList<>(set), random);
+        }
+
+        RBTree<Integer> prefix = RBTree.fromSorted(Arrays.asList(1, 2, 3, 4).iterator(), 2);
+        assertEquals(Arrays.asList(1, 2), new ArrayList<>(prefix));
+        try {
+            RBTree.fromSorted(Arrays.asList(1, 2).iterator(), 3);
+            fail();
+        } catch (NoSuchElementException e) {
+            //fewer keys than size
+        }
+        //unordered keys are a broken precondition, caught only when assertions are on
+        assertEquals(RBTree.class.desiredAssertionStatus(), rejected(new Integer[]{1, 3, 3, 5}));
+        assertEquals(RBTree.class.desiredAssertionStatus(), rejected(new Integer[]{1, 5, 3}));
+    }
+
+    private static boolean rejected(Integer[] keys) {
+        try {
+            RBTree.fromSorted(keys);
+            return false;
+        } catch (AssertionError e) {
+            return true;
+        }
+    }
+
+    private static void checkRoot(RBTree<Integer> rbTree) {
+        if (rbTree.getMRoot() != null) {
+            assertTrue(rbTree.getMRoot().isColor());
+            assertNull(rbTree.getMRoot().getParent());
+        }
+    }
+
+    private static int countRed(RBTree<Integer>.RBTNode<Integer> node) {
+        if (node == null) {
+            return 0;
+        }
+        return (node.isColor() ? 0 : 1) + countRed(node.getLeft()) + countRed(node.getRight());
+    }
+
+    private static void check(RBTree<Integer> rbTree, List<Integer> expected, Random random) {
+        assertEquals(expected.size(), rbTree.size());
+        checkNode(rbTree.getMRoot());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), rbTree.select(i));
+        }
+        for (int i = 0; i < 200; i++) {
+            int a = random.nextInt(2200) - 100;
+            int b = random.nextInt(2200) - 100;
+            assertEquals(lowerBound(expected, a), rbTree.rank(a));
+            assertEquals(a < b ? lowerBound(expected, b) - lowerBound(expected, a) : 0, rbTree.countRange(a, b));
+        }
+    }
+
+    /**
+     * Check subtree sizes, red children and black heights.
+     *
+     * @return black height of subtree.
+     */
+    static int checkNode(RBTree<Integer>.RBTNode<Integer> node) {
+        if (node == null) {
+            return 1;
+        }
+        int size = 1;
+        if (node.getLeft() != null) {
+            size += node.getLeft().getSize();
+            assertSame(node, node.getLeft().getParent());
+            assertTrue(node.getLeft().getKey() <= node.getKey());
+        }
+        if (node.getRight() != null) {
+            size += node.getRight().getSize();
+            assertSame(node, node.getRight().getParent());
+            assertTrue(node.getRight().getKey() >= node.getKey());
+        }
+        assertEquals(size, node.getSize());
+        if (!node.isColor()) {
+            assertTrue(node.getLeft() == null || node.getLeft().isColor());
+            assertTrue(node.getRight() == null || node.getRight().isColor());
+        }
+        int left = checkNode(node.getLeft());
+        assertEquals(left, checkNode(node.getRight()));
+        return left + (node.isColor() ? 1 : 0);
+    }
+
+    private static int lowerBound(List<Integer> sorted, int key) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted.get(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
 }